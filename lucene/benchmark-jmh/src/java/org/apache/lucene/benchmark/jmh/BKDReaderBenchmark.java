@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PointValues.IntersectVisitor;
+import org.apache.lucene.index.PointValues.Relation;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PointValues#intersect} on a single-segment index of
+ * {@link LongPoint}s, for range queries of various selectivities.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BKDReaderBenchmark {
+
+  private static final String FIELD = "timestamp";
+  private static final int NUM_DOCS = 1_000_000;
+  private static final long MAX_VALUE = 1L << 40;
+
+  /** Fraction of the value space matched by the query, in percent. */
+  @Param({"0.01", "1", "10", "50"})
+  public double selectivity;
+
+  private Path path;
+  private Directory dir;
+  private DirectoryReader reader;
+  private PointValues points;
+  private byte[] lowerPoint, upperPoint;
+
+  @Setup
+  public void setup() throws IOException {
+    path = Files.createTempDirectory("bkdreader");
+    dir = new MMapDirectory(path);
+    Random r = new Random(42);
+    try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig())) {
+      Document doc = new Document();
+      LongPoint field = new LongPoint(FIELD, 0L);
+      doc.add(field);
+      for (int i = 0; i < NUM_DOCS; ++i) {
+        field.setLongValue((r.nextLong() & Long.MAX_VALUE) % MAX_VALUE);
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+    }
+    reader = DirectoryReader.open(dir);
+    points = reader.leaves().get(0).reader().getPointValues(FIELD);
+
+    long width = (long) (MAX_VALUE * selectivity / 100);
+    long lower = (MAX_VALUE - width) / 2;
+    lowerPoint = new byte[Long.BYTES];
+    upperPoint = new byte[Long.BYTES];
+    LongPoint.encodeDimension(lower, lowerPoint, 0);
+    LongPoint.encodeDimension(lower + width, upperPoint, 0);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    IOUtils.close(reader, dir);
+    IOUtils.rm(path);
+  }
+
+  @Benchmark
+  public int intersect() throws IOException {
+    RangeCountingVisitor visitor = new RangeCountingVisitor(lowerPoint, upperPoint);
+    points.intersect(visitor);
+    return visitor.count;
+  }
+
+  @Benchmark
+  public long estimatePointCount() {
+    return points.estimatePointCount(new RangeCountingVisitor(lowerPoint, upperPoint));
+  }
+
+  private static class RangeCountingVisitor implements IntersectVisitor {
+
+    private final byte[] lower, upper;
+    int count;
+
+    RangeCountingVisitor(byte[] lower, byte[] upper) {
+      this.lower = lower;
+      this.upper = upper;
+    }
+
+    @Override
+    public void visit(int docID) {
+      count++;
+    }
+
+    @Override
+    public void visit(int docID, byte[] packedValue) {
+      if (compareBytes(packedValue, lower) >= 0 && compareBytes(packedValue, upper) <= 0) {
+        count++;
+      }
+    }
+
+    @Override
+    public Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+      if (compareBytes(maxPackedValue, lower) < 0 || compareBytes(minPackedValue, upper) > 0) {
+        return Relation.CELL_OUTSIDE_QUERY;
+      }
+      if (compareBytes(minPackedValue, lower) >= 0 && compareBytes(maxPackedValue, upper) <= 0) {
+        return Relation.CELL_INSIDE_QUERY;
+      }
+      return Relation.CELL_CROSSES_QUERY;
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+      return Arrays.compareUnsigned(a, 0, Long.BYTES, b, 0, Long.BYTES);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link BytesRefHash#add(BytesRef)}, the hot path of the indexing
+ * chain's term dictionary, for a given number of unique terms among the added ones.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BytesRefHashBenchmark {
+
+  private static final int NUM_ADDS = 1 << 16;
+
+  @Param({"100", "10000", "65536"})
+  public int numUniqueTerms;
+
+  private BytesRef[] terms;
+  private final BytesRefHash hash = new BytesRefHash();
+
+  @Setup
+  public void setup() {
+    Random r = new Random(42);
+    BytesRef[] unique = new BytesRef[numUniqueTerms];
+    for (int i = 0; i < numUniqueTerms; ++i) {
+      unique[i] = new BytesRef("term" + r.nextInt() + "_" + i);
+    }
+    terms = new BytesRef[NUM_ADDS];
+    for (int i = 0; i < NUM_ADDS; ++i) {
+      terms[i] = unique[r.nextInt(numUniqueTerms)];
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_ADDS)
+  public int add() {
+    hash.clear();
+    int sum = 0;
+    for (BytesRef term : terms) {
+      sum += hash.add(term);
+    }
+    return sum;
+  }
+}
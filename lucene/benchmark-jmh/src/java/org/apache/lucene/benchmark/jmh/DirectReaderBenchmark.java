@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.packed.DirectMonotonicReader;
+import org.apache.lucene.util.packed.DirectMonotonicWriter;
+import org.apache.lucene.util.packed.DirectReader;
+import org.apache.lucene.util.packed.DirectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures sequential and random reads through {@link DirectReader} and
+ * {@link DirectMonotonicReader} over a memory-mapped file, which is how doc
+ * values are accessed at search time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectReaderBenchmark {
+
+  private static final int NUM_VALUES = 1 << 20;
+  private static final int NUM_READS = 1024;
+
+  @Param({"1", "2", "4", "8", "12", "16", "20", "24", "28", "32", "40", "48", "56", "64"})
+  public int bitsPerValue;
+
+  private Path path;
+  private Directory dir;
+  private IndexInput packedIn, monotonicDataIn;
+  private LongValues packed;
+  private DirectMonotonicReader monotonic;
+  private long[] randomIndexes;
+  private long[] monotonicTargets;
+
+  @Setup
+  public void setup() throws IOException {
+    path = Files.createTempDirectory("directreader");
+    dir = new MMapDirectory(path);
+    Random r = new Random(42);
+
+    try (IndexOutput out = dir.createOutput("packed", IOContext.DEFAULT)) {
+      DirectWriter writer = DirectWriter.getInstance(out, NUM_VALUES, bitsPerValue);
+      long mask = bitsPerValue == 64 ? -1L : (1L << bitsPerValue) - 1;
+      for (int i = 0; i < NUM_VALUES; ++i) {
+        writer.add(r.nextLong() & mask);
+      }
+      writer.finish();
+    }
+
+    final int blockShift = 16;
+    long[] monotonicValues = new long[NUM_VALUES];
+    try (IndexOutput metaOut = dir.createOutput("monotonic.meta", IOContext.DEFAULT);
+        IndexOutput dataOut = dir.createOutput("monotonic.data", IOContext.DEFAULT)) {
+      DirectMonotonicWriter writer = DirectMonotonicWriter.getInstance(metaOut, dataOut, NUM_VALUES, blockShift);
+      long value = 0;
+      for (int i = 0; i < NUM_VALUES; ++i) {
+        value += r.nextInt(1 << 10);
+        monotonicValues[i] = value;
+        writer.add(value);
+      }
+      writer.finish();
+    }
+
+    packedIn = dir.openInput("packed", IOContext.DEFAULT);
+    packed = DirectReader.getInstance(packedIn.randomAccessSlice(0, packedIn.length()), bitsPerValue);
+
+    DirectMonotonicReader.Meta meta;
+    try (IndexInput metaIn = dir.openInput("monotonic.meta", IOContext.READONCE)) {
+      meta = DirectMonotonicReader.loadMeta(metaIn, NUM_VALUES, blockShift);
+    }
+    monotonicDataIn = dir.openInput("monotonic.data", IOContext.DEFAULT);
+    monotonic = DirectMonotonicReader.getInstance(meta, monotonicDataIn.randomAccessSlice(0, monotonicDataIn.length()));
+
+    randomIndexes = new long[NUM_READS];
+    monotonicTargets = new long[NUM_READS];
+    for (int i = 0; i < NUM_READS; ++i) {
+      randomIndexes[i] = r.nextInt(NUM_VALUES);
+      monotonicTargets[i] = monotonicValues[r.nextInt(NUM_VALUES)];
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    IOUtils.close(packedIn, monotonicDataIn, dir);
+    IOUtils.rm(path);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_READS)
+  public long directReaderSequential() {
+    long sum = 0;
+    for (int i = 0; i < NUM_READS; ++i) {
+      sum += packed.get(i);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_READS)
+  public long directReaderRandom() {
+    long sum = 0;
+    for (long index : randomIndexes) {
+      sum += packed.get(index);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_READS)
+  public long directMonotonicRandom() {
+    long sum = 0;
+    for (long index : randomIndexes) {
+      sum += monotonic.get(index);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_READS)
+  public long directMonotonicBinarySearch() {
+    long sum = 0;
+    for (long target : monotonicTargets) {
+      sum += monotonic.binarySearch(0, NUM_VALUES, target);
+    }
+    return sum;
+  }
+}
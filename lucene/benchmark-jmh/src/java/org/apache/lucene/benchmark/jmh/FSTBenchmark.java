@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.FSTCompiler;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures exact-match lookups with {@link Util#get(FST, BytesRef)} in an FST
+ * mapping terms to ordinals, for both existing and missing terms.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FSTBenchmark {
+
+  private static final int NUM_LOOKUPS = 1024;
+
+  @Param({"10000", "1000000"})
+  public int numTerms;
+
+  private FST<Long> fst;
+  private BytesRef[] hits, misses;
+
+  @Setup
+  public void setup() throws IOException {
+    Random r = new Random(42);
+    BytesRef[] terms = new BytesRef[numTerms];
+    for (int i = 0; i < numTerms; ++i) {
+      terms[i] = randomTerm(r);
+    }
+    Arrays.sort(terms);
+
+    FSTCompiler<Long> compiler = new FSTCompiler<>(FST.INPUT_TYPE.BYTE1, PositiveIntOutputs.getSingleton());
+    IntsRefBuilder scratch = new IntsRefBuilder();
+    BytesRef previous = null;
+    long ord = 0;
+    for (BytesRef term : terms) {
+      if (term.equals(previous)) {
+        continue;
+      }
+      compiler.add(Util.toIntsRef(term, scratch), ord++);
+      previous = term;
+    }
+    fst = compiler.compile();
+
+    hits = new BytesRef[NUM_LOOKUPS];
+    misses = new BytesRef[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; ++i) {
+      hits[i] = terms[r.nextInt(terms.length)];
+      // terms of this length are never indexed
+      BytesRef miss = randomTerm(r);
+      miss.length = 3;
+      misses[i] = miss;
+    }
+  }
+
+  /** Returns a term of 4 to 16 lowercase ASCII letters. */
+  private static BytesRef randomTerm(Random r) {
+    byte[] bytes = new byte[4 + r.nextInt(13)];
+    for (int j = 0; j < bytes.length; ++j) {
+      bytes[j] = (byte) ('a' + r.nextInt(26));
+    }
+    return new BytesRef(bytes);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_LOOKUPS)
+  public long lookupHits() throws IOException {
+    long sum = 0;
+    for (BytesRef term : hits) {
+      sum += Util.get(fst, term);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NUM_LOOKUPS)
+  public int lookupMisses() throws IOException {
+    int found = 0;
+    for (BytesRef term : misses) {
+      if (Util.get(fst, term) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+}
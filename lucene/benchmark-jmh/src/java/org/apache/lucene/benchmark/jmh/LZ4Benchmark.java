@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.compress.LZ4;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link LZ4} compression, with both hash tables, and decompression
+ * of text-like data of the size of stored fields chunks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LZ4Benchmark {
+
+  private static final String[] WORDS = {
+      "lucene", "search", "index", "document", "field", "term", "query", "score",
+      "segment", "merge", "\"id\":", "\"title\":", "\"body\":", "{", "}", "the", "a", "of"
+  };
+
+  @Param({"4096", "16384", "61440"})
+  public int size;
+
+  private byte[] uncompressed, compressed, restored, buffer;
+  private final ByteArrayDataInput in = new ByteArrayDataInput();
+  private ByteArrayDataOutput out;
+  private final LZ4.FastCompressionHashTable fastHashTable = new LZ4.FastCompressionHashTable();
+  private final LZ4.HighCompressionHashTable highHashTable = new LZ4.HighCompressionHashTable();
+
+  @Setup
+  public void setup() throws IOException {
+    Random r = new Random(42);
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < size) {
+      sb.append(WORDS[r.nextInt(WORDS.length)]);
+      if (r.nextInt(4) == 0) {
+        sb.append(r.nextInt(100_000));
+      }
+      sb.append(' ');
+    }
+    uncompressed = new byte[size];
+    System.arraycopy(sb.toString().getBytes(StandardCharsets.UTF_8), 0, uncompressed, 0, size);
+
+    // LZ4 may expand incompressible data slightly
+    buffer = new byte[size + size / 255 + 16];
+    out = new ByteArrayDataOutput(buffer);
+    LZ4.compress(uncompressed, 0, size, out, fastHashTable);
+    compressed = new byte[out.getPosition()];
+    System.arraycopy(buffer, 0, compressed, 0, compressed.length);
+    restored = new byte[size];
+  }
+
+  @Benchmark
+  public int compressFast() throws IOException {
+    out.reset(buffer);
+    LZ4.compress(uncompressed, 0, size, out, fastHashTable);
+    return out.getPosition();
+  }
+
+  @Benchmark
+  public int compressHigh() throws IOException {
+    out.reset(buffer);
+    LZ4.compress(uncompressed, 0, size, out, highHashTable);
+    return out.getPosition();
+  }
+
+  @Benchmark
+  public int decompress() throws IOException {
+    in.reset(compressed);
+    return LZ4.decompress(in, size, restored);
+  }
+}
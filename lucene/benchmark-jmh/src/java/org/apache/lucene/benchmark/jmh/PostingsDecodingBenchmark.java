@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures decoding of postings blocks of the default codec whose values
+ * require {@code bitsPerValue} bits: doc IDs, which are delta-encoded with
+ * fixed bit widths, and positions, which are patched frame-of-reference
+ * encoded. Blocks are decoded through the public {@link PostingsEnum} API,
+ * so results include the per-document overhead of the iterator.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostingsDecodingBenchmark {
+
+  private static final int BLOCK_SIZE = 128;
+  private static final int NUM_BLOCKS = 16;
+  private static final BytesRef TERM = new BytesRef("t");
+
+  @Param({"1", "2", "4", "8", "12", "16"})
+  public int bitsPerValue;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private TermsEnum docsTermsEnum, positionsTermsEnum;
+  private PostingsEnum docsEnum, positionsEnum;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = new ByteBuffersDirectory();
+    Random r = new Random(42);
+    try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig())) {
+      // one large gap per block is enough to make the whole block use
+      // bitsPerValue bits since doc deltas have no exceptions
+      Document empty = new Document();
+      Document match = new Document();
+      match.add(new StringField("docs", TERM, Field.Store.NO));
+      for (int i = 0; i < NUM_BLOCKS; ++i) {
+        int gapIndex = r.nextInt(BLOCK_SIZE);
+        for (int j = 0; j < BLOCK_SIZE; ++j) {
+          if (j == gapIndex) {
+            for (int k = 1; k < 1 << (bitsPerValue - 1); ++k) {
+              w.addDocument(empty);
+            }
+          }
+          w.addDocument(match);
+        }
+      }
+
+      // positions are patched, so most deltas need to use all bits
+      int[] increments = new int[NUM_BLOCKS * BLOCK_SIZE];
+      for (int i = 0; i < increments.length; ++i) {
+        increments[i] = r.nextInt(1 << bitsPerValue);
+      }
+      increments[0] = (1 << bitsPerValue) - 1;
+      Document positions = new Document();
+      positions.add(new TextField("positions", new IncrementsTokenStream(increments)));
+      w.addDocument(positions);
+      w.forceMerge(1);
+    }
+    reader = DirectoryReader.open(dir);
+    LeafReader leaf = reader.leaves().get(0).reader();
+    docsTermsEnum = leaf.terms("docs").iterator();
+    positionsTermsEnum = leaf.terms("positions").iterator();
+    if (docsTermsEnum.seekExact(TERM) == false || positionsTermsEnum.seekExact(TERM) == false) {
+      throw new AssertionError();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    IOUtils.close(reader, dir);
+  }
+
+  @Benchmark
+  public int nextDoc() throws IOException {
+    docsEnum = docsTermsEnum.postings(docsEnum, PostingsEnum.NONE);
+    int sum = 0;
+    for (int doc = docsEnum.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docsEnum.nextDoc()) {
+      sum += doc;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int nextPosition() throws IOException {
+    positionsEnum = positionsTermsEnum.postings(positionsEnum, PostingsEnum.POSITIONS);
+    positionsEnum.nextDoc();
+    int sum = 0;
+    for (int i = positionsEnum.freq(); i > 0; --i) {
+      sum += positionsEnum.nextPosition();
+    }
+    return sum;
+  }
+
+  /** Produces the same term at the given position increments. */
+  private static class IncrementsTokenStream extends TokenStream {
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+    private final int[] increments;
+    private int upto;
+
+    IncrementsTokenStream(int[] increments) {
+      this.increments = increments;
+    }
+
+    @Override
+    public boolean incrementToken() {
+      if (upto == increments.length) {
+        return false;
+      }
+      clearAttributes();
+      termAtt.append(TERM.utf8ToString());
+      // the first token must not have a position increment of 0
+      posIncAtt.setPositionIncrement(upto == 0 ? Math.max(1, increments[0]) : increments[upto]);
+      upto++;
+      return true;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      super.reset();
+      upto = 0;
+    }
+  }
+}
@@ -522,9 +522,20 @@ public final class CodecUtil {
     if (in.length() < footerLength()) {
       throw new CorruptIndexException("misplaced codec footer (file truncated?): length=" + in.length() + " but footerLength==" + footerLength(), input);
     }
-    in.seek(in.length() - footerLength());
+    // stream the file with large reads rather than seeking, which would skip bytes in small chunks:
+    // reads that are larger than the input's buffer go straight to the file
+    final long bodyLength = in.length() - footerLength();
+    final byte[] buffer = new byte[(int) Math.min(CHECKSUM_BUFFER_SIZE, bodyLength)];
+    for (long remaining = bodyLength; remaining > 0; ) {
+      final int len = (int) Math.min(buffer.length, remaining);
+      in.readBytes(buffer, 0, len);
+      remaining -= len;
+    }
     return checkFooter(in);
   }
+
+  /** Size of the reads performed by {@link #checksumEntireFile}. */
+  private static final int CHECKSUM_BUFFER_SIZE = 1 << 16;
   
   /**
    * Reads CRC32 value as a 64-bit long from the input.
@@ -21,6 +21,8 @@ import org.apache.lucene.util.BytesRef;
 
 /** {@link PointValues} whose order of points can be changed.
  *  This class is useful for codecs to optimize flush.
+ *  <p>Codecs may build index structures concurrently, so implementations
+ *  must support concurrent access to disjoint ranges of points.
  *  @lucene.internal */
 public abstract class MutablePointValues extends PointValues {
 
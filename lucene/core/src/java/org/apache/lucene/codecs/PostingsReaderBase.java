@@ -73,6 +73,15 @@ public abstract class PostingsReaderBase implements Closeable, Accountable {
    */
   public abstract ImpactsEnum impacts(FieldInfo fieldInfo, BlockTermState state, int flags) throws IOException;
 
+  /**
+   * Hints that the postings of the given term state are going to be read soon.
+   * The default implementation does nothing.
+   * @see org.apache.lucene.index.TermsEnum#prefetchPostings()
+   * @lucene.experimental
+   */
+  public void prefetch(FieldInfo fieldInfo, BlockTermState state) throws IOException {
+  }
+
   /** 
    * Checks consistency of this reader.
    * <p>
@@ -39,6 +39,17 @@ public abstract class StoredFieldsReader implements Cloneable, Closeable, Accoun
   /** Visit the stored fields for document <code>docID</code> */
   public abstract void visitDocument(int docID, StoredFieldVisitor visitor) throws IOException;
 
+  /**
+   * Optional method: Gives a hint that the stored fields of document <code>docID</code> will be
+   * visited soon. Calling this method for all documents that are about to be visited, e.g. all
+   * hits of a page of results, before visiting them allows the data of these documents to be
+   * fetched concurrently. See {@link org.apache.lucene.store.IndexInput#prefetch}.
+   * <p>
+   * The default implementation is a no-op.
+   */
+  public void prefetch(int docID) throws IOException {
+  }
+
   @Override
   public abstract StoredFieldsReader clone();
   
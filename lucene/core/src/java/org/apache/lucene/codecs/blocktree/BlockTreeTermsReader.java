@@ -35,6 +35,7 @@ import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.Terms;
+import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
@@ -100,6 +101,39 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   /** Current terms format. */
   public static final int VERSION_CURRENT = VERSION_COMPRESSED_SUFFIXES;
 
+  /**
+   * How the terms index of a field should be loaded. This is a reader-side
+   * setting, it is not recorded in the index: it is read from the
+   * {@link SegmentReadState#readerAttributes reader attributes} under
+   * {@link #FST_MODE_KEY}.
+   * @lucene.experimental
+   */
+  public enum FSTLoadMode {
+    /** Copy the terms index to the heap when opening the reader. This is the
+     *  fastest option for lookups, but the terms index then uses heap memory.
+     *  The terms index file is opened with {@link IOContext#LOAD} since it is
+     *  read entirely when opening the reader. */
+    ON_HEAP,
+    /** Read the terms index from the index input directly. It doesn't use
+     *  heap memory. Directories can still be asked to load terms index files
+     *  into physical memory based on their name, e.g. with
+     *  {@link org.apache.lucene.store.MMapDirectory#setPreload(java.util.function.BiPredicate)}. */
+    OFF_HEAP
+  }
+
+  /** Default {@link FSTLoadMode}. */
+  public static final FSTLoadMode DEFAULT_FST_LOAD_MODE = FSTLoadMode.OFF_HEAP;
+
+  /**
+   * Reader attribute that configures the {@link FSTLoadMode} of all fields, see
+   * {@link org.apache.lucene.index.DirectoryReader#open(org.apache.lucene.store.Directory, Map)}.
+   * The value is a {@link FSTLoadMode} or its name. The mode of a single field
+   * can be set with the key <code>FST_MODE_KEY + "." + fieldName</code>, which
+   * takes precedence. Fields default to {@link #DEFAULT_FST_LOAD_MODE}.
+   * @lucene.experimental
+   */
+  public static final String FST_MODE_KEY = "blocktree.terms.fst";
+
   /** Extension of terms index file */
   static final String TERMS_INDEX_EXTENSION = "tip";
   final static String TERMS_INDEX_CODEC_NAME = "BlockTreeTermsIndex";
@@ -122,7 +156,7 @@ public final class BlockTreeTermsReader extends FieldsProducer {
   
   final int version;
 
-  /** Sole constructor. */
+  /** Sole constructor. Terms indices are loaded according to {@link #FST_MODE_KEY}. */
   public BlockTreeTermsReader(PostingsReaderBase postingsReader, SegmentReadState state) throws IOException {
     boolean success = false;
     
@@ -135,7 +169,10 @@ public final class BlockTreeTermsReader extends FieldsProducer {
       version = CodecUtil.checkIndexHeader(termsIn, TERMS_CODEC_NAME, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
 
       String indexName = IndexFileNames.segmentFileName(segment, state.segmentSuffix, TERMS_INDEX_EXTENSION);
-      indexIn = state.directory.openInput(indexName, state.context);
+      // on-heap terms indices are read entirely, let directories know unless the caller has other plans
+      final IOContext indexContext = hasOnHeapField(state) && IOContext.READ.equals(state.context)
+          ? IOContext.LOAD : state.context;
+      indexIn = state.directory.openInput(indexName, indexContext);
       CodecUtil.checkIndexHeader(indexIn, TERMS_INDEX_CODEC_NAME, version, version, state.segmentInfo.getId(), state.segmentSuffix);
 
       // Have PostingsReader init itself
@@ -191,7 +228,8 @@ public final class BlockTreeTermsReader extends FieldsProducer {
         final long indexStartFP = indexIn.readVLong();
         FieldReader previous = fieldMap.put(fieldInfo.name,
                                           new FieldReader(this, fieldInfo, numTerms, rootCode, sumTotalTermFreq, sumDocFreq, docCount,
-                                                          indexStartFP, indexIn, minTerm, maxTerm));
+                                                          indexStartFP, indexIn, minTerm, maxTerm,
+                                                          getFSTLoadMode(state.readerAttributes, fieldInfo.name)));
         if (previous != null) {
           throw new CorruptIndexException("duplicate field: " + fieldInfo.name, termsIn);
         }
@@ -208,6 +246,45 @@ public final class BlockTreeTermsReader extends FieldsProducer {
     }
   }
 
+  /**
+   * Return the {@link FSTLoadMode} of the given field according to the given
+   * reader attributes, see {@link #FST_MODE_KEY}.
+   */
+  static FSTLoadMode getFSTLoadMode(Map<String, Object> readerAttributes, String field) {
+    Object value = readerAttributes.get(FST_MODE_KEY + "." + field);
+    if (value == null) {
+      value = readerAttributes.get(FST_MODE_KEY);
+      if (value == null) {
+        return DEFAULT_FST_LOAD_MODE;
+      }
+    }
+    if (value instanceof FSTLoadMode) {
+      return (FSTLoadMode) value;
+    } else if (value instanceof String) {
+      try {
+        return FSTLoadMode.valueOf((String) value);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid value for " + FST_MODE_KEY + " of field " + field + ": " + value, e);
+      }
+    } else {
+      throw new IllegalArgumentException("Invalid value for " + FST_MODE_KEY + " of field " + field + ": " + value
+          + ", expected a " + FSTLoadMode.class.getSimpleName());
+    }
+  }
+
+  private static boolean hasOnHeapField(SegmentReadState state) {
+    if (state.readerAttributes.isEmpty()) {
+      return false;
+    }
+    for (FieldInfo fieldInfo : state.fieldInfos) {
+      if (fieldInfo.getIndexOptions() != IndexOptions.NONE
+          && getFSTLoadMode(state.readerAttributes, fieldInfo.name) == FSTLoadMode.ON_HEAP) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private static BytesRef readBytesRef(IndexInput in) throws IOException {
     int numBytes = in.readVInt();
     if (numBytes < 0) {
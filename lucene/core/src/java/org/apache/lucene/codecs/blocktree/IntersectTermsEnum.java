@@ -226,6 +226,12 @@ final class IntersectTermsEnum extends BaseTermsEnum {
     return fr.parent.postingsReader.impacts(fr.fieldInfo, currentFrame.termState, flags);
   }
 
+  @Override
+  public void prefetchPostings() throws IOException {
+    currentFrame.decodeMetaData();
+    fr.parent.postingsReader.prefetch(fr.fieldInfo, currentFrame.termState);
+  }
+
   private int getState() {
     int state = currentFrame.state;
     for(int idx=0;idx<currentFrame.suffix;idx++) {
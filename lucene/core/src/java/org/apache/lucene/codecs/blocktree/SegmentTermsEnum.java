@@ -1017,6 +1017,13 @@ final class SegmentTermsEnum extends BaseTermsEnum {
     return fr.parent.postingsReader.impacts(fr.fieldInfo, currentFrame.state, flags);
   }
 
+  @Override
+  public void prefetchPostings() throws IOException {
+    assert !eof;
+    currentFrame.decodeMetaData();
+    fr.parent.postingsReader.prefetch(fr.fieldInfo, currentFrame.state);
+  }
+
   @Override
   public void seekExact(BytesRef target, TermState otherState) {
     // if (DEBUG) {
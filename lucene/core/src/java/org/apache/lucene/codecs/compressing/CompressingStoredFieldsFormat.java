@@ -26,6 +26,7 @@ import org.apache.lucene.codecs.StoredFieldsWriter;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.util.packed.DirectMonotonicWriter;
@@ -124,6 +125,19 @@ public class CompressingStoredFieldsFormat extends StoredFieldsFormat {
         context, formatName, compressionMode);
   }
 
+  /**
+   * Returns a reader that caches decompressed chunks in the
+   * {@link StoredFieldsBlockCache} that is given under
+   * {@link StoredFieldsBlockCache#READER_ATTRIBUTE_KEY} in the reader
+   * attributes, if any.
+   */
+  @Override
+  public StoredFieldsReader fieldsReader(SegmentReadState state) throws IOException {
+    final StoredFieldsBlockCache blockCache = StoredFieldsBlockCache.get(state.readerAttributes);
+    return new CompressingStoredFieldsReader(state.directory, state.segmentInfo, segmentSuffix, state.fieldInfos,
+        state.context, formatName, compressionMode, blockCache);
+  }
+
   @Override
   public StoredFieldsWriter fieldsWriter(Directory directory, SegmentInfo si,
       IOContext context) throws IOException {
@@ -89,6 +89,8 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   private final BlockState state;
   private final long numChunks; // number of compressed blocks written
   private final long numDirtyChunks; // number of incomplete compressed blocks written
+  private final StoredFieldsBlockCache blockCache; // may be null
+  private final Object blockCacheKey; // identifies this segment in the block cache
   private boolean closed;
 
   // used by clone
@@ -105,15 +107,28 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     this.numDocs = reader.numDocs;
     this.numChunks = reader.numChunks;
     this.numDirtyChunks = reader.numDirtyChunks;
+    this.blockCache = reader.blockCache;
+    this.blockCacheKey = reader.blockCacheKey;
     this.merging = merging;
     this.state = new BlockState();
     this.closed = false;
   }
 
-  /** Sole constructor. */
+  /** Create a reader that doesn't cache decompressed blocks. */
   public CompressingStoredFieldsReader(Directory d, SegmentInfo si, String segmentSuffix, FieldInfos fn,
       IOContext context, String formatName, CompressionMode compressionMode) throws IOException {
+    this(d, si, segmentSuffix, fn, context, formatName, compressionMode, null);
+  }
+
+  /**
+   * Create a reader that caches decompressed blocks in <code>blockCache</code>,
+   * or doesn't cache them if it is <code>null</code>.
+   */
+  public CompressingStoredFieldsReader(Directory d, SegmentInfo si, String segmentSuffix, FieldInfos fn,
+      IOContext context, String formatName, CompressionMode compressionMode, StoredFieldsBlockCache blockCache) throws IOException {
     this.compressionMode = compressionMode;
+    this.blockCache = blockCache;
+    this.blockCacheKey = new Object();
     final String segment = si.name;
     boolean success = false;
     fieldInfos = fn;
@@ -201,7 +216,13 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   @Override
   public void close() throws IOException {
     if (!closed) {
-      IOUtils.close(indexReader, fieldsStream);
+      try {
+        IOUtils.close(indexReader, fieldsStream);
+      } finally {
+        if (blockCache != null) {
+          blockCache.clearSegment(blockCacheKey);
+        }
+      }
       closed = true;
     }
   }
@@ -551,6 +572,22 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
           }
 
         };
+      } else if (blockCache != null && (decompressor.canDecompressRange() == false || length == totalLength)) {
+        // only cache blocks when reading the document decompresses the whole block, or its
+        // beginning, anyway: decompressors that can skip to the requested range are faster
+        // on a miss than caching would be
+        byte[] block = blockCache.get(blockCacheKey, startPointer);
+        if (block == null) {
+          // decompress the whole block so that other documents can be read from the cache
+          fieldsStream.seek(startPointer);
+          decompressor.decompress(fieldsStream, totalLength, 0, totalLength, bytes);
+          if (bytes.length != totalLength) {
+            throw new CorruptIndexException("Corrupted: expected chunk size = " + totalLength + ", got " + bytes.length, fieldsStream);
+          }
+          block = ArrayUtil.copyOfSubArray(bytes.bytes, bytes.offset, bytes.offset + bytes.length);
+          blockCache.put(blockCacheKey, startPointer, block);
+        }
+        documentInput = new ByteArrayDataInput(block, offset, length);
       } else {
         fieldsStream.seek(startPointer);
         decompressor.decompress(fieldsStream, totalLength, offset, length, bytes);
@@ -563,6 +600,19 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
 
   }
 
+  @Override
+  public void prefetch(int docID) throws IOException {
+    if (state.contains(docID) == false) {
+      // blocks are compressed as a whole, so the whole block needs to be read
+      final long startPointer = indexReader.getStartPointer(docID);
+      long endPointer = indexReader.getEndPointer(docID);
+      if (endPointer == -1) {
+        endPointer = maxPointer;
+      }
+      fieldsStream.prefetch(startPointer, endPointer - startPointer);
+    }
+  }
+
   SerializedDocument document(int docID) throws IOException {
     if (state.contains(docID) == false) {
       fieldsStream.seek(indexReader.getStartPointer(docID));
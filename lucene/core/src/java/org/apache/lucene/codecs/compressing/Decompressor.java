@@ -46,6 +46,18 @@ public abstract class Decompressor implements Cloneable {
    */
   public abstract void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException;
 
+  /**
+   * Return whether {@link #decompress} can decompress a range of the original
+   * stream without decompressing all bytes that come before it, for instance
+   * because the stream is split into sub-blocks that can be decompressed
+   * independently. When this returns <code>false</code>, decompressing the
+   * whole stream costs about as much as decompressing any range of it. The
+   * default implementation returns <code>false</code>.
+   */
+  public boolean canDecompressRange() {
+    return false;
+  }
+
   @Override
   public abstract Decompressor clone();
 
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * A compression mode that compresses blocks with
+ * <a href="http://en.wikipedia.org/wiki/DEFLATE">DEFLATE</a>, using a preset
+ * dictionary.
+ * <p>
+ * The first bytes of every block are compressed on their own and then set as
+ * the dictionary of the compressor for the rest of the block, which is
+ * compressed in several independent sub-blocks. Retrieving a single document
+ * only requires to inflate the dictionary and the sub-blocks that contain the
+ * document, instead of the whole block.
+ * @lucene.experimental
+ */
+public final class DeflateWithPresetDictCompressionMode extends CompressionMode {
+
+  // Shoot for 10 sub blocks
+  private static final int NUM_SUB_BLOCKS = 10;
+  // And a dictionary whose size is about 6x smaller than sub blocks
+  private static final int DICT_SIZE_FACTOR = 6;
+  // But don't split small inputs into tiny sub blocks
+  private static final int MIN_BLOCK_LENGTH = 1024;
+
+  /** Sole constructor. */
+  public DeflateWithPresetDictCompressionMode() {}
+
+  @Override
+  public Compressor newCompressor() {
+    // notes:
+    // 3 is the highest level that doesn't have lazy match evaluation
+    // 6 is the default, higher than that is just a waste of cpu
+    return new DeflateWithPresetDictCompressor(6);
+  }
+
+  @Override
+  public Decompressor newDecompressor() {
+    return new DeflateWithPresetDictDecompressor();
+  }
+
+  @Override
+  public String toString() {
+    return "DeflateWithPresetDict";
+  }
+
+  private static final class DeflateWithPresetDictDecompressor extends Decompressor {
+
+    byte[] compressed;
+
+    DeflateWithPresetDictDecompressor() {
+      compressed = new byte[0];
+    }
+
+    /**
+     * Inflate the next block and append its first {@code expectedLength} bytes
+     * to {@code bytes}, the rest of the block is not inflated if
+     * {@code blockLength} is greater.
+     */
+    private void doDecompress(DataInput in, Inflater decompressor, BytesRef bytes, int expectedLength, int blockLength) throws IOException {
+      final int compressedLength = in.readVInt();
+      if (compressedLength == 0) {
+        if (expectedLength != 0) {
+          throw new CorruptIndexException("Lengths mismatch: 0 != " + expectedLength, in);
+        }
+        return;
+      }
+      // pad with extra "dummy byte": see javadocs for using Inflater(true)
+      // we do it for compliance, but it's unnecessary for years in zlib.
+      final int paddedLength = compressedLength + 1;
+      compressed = ArrayUtil.grow(compressed, paddedLength);
+      in.readBytes(compressed, 0, compressedLength);
+      compressed[compressedLength] = 0; // explicitly set dummy byte to 0
+
+      // extra "dummy byte"
+      decompressor.setInput(compressed, 0, paddedLength);
+      final int decompressedLength;
+      try {
+        decompressedLength = decompressor.inflate(bytes.bytes, bytes.length, expectedLength);
+      } catch (DataFormatException e) {
+        throw new IOException(e);
+      }
+      if (expectedLength == blockLength && decompressor.finished() == false) {
+        throw new CorruptIndexException("Invalid decoder state: needsInput=" + decompressor.needsInput()
+                                                            + ", needsDict=" + decompressor.needsDictionary(), in);
+      }
+      if (decompressedLength != expectedLength) {
+        throw new CorruptIndexException("Lengths mismatch: " + decompressedLength + " != " + expectedLength, in);
+      }
+      bytes.length += decompressedLength;
+    }
+
+    @Override
+    public void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException {
+      assert offset + length <= originalLength;
+      if (length == 0) {
+        bytes.length = 0;
+        return;
+      }
+
+      final int dictLength = in.readVInt();
+      final int blockLength = in.readVInt();
+      if (dictLength > originalLength || blockLength <= 0) {
+        throw new CorruptIndexException("Illegal dict or block length: " + dictLength + ", " + blockLength, in);
+      }
+      bytes.bytes = ArrayUtil.grow(bytes.bytes, dictLength);
+      bytes.offset = bytes.length = 0;
+
+      final Inflater decompressor = new Inflater(true);
+      try {
+        // Read the dictionary
+        doDecompress(in, decompressor, bytes, dictLength, dictLength);
+
+        int offsetInBlock = dictLength;
+        int offsetInBytesRef = offset;
+
+        // Skip unneeded sub-blocks
+        while (offsetInBlock + blockLength <= offset) {
+          final int compressedLength = in.readVInt();
+          in.skipBytes(compressedLength);
+          offsetInBlock += blockLength;
+          offsetInBytesRef -= blockLength;
+        }
+
+        // Read sub-blocks that intersect with the interval we need, they are
+        // appended after the dictionary
+        while (offsetInBlock < offset + length) {
+          final int bytesInBlock = Math.min(blockLength, originalLength - offsetInBlock);
+          final int bytesToDecompress = Math.min(bytesInBlock, offset + length - offsetInBlock);
+          bytes.bytes = ArrayUtil.grow(bytes.bytes, bytes.length + bytesToDecompress);
+          decompressor.reset();
+          if (dictLength > 0) {
+            decompressor.setDictionary(bytes.bytes, 0, dictLength);
+          }
+          doDecompress(in, decompressor, bytes, bytesToDecompress, bytesInBlock);
+          offsetInBlock += blockLength;
+        }
+
+        bytes.offset = offsetInBytesRef;
+        bytes.length = length;
+        assert bytes.isValid();
+      } finally {
+        decompressor.end();
+      }
+    }
+
+    @Override
+    public boolean canDecompressRange() {
+      return true;
+    }
+
+    @Override
+    public Decompressor clone() {
+      return new DeflateWithPresetDictDecompressor();
+    }
+
+  }
+
+  private static class DeflateWithPresetDictCompressor extends Compressor {
+
+    final Deflater compressor;
+    byte[] compressed;
+    boolean closed;
+
+    DeflateWithPresetDictCompressor(int level) {
+      compressor = new Deflater(level, true);
+      compressed = new byte[64];
+    }
+
+    private void doCompress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
+      if (len == 0) {
+        out.writeVInt(0);
+        return;
+      }
+      compressor.setInput(bytes, off, len);
+      compressor.finish();
+      if (compressor.needsInput()) {
+        throw new IllegalStateException();
+      }
+
+      int totalCount = 0;
+      for (;;) {
+        final int count = compressor.deflate(compressed, totalCount, compressed.length - totalCount);
+        totalCount += count;
+        assert totalCount <= compressed.length;
+        if (compressor.finished()) {
+          break;
+        } else {
+          compressed = ArrayUtil.grow(compressed);
+        }
+      }
+
+      out.writeVInt(totalCount);
+      out.writeBytes(compressed, totalCount);
+    }
+
+    @Override
+    public void compress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
+      final int dictLength = len / (NUM_SUB_BLOCKS * DICT_SIZE_FACTOR);
+      final int blockLength = Math.max(MIN_BLOCK_LENGTH, (len - dictLength + NUM_SUB_BLOCKS - 1) / NUM_SUB_BLOCKS);
+      out.writeVInt(dictLength);
+      out.writeVInt(blockLength);
+      final int end = off + len;
+
+      // Compress the dictionary first
+      compressor.reset();
+      doCompress(bytes, off, dictLength, out);
+
+      // And then sub blocks
+      for (int start = off + dictLength; start < end; start += blockLength) {
+        compressor.reset();
+        if (dictLength > 0) {
+          compressor.setDictionary(bytes, off, dictLength);
+        }
+        doCompress(bytes, start, Math.min(blockLength, end - start), out);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed == false) {
+        compressor.end();
+        closed = true;
+      }
+    }
+
+  }
+
+}
@@ -26,6 +26,10 @@ abstract class FieldsIndex implements Accountable, Cloneable, Closeable {
   /** Get the start pointer for the block that contains the given docID. */
   abstract long getStartPointer(int docID);
 
+  /** Get the start pointer of the block that follows the block that contains the given docID,
+   *  or -1 if the block that contains the given docID is the last one. */
+  abstract long getEndPointer(int docID);
+
   /** Check the integrity of the index. */
   abstract void checkIntegrity() throws IOException;
 
@@ -124,6 +124,16 @@ final class FieldsIndexReader extends FieldsIndex {
     return startPointers.get(blockIndex);
   }
 
+  @Override
+  long getEndPointer(int docID) {
+    Objects.checkIndex(docID, maxDoc);
+    long blockIndex = docs.binarySearch(0, numChunks, docID);
+    if (blockIndex < 0) {
+      blockIndex = -2 - blockIndex;
+    }
+    return blockIndex + 1 < numChunks ? startPointers.get(blockIndex + 1) : -1;
+  }
+
   @Override
   public FieldsIndex clone() {
     try {
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.compress.LZ4;
+
+/**
+ * A compression mode that compresses blocks with
+ * <a href="https://github.com/lz4/lz4">LZ4</a>, using a preset dictionary.
+ * <p>
+ * The first bytes of every block are compressed on their own and then used as
+ * a dictionary to compress the rest of the block in several independent
+ * sub-blocks. This allows compressing larger blocks, which gives a better
+ * compression ratio for small documents, while only having to decompress the
+ * dictionary and a single sub-block in order to retrieve a small document.
+ * @lucene.experimental
+ */
+public final class LZ4WithPresetDictCompressionMode extends CompressionMode {
+
+  // Shoot for 10 sub blocks
+  private static final int NUM_SUB_BLOCKS = 10;
+  // And a dictionary whose size is about 4x smaller than sub blocks
+  private static final int DICT_SIZE_FACTOR = 4;
+  // But don't split small inputs into tiny sub blocks
+  private static final int MIN_BLOCK_LENGTH = 1024;
+
+  /** Sole constructor. */
+  public LZ4WithPresetDictCompressionMode() {}
+
+  @Override
+  public Compressor newCompressor() {
+    return new LZ4WithPresetDictCompressor();
+  }
+
+  @Override
+  public Decompressor newDecompressor() {
+    return new LZ4WithPresetDictDecompressor();
+  }
+
+  @Override
+  public String toString() {
+    return "LZ4WithPresetDict";
+  }
+
+  private static final class LZ4WithPresetDictDecompressor extends Decompressor {
+
+    private byte[] buffer;
+
+    LZ4WithPresetDictDecompressor() {
+      buffer = BytesRef.EMPTY_BYTES;
+    }
+
+    @Override
+    public void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException {
+      assert offset + length <= originalLength;
+      if (length == 0) {
+        bytes.length = 0;
+        return;
+      }
+
+      final int dictLength = in.readVInt();
+      final int blockLength = in.readVInt();
+      if (dictLength > originalLength || blockLength <= 0) {
+        throw new CorruptIndexException("Illegal dict or block length: " + dictLength + ", " + blockLength, in);
+      }
+
+      // sub-blocks are decompressed right after the dictionary so that they can refer to it
+      buffer = ArrayUtil.grow(buffer, dictLength + blockLength);
+      bytes.offset = bytes.length = 0;
+
+      // Read the dictionary
+      in.readVInt(); // compressed length, only needed to skip sub-blocks
+      if (LZ4.decompress(in, dictLength, buffer, 0) != dictLength) {
+        throw new CorruptIndexException("Illegal dict length", in);
+      }
+
+      int offsetInBlock = dictLength;
+      int offsetInBytesRef = offset;
+      if (offset >= dictLength) {
+        offsetInBytesRef -= dictLength;
+        // Skip unneeded sub-blocks
+        while (offsetInBlock + blockLength <= offset) {
+          final int compressedLength = in.readVInt();
+          in.skipBytes(compressedLength);
+          offsetInBlock += blockLength;
+          offsetInBytesRef -= blockLength;
+        }
+      } else {
+        // The dictionary contains some bytes we need, copy its content to the BytesRef
+        bytes.bytes = ArrayUtil.grow(bytes.bytes, dictLength);
+        System.arraycopy(buffer, 0, bytes.bytes, 0, dictLength);
+        bytes.length = dictLength;
+      }
+
+      // Read sub-blocks that intersect with the interval we need
+      while (offsetInBlock < offset + length) {
+        final int bytesToDecompress = Math.min(blockLength, offset + length - offsetInBlock);
+        in.readVInt();
+        final int decompressedLength = LZ4.decompress(in, bytesToDecompress, buffer, dictLength) - dictLength;
+        if (decompressedLength > Math.min(blockLength, originalLength - offsetInBlock)) {
+          throw new CorruptIndexException("Corrupted: lengths mismatch: " + decompressedLength + " > " + blockLength, in);
+        }
+        bytes.bytes = ArrayUtil.grow(bytes.bytes, bytes.length + bytesToDecompress);
+        System.arraycopy(buffer, dictLength, bytes.bytes, bytes.length, bytesToDecompress);
+        bytes.length += bytesToDecompress;
+        offsetInBlock += blockLength;
+      }
+
+      bytes.offset = offsetInBytesRef;
+      bytes.length = length;
+      assert bytes.isValid();
+    }
+
+    @Override
+    public boolean canDecompressRange() {
+      return true;
+    }
+
+    @Override
+    public Decompressor clone() {
+      return new LZ4WithPresetDictDecompressor();
+    }
+
+  }
+
+  private static final class LZ4WithPresetDictCompressor extends Compressor {
+
+    private final ByteBuffersDataOutput compressed;
+    private final LZ4.FastCompressionHashTable hashTable;
+    private byte[] buffer;
+
+    LZ4WithPresetDictCompressor() {
+      compressed = ByteBuffersDataOutput.newResettableInstance();
+      hashTable = new LZ4.FastCompressionHashTable();
+      buffer = BytesRef.EMPTY_BYTES;
+    }
+
+    private void doCompress(byte[] bytes, int dictLen, int len, DataOutput out) throws IOException {
+      compressed.reset();
+      LZ4.compressWithDictionary(bytes, 0, dictLen, len, compressed, hashTable);
+      out.writeVInt(Math.toIntExact(compressed.size()));
+      compressed.copyTo(out);
+    }
+
+    @Override
+    public void compress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
+      final int dictLength = len / (NUM_SUB_BLOCKS * DICT_SIZE_FACTOR);
+      final int blockLength = Math.max(MIN_BLOCK_LENGTH, (len - dictLength + NUM_SUB_BLOCKS - 1) / NUM_SUB_BLOCKS);
+      buffer = ArrayUtil.grow(buffer, dictLength + blockLength);
+      out.writeVInt(dictLength);
+      out.writeVInt(blockLength);
+      final int end = off + len;
+
+      // Compress the dictionary first
+      System.arraycopy(bytes, off, buffer, 0, dictLength);
+      doCompress(buffer, 0, dictLength, out);
+
+      // And then sub blocks
+      for (int start = off + dictLength; start < end; start += blockLength) {
+        final int l = Math.min(blockLength, end - start);
+        System.arraycopy(bytes, start, buffer, dictLength, l);
+        doCompress(buffer, dictLength, l, out);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      // no-op
+    }
+  }
+
+}
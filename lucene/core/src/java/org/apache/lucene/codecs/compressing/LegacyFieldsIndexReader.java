@@ -162,6 +162,22 @@ final class LegacyFieldsIndexReader extends FieldsIndex {
     return startPointers[block] + relativeStartPointer(block, relativeChunk);
   }
 
+  @Override
+  long getEndPointer(int docID) {
+    if (docID < 0 || docID >= maxDoc) {
+      throw new IllegalArgumentException("docID out of range [0-" + maxDoc + "]: " + docID);
+    }
+    final int block = block(docID);
+    final int relativeChunk = relativeChunk(block, docID - docBases[block]);
+    if (relativeChunk + 1 < startPointersDeltas[block].size()) {
+      return startPointers[block] + relativeStartPointer(block, relativeChunk + 1);
+    } else if (block + 1 < startPointers.length) {
+      return startPointers[block + 1];
+    } else {
+      return -1;
+    }
+  }
+
   @Override
   public LegacyFieldsIndexReader clone() {
     return this;
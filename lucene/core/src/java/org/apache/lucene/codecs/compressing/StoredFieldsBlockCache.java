@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A cache of decompressed blocks of stored fields, which can be shared by the
+ * {@link CompressingStoredFieldsReader}s of several segments and indices.
+ * <p>
+ * Stored fields are compressed in blocks of several documents, so fetching
+ * several documents of the same block, or the same document several times,
+ * would otherwise decompress the block every time. This cache keeps
+ * decompressed blocks, keyed by segment and start pointer of the block, up to
+ * a maximum amount of memory, and evicts the least recently used blocks first.
+ * It is safe to use from multiple threads.
+ * <p>
+ * On a miss, the whole block is decompressed so that it can be cached, which
+ * is more expensive than only decompressing the requested document, so the
+ * cache should be large enough to get a good {@link #getHitCount() hit count}.
+ * Blocks are only cached if their compression mode needs to decompress them
+ * from the beginning anyway, see {@link Decompressor#canDecompressRange()}:
+ * blocks that use a preset dictionary are not cached since retrieving a
+ * document only needs to decompress the dictionary and one sub-block. Blocks
+ * that were split into several slices because they contain large documents
+ * are never cached, and neither are blocks that are read for merging.
+ * <p>
+ * A cache is passed to readers through their reader attributes under
+ * {@link #READER_ATTRIBUTE_KEY}, for instance with
+ * {@link org.apache.lucene.index.DirectoryReader#open(org.apache.lucene.store.Directory, Map)}
+ * or {@link org.apache.lucene.index.IndexWriterConfig#setReaderAttributes(Map)}.
+ *
+ * @lucene.experimental
+ */
+public final class StoredFieldsBlockCache implements Accountable {
+
+  /**
+   * Reader attribute under which readers expect a {@link StoredFieldsBlockCache}.
+   */
+  public static final String READER_ATTRIBUTE_KEY = "storedfields.blockcache";
+
+  private static final long BASE_RAM_BYTES_PER_BLOCK = RamUsageEstimator.LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY
+      + RamUsageEstimator.HASHTABLE_RAM_BYTES_PER_ENTRY // entry in the keys of the segment
+      + RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+  private final long maxRamBytesUsed;
+  // maps keys to decompressed blocks, most recently used blocks come last
+  private final Map<Key, byte[]> blocks;
+  // keys of the cached blocks of each segment, so that closing a segment doesn't scan the whole cache
+  private final Map<Object, Set<Key>> segmentKeys;
+  private final ReentrantLock lock;
+
+  // these variables are volatile so that we do not need to sync reads
+  // but increments need to be performed under the lock
+  private volatile long ramBytesUsed;
+  private volatile long hitCount;
+  private volatile long missCount;
+  private volatile long cacheCount;
+  private volatile long cacheSize;
+
+  /**
+   * Create a new instance that will cache at most <code>maxRamBytesUsed</code>
+   * bytes of decompressed blocks.
+   */
+  public StoredFieldsBlockCache(long maxRamBytesUsed) {
+    if (maxRamBytesUsed < 0) {
+      throw new IllegalArgumentException("maxRamBytesUsed must be >= 0, got " + maxRamBytesUsed);
+    }
+    this.maxRamBytesUsed = maxRamBytesUsed;
+    this.blocks = new LinkedHashMap<>(16, 0.75f, true);
+    this.segmentKeys = new IdentityHashMap<>();
+    this.lock = new ReentrantLock();
+  }
+
+  /**
+   * Return the cache that is given in the reader attributes, or <code>null</code>
+   * if there is none.
+   */
+  static StoredFieldsBlockCache get(Map<String, Object> readerAttributes) {
+    final Object value = readerAttributes.get(READER_ATTRIBUTE_KEY);
+    if (value == null || value instanceof StoredFieldsBlockCache) {
+      return (StoredFieldsBlockCache) value;
+    }
+    throw new IllegalArgumentException("Invalid value for " + READER_ATTRIBUTE_KEY + ": " + value
+        + ", expected a " + StoredFieldsBlockCache.class.getSimpleName());
+  }
+
+  private static long ramBytesUsed(byte[] block) {
+    return BASE_RAM_BYTES_PER_BLOCK + RamUsageEstimator.sizeOf(block);
+  }
+
+  /**
+   * Return the decompressed block that starts at <code>startPointer</code> in
+   * the segment identified by <code>segmentKey</code>, or <code>null</code> if
+   * it is not cached.
+   */
+  byte[] get(Object segmentKey, long startPointer) {
+    final Key key = new Key(segmentKey, startPointer);
+    lock.lock();
+    try {
+      // this get call moves the block to the most-recently-used position
+      final byte[] block = blocks.get(key);
+      if (block == null) {
+        missCount += 1;
+      } else {
+        hitCount += 1;
+      }
+      return block;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Cache the decompressed block that starts at <code>startPointer</code> in
+   * the segment identified by <code>segmentKey</code>. The block must not be
+   * modified after this call.
+   */
+  void put(Object segmentKey, long startPointer, byte[] block) {
+    final long blockRamBytesUsed = ramBytesUsed(block);
+    if (blockRamBytesUsed > maxRamBytesUsed) {
+      // would evict everything else and still not fit
+      return;
+    }
+    final Key key = new Key(segmentKey, startPointer);
+    lock.lock();
+    try {
+      if (blocks.putIfAbsent(key, block) == null) {
+        segmentKeys.computeIfAbsent(segmentKey, k -> new HashSet<>()).add(key);
+        ramBytesUsed += blockRamBytesUsed;
+        cacheCount += 1;
+        cacheSize += 1;
+        evictIfNecessary();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void evictIfNecessary() {
+    assert lock.isHeldByCurrentThread();
+    for (Iterator<Map.Entry<Key, byte[]>> it = blocks.entrySet().iterator(); ramBytesUsed > maxRamBytesUsed && it.hasNext(); ) {
+      final Map.Entry<Key, byte[]> entry = it.next();
+      it.remove();
+      final Key key = entry.getKey();
+      final Set<Key> keys = segmentKeys.get(key.segmentKey);
+      keys.remove(key);
+      if (keys.isEmpty()) {
+        segmentKeys.remove(key.segmentKey);
+      }
+      ramBytesUsed -= ramBytesUsed(entry.getValue());
+      cacheSize -= 1;
+    }
+  }
+
+  /**
+   * Remove all cached blocks of the segment identified by the given key.
+   */
+  void clearSegment(Object segmentKey) {
+    lock.lock();
+    try {
+      final Set<Key> keys = segmentKeys.remove(segmentKey);
+      if (keys != null) {
+        for (Key key : keys) {
+          final byte[] block = blocks.remove(key);
+          ramBytesUsed -= ramBytesUsed(block);
+          cacheSize -= 1;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Clear the content of this cache.
+   */
+  public void clear() {
+    lock.lock();
+    try {
+      blocks.clear();
+      segmentKeys.clear();
+      ramBytesUsed = 0;
+      cacheSize = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return ramBytesUsed;
+  }
+
+  /**
+   * Return the total number of times that a block has been looked up in this
+   * cache. This is the sum of {@link #getHitCount()} and {@link #getMissCount()}.
+   */
+  public long getTotalCount() {
+    return getHitCount() + getMissCount();
+  }
+
+  /**
+   * Return the number of times that a block was found in the cache, and did
+   * not need to be decompressed.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Return the number of times that a block was not found in the cache, and
+   * needed to be decompressed.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Return the number of blocks which are currently stored in the cache.
+   */
+  public long getCacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * Return the total number of blocks that have been put in the cache.
+   */
+  public long getCacheCount() {
+    return cacheCount;
+  }
+
+  /**
+   * Return the number of blocks that have been removed from the cache, either
+   * in order to stay under the maximum memory usage, or because their segment
+   * has been closed.
+   */
+  public long getEvictionCount() {
+    return getCacheCount() - getCacheSize();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(maxRamBytesUsed=" + maxRamBytesUsed + ",ramBytesUsed=" + ramBytesUsed
+        + ",hitCount=" + hitCount + ",missCount=" + missCount + ",cacheSize=" + cacheSize + ")";
+  }
+
+  private static class Key {
+
+    final Object segmentKey;
+    final long startPointer;
+
+    Key(Object segmentKey, long startPointer) {
+      this.segmentKey = segmentKey;
+      this.startPointer = startPointer;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != Key.class) {
+        return false;
+      }
+      final Key that = (Key) obj;
+      return segmentKey == that.segmentKey && startPointer == that.startPointer;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(segmentKey) + Long.hashCode(startPointer);
+    }
+
+  }
+
+}
@@ -25,8 +25,12 @@ import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.StoredFieldsWriter;
 import org.apache.lucene.codecs.compressing.CompressingStoredFieldsFormat;
 import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.DeflateWithPresetDictCompressionMode;
+import org.apache.lucene.codecs.compressing.LZ4WithPresetDictCompressionMode;
+import org.apache.lucene.codecs.compressing.StoredFieldsBlockCache;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
@@ -47,13 +51,23 @@ import org.apache.lucene.util.packed.DirectMonotonicWriter;
  * compression, you can choose ({@link Mode#BEST_COMPRESSION BEST_COMPRESSION}), which uses 
  * the <a href="http://en.wikipedia.org/wiki/DEFLATE">DEFLATE</a> algorithm with 60KB blocks 
  * for a better ratio at the expense of slower performance. 
- * These two options can be configured like this:
+ * {@link Mode#BEST_SPEED_PRESET_DICT BEST_SPEED_PRESET_DICT} and
+ * {@link Mode#BEST_COMPRESSION_PRESET_DICT BEST_COMPRESSION_PRESET_DICT} are
+ * variants of these two modes that compress larger blocks, whose first bytes are
+ * used as a preset dictionary to compress the rest of the block in independent
+ * sub-blocks. This helps compress small documents, while only the dictionary and
+ * the sub-blocks that contain a document need to be decompressed to retrieve it.
+ * These options can be configured like this:
  * <pre class="prettyprint">
  *   // the default: for high performance
  *   indexWriterConfig.setCodec(new Lucene54Codec(Mode.BEST_SPEED));
  *   // instead for higher performance (but slower):
  *   // indexWriterConfig.setCodec(new Lucene54Codec(Mode.BEST_COMPRESSION));
  * </pre>
+ * <p>Decompressed blocks can be cached across calls in order to avoid decompressing
+ * the same block again when several documents of the same block are retrieved, by
+ * opening readers with a {@link StoredFieldsBlockCache} under
+ * {@link StoredFieldsBlockCache#READER_ATTRIBUTE_KEY} in their reader attributes.
  * <p><b>File formats</b>
  * <p>Stored fields are represented by three files:
  * <ol>
@@ -107,12 +121,31 @@ public final class Lucene50StoredFieldsFormat extends StoredFieldsFormat {
     /** Trade compression ratio for retrieval speed. */
     BEST_SPEED,
     /** Trade retrieval speed for compression ratio. */
-    BEST_COMPRESSION
+    BEST_COMPRESSION,
+    /**
+     * Like {@link #BEST_SPEED}, but compress larger blocks with LZ4 and a
+     * preset dictionary in order to improve the compression ratio.
+     */
+    BEST_SPEED_PRESET_DICT,
+    /**
+     * Like {@link #BEST_COMPRESSION}, but compress larger blocks with DEFLATE
+     * and a preset dictionary in order to improve the compression ratio and
+     * retrieval speed.
+     */
+    BEST_COMPRESSION_PRESET_DICT
   }
   
   /** Attribute key for compression mode. */
   public static final String MODE_KEY = Lucene50StoredFieldsFormat.class.getSimpleName() + ".mode";
   
+  // Shoot for 10 sub blocks of 8kB each
+  private static final int BEST_SPEED_PRESET_DICT_BLOCK_LENGTH = 10 * 8 * 1024;
+  private static final CompressionMode BEST_SPEED_PRESET_DICT_MODE = new LZ4WithPresetDictCompressionMode();
+
+  // Shoot for 10 sub blocks of 48kB each
+  private static final int BEST_COMPRESSION_PRESET_DICT_BLOCK_LENGTH = 10 * 48 * 1024;
+  private static final CompressionMode BEST_COMPRESSION_PRESET_DICT_MODE = new DeflateWithPresetDictCompressionMode();
+
   final Mode mode;
   
   /** Stored fields format with default options */
@@ -135,6 +168,16 @@ public final class Lucene50StoredFieldsFormat extends StoredFieldsFormat {
     return impl(mode).fieldsReader(directory, si, fn, context);
   }
 
+  @Override
+  public StoredFieldsReader fieldsReader(SegmentReadState state) throws IOException {
+    String value = state.segmentInfo.getAttribute(MODE_KEY);
+    if (value == null) {
+      throw new IllegalStateException("missing value for " + MODE_KEY + " for segment: " + state.segmentInfo.name);
+    }
+    Mode mode = Mode.valueOf(value);
+    return impl(mode).fieldsReader(state);
+  }
+
   @Override
   public StoredFieldsWriter fieldsWriter(Directory directory, SegmentInfo si, IOContext context) throws IOException {
     String previous = si.putAttribute(MODE_KEY, mode.name());
@@ -151,6 +194,12 @@ public final class Lucene50StoredFieldsFormat extends StoredFieldsFormat {
         return new CompressingStoredFieldsFormat("Lucene50StoredFieldsFastData", CompressionMode.FAST, 1 << 14, 128, 10);
       case BEST_COMPRESSION: 
         return new CompressingStoredFieldsFormat("Lucene50StoredFieldsHighData", CompressionMode.HIGH_COMPRESSION, 61440, 512, 10);
+      case BEST_SPEED_PRESET_DICT:
+        return new CompressingStoredFieldsFormat("Lucene50StoredFieldsFastDictData", BEST_SPEED_PRESET_DICT_MODE,
+            BEST_SPEED_PRESET_DICT_BLOCK_LENGTH, 1024, 10);
+      case BEST_COMPRESSION_PRESET_DICT:
+        return new CompressingStoredFieldsFormat("Lucene50StoredFieldsHighDictData", BEST_COMPRESSION_PRESET_DICT_MODE,
+            BEST_COMPRESSION_PRESET_DICT_BLOCK_LENGTH, 4096, 10);
       default: throw new AssertionError();
     }
   }
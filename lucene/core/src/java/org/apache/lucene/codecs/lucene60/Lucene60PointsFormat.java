@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.lucene60;
 
 
 import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.PointsFormat;
@@ -25,6 +26,7 @@ import org.apache.lucene.codecs.PointsReader;
 import org.apache.lucene.codecs.PointsWriter;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.util.bkd.BKDWriter;
 
 /**
  * Lucene 6.0 point format, which encodes dimensional values in a block KD-tree structure
@@ -94,13 +96,24 @@ public final class Lucene60PointsFormat extends PointsFormat {
   static final int INDEX_VERSION_START = 0;
   static final int INDEX_VERSION_CURRENT = INDEX_VERSION_START;
 
-  /** Sole constructor */
+  private final ForkJoinPool forkJoinPool;
+
+  /** Creates a format that builds BKD trees in the calling thread. */
   public Lucene60PointsFormat() {
+    this(null);
+  }
+
+  /** Creates a format that builds BKD trees concurrently on the provided {@link ForkJoinPool}
+   *  when flushing and merging segments, both across fields and within a field, see
+   *  {@link Lucene60PointsWriter} and {@link BKDWriter}. The written files are the same as
+   *  with a single thread. */
+  public Lucene60PointsFormat(ForkJoinPool forkJoinPool) {
+    this.forkJoinPool = forkJoinPool;
   }
 
   @Override
   public PointsWriter fieldsWriter(SegmentWriteState state) throws IOException {
-    return new Lucene60PointsWriter(state);
+    return new Lucene60PointsWriter(state, BKDWriter.DEFAULT_MAX_POINTS_IN_LEAF_NODE, BKDWriter.DEFAULT_MAX_MB_SORT_IN_HEAP, forkJoinPool);
   }
 
   @Override
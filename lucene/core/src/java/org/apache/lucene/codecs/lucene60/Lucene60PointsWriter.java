@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.MutablePointValues;
@@ -36,12 +38,18 @@ import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.PointValues.IntersectVisitor;
 import org.apache.lucene.index.PointValues.Relation;
 import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.bkd.BKDReader;
 import org.apache.lucene.util.bkd.BKDWriter;
 
-/** Writes dimensional values */
+/** Writes dimensional values.
+ *  <p>If a {@link ForkJoinPool} is provided, the trees of different fields are also built concurrently: each field
+ *  writes its leaf blocks to a temporary file, which {@link #finish} appends to the data file in the order fields were
+ *  written, before writing the field's index. Readers passed to {@link #writeField} must then remain usable until
+ *  {@link #finish} is called. */
 public class Lucene60PointsWriter extends PointsWriter implements Closeable {
 
   /** Output used to write the BKD tree data file */
@@ -53,14 +61,20 @@ public class Lucene60PointsWriter extends PointsWriter implements Closeable {
   final SegmentWriteState writeState;
   final int maxPointsInLeafNode;
   final double maxMBSortInHeap;
+  final ForkJoinPool forkJoinPool;
   private boolean finished;
 
+  /** Fields that are being built on the fork-join pool, in the order they need to be written */
+  private final List<FieldTask> pendingFields = new ArrayList<>();
+
   /** Full constructor */
-  public Lucene60PointsWriter(SegmentWriteState writeState, int maxPointsInLeafNode, double maxMBSortInHeap) throws IOException {
+  public Lucene60PointsWriter(SegmentWriteState writeState, int maxPointsInLeafNode, double maxMBSortInHeap,
+                              ForkJoinPool forkJoinPool) throws IOException {
     assert writeState.fieldInfos.hasPointValues();
     this.writeState = writeState;
     this.maxPointsInLeafNode = maxPointsInLeafNode;
     this.maxMBSortInHeap = maxMBSortInHeap;
+    this.forkJoinPool = forkJoinPool;
     String dataFileName = IndexFileNames.segmentFileName(writeState.segmentInfo.name,
                                                          writeState.segmentSuffix,
                                                          Lucene60PointsFormat.DATA_EXTENSION);
@@ -80,6 +94,11 @@ public class Lucene60PointsWriter extends PointsWriter implements Closeable {
     }
   }
 
+  /** Builds BKD trees in the calling thread */
+  public Lucene60PointsWriter(SegmentWriteState writeState, int maxPointsInLeafNode, double maxMBSortInHeap) throws IOException {
+    this(writeState, maxPointsInLeafNode, maxMBSortInHeap, null);
+  }
+
   /** Uses the defaults values for {@code maxPointsInLeafNode} (1024) and {@code maxMBSortInHeap} (16.0) */
   public Lucene60PointsWriter(SegmentWriteState writeState) throws IOException {
     this(writeState, BKDWriter.DEFAULT_MAX_POINTS_IN_LEAF_NODE, BKDWriter.DEFAULT_MAX_MB_SORT_IN_HEAP);
@@ -87,6 +106,24 @@ public class Lucene60PointsWriter extends PointsWriter implements Closeable {
 
   @Override
   public void writeField(FieldInfo fieldInfo, PointsReader reader) throws IOException {
+    writeField(fieldInfo.name, out -> writeFieldLeaves(fieldInfo, reader, out));
+  }
+
+  /** Writes the tree of a field, or schedules it on the fork-join pool if there is one. */
+  private void writeField(String fieldName, LeafBlocksWriter leafBlocksWriter) throws IOException {
+    if (forkJoinPool == null) {
+      BKDWriter.DeferredIndex index = leafBlocksWriter.write(dataOut);
+      if (index != null) {
+        indexFPs.put(fieldName, index.write(dataOut, 0));
+      }
+    } else {
+      FieldTask task = new FieldTask(fieldName, leafBlocksWriter);
+      pendingFields.add(task);
+      forkJoinPool.execute(task);
+    }
+  }
+
+  private BKDWriter.DeferredIndex writeFieldLeaves(FieldInfo fieldInfo, PointsReader reader, IndexOutput out) throws IOException {
 
     PointValues values = reader.getValues(fieldInfo.name);
 
@@ -98,14 +135,11 @@ public class Lucene60PointsWriter extends PointsWriter implements Closeable {
                                           fieldInfo.getPointNumBytes(),
                                           maxPointsInLeafNode,
                                           maxMBSortInHeap,
-                                          values.size())) {
+                                          values.size(),
+                                          forkJoinPool)) {
 
       if (values instanceof MutablePointValues) {
-        final long fp = writer.writeField(dataOut, fieldInfo.name, (MutablePointValues) values);
-        if (fp != -1) {
-          indexFPs.put(fieldInfo.name, fp);
-        }
-        return;
+        return writer.writeFieldLeaves(out, fieldInfo.name, (MutablePointValues) values);
       }
 
       values.intersect(new IntersectVisitor() {
@@ -126,8 +160,9 @@ public class Lucene60PointsWriter extends PointsWriter implements Closeable {
 
       // We could have 0 points on merge since all docs with dimensional fields may be deleted:
       if (writer.getPointCount() > 0) {
-        indexFPs.put(fieldInfo.name, writer.finish(dataOut));
+        return writer.finishLeaves(out);
       }
+      return null;
     }
   }
 
@@ -153,75 +188,76 @@ public class Lucene60PointsWriter extends PointsWriter implements Closeable {
     for (FieldInfo fieldInfo : mergeState.mergeFieldInfos) {
       if (fieldInfo.getPointDimensionCount() != 0) {
         if (fieldInfo.getPointDimensionCount() == 1) {
+          writeField(fieldInfo.name, out -> mergeFieldLeaves(mergeState, fieldInfo, out));
+        } else {
+          mergeOneField(mergeState, fieldInfo);
+        }
+      }
+    }
 
-          // Worst case total maximum size (if none of the points are deleted):
-          long totMaxSize = 0;
-          for(int i=0;i<mergeState.pointsReaders.length;i++) {
-            PointsReader reader = mergeState.pointsReaders[i];
-            if (reader != null) {
-              FieldInfos readerFieldInfos = mergeState.fieldInfos[i];
-              FieldInfo readerFieldInfo = readerFieldInfos.fieldInfo(fieldInfo.name);
-              if (readerFieldInfo != null && readerFieldInfo.getPointDimensionCount() > 0) {
-                PointValues values = reader.getValues(fieldInfo.name);
-                if (values != null) {
-                  totMaxSize += values.size();
-                }
-              }
-            }
+    finish();
+  }
+
+  private BKDWriter.DeferredIndex mergeFieldLeaves(MergeState mergeState, FieldInfo fieldInfo, IndexOutput out) throws IOException {
+    // Worst case total maximum size (if none of the points are deleted):
+    long totMaxSize = 0;
+    for(int i=0;i<mergeState.pointsReaders.length;i++) {
+      PointsReader reader = mergeState.pointsReaders[i];
+      if (reader != null) {
+        FieldInfos readerFieldInfos = mergeState.fieldInfos[i];
+        FieldInfo readerFieldInfo = readerFieldInfos.fieldInfo(fieldInfo.name);
+        if (readerFieldInfo != null && readerFieldInfo.getPointDimensionCount() > 0) {
+          PointValues values = reader.getValues(fieldInfo.name);
+          if (values != null) {
+            totMaxSize += values.size();
           }
+        }
+      }
+    }
 
-          //System.out.println("MERGE: field=" + fieldInfo.name);
-          // Optimize the 1D case to use BKDWriter.merge, which does a single merge sort of the
-          // already sorted incoming segments, instead of trying to sort all points again as if
-          // we were simply reindexing them:
-          try (BKDWriter writer = new BKDWriter(writeState.segmentInfo.maxDoc(),
-                                                writeState.directory,
-                                                writeState.segmentInfo.name,
-                                                fieldInfo.getPointDimensionCount(),
-                                                fieldInfo.getPointIndexDimensionCount(),
-                                                fieldInfo.getPointNumBytes(),
-                                                maxPointsInLeafNode,
-                                                maxMBSortInHeap,
-                                                totMaxSize)) {
-            List<BKDReader> bkdReaders = new ArrayList<>();
-            List<MergeState.DocMap> docMaps = new ArrayList<>();
-            for(int i=0;i<mergeState.pointsReaders.length;i++) {
-              PointsReader reader = mergeState.pointsReaders[i];
-
-              if (reader != null) {
-
-                // we confirmed this up above
-                assert reader instanceof Lucene60PointsReader;
-                Lucene60PointsReader reader60 = (Lucene60PointsReader) reader;
-
-                // NOTE: we cannot just use the merged fieldInfo.number (instead of resolving to this
-                // reader's FieldInfo as we do below) because field numbers can easily be different
-                // when addIndexes(Directory...) copies over segments from another index:
-
-                FieldInfos readerFieldInfos = mergeState.fieldInfos[i];
-                FieldInfo readerFieldInfo = readerFieldInfos.fieldInfo(fieldInfo.name);
-                if (readerFieldInfo != null && readerFieldInfo.getPointDimensionCount() > 0) {
-                  BKDReader bkdReader = reader60.readers.get(readerFieldInfo.number);
-                  if (bkdReader != null) {
-                    bkdReaders.add(bkdReader);
-                    docMaps.add(mergeState.docMaps[i]);
-                  }
-                }
-              }
-            }
+    //System.out.println("MERGE: field=" + fieldInfo.name);
+    // Optimize the 1D case to use BKDWriter.merge, which does a single merge sort of the
+    // already sorted incoming segments, instead of trying to sort all points again as if
+    // we were simply reindexing them:
+    try (BKDWriter writer = new BKDWriter(writeState.segmentInfo.maxDoc(),
+                                          writeState.directory,
+                                          writeState.segmentInfo.name,
+                                          fieldInfo.getPointDimensionCount(),
+                                          fieldInfo.getPointIndexDimensionCount(),
+                                          fieldInfo.getPointNumBytes(),
+                                          maxPointsInLeafNode,
+                                          maxMBSortInHeap,
+                                          totMaxSize,
+                                          forkJoinPool)) {
+      List<BKDReader> bkdReaders = new ArrayList<>();
+      List<MergeState.DocMap> docMaps = new ArrayList<>();
+      for(int i=0;i<mergeState.pointsReaders.length;i++) {
+        PointsReader reader = mergeState.pointsReaders[i];
+
+        if (reader != null) {
 
-            long fp = writer.merge(dataOut, docMaps, bkdReaders);
-            if (fp != -1) {
-              indexFPs.put(fieldInfo.name, fp);
+          // we confirmed this up above
+          assert reader instanceof Lucene60PointsReader;
+          Lucene60PointsReader reader60 = (Lucene60PointsReader) reader;
+
+          // NOTE: we cannot just use the merged fieldInfo.number (instead of resolving to this
+          // reader's FieldInfo as we do below) because field numbers can easily be different
+          // when addIndexes(Directory...) copies over segments from another index:
+
+          FieldInfos readerFieldInfos = mergeState.fieldInfos[i];
+          FieldInfo readerFieldInfo = readerFieldInfos.fieldInfo(fieldInfo.name);
+          if (readerFieldInfo != null && readerFieldInfo.getPointDimensionCount() > 0) {
+            BKDReader bkdReader = reader60.readers.get(readerFieldInfo.number);
+            if (bkdReader != null) {
+              bkdReaders.add(bkdReader);
+              docMaps.add(mergeState.docMaps[i]);
             }
           }
-        } else {
-          mergeOneField(mergeState, fieldInfo);
         }
       }
-    }
 
-    finish();
+      return writer.mergeLeaves(out, docMaps, bkdReaders);
+    }
   }
 
   @Override
@@ -230,6 +266,7 @@ public class Lucene60PointsWriter extends PointsWriter implements Closeable {
       throw new IllegalStateException("already finished");
     }
     finished = true;
+    writePendingFields();
     CodecUtil.writeFooter(dataOut);
 
     String indexFileName = IndexFileNames.segmentFileName(writeState.segmentInfo.name,
@@ -256,8 +293,83 @@ public class Lucene60PointsWriter extends PointsWriter implements Closeable {
     }
   }
 
+  /** Appends the leaf blocks of fields that were built on the fork-join pool to the data file, and writes their index. */
+  private void writePendingFields() throws IOException {
+    try {
+      Throwable failure = null;
+      for (FieldTask task : pendingFields) {
+        task.join();
+        if (task.failure != null) {
+          failure = IOUtils.useOrSuppress(failure, task.failure);
+        }
+      }
+      if (failure != null) {
+        throw IOUtils.rethrowAlways(failure);
+      }
+
+      for (FieldTask task : pendingFields) {
+        if (task.index != null) {
+          final long leafBlockFPOffset = dataOut.getFilePointer();
+          try (IndexInput in = writeState.directory.openInput(task.tempFileName, IOContext.READONCE)) {
+            dataOut.copyBytes(in, in.length());
+          }
+          indexFPs.put(task.fieldName, task.index.write(dataOut, leafBlockFPOffset));
+        }
+        writeState.directory.deleteFile(task.tempFileName);
+        task.tempFileName = null;
+      }
+    } finally {
+      discardPendingFields();
+    }
+  }
+
+  /** Waits for fields that are built on the fork-join pool and deletes their temporary files. */
+  private void discardPendingFields() {
+    for (FieldTask task : pendingFields) {
+      task.quietlyJoin();
+      if (task.tempFileName != null) {
+        IOUtils.deleteFilesIgnoringExceptions(writeState.directory, task.tempFileName);
+      }
+    }
+    pendingFields.clear();
+  }
+
   @Override
   public void close() throws IOException {
-    dataOut.close();
+    try {
+      discardPendingFields();
+    } finally {
+      dataOut.close();
+    }
+  }
+
+  /** Writes the leaf blocks of a field's tree and returns its index, or {@code null} if it has no points. */
+  @FunctionalInterface
+  private interface LeafBlocksWriter {
+    BKDWriter.DeferredIndex write(IndexOutput out) throws IOException;
+  }
+
+  /** Writes the leaf blocks of a field on the fork-join pool to a temporary file. */
+  private class FieldTask extends RecursiveAction {
+    private final String fieldName;
+    private final LeafBlocksWriter leafBlocksWriter;
+    private String tempFileName;
+    private BKDWriter.DeferredIndex index;
+    private Throwable failure;
+
+    FieldTask(String fieldName, LeafBlocksWriter leafBlocksWriter) {
+      this.fieldName = fieldName;
+      this.leafBlocksWriter = leafBlocksWriter;
+    }
+
+    @Override
+    protected void compute() {
+      try (IndexOutput tempOut = writeState.directory.createTempOutput(writeState.segmentInfo.name, "bkd_field", writeState.context)) {
+        tempFileName = tempOut.getName();
+        index = leafBlocksWriter.write(tempOut);
+      } catch (Throwable t) {
+        failure = t;
+      }
+    }
   }
 }
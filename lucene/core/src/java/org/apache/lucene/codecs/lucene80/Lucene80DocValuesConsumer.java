@@ -31,6 +31,8 @@ import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
+import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.EmptyDocValuesProducer;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexFileNames;
@@ -115,12 +117,168 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
     meta.writeInt(field.number);
     meta.writeByte(Lucene80DocValuesFormat.NUMERIC);
 
-    writeValues(field, new EmptyDocValuesProducer() {
+    DocValuesProducer producer = new EmptyDocValuesProducer() {
       @Override
       public SortedNumericDocValues getSortedNumeric(FieldInfo field) throws IOException {
         return DocValues.singleton(valuesProducer.getNumeric(field));
       }
-    });
+    };
+    writeSkipIndex(field, producer);
+    writeValues(field, producer);
+  }
+
+  /** Per-block doc ID and value ranges of one level of the skip index. */
+  private static class SkipIndexLevel {
+    int numBlocks;
+    int[] minDocIDs = new int[8];
+    int[] maxDocIDs = new int[8];
+    long[] minValues = new long[8];
+    long[] maxValues = new long[8];
+    int[] docCounts = new int[8];
+
+    private void ensureCapacity(int size) {
+      if (size > minDocIDs.length) {
+        minDocIDs = ArrayUtil.grow(minDocIDs, size);
+        maxDocIDs = ArrayUtil.growExact(maxDocIDs, minDocIDs.length);
+        minValues = ArrayUtil.growExact(minValues, minDocIDs.length);
+        maxValues = ArrayUtil.growExact(maxValues, minDocIDs.length);
+        docCounts = ArrayUtil.growExact(docCounts, minDocIDs.length);
+      }
+    }
+
+    /** Start a new block that contains the given document and values. */
+    void newBlock(int docID, long min, long max) {
+      ensureCapacity(numBlocks + 1);
+      minDocIDs[numBlocks] = docID;
+      maxDocIDs[numBlocks] = docID;
+      minValues[numBlocks] = min;
+      maxValues[numBlocks] = max;
+      docCounts[numBlocks] = 1;
+      numBlocks++;
+    }
+
+    /** Add a document and its values to the last block. */
+    void accumulate(int docID, long min, long max) {
+      final int block = numBlocks - 1;
+      maxDocIDs[block] = docID;
+      minValues[block] = Math.min(minValues[block], min);
+      maxValues[block] = Math.max(maxValues[block], max);
+      docCounts[block]++;
+    }
+
+    /** Group blocks of this level by {@code 1 << SKIP_INDEX_LEVEL_SHIFT} to build the next level. */
+    SkipIndexLevel nextLevel() {
+      SkipIndexLevel next = new SkipIndexLevel();
+      for (int i = 0; i < numBlocks; ++i) {
+        if ((i & ((1 << Lucene80DocValuesFormat.SKIP_INDEX_LEVEL_SHIFT) - 1)) == 0) {
+          next.newBlock(minDocIDs[i], minValues[i], maxValues[i]);
+          next.docCounts[next.numBlocks - 1] = docCounts[i];
+        } else {
+          final int block = next.numBlocks - 1;
+          next.minValues[block] = Math.min(next.minValues[block], minValues[i]);
+          next.maxValues[block] = Math.max(next.maxValues[block], maxValues[i]);
+          next.docCounts[block] += docCounts[i];
+        }
+        next.maxDocIDs[next.numBlocks - 1] = maxDocIDs[i];
+      }
+      return next;
+    }
+
+    void writeTo(IndexOutput out) throws IOException {
+      for (int i = 0; i < numBlocks; ++i) {
+        out.writeInt(maxDocIDs[i]);
+        out.writeInt(minDocIDs[i]);
+        out.writeLong(maxValues[i]);
+        out.writeLong(minValues[i]);
+        out.writeInt(docCounts[i]);
+      }
+    }
+  }
+
+  private void writeSkipIndex(FieldInfo field, DocValuesProducer valuesProducer) throws IOException {
+    if (DocValuesSkipper.hasSkipIndex(field) == false) {
+      meta.writeLong(-1L); // skipIndexOffset
+      return;
+    }
+
+    final SkipIndexLevel level0 = new SkipIndexLevel();
+    int docCount = 0;
+    switch (field.getDocValuesType()) {
+      case NUMERIC:
+      case SORTED_NUMERIC: {
+        SortedNumericDocValues values = valuesProducer.getSortedNumeric(field);
+        for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+          // values are sorted, so the first value is the minimum and the last value the maximum
+          final int count = values.docValueCount();
+          final long min = values.nextValue();
+          long max = min;
+          for (int i = 1; i < count; ++i) {
+            max = values.nextValue();
+          }
+          if ((docCount & (Lucene80DocValuesFormat.SKIP_INDEX_INTERVAL_SIZE - 1)) == 0) {
+            level0.newBlock(doc, min, max);
+          } else {
+            level0.accumulate(doc, min, max);
+          }
+          docCount++;
+        }
+        break;
+      }
+      case SORTED:
+      case SORTED_SET: {
+        SortedSetDocValues values = field.getDocValuesType() == DocValuesType.SORTED
+            ? DocValues.singleton(valuesProducer.getSorted(field))
+            : valuesProducer.getSortedSet(field);
+        for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+          // ords are returned in increasing order
+          final long min = values.nextOrd();
+          long max = min;
+          for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+            max = ord;
+          }
+          if ((docCount & (Lucene80DocValuesFormat.SKIP_INDEX_INTERVAL_SIZE - 1)) == 0) {
+            level0.newBlock(doc, min, max);
+          } else {
+            level0.accumulate(doc, min, max);
+          }
+          docCount++;
+        }
+        break;
+      }
+      default:
+        throw new IllegalArgumentException("Field [" + field.name + "] of type " + field.getDocValuesType() + " can't have a skip index");
+    }
+
+    if (docCount == 0) {
+      meta.writeLong(-1L); // skipIndexOffset
+      return;
+    }
+
+    final long start = data.getFilePointer();
+    SkipIndexLevel level = level0;
+    level.writeTo(data);
+    int[] numBlocksPerLevel = new int[] { level.numBlocks };
+    while (numBlocksPerLevel.length < Lucene80DocValuesFormat.SKIP_INDEX_MAX_LEVEL && level.numBlocks > 1) {
+      level = level.nextLevel();
+      level.writeTo(data);
+      numBlocksPerLevel = ArrayUtil.growExact(numBlocksPerLevel, numBlocksPerLevel.length + 1);
+      numBlocksPerLevel[numBlocksPerLevel.length - 1] = level.numBlocks;
+    }
+    long minValue = Long.MAX_VALUE;
+    long maxValue = Long.MIN_VALUE;
+    for (int i = 0; i < level.numBlocks; ++i) {
+      minValue = Math.min(minValue, level.minValues[i]);
+      maxValue = Math.max(maxValue, level.maxValues[i]);
+    }
+    meta.writeLong(start); // skipIndexOffset
+    meta.writeLong(data.getFilePointer() - start); // skipIndexLength
+    meta.writeLong(minValue);
+    meta.writeLong(maxValue);
+    meta.writeInt(docCount);
+    meta.writeByte((byte) numBlocksPerLevel.length);
+    for (int numBlocks : numBlocksPerLevel) {
+      meta.writeInt(numBlocks);
+    }
   }
 
   private static class MinMaxTracker {
@@ -551,6 +709,7 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
   public void addSortedField(FieldInfo field, DocValuesProducer valuesProducer) throws IOException {
     meta.writeInt(field.number);
     meta.writeByte(Lucene80DocValuesFormat.SORTED);
+    writeSkipIndex(field, valuesProducer);
     doAddSortedField(field, valuesProducer);
   }
 
@@ -701,6 +860,7 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
   public void addSortedNumericField(FieldInfo field, DocValuesProducer valuesProducer) throws IOException {
     meta.writeInt(field.number);
     meta.writeByte(Lucene80DocValuesFormat.SORTED_NUMERIC);
+    writeSkipIndex(field, valuesProducer);
 
     long[] stats = writeValues(field, valuesProducer);
     int numDocsWithField = Math.toIntExact(stats[0]);
@@ -730,6 +890,7 @@ final class Lucene80DocValuesConsumer extends DocValuesConsumer implements Close
   public void addSortedSetField(FieldInfo field, DocValuesProducer valuesProducer) throws IOException {
     meta.writeInt(field.number);
     meta.writeByte(Lucene80DocValuesFormat.SORTED_SET);
+    writeSkipIndex(field, valuesProducer);
 
     SortedSetDocValues values = valuesProducer.getSortedSet(field);
     int numDocsWithField = 0;
@@ -22,6 +22,7 @@ import java.io.IOException;
 import org.apache.lucene.codecs.DocValuesConsumer;
 import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.DocValuesProducer;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.SegmentReadState;
@@ -122,6 +123,15 @@ import org.apache.lucene.util.packed.DirectWriter;
  *        strategies above.
  * </ul>
  * <p>
+ * Skip index:
+ * <p>
+ * Numeric and sorted fields that have the {@link DocValuesSkipper#SKIP_INDEX_ATTRIBUTE skip index attribute}
+ * also record, for every block of 4096 documents that have a value, the range of doc IDs and the range
+ * of values (or ordinals) of the block. Blocks are then recursively grouped by 8 into up to
+ * 4 levels, which allows {@link DocValuesSkipper} to skip over large ranges of doc IDs whose values
+ * cannot match a range query. Every level is written as an array of fixed-size entries so that
+ * entries can be read at random.
+ * <p>
  * Files:
  * <ol>
  *   <li><code>.dvd</code>: DocValues data</li>
@@ -152,7 +162,8 @@ public final class Lucene80DocValuesFormat extends DocValuesFormat {
   static final String META_EXTENSION = "dvm";
   static final int VERSION_START = 0;
   static final int VERSION_BIN_COMPRESSED = 1;  
-  static final int VERSION_CURRENT = VERSION_BIN_COMPRESSED;
+  static final int VERSION_SKIP_INDEX = 2;
+  static final int VERSION_CURRENT = VERSION_SKIP_INDEX;
 
   // indicates docvalues type
   static final byte NUMERIC = 0;
@@ -176,4 +187,11 @@ public final class Lucene80DocValuesFormat extends DocValuesFormat {
   static final int TERMS_DICT_REVERSE_INDEX_SHIFT = 10;
   static final int TERMS_DICT_REVERSE_INDEX_SIZE = 1 << TERMS_DICT_REVERSE_INDEX_SHIFT;
   static final int TERMS_DICT_REVERSE_INDEX_MASK = TERMS_DICT_REVERSE_INDEX_SIZE - 1;
+
+  static final int SKIP_INDEX_INTERVAL_SHIFT = 12;
+  static final int SKIP_INDEX_INTERVAL_SIZE = 1 << SKIP_INDEX_INTERVAL_SHIFT;
+  static final int SKIP_INDEX_LEVEL_SHIFT = 3;
+  static final int SKIP_INDEX_MAX_LEVEL = 4;
+  // maxDocID, minDocID, maxValue, minValue, docCount
+  static final int SKIP_INDEX_ENTRY_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES;
 }
@@ -18,6 +18,7 @@ package org.apache.lucene.codecs.lucene80;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +28,7 @@ import org.apache.lucene.index.BaseTermsEnum;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.ImpactsEnum;
@@ -39,6 +41,7 @@ import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.index.TermsEnum.SeekStatus;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.ChecksumIndexInput;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.RandomAccessInput;
@@ -57,6 +60,7 @@ final class Lucene80DocValuesProducer extends DocValuesProducer implements Close
   private final Map<String,SortedEntry> sorted = new HashMap<>();
   private final Map<String,SortedSetEntry> sortedSets = new HashMap<>();
   private final Map<String,SortedNumericEntry> sortedNumerics = new HashMap<>();
+  private final Map<String,SkipperEntry> skippers = new HashMap<>();
   private long ramBytesUsed;
   private final IndexInput data;
   private final int maxDoc;
@@ -120,6 +124,12 @@ final class Lucene80DocValuesProducer extends DocValuesProducer implements Close
         throw new CorruptIndexException("Invalid field number: " + fieldNumber, meta);
       }
       byte type = meta.readByte();
+      if (version >= Lucene80DocValuesFormat.VERSION_SKIP_INDEX && type != Lucene80DocValuesFormat.BINARY) {
+        SkipperEntry skipper = readSkipper(meta);
+        if (skipper != null) {
+          skippers.put(info.name, skipper);
+        }
+      }
       if (type == Lucene80DocValuesFormat.NUMERIC) {
         numerics.put(info.name, readNumeric(meta));
       } else if (type == Lucene80DocValuesFormat.BINARY) {
@@ -136,6 +146,34 @@ final class Lucene80DocValuesProducer extends DocValuesProducer implements Close
     }
   }
 
+  private SkipperEntry readSkipper(ChecksumIndexInput meta) throws IOException {
+    long offset = meta.readLong();
+    if (offset == -1) {
+      return null;
+    }
+    SkipperEntry entry = new SkipperEntry();
+    entry.offset = offset;
+    entry.length = meta.readLong();
+    entry.minValue = meta.readLong();
+    entry.maxValue = meta.readLong();
+    entry.docCount = meta.readInt();
+    final int numLevels = meta.readByte();
+    if (numLevels < 1 || numLevels > Lucene80DocValuesFormat.SKIP_INDEX_MAX_LEVEL) {
+      throw new CorruptIndexException("invalid number of skip index levels: " + numLevels, meta);
+    }
+    entry.numBlocksPerLevel = new int[numLevels];
+    long numBlocks = 0;
+    for (int level = 0; level < numLevels; ++level) {
+      entry.numBlocksPerLevel[level] = meta.readInt();
+      numBlocks += entry.numBlocksPerLevel[level];
+    }
+    if (numBlocks * Lucene80DocValuesFormat.SKIP_INDEX_ENTRY_BYTES != entry.length) {
+      throw new CorruptIndexException("invalid skip index length: " + entry.length + " for " + numBlocks + " blocks", meta);
+    }
+    ramBytesUsed += RamUsageEstimator.sizeOf(entry.numBlocksPerLevel);
+    return entry;
+  }
+
   private NumericEntry readNumeric(ChecksumIndexInput meta) throws IOException {
     NumericEntry entry = new NumericEntry();
     readNumeric(meta, entry);
@@ -286,6 +324,15 @@ final class Lucene80DocValuesProducer extends DocValuesProducer implements Close
     data.close();
   }
 
+  private static class SkipperEntry {
+    long offset;
+    long length;
+    long minValue;
+    long maxValue;
+    int docCount;
+    int[] numBlocksPerLevel;
+  }
+
   private static class NumericEntry {
     long[] table;
     int blockShift;
@@ -1499,6 +1546,149 @@ final class Lucene80DocValuesProducer extends DocValuesProducer implements Close
     }
   }
 
+  @Override
+  public DocValuesSkipper getSkipper(FieldInfo field) throws IOException {
+    final SkipperEntry entry = skippers.get(field.name);
+    if (entry == null) {
+      return null;
+    }
+    final RandomAccessInput slice = data.randomAccessSlice(entry.offset, entry.length);
+    return new SkipIndexReader(entry, slice);
+  }
+
+  /**
+   * {@link DocValuesSkipper} over the skip index. Blocks of a level are stored contiguously as
+   * fixed-size entries, so the skipper only needs to look at the children of the current block of
+   * the level above in order to find the block of a level that contains a target doc ID.
+   */
+  private static final class SkipIndexReader extends DocValuesSkipper {
+    private final SkipperEntry entry;
+    private final RandomAccessInput slice;
+    private final int numLevels;
+    private final long[] levelOffsets;
+    private final int[] blockIndexes;
+    private final int[] minDocIDs;
+    private final int[] maxDocIDs;
+    private final long[] minValues;
+    private final long[] maxValues;
+    private final int[] docCounts;
+
+    SkipIndexReader(SkipperEntry entry, RandomAccessInput slice) {
+      this.entry = entry;
+      this.slice = slice;
+      numLevels = entry.numBlocksPerLevel.length;
+      levelOffsets = new long[numLevels];
+      long offset = 0;
+      for (int level = 0; level < numLevels; ++level) {
+        levelOffsets[level] = offset;
+        offset += (long) entry.numBlocksPerLevel[level] * Lucene80DocValuesFormat.SKIP_INDEX_ENTRY_BYTES;
+      }
+      blockIndexes = new int[numLevels];
+      minDocIDs = new int[numLevels];
+      maxDocIDs = new int[numLevels];
+      minValues = new long[numLevels];
+      maxValues = new long[numLevels];
+      docCounts = new int[numLevels];
+      Arrays.fill(blockIndexes, -1);
+      Arrays.fill(minDocIDs, -1);
+      Arrays.fill(maxDocIDs, -1);
+    }
+
+    private int readMaxDocID(int level, int index) throws IOException {
+      return slice.readInt(levelOffsets[level] + (long) index * Lucene80DocValuesFormat.SKIP_INDEX_ENTRY_BYTES);
+    }
+
+    private void loadBlock(int level, int index) throws IOException {
+      if (blockIndexes[level] == index) {
+        return;
+      }
+      long offset = levelOffsets[level] + (long) index * Lucene80DocValuesFormat.SKIP_INDEX_ENTRY_BYTES;
+      maxDocIDs[level] = slice.readInt(offset);
+      minDocIDs[level] = slice.readInt(offset + Integer.BYTES);
+      maxValues[level] = slice.readLong(offset + 2 * Integer.BYTES);
+      minValues[level] = slice.readLong(offset + 2 * Integer.BYTES + Long.BYTES);
+      docCounts[level] = slice.readInt(offset + 2 * Integer.BYTES + 2 * Long.BYTES);
+      blockIndexes[level] = index;
+    }
+
+    @Override
+    public void advance(int target) throws IOException {
+      if (target <= maxDocIDs[0]) {
+        return;
+      }
+      final int topLevel = numLevels - 1;
+      final int numTopLevelBlocks = entry.numBlocksPerLevel[topLevel];
+      int index = Math.max(blockIndexes[topLevel], 0);
+      while (index < numTopLevelBlocks && readMaxDocID(topLevel, index) < target) {
+        ++index;
+      }
+      if (index == numTopLevelBlocks) {
+        for (int level = 0; level < numLevels; ++level) {
+          blockIndexes[level] = entry.numBlocksPerLevel[level];
+          minDocIDs[level] = maxDocIDs[level] = DocIdSetIterator.NO_MORE_DOCS;
+          minValues[level] = Long.MAX_VALUE;
+          maxValues[level] = Long.MIN_VALUE;
+          docCounts[level] = 0;
+        }
+        return;
+      }
+      loadBlock(topLevel, index);
+      for (int level = topLevel - 1; level >= 0; --level) {
+        // the block that contains the target is one of the children of the block of the level above
+        index = Math.max(blockIndexes[level], blockIndexes[level + 1] << Lucene80DocValuesFormat.SKIP_INDEX_LEVEL_SHIFT);
+        while (readMaxDocID(level, index) < target) {
+          ++index;
+        }
+        loadBlock(level, index);
+      }
+    }
+
+    @Override
+    public int numLevels() {
+      return numLevels;
+    }
+
+    @Override
+    public int minDocID(int level) {
+      return minDocIDs[level];
+    }
+
+    @Override
+    public int maxDocID(int level) {
+      return maxDocIDs[level];
+    }
+
+    @Override
+    public long minValue(int level) {
+      return minValues[level];
+    }
+
+    @Override
+    public long maxValue(int level) {
+      return maxValues[level];
+    }
+
+    @Override
+    public int docCount(int level) {
+      return docCounts[level];
+    }
+
+    @Override
+    public long minValue() {
+      return entry.minValue;
+    }
+
+    @Override
+    public long maxValue() {
+      return entry.maxValue;
+    }
+
+    @Override
+    public int docCount() {
+      return entry.docCount;
+    }
+  }
+
   @Override
   public void checkIntegrity() throws IOException {
     CodecUtil.checksumEntireFile(data);
@@ -227,6 +227,17 @@ public final class Lucene84PostingsReader extends PostingsReaderBase {
 
   }
     
+  @Override
+  public void prefetch(FieldInfo fieldInfo, BlockTermState termState) throws IOException {
+    final IntBlockTermState state = (IntBlockTermState) termState;
+    if (state.docFreq > 1) { // singletons are inlined in the terms dictionary
+      // doc IDs and freqs end where skip data starts, otherwise they take at most 5 bytes each
+      long length = state.skipOffset != -1 ? state.skipOffset : state.docFreq * 2L * 5;
+      length = Math.min(length, docIn.length() - state.docStartFP);
+      docIn.prefetch(state.docStartFP, length);
+    }
+  }
+
   @Override
   public PostingsEnum postings(FieldInfo fieldInfo, BlockTermState termState, PostingsEnum reuse, int flags) throws IOException {
     
@@ -459,6 +470,29 @@ public final class Lucene84PostingsReader extends PostingsReaderBase {
       return doc;
     }
 
+    @Override
+    public int nextDocsAndFreqs(int upTo, int[] docs, int[] freqs) throws IOException {
+      assert doc != -1;
+      int count = 0;
+      while (doc < upTo && count < docs.length) {
+        if (isFreqsRead == false) {
+          pforUtil.decode(docIn, freqBuffer); // read freqBuffer for this block
+          isFreqsRead = true;
+        }
+        // copy documents of the current block, the NO_MORE_DOCS sentinel stops partial blocks
+        final int start = docBufferUpto - 1;
+        final int end = Math.min(BLOCK_SIZE, start + docs.length - count);
+        int i = start;
+        for (; i < end && docBuffer[i] < upTo; ++i, ++count) {
+          docs[count] = (int) docBuffer[i];
+          freqs[count] = (int) freqBuffer[i];
+        }
+        docBufferUpto = i;
+        nextDoc();
+      }
+      return count;
+    }
+
     @Override
     public int advance(int target) throws IOException {
       // current skip docID < docIDs generated from current buffer <= next skip docID
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.pkfilter;
+
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BitUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.StringHelper;
+
+/**
+ * A bloom filter over the terms of a primary key field in a segment. It answers whether a term
+ * may exist in the segment, with no false negatives and a false positive probability of about
+ * 1% or less.
+ * <p>
+ * The filter also keeps track of how it performed on the lookups that went through
+ * {@link PrimaryKeyFilterPostingsFormat}, see {@link #getFalsePositiveRate()}.
+ *
+ * @lucene.experimental
+ */
+public final class PrimaryKeyFilter implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(PrimaryKeyFilter.class)
+      + 3 * RamUsageEstimator.shallowSizeOfInstance(LongAdder.class);
+
+  // seeds of the two hashes that the probes are derived from, they are part of the file format
+  private static final int SEED1 = 0x9747b28c;
+  private static final int SEED2 = 0x5bd1e995;
+
+  /** Minimum number of bits per term, the actual number is rounded up to a power of two. */
+  static final int BITS_PER_TERM = 10;
+  /** Number of bits that are set per term. */
+  static final int NUM_HASHES = 7;
+
+  private final long[] bits;
+  private final long mask;
+  private final int numHashes;
+
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+  private final LongAdder falsePositives = new LongAdder();
+
+  /** Create an empty filter that is sized for the given number of terms. */
+  PrimaryKeyFilter(long numTerms) {
+    this(new long[Math.toIntExact(numBits(numTerms) >>> 6)], NUM_HASHES);
+  }
+
+  private PrimaryKeyFilter(long[] bits, int numHashes) {
+    this.bits = bits;
+    this.mask = ((long) bits.length << 6) - 1;
+    this.numHashes = numHashes;
+  }
+
+  private static long numBits(long numTerms) {
+    final long minBits = Math.max(Long.SIZE, numTerms * BITS_PER_TERM);
+    return BitUtil.nextHighestPowerOfTwo(minBits);
+  }
+
+  /** Add a term to this filter. */
+  void add(BytesRef term) {
+    final long h1 = hash1(term);
+    final long h2 = hash2(term);
+    for (int i = 0; i < numHashes; ++i) {
+      final long bit = (h1 + i * h2) & mask;
+      bits[(int) (bit >>> 6)] |= 1L << bit;
+    }
+  }
+
+  /** Return {@code false} if the term is not in the segment, and {@code true} if it may be. */
+  public boolean mayContain(BytesRef term) {
+    final long h1 = hash1(term);
+    final long h2 = hash2(term);
+    for (int i = 0; i < numHashes; ++i) {
+      final long bit = (h1 + i * h2) & mask;
+      if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long hash1(BytesRef term) {
+    return StringHelper.murmurhash3_x86_32(term, SEED1) & 0xFFFFFFFFL;
+  }
+
+  private static long hash2(BytesRef term) {
+    // odd so that probes don't cycle on the power-of-two sized bit set
+    return ((long) StringHelper.murmurhash3_x86_32(term, SEED2) << 1) | 1L;
+  }
+
+  /** Record the outcome of a lookup of a term. */
+  void recordLookup(boolean rejected, boolean found) {
+    lookups.increment();
+    if (rejected) {
+      rejections.increment();
+    } else if (found == false) {
+      falsePositives.increment();
+    }
+  }
+
+  /** Return the number of terms that were looked up through this filter. */
+  public long getLookupCount() {
+    return lookups.sum();
+  }
+
+  /** Return the number of lookups that this filter answered without seeking the terms dictionary. */
+  public long getRejectionCount() {
+    return rejections.sum();
+  }
+
+  /** Return the number of lookups that this filter let through although the term didn't exist. */
+  public long getFalsePositiveCount() {
+    return falsePositives.sum();
+  }
+
+  /**
+   * Return the ratio of lookups of terms that didn't exist that this filter failed to reject, or
+   * {@code 0} if no such lookups have been performed.
+   */
+  public double getFalsePositiveRate() {
+    final long falsePositives = getFalsePositiveCount();
+    final long negatives = falsePositives + getRejectionCount();
+    return negatives == 0 ? 0 : (double) falsePositives / negatives;
+  }
+
+  void write(DataOutput out) throws IOException {
+    out.writeVInt(numHashes);
+    out.writeVInt(bits.length);
+    for (long word : bits) {
+      out.writeLong(word);
+    }
+  }
+
+  static PrimaryKeyFilter read(DataInput in) throws IOException {
+    final int numHashes = in.readVInt();
+    final long[] bits = new long[in.readVInt()];
+    for (int i = 0; i < bits.length; ++i) {
+      bits[i] = in.readLong();
+    }
+    return new PrimaryKeyFilter(bits, numHashes);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(bits);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(bits=" + (mask + 1) + ",hashes=" + numHashes + ")";
+  }
+}
@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.pkfilter;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FieldsConsumer;
+import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.FilterCodec;
+import org.apache.lucene.codecs.NormsProducer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.perfield.PerFieldPostingsFormat;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.Fields;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+
+/**
+ * A {@link PostingsFormat} that wraps another postings format and records a {@link PrimaryKeyFilter}
+ * of the terms of each of its fields, so that {@link TermsEnum#seekExact(BytesRef) exact seeks} on
+ * terms that don't exist in a segment can usually be answered without reading the terms dictionary.
+ * This mostly helps fields that have a unique value per document, like primary keys, which
+ * {@link org.apache.lucene.index.IndexWriter} needs to look up in every segment to apply deletes and
+ * updates.
+ * <p>
+ * The filters are stored in a file with the {@code .pkf} extension that contains:
+ * <ul>
+ *   <li>The name of the wrapped postings format</li>
+ *   <li>The number of fields</li>
+ *   <li>For every field, its number, the number of hash functions, the number of 64-bits words
+ *       of the bit set, followed by the words</li>
+ * </ul>
+ *
+ * @see org.apache.lucene.index.IndexWriterConfig#setPrimaryKeyField(String)
+ * @lucene.experimental
+ */
+public final class PrimaryKeyFilterPostingsFormat extends PostingsFormat {
+
+  /** Name of this postings format. */
+  public static final String NAME = "PrimaryKeyFilter";
+
+  static final String FILTER_CODEC_NAME = "PrimaryKeyFilter";
+  static final String FILTER_EXTENSION = "pkf";
+  static final int VERSION_START = 0;
+  static final int VERSION_CURRENT = VERSION_START;
+
+  private final PostingsFormat delegate;
+
+  /** Sole constructor, used by SPI to read indices. */
+  public PrimaryKeyFilterPostingsFormat() {
+    super(NAME);
+    this.delegate = null;
+  }
+
+  /** Create a new instance that records filters of the terms written by the given postings format. */
+  public PrimaryKeyFilterPostingsFormat(PostingsFormat delegate) {
+    super(NAME);
+    this.delegate = Objects.requireNonNull(delegate);
+  }
+
+  @Override
+  public FieldsConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+    if (delegate == null) {
+      throw new UnsupportedOperationException("Error - " + getClass().getName()
+          + " has been constructed without a choice of PostingsFormat");
+    }
+    return new FilterFieldsConsumer(delegate, state);
+  }
+
+  @Override
+  public FieldsProducer fieldsProducer(SegmentReadState state) throws IOException {
+    return new FilterFieldsProducer(state);
+  }
+
+  /**
+   * Return the filter of the given {@link Terms}, or {@code null} if they don't have a filter. Only
+   * {@link Terms} that are returned by the {@link FieldsProducer} of this format have a filter, they
+   * are hidden by readers that wrap {@link Terms}.
+   */
+  public static PrimaryKeyFilter getFilter(Terms terms) {
+    if (terms instanceof FilteredTerms) {
+      return ((FilteredTerms) terms).filter;
+    }
+    return null;
+  }
+
+  /**
+   * Return a codec that behaves like the given codec, except that it records a
+   * {@link PrimaryKeyFilter} of the terms of the given field. The postings format of the codec
+   * must be a {@link PerFieldPostingsFormat}, so that indices that the returned codec writes can
+   * be read with the given codec.
+   */
+  public static Codec wrap(Codec codec, String field) {
+    if (codec.postingsFormat() instanceof PerFieldPostingsFormat == false) {
+      throw new IllegalArgumentException("Codec " + codec.getName() + " doesn't write postings with a "
+          + PerFieldPostingsFormat.class.getSimpleName() + ", can't record a primary key filter on field \"" + field + "\"");
+    }
+    final PerFieldPostingsFormat in = (PerFieldPostingsFormat) codec.postingsFormat();
+    final PostingsFormat postingsFormat = new PerFieldPostingsFormat() {
+      @Override
+      public PostingsFormat getPostingsFormatForField(String f) {
+        final PostingsFormat format = in.getPostingsFormatForField(f);
+        if (f.equals(field) && format instanceof PrimaryKeyFilterPostingsFormat == false) {
+          return new PrimaryKeyFilterPostingsFormat(format);
+        }
+        return format;
+      }
+    };
+    return new FilterCodec(codec.getName(), codec) {
+      @Override
+      public PostingsFormat postingsFormat() {
+        return postingsFormat;
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return "PrimaryKeyFilterPostingsFormat(" + delegate + ")";
+  }
+
+  private static final class FilterFieldsConsumer extends FieldsConsumer {
+
+    private final PostingsFormat delegatePostingsFormat;
+    private final FieldsConsumer delegateFieldsConsumer;
+    private final SegmentWriteState state;
+    private final Map<FieldInfo, PrimaryKeyFilter> filters = new HashMap<>();
+
+    FilterFieldsConsumer(PostingsFormat delegatePostingsFormat, SegmentWriteState state) throws IOException {
+      this.delegatePostingsFormat = delegatePostingsFormat;
+      this.delegateFieldsConsumer = delegatePostingsFormat.fieldsConsumer(state);
+      this.state = state;
+    }
+
+    @Override
+    public void write(Fields fields, NormsProducer norms) throws IOException {
+      // fill the filters while the delegate consumes the terms rather than reading them again
+      delegateFieldsConsumer.write(new FilterLeafReader.FilterFields(fields) {
+        @Override
+        public Terms terms(String field) throws IOException {
+          final Terms terms = in.terms(field);
+          if (terms == null) {
+            return null;
+          }
+          return new FilterLeafReader.FilterTerms(terms) {
+            @Override
+            public TermsEnum iterator() throws IOException {
+              final PrimaryKeyFilter filter = getOrCreateFilter(field);
+              return new FilterLeafReader.FilterTermsEnum(in.iterator()) {
+                @Override
+                public BytesRef next() throws IOException {
+                  final BytesRef term = in.next();
+                  if (term != null) {
+                    filter.add(term);
+                  }
+                  return term;
+                }
+              };
+            }
+          };
+        }
+      }, norms);
+    }
+
+    /**
+     * Return the filter of the given field, creating it the first time the terms of the field are
+     * iterated so that fields whose terms the delegate doesn't read don't get an empty filter.
+     */
+    private PrimaryKeyFilter getOrCreateFilter(String field) {
+      final FieldInfo fieldInfo = state.fieldInfos.fieldInfo(field);
+      PrimaryKeyFilter filter = filters.get(fieldInfo);
+      if (filter == null) {
+        // a bloom filter can't grow, so it needs to be sized up-front, but terms that are being
+        // flushed or merged don't know their size: assume one term per document like a primary key
+        filter = new PrimaryKeyFilter(state.segmentInfo.maxDoc());
+        filters.put(fieldInfo, filter);
+      }
+      return filter;
+    }
+
+    @Override
+    public void close() throws IOException {
+      boolean success = false;
+      try {
+        delegateFieldsConsumer.close();
+        final String filterFileName = IndexFileNames.segmentFileName(
+            state.segmentInfo.name, state.segmentSuffix, FILTER_EXTENSION);
+        try (IndexOutput out = state.directory.createOutput(filterFileName, state.context)) {
+          CodecUtil.writeIndexHeader(out, FILTER_CODEC_NAME, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+          out.writeString(delegatePostingsFormat.getName());
+          out.writeVInt(filters.size());
+          for (Map.Entry<FieldInfo, PrimaryKeyFilter> entry : filters.entrySet()) {
+            out.writeVInt(entry.getKey().number);
+            entry.getValue().write(out);
+          }
+          CodecUtil.writeFooter(out);
+        }
+        success = true;
+      } finally {
+        if (success == false) {
+          IOUtils.closeWhileHandlingException(delegateFieldsConsumer);
+        }
+      }
+    }
+  }
+
+  private static final class FilterFieldsProducer extends FieldsProducer {
+
+    private final FieldsProducer delegateFieldsProducer;
+    private final Map<String, PrimaryKeyFilter> filters = new HashMap<>();
+
+    FilterFieldsProducer(SegmentReadState state) throws IOException {
+      final String filterFileName = IndexFileNames.segmentFileName(
+          state.segmentInfo.name, state.segmentSuffix, FILTER_EXTENSION);
+      FieldsProducer delegateFieldsProducer = null;
+      boolean success = false;
+      try (ChecksumIndexInput in = state.directory.openChecksumInput(filterFileName, state.context)) {
+        CodecUtil.checkIndexHeader(in, FILTER_CODEC_NAME, VERSION_START, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+        delegateFieldsProducer = PostingsFormat.forName(in.readString()).fieldsProducer(state);
+        final int numFilters = in.readVInt();
+        for (int i = 0; i < numFilters; ++i) {
+          final FieldInfo fieldInfo = state.fieldInfos.fieldInfo(in.readVInt());
+          filters.put(fieldInfo.name, PrimaryKeyFilter.read(in));
+        }
+        CodecUtil.checkFooter(in);
+        success = true;
+      } finally {
+        if (success == false) {
+          IOUtils.closeWhileHandlingException(delegateFieldsProducer);
+        }
+      }
+      this.delegateFieldsProducer = delegateFieldsProducer;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return delegateFieldsProducer.iterator();
+    }
+
+    @Override
+    public Terms terms(String field) throws IOException {
+      final Terms terms = delegateFieldsProducer.terms(field);
+      final PrimaryKeyFilter filter = filters.get(field);
+      if (terms == null || filter == null) {
+        return terms;
+      }
+      return new FilteredTerms(terms, filter);
+    }
+
+    @Override
+    public int size() {
+      return delegateFieldsProducer.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegateFieldsProducer.close();
+    }
+
+    @Override
+    public void checkIntegrity() throws IOException {
+      // the checksum of the filters is verified when they are loaded
+      delegateFieldsProducer.checkIntegrity();
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      long ramBytesUsed = delegateFieldsProducer.ramBytesUsed();
+      for (PrimaryKeyFilter filter : filters.values()) {
+        ramBytesUsed += filter.ramBytesUsed();
+      }
+      return ramBytesUsed;
+    }
+
+    @Override
+    public Collection<Accountable> getChildResources() {
+      final List<Accountable> resources = new ArrayList<>();
+      resources.addAll(Accountables.namedAccountables("field", filters));
+      resources.add(Accountables.namedAccountable("delegate", delegateFieldsProducer));
+      return Collections.unmodifiableList(resources);
+    }
+
+    @Override
+    public String toString() {
+      return getClass().getSimpleName() + "(fields=" + filters.size() + ",delegate=" + delegateFieldsProducer + ")";
+    }
+  }
+
+  private static final class FilteredTerms extends FilterLeafReader.FilterTerms {
+
+    private final PrimaryKeyFilter filter;
+
+    FilteredTerms(Terms in, PrimaryKeyFilter filter) {
+      super(in);
+      this.filter = filter;
+    }
+
+    @Override
+    public TermsEnum iterator() throws IOException {
+      return new FilterLeafReader.FilterTermsEnum(in.iterator()) {
+        @Override
+        public boolean seekExact(BytesRef text) throws IOException {
+          if (filter.mayContain(text) == false) {
+            filter.recordLookup(true, false);
+            return false;
+          }
+          final boolean found = in.seekExact(text);
+          filter.recordLookup(false, found);
+          return found;
+        }
+      };
+    }
+
+    @Override
+    public TermsEnum intersect(CompiledAutomaton compiled, BytesRef startTerm) throws IOException {
+      return in.intersect(compiled, startTerm);
+    }
+
+    @Override
+    public BytesRef getMin() throws IOException {
+      return in.getMin();
+    }
+
+    @Override
+    public BytesRef getMax() throws IOException {
+      return in.getMax();
+    }
+  }
+}
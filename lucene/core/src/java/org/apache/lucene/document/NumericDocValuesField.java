@@ -20,6 +20,7 @@ package org.apache.lucene.document;
 import java.io.IOException;
 
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.NumericDocValues;
@@ -52,6 +53,16 @@ public class NumericDocValuesField extends Field {
     TYPE.freeze();
   }
 
+  /**
+   * Type for numeric DocValues that are also indexed with a skip index, see {@link DocValuesSkipper}.
+   */
+  public static final FieldType INDEXED_TYPE = new FieldType();
+  static {
+    INDEXED_TYPE.setDocValuesType(DocValuesType.NUMERIC);
+    INDEXED_TYPE.putAttribute(DocValuesSkipper.SKIP_INDEX_ATTRIBUTE, "true");
+    INDEXED_TYPE.freeze();
+  }
+
   /** 
    * Creates a new DocValues field with the specified 64-bit long value 
    * @param name field name
@@ -69,10 +80,27 @@ public class NumericDocValuesField extends Field {
    * @throws IllegalArgumentException if the field name is null
    */
   public NumericDocValuesField(String name, Long value) {
-    super(name, TYPE);
+    this(name, value, TYPE);
+  }
+
+  private NumericDocValuesField(String name, Long value, FieldType fieldType) {
+    super(name, fieldType);
     fieldsData = value;
   }
 
+  /**
+   * Creates a new {@link NumericDocValuesField} with the specified 64-bit long value whose doc values
+   * are also indexed with a skip index. This allows {@link #newSlowRangeQuery(String, long, long) range queries}
+   * to skip blocks of documents whose values are out of the range, which makes them efficient on fields
+   * that are correlated with the index sort even if the field is not indexed with points.
+   * @param name field name
+   * @param value 64-bit long value
+   * @throws IllegalArgumentException if the field name is null
+   */
+  public static NumericDocValuesField indexedField(String name, long value) {
+    return new NumericDocValuesField(name, value, INDEXED_TYPE);
+  }
+
   /**
    * Create a range query that matches all documents whose value is between
    * {@code lowerValue} and {@code upperValue} included.
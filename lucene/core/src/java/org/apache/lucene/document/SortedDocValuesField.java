@@ -20,6 +20,7 @@ package org.apache.lucene.document;
 import java.io.IOException;
 
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.SortedSetDocValues;
@@ -56,6 +57,16 @@ public class SortedDocValuesField extends Field {
     TYPE.freeze();
   }
 
+  /**
+   * Type for sorted bytes DocValues that are also indexed with a skip index, see {@link DocValuesSkipper}.
+   */
+  public static final FieldType INDEXED_TYPE = new FieldType();
+  static {
+    INDEXED_TYPE.setDocValuesType(DocValuesType.SORTED);
+    INDEXED_TYPE.putAttribute(DocValuesSkipper.SKIP_INDEX_ATTRIBUTE, "true");
+    INDEXED_TYPE.freeze();
+  }
+
   /**
    * Create a new sorted DocValues field.
    * @param name field name
@@ -63,10 +74,26 @@ public class SortedDocValuesField extends Field {
    * @throws IllegalArgumentException if the field name is null
    */
   public SortedDocValuesField(String name, BytesRef bytes) {
-    super(name, TYPE);
+    this(name, bytes, TYPE);
+  }
+
+  private SortedDocValuesField(String name, BytesRef bytes, FieldType fieldType) {
+    super(name, fieldType);
     fieldsData = bytes;
   }
 
+  /**
+   * Creates a new {@link SortedDocValuesField} whose doc values are also indexed with a skip index
+   * on ordinals, which allows {@link #newSlowRangeQuery range queries} to skip blocks of documents whose
+   * values are out of the range.
+   * @param name field name
+   * @param bytes binary content
+   * @throws IllegalArgumentException if the field name is null
+   */
+  public static SortedDocValuesField indexedField(String name, BytesRef bytes) {
+    return new SortedDocValuesField(name, bytes, INDEXED_TYPE);
+  }
+
   /**
    * Create a range query that matches all documents whose value is between
    * {@code lowerValue} and {@code upperValue} included.
@@ -20,6 +20,7 @@ package org.apache.lucene.document;
 import java.io.IOException;
 
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.LeafReader;
@@ -61,6 +62,16 @@ public class SortedNumericDocValuesField extends Field {
     TYPE.freeze();
   }
 
+  /**
+   * Type for sorted numeric DocValues that are also indexed with a skip index, see {@link DocValuesSkipper}.
+   */
+  public static final FieldType INDEXED_TYPE = new FieldType();
+  static {
+    INDEXED_TYPE.setDocValuesType(DocValuesType.SORTED_NUMERIC);
+    INDEXED_TYPE.putAttribute(DocValuesSkipper.SKIP_INDEX_ATTRIBUTE, "true");
+    INDEXED_TYPE.freeze();
+  }
+
   /** 
    * Creates a new DocValues field with the specified 64-bit long value 
    * @param name field name
@@ -68,10 +79,25 @@ public class SortedNumericDocValuesField extends Field {
    * @throws IllegalArgumentException if the field name is null
    */
   public SortedNumericDocValuesField(String name, long value) {
-    super(name, TYPE);
+    this(name, value, TYPE);
+  }
+
+  private SortedNumericDocValuesField(String name, long value, FieldType fieldType) {
+    super(name, fieldType);
     fieldsData = Long.valueOf(value);
   }
 
+  /**
+   * Creates a new {@link SortedNumericDocValuesField} with the specified 64-bit long value whose doc
+   * values are also indexed with a skip index, see {@link NumericDocValuesField#indexedField(String, long)}.
+   * @param name field name
+   * @param value 64-bit long value
+   * @throws IllegalArgumentException if the field name is null
+   */
+  public static SortedNumericDocValuesField indexedField(String name, long value) {
+    return new SortedNumericDocValuesField(name, value, INDEXED_TYPE);
+  }
+
   /**
    * Create a range query that matches all documents whose value is between
    * {@code lowerValue} and {@code upperValue} included.
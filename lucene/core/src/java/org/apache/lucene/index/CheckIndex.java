@@ -17,6 +17,7 @@
 package org.apache.lucene.index;
 
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.PrintStream;
@@ -30,6 +31,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesProducer;
@@ -61,8 +70,10 @@ import org.apache.lucene.util.CommandLineUtil;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LongBitSet;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.SuppressForbidden;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.Version;
 import org.apache.lucene.util.automaton.Automata;
 import org.apache.lucene.util.automaton.CompiledAutomaton;
@@ -220,6 +231,12 @@ public final class CheckIndex implements Closeable {
 
       /** Status of index sort */
       public IndexSortStatus indexSortStatus;
+
+      /** Exception thrown while checking this segment (null on success). */
+      public Throwable error;
+
+      /** Number of documents that would be lost if this segment were removed, only set if {@link #error} is not null. */
+      public int toLoseDocCount;
     }
     
     /**
@@ -464,6 +481,27 @@ public final class CheckIndex implements Closeable {
   
   private boolean checksumsOnly;
 
+  private int threadCount = 1;
+
+  /**
+   * Set the number of threads to use to check the index. When greater than 1, segments are checked
+   * concurrently, and so are the different parts (postings, doc values, points, stored fields, ...)
+   * of every segment. Messages and statuses are still reported in segment order. Defaults to 1,
+   * which checks everything sequentially.
+   * @lucene.experimental
+   */
+  public void setThreadCount(int threadCount) {
+    if (threadCount <= 0) {
+      throw new IllegalArgumentException("threadCount must be at least 1, got: " + threadCount);
+    }
+    this.threadCount = threadCount;
+  }
+
+  /** See {@link #setThreadCount}. */
+  public int getThreadCount() {
+    return threadCount;
+  }
+
   /** Set infoStream where messages should go.  If null, no
    *  messages are printed.  If verbose is true then more
    *  details are printed. */
@@ -506,7 +544,6 @@ public final class CheckIndex implements Closeable {
   public Status checkIndex(List<String> onlySegments) throws IOException {
     ensureOpen();
     long startNS = System.nanoTime();
-    NumberFormat nf = NumberFormat.getInstance(Locale.ROOT);
     SegmentInfos sis = null;
     Status result = new Status();
     result.dir = dir;
@@ -606,186 +643,57 @@ public final class CheckIndex implements Closeable {
     result.newSegments.clear();
     result.maxSegmentName = -1;
 
-    for(int i=0;i<numSegments;i++) {
-      final SegmentCommitInfo info = sis.info(i);
-      long segmentName = Long.parseLong(info.info.name.substring(1), Character.MAX_RADIX);
-      if (segmentName > result.maxSegmentName) {
-        result.maxSegmentName = segmentName;
-      }
-      if (onlySegments != null && !onlySegments.contains(info.info.name)) {
-        continue;
-      }
-      Status.SegmentInfoStatus segInfoStat = new Status.SegmentInfoStatus();
-      result.segmentInfos.add(segInfoStat);
-      msg(infoStream, "  " + (1+i) + " of " + numSegments + ": name=" + info.info.name + " maxDoc=" + info.info.maxDoc());
-      segInfoStat.name = info.info.name;
-      segInfoStat.maxDoc = info.info.maxDoc();
-      
-      final Version version = info.info.getVersion();
-      if (info.info.maxDoc() <= 0) {
-        throw new RuntimeException("illegal number of documents: maxDoc=" + info.info.maxDoc());
-      }
-
-      int toLoseDocCount = info.info.maxDoc();
-
-      SegmentReader reader = null;
-      Sort previousIndexSort = null;
-
-      try {
-        msg(infoStream, "    version=" + (version == null ? "3.0" : version));
-        msg(infoStream, "    id=" + StringHelper.idToString(info.info.getId()));
-        final Codec codec = info.info.getCodec();
-        msg(infoStream, "    codec=" + codec);
-        segInfoStat.codec = codec;
-        msg(infoStream, "    compound=" + info.info.getUseCompoundFile());
-        segInfoStat.compound = info.info.getUseCompoundFile();
-        msg(infoStream, "    numFiles=" + info.files().size());
-        Sort indexSort = info.info.getIndexSort();
-        if (indexSort != null) {
-          msg(infoStream, "    sort=" + indexSort);
-          if (previousIndexSort != null) {
-            if (previousIndexSort.equals(indexSort) == false) {
-              throw new RuntimeException("index sort changed from " + previousIndexSort + " to " + indexSort);
-            }
-          } else {
-            previousIndexSort = indexSort;
-          }
-        }
-        segInfoStat.numFiles = info.files().size();
-        segInfoStat.sizeMB = info.sizeInBytes()/(1024.*1024.);
-        msg(infoStream, "    size (MB)=" + nf.format(segInfoStat.sizeMB));
-        Map<String,String> diagnostics = info.info.getDiagnostics();
-        segInfoStat.diagnostics = diagnostics;
-        if (diagnostics.size() > 0) {
-          msg(infoStream, "    diagnostics = " + diagnostics);
-        }
-
-        if (!info.hasDeletions()) {
-          msg(infoStream, "    no deletions");
-          segInfoStat.hasDeletions = false;
-        } else {
-          msg(infoStream, "    has deletions [delGen=" + info.getDelGen() + "]");
-          segInfoStat.hasDeletions = true;
-          segInfoStat.deletionsGen = info.getDelGen();
-        }
-        
-        long startOpenReaderNS = System.nanoTime();
-        if (infoStream != null)
-          infoStream.print("    test: open reader.........");
-        reader = new SegmentReader(info, sis.getIndexCreatedVersionMajor(), IOContext.DEFAULT);
-        msg(infoStream, String.format(Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime()-startOpenReaderNS)));
-
-        segInfoStat.openReaderPassed = true;
-        
-        long startIntegrityNS = System.nanoTime();
-        if (infoStream != null)
-          infoStream.print("    test: check integrity.....");
-        reader.checkIntegrity();
-        msg(infoStream, String.format(Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime()-startIntegrityNS)));
-
-        if (reader.maxDoc() != info.info.maxDoc()) {
-          throw new RuntimeException("SegmentReader.maxDoc() " + reader.maxDoc() + " != SegmentInfo.maxDoc " + info.info.maxDoc());
-        }
-        
-        final int numDocs = reader.numDocs();
-        toLoseDocCount = numDocs;
-        
-        if (reader.hasDeletions()) {
-          if (reader.numDocs() != info.info.maxDoc() - info.getDelCount()) {
-            throw new RuntimeException("delete count mismatch: info=" + (info.info.maxDoc() - info.getDelCount()) + " vs reader=" + reader.numDocs());
-          }
-          if ((info.info.maxDoc() - reader.numDocs()) > reader.maxDoc()) {
-            throw new RuntimeException("too many deleted docs: maxDoc()=" + reader.maxDoc() + " vs del count=" + (info.info.maxDoc() - reader.numDocs()));
-          }
-          if (info.info.maxDoc() - reader.numDocs() != info.getDelCount()) {
-            throw new RuntimeException("delete count mismatch: info=" + info.getDelCount() + " vs reader=" + (info.info.maxDoc() - reader.numDocs()));
-          }
+    // segments are checked concurrently if threadCount > 1, but their output and status are
+    // always reported in the order of the segments file
+    final ExecutorService segmentsExecutor;
+    final ExecutorService partsExecutor;
+    if (threadCount > 1) {
+      segmentsExecutor = Executors.newFixedThreadPool(threadCount, new NamedThreadFactory("CheckIndex-segments"));
+      partsExecutor = Executors.newFixedThreadPool(threadCount, new NamedThreadFactory("CheckIndex-parts"));
+    } else {
+      segmentsExecutor = null;
+      partsExecutor = null;
+    }
+    boolean success = false;
+    try {
+      final OrderedChecks segmentChecks = new OrderedChecks(infoStream, segmentsExecutor);
+      final List<Future<Status.SegmentInfoStatus>> segmentFutures = new ArrayList<>();
+      final List<SegmentCommitInfo> segmentInfos = new ArrayList<>();
+      for(int i=0;i<numSegments;i++) {
+        final SegmentCommitInfo info = sis.info(i);
+        long segmentName = Long.parseLong(info.info.name.substring(1), Character.MAX_RADIX);
+        if (segmentName > result.maxSegmentName) {
+          result.maxSegmentName = segmentName;
+        }
+        if (onlySegments != null && !onlySegments.contains(info.info.name)) {
+          continue;
+        }
+        final int segmentNumber = i + 1;
+        final int indexCreatedVersionMajor = sis.getIndexCreatedVersionMajor();
+        segmentInfos.add(info);
+        segmentFutures.add(segmentChecks.submit(out ->
+            checkSegment(info, segmentNumber, numSegments, indexCreatedVersionMajor, out, partsExecutor)));
+      }
+
+      for (int i = 0; i < segmentFutures.size(); i++) {
+        final Status.SegmentInfoStatus segInfoStat = segmentChecks.get(segmentFutures.get(i));
+        result.segmentInfos.add(segInfoStat);
+        if (segInfoStat.error != null) {
+          result.totLoseDocCount += segInfoStat.toLoseDocCount;
+          result.numBadSegments++;
         } else {
-          if (info.getDelCount() != 0) {
-            throw new RuntimeException("delete count mismatch: info=" + info.getDelCount() + " vs reader=" + (info.info.maxDoc() - reader.numDocs()));
-          }
-        }
-        
-        if (checksumsOnly == false) {
-          // Test Livedocs
-          segInfoStat.liveDocStatus = testLiveDocs(reader, infoStream, failFast);
-
-          // Test Fieldinfos
-          segInfoStat.fieldInfoStatus = testFieldInfos(reader, infoStream, failFast);
-
-          // Test Field Norms
-          segInfoStat.fieldNormStatus = testFieldNorms(reader, infoStream, failFast);
-
-          // Test the Term Index
-          segInfoStat.termIndexStatus = testPostings(reader, infoStream, verbose, doSlowChecks, failFast);
-
-          // Test Stored Fields
-          segInfoStat.storedFieldStatus = testStoredFields(reader, infoStream, failFast);
-
-          // Test Term Vectors
-          segInfoStat.termVectorStatus = testTermVectors(reader, infoStream, verbose, doSlowChecks, failFast);
-
-          // Test Docvalues
-          segInfoStat.docValuesStatus = testDocValues(reader, infoStream, failFast);
-
-          // Test PointValues
-          segInfoStat.pointsStatus = testPoints(reader, infoStream, failFast);
-
-          // Test index sort
-          segInfoStat.indexSortStatus = testSort(reader, indexSort, infoStream, failFast);
-
-          // Rethrow the first exception we encountered
-          //  This will cause stats for failed segments to be incremented properly
-          if (segInfoStat.liveDocStatus.error != null) {
-            throw new RuntimeException("Live docs test failed");
-          } else if (segInfoStat.fieldInfoStatus.error != null) {
-            throw new RuntimeException("Field Info test failed");
-          } else if (segInfoStat.fieldNormStatus.error != null) {
-            throw new RuntimeException("Field Norm test failed");
-          } else if (segInfoStat.termIndexStatus.error != null) {
-            throw new RuntimeException("Term Index test failed");
-          } else if (segInfoStat.storedFieldStatus.error != null) {
-            throw new RuntimeException("Stored Field test failed");
-          } else if (segInfoStat.termVectorStatus.error != null) {
-            throw new RuntimeException("Term Vector test failed");
-          } else if (segInfoStat.docValuesStatus.error != null) {
-            throw new RuntimeException("DocValues test failed");
-          } else if (segInfoStat.pointsStatus.error != null) {
-            throw new RuntimeException("Points test failed");
-          }
+          // Keeper
+          result.newSegments.add(segmentInfos.get(i).clone());
         }
-        final String softDeletesField = reader.getFieldInfos().getSoftDeletesField();
-        if (softDeletesField != null) {
-          checkSoftDeletes(softDeletesField, info, reader, infoStream, failFast);
-        }
-        msg(infoStream, "");
-        
-        if (verbose) {
-          msg(infoStream, "detailed segment RAM usage: ");
-          msg(infoStream, Accountables.toString(reader));
-        }
-
-      } catch (Throwable t) {
-        if (failFast) {
-          throw IOUtils.rethrowAlways(t);
-        }
-        msg(infoStream, "FAILED");
-        String comment;
-        comment = "exorciseIndex() would remove reference to this segment";
-        msg(infoStream, "    WARNING: " + comment + "; full exception:");
-        if (infoStream != null)
-          t.printStackTrace(infoStream);
-        msg(infoStream, "");
-        result.totLoseDocCount += toLoseDocCount;
-        result.numBadSegments++;
-        continue;
-      } finally {
-        if (reader != null)
-          reader.close();
       }
-
-      // Keeper
-      result.newSegments.add(info.clone());
+      success = true;
+    } finally {
+      if (segmentsExecutor != null) {
+        // on failure, e.g. with fail fast, don't check the segments that didn't start yet; segments
+        // are shut down first since their checks wait for their parts before closing their readers
+        shutdownAndAwait(segmentsExecutor, success == false);
+        shutdownAndAwait(partsExecutor, success == false);
+      }
     }
 
     if (0 == result.numBadSegments) {
@@ -808,6 +716,204 @@ public final class CheckIndex implements Closeable {
     return result;
   }
 
+  /**
+   * Checks a single segment, writing messages to the given {@code infoStream}. Failures are recorded
+   * in the returned status unless {@link #setFailFast fail fast} is enabled.
+   */
+  private Status.SegmentInfoStatus checkSegment(SegmentCommitInfo info, int segmentNumber, int numSegments, int indexCreatedVersionMajor,
+                                                PrintStream infoStream, ExecutorService partsExecutor) throws IOException {
+    NumberFormat nf = NumberFormat.getInstance(Locale.ROOT);
+    Status.SegmentInfoStatus segInfoStat = new Status.SegmentInfoStatus();
+    msg(infoStream, "  " + segmentNumber + " of " + numSegments + ": name=" + info.info.name + " maxDoc=" + info.info.maxDoc());
+    segInfoStat.name = info.info.name;
+    segInfoStat.maxDoc = info.info.maxDoc();
+    
+    final Version version = info.info.getVersion();
+    if (info.info.maxDoc() <= 0) {
+      throw new RuntimeException("illegal number of documents: maxDoc=" + info.info.maxDoc());
+    }
+
+    int toLoseDocCount = info.info.maxDoc();
+
+    SegmentReader reader = null;
+    OrderedChecks partChecks = null;
+    Sort previousIndexSort = null;
+
+    try {
+      msg(infoStream, "    version=" + (version == null ? "3.0" : version));
+      msg(infoStream, "    id=" + StringHelper.idToString(info.info.getId()));
+      final Codec codec = info.info.getCodec();
+      msg(infoStream, "    codec=" + codec);
+      segInfoStat.codec = codec;
+      msg(infoStream, "    compound=" + info.info.getUseCompoundFile());
+      segInfoStat.compound = info.info.getUseCompoundFile();
+      msg(infoStream, "    numFiles=" + info.files().size());
+      Sort indexSort = info.info.getIndexSort();
+      if (indexSort != null) {
+        msg(infoStream, "    sort=" + indexSort);
+        if (previousIndexSort != null) {
+          if (previousIndexSort.equals(indexSort) == false) {
+            throw new RuntimeException("index sort changed from " + previousIndexSort + " to " + indexSort);
+          }
+        } else {
+          previousIndexSort = indexSort;
+        }
+      }
+      segInfoStat.numFiles = info.files().size();
+      segInfoStat.sizeMB = info.sizeInBytes()/(1024.*1024.);
+      msg(infoStream, "    size (MB)=" + nf.format(segInfoStat.sizeMB));
+      Map<String,String> diagnostics = info.info.getDiagnostics();
+      segInfoStat.diagnostics = diagnostics;
+      if (diagnostics.size() > 0) {
+        msg(infoStream, "    diagnostics = " + diagnostics);
+      }
+
+      if (!info.hasDeletions()) {
+        msg(infoStream, "    no deletions");
+        segInfoStat.hasDeletions = false;
+      } else {
+        msg(infoStream, "    has deletions [delGen=" + info.getDelGen() + "]");
+        segInfoStat.hasDeletions = true;
+        segInfoStat.deletionsGen = info.getDelGen();
+      }
+      
+      long startOpenReaderNS = System.nanoTime();
+      if (infoStream != null)
+        infoStream.print("    test: open reader.........");
+      reader = new SegmentReader(info, indexCreatedVersionMajor, IOContext.DEFAULT);
+      msg(infoStream, String.format(Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime()-startOpenReaderNS)));
+
+      segInfoStat.openReaderPassed = true;
+      
+      long startIntegrityNS = System.nanoTime();
+      if (infoStream != null)
+        infoStream.print("    test: check integrity.....");
+      reader.checkIntegrity();
+      msg(infoStream, String.format(Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime()-startIntegrityNS)));
+
+      if (reader.maxDoc() != info.info.maxDoc()) {
+        throw new RuntimeException("SegmentReader.maxDoc() " + reader.maxDoc() + " != SegmentInfo.maxDoc " + info.info.maxDoc());
+      }
+      
+      final int numDocs = reader.numDocs();
+      toLoseDocCount = numDocs;
+      
+      if (reader.hasDeletions()) {
+        if (reader.numDocs() != info.info.maxDoc() - info.getDelCount()) {
+          throw new RuntimeException("delete count mismatch: info=" + (info.info.maxDoc() - info.getDelCount()) + " vs reader=" + reader.numDocs());
+        }
+        if ((info.info.maxDoc() - reader.numDocs()) > reader.maxDoc()) {
+          throw new RuntimeException("too many deleted docs: maxDoc()=" + reader.maxDoc() + " vs del count=" + (info.info.maxDoc() - reader.numDocs()));
+        }
+        if (info.info.maxDoc() - reader.numDocs() != info.getDelCount()) {
+          throw new RuntimeException("delete count mismatch: info=" + info.getDelCount() + " vs reader=" + (info.info.maxDoc() - reader.numDocs()));
+        }
+      } else {
+        if (info.getDelCount() != 0) {
+          throw new RuntimeException("delete count mismatch: info=" + info.getDelCount() + " vs reader=" + (info.info.maxDoc() - reader.numDocs()));
+        }
+      }
+      
+      if (checksumsOnly == false) {
+        // the parts of the segment are checked concurrently if a parts executor is provided, this
+        // is safe since each check pulls its own iterators and merge instances from the reader
+        final SegmentReader segmentReader = reader;
+        partChecks = new OrderedChecks(infoStream, partsExecutor);
+
+        // Test Livedocs
+        Future<Status.LiveDocStatus> liveDocStatus = partChecks.submit(out -> testLiveDocs(segmentReader, out, failFast));
+
+        // Test Fieldinfos
+        Future<Status.FieldInfoStatus> fieldInfoStatus = partChecks.submit(out -> testFieldInfos(segmentReader, out, failFast));
+
+        // Test Field Norms
+        Future<Status.FieldNormStatus> fieldNormStatus = partChecks.submit(out -> testFieldNorms(segmentReader, out, failFast));
+
+        // Test the Term Index
+        Future<Status.TermIndexStatus> termIndexStatus = partChecks.submit(out -> testPostings(segmentReader, out, verbose, doSlowChecks, failFast));
+
+        // Test Stored Fields
+        Future<Status.StoredFieldStatus> storedFieldStatus = partChecks.submit(out -> testStoredFields(segmentReader, out, failFast));
+
+        // Test Term Vectors
+        Future<Status.TermVectorStatus> termVectorStatus = partChecks.submit(out -> testTermVectors(segmentReader, out, verbose, doSlowChecks, failFast));
+
+        // Test Docvalues
+        Future<Status.DocValuesStatus> docValuesStatus = partChecks.submit(out -> testDocValues(segmentReader, out, failFast));
+
+        // Test PointValues
+        Future<Status.PointsStatus> pointsStatus = partChecks.submit(out -> testPoints(segmentReader, out, failFast));
+
+        // Test index sort
+        final Sort sort = indexSort;
+        Future<Status.IndexSortStatus> indexSortStatus = partChecks.submit(out -> testSort(segmentReader, sort, out, failFast));
+
+        segInfoStat.liveDocStatus = partChecks.get(liveDocStatus);
+        segInfoStat.fieldInfoStatus = partChecks.get(fieldInfoStatus);
+        segInfoStat.fieldNormStatus = partChecks.get(fieldNormStatus);
+        segInfoStat.termIndexStatus = partChecks.get(termIndexStatus);
+        segInfoStat.storedFieldStatus = partChecks.get(storedFieldStatus);
+        segInfoStat.termVectorStatus = partChecks.get(termVectorStatus);
+        segInfoStat.docValuesStatus = partChecks.get(docValuesStatus);
+        segInfoStat.pointsStatus = partChecks.get(pointsStatus);
+        segInfoStat.indexSortStatus = partChecks.get(indexSortStatus);
+
+        // Rethrow the first exception we encountered
+        //  This will cause stats for failed segments to be incremented properly
+        if (segInfoStat.liveDocStatus.error != null) {
+          throw new RuntimeException("Live docs test failed");
+        } else if (segInfoStat.fieldInfoStatus.error != null) {
+          throw new RuntimeException("Field Info test failed");
+        } else if (segInfoStat.fieldNormStatus.error != null) {
+          throw new RuntimeException("Field Norm test failed");
+        } else if (segInfoStat.termIndexStatus.error != null) {
+          throw new RuntimeException("Term Index test failed");
+        } else if (segInfoStat.storedFieldStatus.error != null) {
+          throw new RuntimeException("Stored Field test failed");
+        } else if (segInfoStat.termVectorStatus.error != null) {
+          throw new RuntimeException("Term Vector test failed");
+        } else if (segInfoStat.docValuesStatus.error != null) {
+          throw new RuntimeException("DocValues test failed");
+        } else if (segInfoStat.pointsStatus.error != null) {
+          throw new RuntimeException("Points test failed");
+        }
+      }
+      final String softDeletesField = reader.getFieldInfos().getSoftDeletesField();
+      if (softDeletesField != null) {
+        checkSoftDeletes(softDeletesField, info, reader, infoStream, failFast);
+      }
+      msg(infoStream, "");
+      
+      if (verbose) {
+        msg(infoStream, "detailed segment RAM usage: ");
+        msg(infoStream, Accountables.toString(reader));
+      }
+
+    } catch (Throwable t) {
+      if (failFast) {
+        throw IOUtils.rethrowAlways(t);
+      }
+      msg(infoStream, "FAILED");
+      String comment;
+      comment = "exorciseIndex() would remove reference to this segment";
+      msg(infoStream, "    WARNING: " + comment + "; full exception:");
+      if (infoStream != null)
+        t.printStackTrace(infoStream);
+      msg(infoStream, "");
+      segInfoStat.error = t;
+      segInfoStat.toLoseDocCount = toLoseDocCount;
+    } finally {
+      // parts that are still running after a failure must not read from a closed reader
+      if (partChecks != null) {
+        partChecks.cancelAndAwait();
+      }
+      if (reader != null)
+        reader.close();
+    }
+
+    return segInfoStat;
+  }
+
   /**
    * Tests index sort order.
    * @lucene.experimental
@@ -2802,6 +2908,7 @@ public final class CheckIndex implements Closeable {
     boolean doSlowChecks = false;
     boolean verbose = false;
     boolean doChecksumsOnly = false;
+    int threadCount = 1;
     List<String> onlySegments = new ArrayList<>();
     String indexPath = null;
     String dirImpl = null;
@@ -2898,6 +3005,19 @@ public final class CheckIndex implements Closeable {
         }
         i++;
         opts.onlySegments.add(args[i]);
+      } else if ("-threadCount".equals(arg)) {
+        if (i == args.length - 1) {
+          throw new IllegalArgumentException("ERROR: missing value for -threadCount option");
+        }
+        i++;
+        try {
+          opts.threadCount = Integer.parseInt(args[i]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("ERROR: invalid value for -threadCount option: " + args[i]);
+        }
+        if (opts.threadCount <= 0) {
+          throw new IllegalArgumentException("ERROR: -threadCount must be at least 1, got: " + opts.threadCount);
+        }
       } else if ("-dir-impl".equals(arg)) {
         if (i == args.length - 1) {
           throw new IllegalArgumentException("ERROR: missing value for -dir-impl option");
@@ -2915,7 +3035,7 @@ public final class CheckIndex implements Closeable {
 
     if (opts.indexPath == null) {
       throw new IllegalArgumentException("\nERROR: index path not specified" +
-                         "\nUsage: java org.apache.lucene.index.CheckIndex pathToIndex [-exorcise] [-slow] [-segment X] [-segment Y] [-dir-impl X]\n" +
+                         "\nUsage: java org.apache.lucene.index.CheckIndex pathToIndex [-exorcise] [-slow] [-segment X] [-segment Y] [-threadCount X] [-dir-impl X]\n" +
                          "\n" +
                          "  -exorcise: actually write a new segments_N file, removing any problematic segments\n" +
                          "  -fast: just verify file checksums, omitting logical integrity checks\n" + 
@@ -2925,6 +3045,8 @@ public final class CheckIndex implements Closeable {
                          "  -segment X: only check the specified segments.  This can be specified multiple\n" + 
                          "              times, to check more than one segment, eg '-segment _2 -segment _a'.\n" +
                          "              You can't use this with the -exorcise option\n" +
+                         "  -threadCount X: number of threads used to check segments, and parts of segments,\n" +
+                         "                  concurrently. Output is still printed in segment order. Defaults to 1.\n" +
                          "  -dir-impl X: use a specific " + FSDirectory.class.getSimpleName() + " implementation. " +
                          "If no package is specified the " + FSDirectory.class.getPackage().getName() + " package will be used.\n" +
                          "\n" +
@@ -2964,6 +3086,7 @@ public final class CheckIndex implements Closeable {
   public int doCheck(Options opts) throws IOException, InterruptedException {
     setDoSlowChecks(opts.doSlowChecks);
     setChecksumsOnly(opts.doChecksumsOnly);
+    setThreadCount(opts.threadCount);
     setInfoStream(opts.out, opts.verbose);
 
     Status result = checkIndex(opts.onlySegments);
@@ -3015,6 +3138,116 @@ public final class CheckIndex implements Closeable {
     }
   }
 
+  /** A check that writes its messages to the given stream, which may be null. */
+  @FunctionalInterface
+  private interface Check<T> {
+    T check(PrintStream infoStream) throws IOException;
+  }
+
+  /**
+   * Runs checks either inline or on an executor. In the latter case every check writes to its own
+   * buffer, which is copied to the info stream once the check's result is retrieved, so that
+   * messages are printed in a stable order as long as results are retrieved in submission order.
+   */
+  private static final class OrderedChecks {
+    private final PrintStream infoStream;
+    private final ExecutorService executor;
+    private final Map<Future<?>,ByteArrayOutputStream> outputs = new HashMap<>();
+    private final List<Task> tasks = new ArrayList<>();
+
+    /** Tracks whether a check started, so that it can be either cancelled or awaited. */
+    private static final class Task {
+      final AtomicBoolean started = new AtomicBoolean();
+      final CountDownLatch done = new CountDownLatch(1);
+    }
+
+    OrderedChecks(PrintStream infoStream, ExecutorService executor) {
+      this.infoStream = infoStream;
+      this.executor = executor;
+    }
+
+    <T> Future<T> submit(Check<T> check) throws IOException {
+      if (executor == null) {
+        // run inline so that exceptions are thrown right away, like with a sequential check
+        return CompletableFuture.completedFuture(check.check(infoStream));
+      }
+      final ByteArrayOutputStream bytes = infoStream == null ? null : new ByteArrayOutputStream();
+      final Task task = new Task();
+      final Future<T> future = executor.submit(() -> {
+        if (task.started.compareAndSet(false, true) == false) {
+          // cancelled before it started
+          return null;
+        }
+        try {
+          if (bytes == null) {
+            return check.check(null);
+          }
+          try (PrintStream out = new PrintStream(bytes, false, IOUtils.UTF_8)) {
+            return check.check(out);
+          }
+        } finally {
+          task.done.countDown();
+        }
+      });
+      tasks.add(task);
+      outputs.put(future, bytes);
+      return future;
+    }
+
+    /**
+     * Prevent checks that didn't start yet from running, and wait for running checks to complete,
+     * even if the current thread is interrupted.
+     */
+    void cancelAndAwait() {
+      boolean interrupted = false;
+      for (Task task : tasks) {
+        if (task.started.compareAndSet(false, true)) {
+          continue;
+        }
+        while (true) {
+          try {
+            task.done.await();
+            break;
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    <T> T get(Future<T> future) throws IOException {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        throw new ThreadInterruptedException(e);
+      } catch (ExecutionException e) {
+        throw IOUtils.rethrowAlways(e.getCause());
+      } finally {
+        final ByteArrayOutputStream bytes = outputs.remove(future);
+        if (bytes != null && future.isDone()) {
+          infoStream.print(bytes.toString(IOUtils.UTF_8));
+        }
+      }
+    }
+  }
+
+  private static void shutdownAndAwait(ExecutorService executor, boolean cancelPending) {
+    if (cancelPending) {
+      // interrupts running checks, which wait for their own tasks before releasing resources
+      executor.shutdownNow();
+    } else {
+      executor.shutdown();
+    }
+    try {
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      throw new ThreadInterruptedException(e);
+    }
+  }
+
   private static double nsToSec(long ns) {
     return ns/1000000000.0;
   }
@@ -83,6 +83,12 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     checkBounds(docID);
     getFieldsReader().visitDocument(docID, visitor);
   }
+
+  @Override
+  public final void prefetchDocument(int docID) throws IOException {
+    checkBounds(docID);
+    getFieldsReader().prefetch(docID);
+  }
   
   @Override
   public final Fields getTermVectors(int docID) throws IOException {
@@ -177,6 +183,17 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     }
     return getDocValuesReader().getSortedSet(fi);
   }
+
+  @Override
+  public final DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    ensureOpen();
+    FieldInfo fi = getFieldInfos().fieldInfo(field);
+    if (fi == null || fi.getDocValuesType() == DocValuesType.NONE) {
+      // Field does not exist or does not index doc values
+      return null;
+    }
+    return getDocValuesReader().getSkipper(fi);
+  }
   
   @Override
   public final NumericDocValues getNormValues(String field) throws IOException {
@@ -19,8 +19,15 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -60,6 +67,16 @@ import org.apache.lucene.util.ThreadInterruptedException;
  *  disk for backwards compatibility.  To enable default
  *  settings for spinning or solid state disks for such
  *  operating systems, use {@link #setDefaultMaxMergesAndThreads(boolean)}.
+ *
+ *  <p>Threads that are allowed by {@link #getMaxThreadCount} but not used
+ *  by a running merge are lent to running merges in order to merge their
+ *  index formats concurrently, see {@link #getIntraMergeExecutor}.</p>
+ *
+ *  <p>With {@link #setPrioritizeMerges priority merging}, all merges count
+ *  against {@link #getMaxThreadCount}, and merges that are not among the
+ *  {@code maxThreadCount} merges with the highest priority are paused, so
+ *  that small merges that keep the segment count low are not starved by
+ *  large ones.</p>
  */ 
 
 public class ConcurrentMergeScheduler extends MergeScheduler {
@@ -121,6 +138,18 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   private double forceMergeMBPerSec = Double.POSITIVE_INFINITY;
 
+  /** Runs index formats of running merges concurrently using spare merge threads. */
+  private final CachedExecutor intraMergeExecutor = new CachedExecutor();
+
+  /** true if running merges should be ranked by priority rather than by size */
+  private boolean prioritizeMerges;
+
+  // Metrics
+  private int pausedMergeCount;
+  private long preemptedMergeCount;
+  private long stallCount;
+  private long totalStallTimeNS;
+
   /** Sole constructor, with all settings set to default
    *  values. */
   public ConcurrentMergeScheduler() {
@@ -186,11 +215,80 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
       } catch (Throwable ignored) {
       }
 
-      maxThreadCount = Math.max(1, Math.min(4, coreCount/2));
+      if (prioritizeMerges) {
+        // all merges count against maxThreadCount, including small ones, so let it grow with the
+        // number of cores:
+        maxThreadCount = Math.max(1, coreCount/2);
+      } else {
+        maxThreadCount = Math.max(1, Math.min(4, coreCount/2));
+      }
       maxMergeCount = maxThreadCount+5;
     }
   }
 
+  /**
+   * Expert: if true, running merges are ranked by {@link #getMergePriority priority}, and all of them,
+   * including small merges, count against {@link #getMaxThreadCount}. Merges that don't fit are paused
+   * the next time they check their {@link MergeRateLimiter rate limiter}, and resume once higher-priority
+   * merges are done. This makes sure that small merges, which are cheap and keep the segment count low,
+   * preempt large merges rather than wait for them. With auto-detected defaults, {@code maxThreadCount}
+   * also scales with the number of cores on non-rotational storage rather than being capped at 4.
+   * Default is false, in which case only merges larger than 50 MB count against {@code maxThreadCount}
+   * and the largest ones are paused first.
+   *
+   * @lucene.experimental
+   */
+  public synchronized void setPrioritizeMerges(boolean prioritizeMerges) {
+    this.prioritizeMerges = prioritizeMerges;
+    updateMergeThreads();
+  }
+
+  /** Returns true if merges are ranked by priority.
+   *
+   * @see #setPrioritizeMerges */
+  public synchronized boolean getPrioritizeMerges() {
+    return prioritizeMerges;
+  }
+
+  /** Returns the number of running merges that are currently paused to let other merges run. */
+  public synchronized int getPausedMergeCount() {
+    return pausedMergeCount;
+  }
+
+  /** Returns how many times a running merge has been paused to let other merges run. */
+  public synchronized long getPreemptedMergeCount() {
+    return preemptedMergeCount;
+  }
+
+  /** Returns how many times an incoming thread has been stalled by {@link #maybeStall} because merges fell behind. */
+  public synchronized long getStallCount() {
+    return stallCount;
+  }
+
+  /** Returns the total time, in milliseconds, that incoming threads have been stalled by {@link #maybeStall}. */
+  public synchronized long getTotalStallTimeMS() {
+    return TimeUnit.NANOSECONDS.toMillis(totalStallTimeNS);
+  }
+
+  /**
+   * Returns the priority of a merge when {@link #setPrioritizeMerges merges are prioritized}: the number of
+   * segments that it removes from the index, plus the ratio of deleted documents that it reclaims, per MB
+   * that it writes. Higher values run first.
+   */
+  protected double getMergePriority(OneMerge merge) {
+    long maxDoc = 0;
+    long delCount = 0;
+    for (SegmentCommitInfo info : merge.segments) {
+      maxDoc += info.info.maxDoc();
+      delCount += info.getDelCount() + info.getSoftDelCount();
+    }
+    double benefit = merge.segments.size() - 1;
+    if (maxDoc > 0) {
+      benefit += (double) delCount / maxDoc;
+    }
+    return benefit / Math.max(1.0, bytesToMB(merge.estimatedMergeBytes));
+  }
+
   /** Set the per-merge IO throttle rate for forced merges (default: {@code Double.POSITIVE_INFINITY}). */
   public synchronized void setForceMergeMBPerSec(double v) {
     forceMergeMBPerSec = v;
@@ -280,10 +378,10 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
         // somewhere that is failing to pass down the right IOContext:
         assert context.context == IOContext.Context.MERGE: "got context=" + context.context;
         
-        // Because rateLimiter is bound to a particular merge thread, this method should
-        // always be called from that context. Verify this.
-        assert mergeThread == Thread.currentThread() : "Not the same merge thread, current="
-          + Thread.currentThread() + ", expected=" + mergeThread;
+        // rateLimiter is bound to the merge thread, but it is also shared with the threads
+        // of the intra-merge executor that work on the same merge
+        assert mergeThread == Thread.currentThread() || Thread.currentThread() instanceof Worker
+          : "Not the same merge thread, current=" + Thread.currentThread() + ", expected=" + mergeThread;
 
         return new RateLimitedIndexOutput(rateLimiter, in.createOutput(name, context));
       }
@@ -293,7 +391,8 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
   /**
    * Called whenever the running merges have changed, to set merge IO limits.
    * This method sorts the merge threads by their merge size in
-   * descending order and then pauses/unpauses threads from first to last --
+   * descending order (or by ascending priority if {@link #setPrioritizeMerges
+   * merges are prioritized}) and then pauses/unpauses threads from first to last --
    * that way, smaller merges are guaranteed to run before larger ones.
    */
 
@@ -315,19 +414,30 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
       threadIdx++;
     }
 
-    // Sort the merge threads, largest first:
-    CollectionUtil.timSort(activeMerges);
-
     final int activeMergeCount = activeMerges.size();
 
-    int bigMergeCount = 0;
+    // Number of merges, at the beginning of the sorted list, that need to be paused:
+    final int pauseCount;
 
-    for (threadIdx=activeMergeCount-1;threadIdx>=0;threadIdx--) {
-      MergeThread mergeThread = activeMerges.get(threadIdx);
-      if (mergeThread.merge.estimatedMergeBytes > MIN_BIG_MERGE_MB*1024*1024) {
-        bigMergeCount = 1+threadIdx;
-        break;
+    if (prioritizeMerges) {
+      // Sort the merge threads, lowest priority first, and only let the
+      // maxThreadCount merges with the highest priority run:
+      CollectionUtil.timSort(activeMerges, Comparator.comparingDouble(mergeThread -> mergeThread.priority));
+      pauseCount = activeMergeCount - maxThreadCount;
+    } else {
+      // Sort the merge threads, largest first:
+      CollectionUtil.timSort(activeMerges);
+
+      int bigMergeCount = 0;
+
+      for (threadIdx=activeMergeCount-1;threadIdx>=0;threadIdx--) {
+        MergeThread mergeThread = activeMerges.get(threadIdx);
+        if (mergeThread.merge.estimatedMergeBytes > MIN_BIG_MERGE_MB*1024*1024) {
+          bigMergeCount = 1+threadIdx;
+          break;
+        }
       }
+      pauseCount = bigMergeCount - maxThreadCount;
     }
 
     long now = System.nanoTime();
@@ -335,18 +445,20 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     StringBuilder message;
     if (verbose()) {
       message = new StringBuilder();
-      message.append(String.format(Locale.ROOT, "updateMergeThreads ioThrottle=%s targetMBPerSec=%.1f MB/sec", doAutoIOThrottle, targetMBPerSec));
+      message.append(String.format(Locale.ROOT, "updateMergeThreads ioThrottle=%s targetMBPerSec=%.1f MB/sec prioritizeMerges=%s", doAutoIOThrottle, targetMBPerSec, prioritizeMerges));
     } else {
       message = null;
     }
 
+    pausedMergeCount = 0;
+
     for (threadIdx=0;threadIdx<activeMergeCount;threadIdx++) {
       MergeThread mergeThread = activeMerges.get(threadIdx);
 
       OneMerge merge = mergeThread.merge;
 
       // pause the thread if maxThreadCount is smaller than the number of merge threads.
-      final boolean doPause = threadIdx < bigMergeCount - maxThreadCount;
+      final boolean doPause = threadIdx < pauseCount;
 
       double newMBPerSec;
       if (doPause) {
@@ -365,6 +477,13 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
       MergeRateLimiter rateLimiter = mergeThread.rateLimiter;
       double curMBPerSec = rateLimiter.getMBPerSec();
 
+      if (doPause) {
+        pausedMergeCount++;
+        if (curMBPerSec != 0.0) {
+          preemptedMergeCount++;
+        }
+      }
+
       if (verbose()) {
         long mergeStartNS = merge.mergeStartNS;
         if (mergeStartNS == -1) {
@@ -372,9 +491,10 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
           mergeStartNS = now;
         }
         message.append('\n');
-        message.append(String.format(Locale.ROOT, "merge thread %s estSize=%.1f MB (written=%.1f MB) runTime=%.1fs (stopped=%.1fs, paused=%.1fs) rate=%s\n",
+        message.append(String.format(Locale.ROOT, "merge thread %s estSize=%.1f MB priority=%.3f (written=%.1f MB) runTime=%.1fs (stopped=%.1fs, paused=%.1fs) rate=%s\n",
                                      mergeThread.getName(),
                                      bytesToMB(merge.estimatedMergeBytes),
+                                     mergeThread.priority,
                                      bytesToMB(rateLimiter.getTotalBytesWritten()),
                                      nsToSec(now - mergeStartNS),
                                      nsToSec(rateLimiter.getTotalStoppedNS()),
@@ -440,7 +560,11 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   @Override
   public void close() {
-    sync();
+    try {
+      sync();
+    } finally {
+      intraMergeExecutor.shutdown();
+    }
   }
 
   /** Wait for any running merge threads to finish. This call is not interruptible as used by {@link #close()}. */
@@ -577,6 +701,7 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   protected synchronized boolean maybeStall(IndexWriter writer) {
     long startStallTime = 0;
+    long startStallNS = -1;
     while (writer.hasPendingMerges() && mergeThreadCount() >= maxMergeCount) {
 
       // This means merging has fallen too far behind: we
@@ -599,10 +724,18 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
       if (verbose() && startStallTime == 0) {
         message("    too many merges; stalling...");
       }
+      if (startStallNS == -1) {
+        startStallNS = System.nanoTime();
+        stallCount++;
+      }
       startStallTime = System.currentTimeMillis();
       doStall();
     }
 
+    if (startStallNS != -1) {
+      totalStallTimeNS += System.nanoTime() - startStallNS;
+    }
+
     if (verbose() && startStallTime != 0) {
       message("  stalled for " + (System.currentTimeMillis()-startStallTime) + " msec");
     }
@@ -633,17 +766,87 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     return thread;
   }
 
+  @Override
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    assert MergeThread.class.isInstance(Thread.currentThread()) : "getIntraMergeExecutor should be called from MergeThread. Current thread: "
+        + Thread.currentThread();
+    return intraMergeExecutor;
+  }
+
+  /**
+   * Executor that runs tasks on a new or cached thread as long as the number of running merge threads
+   * plus the number of busy workers is below {@link #getMaxThreadCount}, and in the calling thread otherwise.
+   */
+  private class CachedExecutor implements Executor {
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final ThreadPoolExecutor executor;
+
+    CachedExecutor() {
+      executor = new ThreadPoolExecutor(0, 1024, 1L, TimeUnit.MINUTES, new SynchronousQueue<>(), r -> {
+        Thread thread = new Worker(r);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+
+    void shutdown() {
+      executor.shutdown();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      final boolean isThreadAvailable;
+      // synchronized on CMS to get a consistent view of the running merge threads
+      synchronized (ConcurrentMergeScheduler.this) {
+        int max = maxThreadCount - mergeThreads.size() - 1;
+        if (activeCount.get() < max) {
+          activeCount.incrementAndGet();
+          isThreadAvailable = true;
+        } else {
+          isThreadAvailable = false;
+        }
+      }
+      if (isThreadAvailable) {
+        try {
+          executor.execute(() -> {
+            try {
+              command.run();
+            } finally {
+              activeCount.decrementAndGet();
+            }
+          });
+          return;
+        } catch (RejectedExecutionException e) {
+          // this scheduler has been closed
+          activeCount.decrementAndGet();
+        }
+      }
+      command.run();
+    }
+  }
+
+  private static class Worker extends Thread {
+    private static final AtomicInteger workerCount = new AtomicInteger();
+
+    Worker(Runnable r) {
+      super(r, "Lucene Merge Worker #" + workerCount.getAndIncrement());
+    }
+  }
+
   /** Runs a merge thread to execute a single merge, then exits. */
   protected class MergeThread extends Thread implements Comparable<MergeThread> {
     final IndexWriter writer;
     final OneMerge merge;
     final MergeRateLimiter rateLimiter;
+    final double priority;
 
     /** Sole constructor. */
     public MergeThread(IndexWriter writer, OneMerge merge) {
       this.writer = writer;
       this.merge = merge;
       this.rateLimiter = new MergeRateLimiter(merge.getMergeProgress());
+      this.priority = getMergePriority(merge);
     }
 
     @Override
@@ -727,7 +930,8 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     StringBuilder sb = new StringBuilder(getClass().getSimpleName() + ": ");
     sb.append("maxThreadCount=").append(maxThreadCount).append(", ");    
     sb.append("maxMergeCount=").append(maxMergeCount).append(", ");    
-    sb.append("ioThrottle=").append(doAutoIOThrottle);
+    sb.append("ioThrottle=").append(doAutoIOThrottle).append(", ");
+    sb.append("prioritizeMerges=").append(prioritizeMerges);
     return sb.toString();
   }
 
@@ -175,6 +175,8 @@ final class DefaultIndexingChain extends DocConsumer {
       }
       termsHash.flush(fieldsToFlush, state, sortMap, normsMergeInstance);
     }
+    // postings are written: hand the blocks back to the allocator so they can be reused
+    termsHash.reset();
     if (docState.infoStream.isEnabled("IW")) {
       docState.infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write postings and finish vectors");
     }
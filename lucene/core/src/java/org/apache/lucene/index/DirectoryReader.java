@@ -23,6 +23,7 @@ import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.lucene.search.SearcherManager; // javadocs
 import org.apache.lucene.store.Directory;
@@ -60,7 +61,23 @@ public abstract class DirectoryReader extends BaseCompositeReader<LeafReader> {
    * @throws IOException if there is a low-level IO error
    */
   public static DirectoryReader open(final Directory directory) throws IOException {
-    return StandardDirectoryReader.open(directory, null);
+    return StandardDirectoryReader.open(directory, null, Collections.emptyMap());
+  }
+
+  /** Expert: returns an IndexReader reading the index in the given
+   *  Directory, with the given reader attributes. Reader attributes
+   *  configure how formats read segments, for instance
+   *  {@link org.apache.lucene.codecs.blocktree.BlockTreeTermsReader#FST_MODE_KEY}.
+   *  Unlike format parameters, they are not recorded in the index, and
+   *  readers that are reopened from the returned reader keep them.
+   * @param directory the index directory
+   * @param readerAttributes the reader attributes, see
+   *        {@link SegmentReadState#readerAttributes}
+   * @throws IOException if there is a low-level IO error
+   * @lucene.experimental
+   */
+  public static DirectoryReader open(final Directory directory, final Map<String, Object> readerAttributes) throws IOException {
+    return StandardDirectoryReader.open(directory, null, readerAttributes);
   }
   
   /**
@@ -109,7 +126,19 @@ public abstract class DirectoryReader extends BaseCompositeReader<LeafReader> {
    * @throws IOException if there is a low-level IO error
    */
   public static DirectoryReader open(final IndexCommit commit) throws IOException {
-   return StandardDirectoryReader.open(commit.getDirectory(), commit);
+   return StandardDirectoryReader.open(commit.getDirectory(), commit, Collections.emptyMap());
+  }
+
+  /** Expert: returns an IndexReader reading the index in the given
+   *  {@link IndexCommit}, with the given reader attributes.
+   * @param commit the commit point to open
+   * @param readerAttributes the reader attributes, see
+   *        {@link #open(Directory, Map)}
+   * @throws IOException if there is a low-level IO error
+   * @lucene.experimental
+   */
+  public static DirectoryReader open(final IndexCommit commit, final Map<String, Object> readerAttributes) throws IOException {
+    return StandardDirectoryReader.open(commit.getDirectory(), commit, readerAttributes);
   }
 
   /**
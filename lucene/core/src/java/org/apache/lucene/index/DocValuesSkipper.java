@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+
+import org.apache.lucene.search.DocIdSetIterator;
+
+/**
+ * Skipper for {@link DocValues}.
+ * <p>
+ * A skipper has a position that can only be {@link #advance(int) advanced}. It exposes, for each of
+ * its {@link #numLevels() levels}, a block of documents that contains the current position, together
+ * with the range of doc IDs and the range of values of this block. Blocks at a given level are made
+ * of consecutive blocks of the level below, so that higher levels allow to skip larger ranges of
+ * documents at once. Values are the long values of numeric fields, and ordinals of sorted fields.
+ * <p>
+ * Skippers are only available on fields whose doc values have been indexed with a skip index, see
+ * {@link #SKIP_INDEX_ATTRIBUTE} and {@link LeafReader#getDocValuesSkipper(String)}.
+ *
+ * @lucene.experimental
+ */
+public abstract class DocValuesSkipper {
+
+  /**
+   * Name of the field attribute that enables the skip index on a doc values field when its value is
+   * {@code "true"}. Only {@link DocValuesType#NUMERIC}, {@link DocValuesType#SORTED_NUMERIC},
+   * {@link DocValuesType#SORTED} and {@link DocValuesType#SORTED_SET} fields can have a skip index.
+   * @see org.apache.lucene.document.FieldType#putAttribute(String, String)
+   */
+  public static final String SKIP_INDEX_ATTRIBUTE = "DocValuesSkipper.skipIndex";
+
+  /** Sole constructor. (For invocation by subclass
+   *  constructors, typically implicit.) */
+  protected DocValuesSkipper() {}
+
+  /** Returns whether the given field has been configured to index its doc values with a skip index. */
+  public static boolean hasSkipIndex(FieldInfo fieldInfo) {
+    return Boolean.parseBoolean(fieldInfo.getAttribute(SKIP_INDEX_ATTRIBUTE));
+  }
+
+  /**
+   * Advance this skipper so that all levels contain the next document on or after {@code target}.
+   * <p>
+   * <b>NOTE</b>: The behavior is undefined if {@code target} is less than or equal to {@code maxDocID(0)}.
+   * <p>
+   * <b>NOTE</b>: {@code minDocID(0)} may return a doc ID that is greater than {@code target} if the
+   * target document doesn't have a value.
+   */
+  public abstract void advance(int target) throws IOException;
+
+  /** Return the number of levels. This number may change when moving to a different interval. */
+  public abstract int numLevels();
+
+  /**
+   * Return the minimum doc ID of the block on the given level, inclusive. This returns {@code -1} if
+   * {@link #advance(int)} has not been called yet and {@link DocIdSetIterator#NO_MORE_DOCS} if the
+   * iterator is exhausted. This method is non-increasing when {@code level} increases. Said otherwise
+   * {@code minDocID(level+1) <= minDocID(level)}.
+   */
+  public abstract int minDocID(int level);
+
+  /**
+   * Return the maximum doc ID of the block on the given level, inclusive. This returns {@code -1} if
+   * {@link #advance(int)} has not been called yet and {@link DocIdSetIterator#NO_MORE_DOCS} if the
+   * iterator is exhausted. This method is non-decreasing when {@code level} decreases. Said otherwise
+   * {@code maxDocID(level+1) >= maxDocID(level)}.
+   */
+  public abstract int maxDocID(int level);
+
+  /** Return the minimum value of the block at the given level, inclusive. */
+  public abstract long minValue(int level);
+
+  /** Return the maximum value of the block at the given level, inclusive. */
+  public abstract long maxValue(int level);
+
+  /**
+   * Return the number of documents that have a value in the block at the given level. If this is
+   * equal to {@code maxDocID(level) - minDocID(level) + 1}, then all documents of the block have a value.
+   */
+  public abstract int docCount(int level);
+
+  /** Return the global minimum value. */
+  public abstract long minValue();
+
+  /** Return the global maximum value. */
+  public abstract long maxValue();
+
+  /** Return the global number of documents with a value for the field. */
+  public abstract int docCount();
+
+  /**
+   * Advance this skipper so that all levels intersect the range given by {@code minValue} and
+   * {@code maxValue}. If there are no intersecting levels, the skipper is exhausted.
+   */
+  public final void advance(long minValue, long maxValue) throws IOException {
+    if (minDocID(0) == -1) {
+      // #advance has not been called yet
+      advance(0);
+    }
+    // check if the current interval intersects the provided range
+    while (minDocID(0) != DocIdSetIterator.NO_MORE_DOCS
+        && ((minValue(0) > maxValue || maxValue(0) < minValue))) {
+      int maxDocID = maxDocID(0);
+      int nextLevel = 1;
+      // check if the next levels intersects to skip as many docs as possible
+      while (nextLevel < numLevels()
+          && (minValue(nextLevel) > maxValue || maxValue(nextLevel) < minValue)) {
+        maxDocID = maxDocID(nextLevel);
+        nextLevel++;
+      }
+      if (maxDocID == DocIdSetIterator.NO_MORE_DOCS) {
+        advance(DocIdSetIterator.NO_MORE_DOCS);
+      } else {
+        advance(maxDocID + 1);
+      }
+    }
+  }
+}
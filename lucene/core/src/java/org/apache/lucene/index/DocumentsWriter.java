@@ -31,6 +31,7 @@ import java.util.function.Supplier;
 import java.util.function.ToLongFunction;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.index.DocumentsWriterPerThread.FlushedSegment;
 import org.apache.lucene.index.DocumentsWriterPerThreadPool.ThreadState;
 import org.apache.lucene.search.Query;
@@ -113,6 +114,7 @@ final class DocumentsWriter implements Closeable, Accountable {
   private final InfoStream infoStream;
 
   private final LiveIndexWriterConfig config;
+  private final Codec codec;
 
   private final AtomicInteger numDocsInRAM = new AtomicInteger(0);
 
@@ -130,15 +132,17 @@ final class DocumentsWriter implements Closeable, Accountable {
   final DocumentsWriterPerThreadPool perThreadPool;
   final FlushPolicy flushPolicy;
   final DocumentsWriterFlushControl flushControl;
+  private final DocumentsWriterBlockPool blockPool;
   private long lastSeqNo;
   
   DocumentsWriter(FlushNotifications flushNotifications, int indexCreatedVersionMajor, AtomicLong pendingNumDocs, boolean enableTestPoints,
-                  Supplier<String> segmentNameSupplier, LiveIndexWriterConfig config, Directory directoryOrig, Directory directory,
-                  FieldInfos.FieldNumbers globalFieldNumberMap) {
+                  Supplier<String> segmentNameSupplier, LiveIndexWriterConfig config, Codec codec, Directory directoryOrig,
+                  Directory directory, FieldInfos.FieldNumbers globalFieldNumberMap) {
     this.indexCreatedVersionMajor = indexCreatedVersionMajor;
     this.directoryOrig = directoryOrig;
     this.directory = directory;
     this.config = config;
+    this.codec = codec;
     this.infoStream = config.getInfoStream();
     this.deleteQueue = new DocumentsWriterDeleteQueue(infoStream);
     this.perThreadPool = config.getIndexerThreadPool();
@@ -149,6 +153,8 @@ final class DocumentsWriter implements Closeable, Accountable {
     this.segmentNameSupplier = segmentNameSupplier;
     this.enableTestPoints = enableTestPoints;
     this.flushNotifications = flushNotifications;
+    final long blockPoolBytes = (long) (config.getRAMBlockPoolSizeMB() * 1024 * 1024);
+    this.blockPool = blockPoolBytes > 0 ? new DocumentsWriterBlockPool(blockPoolBytes) : null;
   }
   
   long deleteQueries(final Query... queries) throws IOException {
@@ -386,6 +392,9 @@ final class DocumentsWriter implements Closeable, Accountable {
   public void close() {
     closed = true;
     flushControl.setClosed();
+    if (blockPool != null) {
+      blockPool.close();
+    }
   }
 
   private boolean preUpdate() throws IOException {
@@ -426,8 +435,8 @@ final class DocumentsWriter implements Closeable, Accountable {
     if (state.dwpt == null) {
       final FieldInfos.Builder infos = new FieldInfos.Builder(globalFieldNumberMap);
       state.dwpt = new DocumentsWriterPerThread(indexCreatedVersionMajor, segmentNameSupplier.get(), directoryOrig,
-                                                directory, config, infoStream, deleteQueue, infos,
-                                                pendingNumDocs, enableTestPoints);
+                                                directory, config, codec, infoStream, deleteQueue, infos,
+                                                pendingNumDocs, enableTestPoints, blockPool);
     }
   }
 
@@ -719,7 +728,7 @@ final class DocumentsWriter implements Closeable, Accountable {
 
   @Override
   public long ramBytesUsed() {
-    return flushControl.ramBytesUsed();
+    return flushControl.ramBytesUsed() + getPooledBlockBytes();
   }
 
   /**
@@ -730,4 +739,13 @@ final class DocumentsWriter implements Closeable, Accountable {
   public long getFlushingBytes() {
     return flushControl.getFlushingBytes();
   }
+
+  /**
+   * Returns the number of bytes held by indexing buffer blocks that are kept for reuse after
+   * flushing, or 0 if blocks are not pooled. This is a subset of the value returned by
+   * {@link #ramBytesUsed()}.
+   */
+  long getPooledBlockBytes() {
+    return blockPool == null ? 0 : blockPool.getPooledBytes();
+  }
 }
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import org.apache.lucene.util.ByteBlockPool;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.IntBlockPool;
+
+/**
+ * Keeps the byte and int blocks of flushed {@link DocumentsWriterPerThread}s around so that they can
+ * be reused by the {@link DocumentsWriterPerThread}s that index next, instead of allocating new
+ * blocks on the heap for every segment and leaving the old ones to the garbage collector. This
+ * matters with large RAM buffers, where every flush otherwise releases huge numbers of blocks that
+ * have typically been promoted to the old generation.
+ * <p>
+ * Blocks that are handed out are accounted on the {@link Counter} of the
+ * {@link DocumentsWriterPerThread} that uses them, exactly like freshly allocated blocks, so that
+ * {@link DocumentsWriterFlushControl} keeps making flush decisions based on the indexed data only.
+ * Blocks that sit in this pool are not part of any {@link DocumentsWriterPerThread}'s RAM usage and
+ * are bounded by the configured {@link LiveIndexWriterConfig#getRAMBlockPoolSizeMB() pool size}.
+ * They are reported by {@link IndexWriter#ramBytesUsed()} though, since they stay allocated.
+ * <p>
+ * Blocks are only recycled when a segment is flushed or aborted: term vectors, which release their
+ * blocks after every document, use their own allocators so that the pool's lock is not taken on a
+ * per-document basis.
+ * <p>
+ * Recycled blocks are zero-filled before they are added to the pool since slices of the
+ * {@link ByteBlockPool} rely on unused bytes being 0.
+ */
+final class DocumentsWriterBlockPool {
+
+  private static final int BYTE_BLOCK_BYTES = ByteBlockPool.BYTE_BLOCK_SIZE;
+  private static final int INT_BLOCK_BYTES = IntBlockPool.INT_BLOCK_SIZE * Integer.BYTES;
+
+  private final long maxPooledBytes;
+  private final ArrayDeque<byte[]> freeByteBlocks = new ArrayDeque<>();
+  private final ArrayDeque<int[]> freeIntBlocks = new ArrayDeque<>();
+  private long pooledBytes;
+  private boolean closed;
+
+  DocumentsWriterBlockPool(long maxPooledBytes) {
+    if (maxPooledBytes < 0) {
+      throw new IllegalArgumentException("maxPooledBytes must be >= 0, got " + maxPooledBytes);
+    }
+    this.maxPooledBytes = maxPooledBytes;
+  }
+
+  /** Returns a new byte block allocator that takes blocks from this pool and tracks them on the given counter. */
+  ByteBlockPool.Allocator newByteBlockAllocator(Counter bytesUsed) {
+    return new ByteBlockPool.Allocator(ByteBlockPool.BYTE_BLOCK_SIZE) {
+      @Override
+      public byte[] getByteBlock() {
+        byte[] block = pollByteBlock();
+        if (block == null) {
+          block = new byte[blockSize];
+        }
+        bytesUsed.addAndGet(blockSize);
+        return block;
+      }
+
+      @Override
+      public void recycleByteBlocks(byte[][] blocks, int start, int end) {
+        bytesUsed.addAndGet(-((end - start) * blockSize));
+        for (int i = start; i < end; i++) {
+          offerByteBlock(blocks[i]);
+          blocks[i] = null;
+        }
+      }
+    };
+  }
+
+  /** Returns a new int block allocator that takes blocks from this pool and tracks them on the given counter. */
+  IntBlockPool.Allocator newIntBlockAllocator(Counter bytesUsed) {
+    return new IntBlockPool.Allocator(IntBlockPool.INT_BLOCK_SIZE) {
+      @Override
+      public int[] getIntBlock() {
+        int[] block = pollIntBlock();
+        if (block == null) {
+          block = new int[blockSize];
+        }
+        bytesUsed.addAndGet(INT_BLOCK_BYTES);
+        return block;
+      }
+
+      @Override
+      public void recycleIntBlocks(int[][] blocks, int start, int end) {
+        bytesUsed.addAndGet(-((end - start) * INT_BLOCK_BYTES));
+        for (int i = start; i < end; i++) {
+          offerIntBlock(blocks[i]);
+          blocks[i] = null;
+        }
+      }
+    };
+  }
+
+  private synchronized byte[] pollByteBlock() {
+    final byte[] block = freeByteBlocks.pollLast();
+    if (block != null) {
+      pooledBytes -= BYTE_BLOCK_BYTES;
+    }
+    return block;
+  }
+
+  private synchronized int[] pollIntBlock() {
+    final int[] block = freeIntBlocks.pollLast();
+    if (block != null) {
+      pooledBytes -= INT_BLOCK_BYTES;
+    }
+    return block;
+  }
+
+  private void offerByteBlock(byte[] block) {
+    if (block == null || block.length != BYTE_BLOCK_BYTES || hasRoomFor(BYTE_BLOCK_BYTES) == false) {
+      return;
+    }
+    // zero-fill outside of the lock
+    Arrays.fill(block, (byte) 0);
+    synchronized (this) {
+      if (closed == false && pooledBytes + BYTE_BLOCK_BYTES <= maxPooledBytes) {
+        freeByteBlocks.addLast(block);
+        pooledBytes += BYTE_BLOCK_BYTES;
+      }
+    }
+  }
+
+  private void offerIntBlock(int[] block) {
+    if (block == null || block.length != IntBlockPool.INT_BLOCK_SIZE || hasRoomFor(INT_BLOCK_BYTES) == false) {
+      return;
+    }
+    // zero-fill outside of the lock
+    Arrays.fill(block, 0);
+    synchronized (this) {
+      if (closed == false && pooledBytes + INT_BLOCK_BYTES <= maxPooledBytes) {
+        freeIntBlocks.addLast(block);
+        pooledBytes += INT_BLOCK_BYTES;
+      }
+    }
+  }
+
+  private synchronized boolean hasRoomFor(int bytes) {
+    return closed == false && pooledBytes + bytes <= maxPooledBytes;
+  }
+
+  /** Returns the number of bytes held by blocks that are waiting to be reused. */
+  synchronized long getPooledBytes() {
+    return pooledBytes;
+  }
+
+  /** Releases all pooled blocks and stops pooling blocks that are recycled from now on. */
+  synchronized void close() {
+    closed = true;
+    freeByteBlocks.clear();
+    freeIntBlocks.clear();
+    pooledBytes = 0;
+  }
+}
@@ -165,26 +165,37 @@ final class DocumentsWriterPerThread {
   private final NumberFormat nf = NumberFormat.getInstance(Locale.ROOT);
   final Allocator byteBlockAllocator;
   final IntBlockPool.Allocator intBlockAllocator;
+  // term vectors recycle their blocks after every document, which must not go through the shared block pool
+  final Allocator termVectorsByteBlockAllocator;
+  final IntBlockPool.Allocator termVectorsIntBlockAllocator;
   private final AtomicLong pendingNumDocs;
   private final LiveIndexWriterConfig indexWriterConfig;
   private final boolean enableTestPoints;
   private final int indexVersionCreated;
 
-  public DocumentsWriterPerThread(int indexVersionCreated, String segmentName, Directory directoryOrig, Directory directory, LiveIndexWriterConfig indexWriterConfig, InfoStream infoStream, DocumentsWriterDeleteQueue deleteQueue,
-                                  FieldInfos.Builder fieldInfos, AtomicLong pendingNumDocs, boolean enableTestPoints) throws IOException {
+  public DocumentsWriterPerThread(int indexVersionCreated, String segmentName, Directory directoryOrig, Directory directory, LiveIndexWriterConfig indexWriterConfig, Codec codec, InfoStream infoStream, DocumentsWriterDeleteQueue deleteQueue,
+                                  FieldInfos.Builder fieldInfos, AtomicLong pendingNumDocs, boolean enableTestPoints,
+                                  DocumentsWriterBlockPool blockPool) throws IOException {
     this.directoryOrig = directoryOrig;
     this.directory = new TrackingDirectoryWrapper(directory);
     this.fieldInfos = fieldInfos;
     this.indexWriterConfig = indexWriterConfig;
     this.infoStream = infoStream;
-    this.codec = indexWriterConfig.getCodec();
+    this.codec = codec;
     this.docState = new DocState(this, infoStream);
     this.docState.similarity = indexWriterConfig.getSimilarity();
     this.pendingNumDocs = pendingNumDocs;
     bytesUsed = Counter.newCounter();
-    byteBlockAllocator = new DirectTrackingAllocator(bytesUsed);
+    termVectorsByteBlockAllocator = new DirectTrackingAllocator(bytesUsed);
+    termVectorsIntBlockAllocator = new IntBlockAllocator(bytesUsed);
+    if (blockPool == null) {
+      byteBlockAllocator = termVectorsByteBlockAllocator;
+      intBlockAllocator = termVectorsIntBlockAllocator;
+    } else {
+      byteBlockAllocator = blockPool.newByteBlockAllocator(bytesUsed);
+      intBlockAllocator = blockPool.newIntBlockAllocator(bytesUsed);
+    }
     pendingUpdates = new BufferedUpdates(segmentName);
-    intBlockAllocator = new IntBlockAllocator(bytesUsed);
     this.deleteQueue = Objects.requireNonNull(deleteQueue);
     assert numDocsInRAM == 0 : "num docs " + numDocsInRAM;
     deleteSlice = deleteQueue.newSlice();
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.util.IOSupplier;
+import org.apache.lucene.util.ThreadInterruptedException;
+
+/**
+ * Runs the batches of documents that are passed to {@link IndexWriter#addDocumentsAsync} and
+ * {@link IndexWriter#updateDocumentsAsync} on a fixed pool of worker threads. Since
+ * {@link DocumentsWriterPerThreadPool} hands out a {@link DocumentsWriterPerThread} per concurrent
+ * indexing thread, every worker analyzes and inverts documents into its own
+ * {@link DocumentsWriterPerThread}.
+ * <p>
+ * Producers are slowed down in two ways: they wait on the {@link DocumentsWriterStallControl} when
+ * flushing falls behind indexing, like indexing threads do, and they block when the number of
+ * batches that have been submitted but not indexed yet reaches the configured queue size.
+ * <p>
+ * Worker threads are started lazily, so this pool doesn't cost anything to writers that don't
+ * index asynchronously.
+ */
+final class DocumentsWriterWorkerPool {
+
+  private final ThreadPoolExecutor executor;
+  private final Semaphore pendingBatches;
+  private final DocumentsWriterFlushControl flushControl;
+
+  DocumentsWriterWorkerPool(int threadCount, int queueSize, DocumentsWriterFlushControl flushControl) {
+    this.flushControl = flushControl;
+    this.pendingBatches = new Semaphore(queueSize);
+    final AtomicInteger workerCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+      Thread thread = new Worker(r, "Lucene Indexing Worker #" + workerCount.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Submits a batch, blocking while indexing is stalled or while too many batches are pending.
+   * The returned future completes with the sequence number of the batch, or exceptionally if
+   * indexing the batch failed.
+   */
+  CompletableFuture<Long> submit(IOSupplier<Long> batch) {
+    // stall producers like indexing threads if flushing can't keep up:
+    flushControl.waitIfStalled();
+    try {
+      pendingBatches.acquire();
+    } catch (InterruptedException e) {
+      throw new ThreadInterruptedException(e);
+    }
+    final Batch task = new Batch(batch);
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      pendingBatches.release();
+      throw new AlreadyClosedException("this IndexWriter is closed", e);
+    }
+    return task.future;
+  }
+
+  /** Stops accepting new batches and waits for pending batches to be indexed. */
+  void close() {
+    executor.shutdown();
+    awaitTermination();
+  }
+
+  /**
+   * Stops accepting new batches, fails batches that have not started yet and waits for the ones that
+   * are being indexed. Batches that are being indexed are not interrupted since interrupting threads
+   * that perform IO may close file channels.
+   */
+  void abort() {
+    final List<Runnable> notStarted = new ArrayList<>();
+    executor.getQueue().drainTo(notStarted);
+    executor.shutdown();
+    for (Runnable runnable : notStarted) {
+      ((Batch) runnable).fail(new AlreadyClosedException("this IndexWriter is closed"));
+    }
+    awaitTermination();
+  }
+
+  private void awaitTermination() {
+    final Thread currentThread = Thread.currentThread();
+    if (currentThread instanceof Worker && ((Worker) currentThread).pool() == this) {
+      // a worker that hit a tragic event is closing the writer: don't wait for itself
+      return;
+    }
+    try {
+      while (executor.awaitTermination(1, TimeUnit.SECONDS) == false) {
+        // keep waiting
+      }
+    } catch (InterruptedException e) {
+      throw new ThreadInterruptedException(e);
+    }
+  }
+
+  private final class Worker extends Thread {
+
+    Worker(Runnable r, String name) {
+      super(r, name);
+    }
+
+    DocumentsWriterWorkerPool pool() {
+      return DocumentsWriterWorkerPool.this;
+    }
+  }
+
+  private final class Batch implements Runnable {
+    final IOSupplier<Long> batch;
+    final CompletableFuture<Long> future = new CompletableFuture<>();
+
+    Batch(IOSupplier<Long> batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void run() {
+      try {
+        future.complete(batch.get());
+      } catch (Throwable t) {
+        future.completeExceptionally(t);
+      } finally {
+        pendingBatches.release();
+      }
+    }
+
+    void fail(Throwable t) {
+      try {
+        future.completeExceptionally(t);
+      } finally {
+        pendingBatches.release();
+      }
+    }
+  }
+}
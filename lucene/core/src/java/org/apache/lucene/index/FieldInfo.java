@@ -338,7 +338,7 @@ public final class FieldInfo {
   /**
    * Get a codec attribute value, or null if it does not exist
    */
-  public String getAttribute(String key) {
+  public synchronized String getAttribute(String key) {
     return attributes.get(key);
   }
   
@@ -353,7 +353,7 @@ public final class FieldInfo {
    * the new value. If the value of the attributes for a same field is changed between
    * the documents, the behaviour after merge is undefined.
    */
-  public String putAttribute(String key, String value) {
+  public synchronized String putAttribute(String key, String value) {
     return attributes.put(key, value);
   }
   
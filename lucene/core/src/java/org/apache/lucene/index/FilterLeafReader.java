@@ -224,6 +224,11 @@ public abstract class FilterLeafReader extends LeafReader {
       return in.impacts(flags);
     }
 
+    @Override
+    public void prefetchPostings() throws IOException {
+      in.prefetchPostings();
+    }
+
     @Override
     public void seekExact(BytesRef term, TermState state) throws IOException {
       in.seekExact(term, state);
@@ -355,6 +360,12 @@ public abstract class FilterLeafReader extends LeafReader {
     in.document(docID, visitor);
   }
 
+  @Override
+  public void prefetchDocument(int docID) throws IOException {
+    ensureOpen();
+    in.prefetchDocument(docID);
+  }
+
   @Override
   protected void doClose() throws IOException {
     in.close();
@@ -404,6 +415,12 @@ public abstract class FilterLeafReader extends LeafReader {
     return in.getSortedSetDocValues(field);
   }
 
+  @Override
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    ensureOpen();
+    return in.getDocValuesSkipper(field);
+  }
+
   @Override
   public NumericDocValues getNormValues(String field) throws IOException {
     ensureOpen();
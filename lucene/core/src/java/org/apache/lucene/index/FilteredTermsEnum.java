@@ -187,6 +187,11 @@ public abstract class FilteredTermsEnum extends TermsEnum {
     return tenum.impacts(flags);
   }
 
+  @Override
+  public void prefetchPostings() throws IOException {
+    tenum.prefetchPostings();
+  }
+
   /** This enum does not support seeking!
    * @throws UnsupportedOperationException In general, subclasses do not
    *         support seeking.
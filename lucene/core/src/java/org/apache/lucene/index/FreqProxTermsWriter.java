@@ -33,7 +33,7 @@ import org.apache.lucene.util.IOUtils;
 final class FreqProxTermsWriter extends TermsHash {
 
   public FreqProxTermsWriter(DocumentsWriterPerThread docWriter, TermsHash termVectors) {
-    super(docWriter, true, termVectors);
+    super(docWriter, docWriter.intBlockAllocator, docWriter.byteBlockAllocator, true, termVectors);
   }
 
   private void applyDeletes(SegmentWriteState state, Fields fields) throws IOException {
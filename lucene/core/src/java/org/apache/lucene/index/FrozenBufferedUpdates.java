@@ -30,6 +30,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.IntConsumer;
 
+import org.apache.lucene.codecs.pkfilter.PrimaryKeyFilterPostingsFormat;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
@@ -773,6 +774,8 @@ final class FrozenBufferedUpdates {
     private TermsEnum termsEnum;
     private PostingsEnum postingsEnum;
     private final boolean sortedTerms;
+    // true if the terms of the current field have a primary key filter
+    private boolean filteredTerms;
     private BytesRef readerTerm;
     private BytesRef lastTerm; // only set with asserts
 
@@ -801,7 +804,8 @@ final class FrozenBufferedUpdates {
         Terms terms = provider.terms(field);
         if (terms != null) {
           termsEnum = terms.iterator();
-          if (sortedTerms) {
+          filteredTerms = PrimaryKeyFilterPostingsFormat.getFilter(terms) != null;
+          if (sortedTerms && filteredTerms == false) {
             assert (lastTerm = null) == null; // need to reset otherwise we fail the assertSorted below since we sort per field
             readerTerm = termsEnum.next();
           }
@@ -814,7 +818,9 @@ final class FrozenBufferedUpdates {
     DocIdSetIterator nextTerm(String field, BytesRef term) throws IOException {
       setField(field);
       if (termsEnum != null) {
-        if (sortedTerms) {
+        // exact seeks check the filter first, which saves most seeks of terms that don't
+        // exist in this segment, so they beat seeking forward
+        if (sortedTerms && filteredTerms == false) {
           assert assertSorted(term);
           // in the sorted case we can take advantage of the "seeking forward" property
           // this allows us depending on the term dict impl to reuse data-structures internally
@@ -324,6 +324,15 @@ public abstract class IndexReader implements Closeable {
    *  #document(int)}.  If you want to load a subset, use
    *  {@link DocumentStoredFieldVisitor}.  */
   public abstract void document(int docID, StoredFieldVisitor visitor) throws IOException;
+
+  /** Expert: gives a hint that the stored fields of document
+   *  <code>docID</code> will be visited soon. Calling this for
+   *  every hit of a page of results before retrieving them
+   *  allows their data to be fetched concurrently, see
+   *  {@link org.apache.lucene.codecs.StoredFieldsReader#prefetch(int)}.
+   *  The default implementation is a no-op. */
+  public void prefetchDocument(int docID) throws IOException {
+  }
   
   /**
    * Returns the stored fields of the <code>n</code><sup>th</sup>
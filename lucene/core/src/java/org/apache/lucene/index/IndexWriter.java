@@ -31,12 +31,15 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -44,6 +47,7 @@ import java.util.stream.StreamSupport;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.FieldInfosFormat;
+import org.apache.lucene.codecs.pkfilter.PrimaryKeyFilterPostingsFormat;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.DocValuesUpdate.BinaryDocValuesUpdate;
 import org.apache.lucene.index.DocValuesUpdate.NumericDocValuesUpdate;
@@ -73,6 +77,7 @@ import org.apache.lucene.util.Constants;
 import org.apache.lucene.util.Counter;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.SameThreadExecutorService;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.UnicodeUtil;
@@ -298,6 +303,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
   final FieldNumbers globalFieldNumberMap;
 
   final DocumentsWriter docWriter;
+  private final DocumentsWriterWorkerPool asyncWorkers;
   private final EventQueue eventQueue = new EventQueue(this);
 
   static final class EventQueue implements Closeable {
@@ -557,6 +563,13 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     DirectoryReader r = null;
     doBeforeFlush();
     boolean anyChanges = false;
+    final long maxFullFlushMergeWaitMillis = config.getMaxFullFlushMergeWaitMillis();
+    // state of merges that we wait for before returning the reader
+    final Map<String, SegmentReader> mergedReaders = new HashMap<>();
+    final List<String> mergedFiles = new ArrayList<>();
+    final AtomicBoolean stopCollectingMergedReaders = new AtomicBoolean(false);
+    SegmentInfos openingSegmentInfos = null;
+    MergePolicy.MergeSpecification onGetReaderMerges = null;
     /*
      * for releasing a NRT reader we must ensure that 
      * DW doesn't add any segments or deletes until we are
@@ -606,6 +619,25 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
             if (infoStream.isEnabled("IW")) {
               infoStream.message("IW", "return reader version=" + r.getVersion() + " reader=" + r);
             }
+            if (maxFullFlushMergeWaitMillis > 0) {
+              // take the infos of the reader, which don't have fully deleted segments, so that
+              // every segment has a matching reader in the reader that we just opened
+              openingSegmentInfos = ((StandardDirectoryReader) r).getSegmentInfos().clone();
+              onGetReaderMerges = preparePointInTimeMerge(openingSegmentInfos, stopCollectingMergedReaders::get, MergeTrigger.GET_READER,
+                  sci -> {
+                    final ReadersAndUpdates rld = getPooledInstance(sci, true);
+                    try {
+                      mergedReaders.put(sci.info.name, rld.getReadOnlyClone(IOContext.READ));
+                    } finally {
+                      release(rld);
+                    }
+                    // make sure the merged segment doesn't get deleted by another merge
+                    // until the reader that holds it is opened
+                    final Collection<String> files = sci.files();
+                    deleter.incRef(files);
+                    mergedFiles.addAll(files);
+                  });
+            }
           }
           success = true;
         } finally {
@@ -622,6 +654,21 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
           }
         }
       }
+      if (onGetReaderMerges != null) {
+        if (infoStream.isEnabled("IW")) {
+          infoStream.message("IW", "now run merges during getReader: " + onGetReaderMerges.segString(directory));
+        }
+        try {
+          mergeScheduler.merge(this, MergeTrigger.GET_READER, true);
+          onGetReaderMerges.await(maxFullFlushMergeWaitMillis, TimeUnit.MILLISECONDS);
+        } finally {
+          r = finishGetReaderMerge(stopCollectingMergedReaders, mergedReaders, mergedFiles, openingSegmentInfos,
+              (StandardDirectoryReader) r, applyAllDeletes, writeAllDeletes);
+        }
+        if (infoStream.isEnabled("IW")) {
+          infoStream.message("IW", "done waiting for merges during getReader, return reader=" + r);
+        }
+      }
       anyChanges |= maybeMerge.getAndSet(false);
       if (anyChanges) {
         maybeMerge(config.getMergePolicy(), MergeTrigger.FULL_FLUSH, UNBOUNDED_MAX_MERGE_SEGMENTS);
@@ -637,6 +684,9 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       if (!success2) {
         try {
           IOUtils.closeWhileHandlingException(r);
+          if (onGetReaderMerges != null) {
+            IOUtils.closeWhileHandlingException(() -> discardMergedReaders(stopCollectingMergedReaders, mergedReaders, mergedFiles));
+          }
         } finally {
           maybeCloseOnTragicEvent();
         }
@@ -645,6 +695,73 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     return r;
   }
 
+  /**
+   * Stops collecting readers of merged segments, and returns a reader that
+   * replaces the segments that have been merged away with the merged
+   * segments, or the given reader if no merges completed in time.
+   */
+  private synchronized DirectoryReader finishGetReaderMerge(AtomicBoolean stopCollectingMergedReaders, Map<String, SegmentReader> mergedReaders,
+                                                            List<String> mergedFiles, SegmentInfos openingSegmentInfos,
+                                                            StandardDirectoryReader reader, boolean applyAllDeletes,
+                                                            boolean writeAllDeletes) throws IOException {
+    // this needs to be done under lock since merged readers are collected while holding the lock
+    stopCollectingMergedReaders.set(true);
+    if (mergedReaders.isEmpty()) {
+      return reader;
+    }
+    final Map<String, SegmentReader> readersByName = new HashMap<>();
+    for (LeafReaderContext ctx : reader.leaves()) {
+      final SegmentReader segmentReader = (SegmentReader) ctx.reader();
+      readersByName.put(segmentReader.getSegmentName(), segmentReader);
+    }
+    final List<SegmentReader> readers = new ArrayList<>(openingSegmentInfos.size());
+    boolean success = false;
+    try {
+      for (SegmentCommitInfo info : openingSegmentInfos) {
+        SegmentReader segmentReader = mergedReaders.remove(info.info.name);
+        if (segmentReader == null) {
+          segmentReader = readersByName.get(info.info.name);
+          assert segmentReader != null : "no reader for segment " + info.info.name;
+          segmentReader.incRef();
+        }
+        readers.add(segmentReader);
+      }
+      assert mergedReaders.isEmpty();
+      incRefDeleter(openingSegmentInfos);
+      final DirectoryReader mergedReader = new StandardDirectoryReader(reader.directory(),
+          readers.toArray(new SegmentReader[0]), this, openingSegmentInfos, applyAllDeletes, writeAllDeletes,
+          config.getReaderAttributes());
+      success = true;
+      reader.decRef();
+      return mergedReader;
+    } finally {
+      try {
+        if (success == false) {
+          IOUtils.applyToAll(readers, SegmentReader::decRef);
+        }
+      } finally {
+        // merged readers that haven't been moved to the new reader are released
+        discardMergedReaders(stopCollectingMergedReaders, mergedReaders, mergedFiles);
+      }
+    }
+  }
+
+  /** Stops collecting readers of merged segments and releases the ones that have been collected. */
+  private synchronized void discardMergedReaders(AtomicBoolean stopCollectingMergedReaders, Map<String, SegmentReader> mergedReaders,
+                                                 List<String> mergedFiles) throws IOException {
+    stopCollectingMergedReaders.set(true);
+    try {
+      IOUtils.applyToAll(mergedReaders.values(), SegmentReader::decRef);
+    } finally {
+      mergedReaders.clear();
+      try {
+        deleter.decRef(mergedFiles);
+      } finally {
+        mergedFiles.clear();
+      }
+    }
+  }
+
   @Override
   public final long ramBytesUsed() {
     ensureOpen();
@@ -704,7 +821,8 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
                 if (readerPool.get(rld.info, false) == null) {
                   continue;
                 }
-                if (rld.writeFieldUpdates(directory, globalFieldNumberMap, bufferedUpdatesStream.getCompletedDelGen(), infoStream)) {
+                if (rld.writeFieldUpdates(directory, globalFieldNumberMap, bufferedUpdatesStream.getCompletedDelGen(),
+                    config.getMaxStackedDocValuesUpdates(), infoStream)) {
                   checkpointNoSIS();
                 }
               }
@@ -815,7 +933,12 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       analyzer = config.getAnalyzer();
       mergeScheduler = config.getMergeScheduler();
       mergeScheduler.setInfoStream(infoStream);
-      codec = config.getCodec();
+      if (config.getPrimaryKeyField() != null) {
+        // record a filter of the primary keys alongside segments that this writer writes
+        codec = PrimaryKeyFilterPostingsFormat.wrap(config.getCodec(), config.getPrimaryKeyField());
+      } else {
+        codec = config.getCodec();
+      }
       OpenMode mode = config.getOpenMode();
       final boolean indexExists;
       final boolean create;
@@ -962,12 +1085,16 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       bufferedUpdatesStream = new BufferedUpdatesStream(infoStream);
       docWriter = new DocumentsWriter(flushNotifications, segmentInfos.getIndexCreatedVersionMajor(), pendingNumDocs,
           enableTestPoints, this::newSegmentName,
-          config, directoryOrig, directory, globalFieldNumberMap);
+          config, codec, directoryOrig, directory, globalFieldNumberMap);
+      asyncWorkers = new DocumentsWriterWorkerPool(config.getAsyncIndexingThreadCount(), config.getAsyncIndexingQueueSize(),
+          docWriter.flushControl);
       readerPool = new ReaderPool(directory, directoryOrig, segmentInfos, globalFieldNumberMap,
           bufferedUpdatesStream::getCompletedDelGen, infoStream, conf.getSoftDeletesField(), reader);
       if (config.getReaderPooling()) {
         readerPool.enableReaderPooling();
       }
+      readerPool.setMaxStackedDocValuesUpdates(config.getMaxStackedDocValuesUpdates());
+      readerPool.setReaderAttributes(config.getReaderAttributes());
       // Default deleter (for backwards compatibility) is
       // KeepOnlyLastCommitDeleter:
 
@@ -1116,6 +1243,9 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     // closing
     if (shouldClose(true)) {
       try {
+        // index batches that were submitted asynchronously before flushing:
+        asyncWorkers.close();
+
         if (infoStream.isEnabled("IW")) {
           infoStream.message("IW", "now flush at close");
         }
@@ -1357,7 +1487,12 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
   }
 
   private long updateDocuments(final DocumentsWriterDeleteQueue.Node<?> delNode, Iterable<? extends Iterable<? extends IndexableField>> docs) throws IOException {
-    ensureOpen();
+    return updateDocuments(delNode, docs, true);
+  }
+
+  private long updateDocuments(final DocumentsWriterDeleteQueue.Node<?> delNode, Iterable<? extends Iterable<? extends IndexableField>> docs,
+                               boolean failIfClosing) throws IOException {
+    ensureOpen(failIfClosing);
     boolean success = false;
     try {
       final long seqNo = maybeProcessEvents(docWriter.updateDocuments(docs, analyzer, delNode));
@@ -1377,6 +1512,56 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
 
   }
 
+  /**
+   * Asynchronously adds a block of documents, like {@link #addDocuments(Iterable)}, on one of the
+   * {@link IndexWriterConfig#setAsyncIndexingThreadCount(int) indexing workers} of this writer, which
+   * analyze and invert documents concurrently, each into its own in-memory segment. This spares
+   * applications from running their own pool of indexing threads.
+   *
+   * <p>The calling thread blocks if flushing segments falls behind indexing, like threads that
+   * index synchronously, or if {@link IndexWriterConfig#setAsyncIndexingQueueSize(int) too many batches}
+   * have been submitted but not indexed yet.
+   *
+   * <p><b>NOTE</b>: documents are consumed on a worker thread, so neither the documents nor their
+   * fields may be reused until the returned future completes.
+   *
+   * <p>{@link #close()} waits for pending batches to be indexed, while {@link #rollback()} fails the
+   * batches that have not started yet.
+   *
+   * @return a future that completes with the <a href="#sequence_number">sequence number</a>
+   * for this operation, or exceptionally if indexing the documents failed
+   *
+   * @throws AlreadyClosedException if this writer is closed
+   *
+   * @lucene.experimental
+   */
+  public CompletableFuture<Long> addDocumentsAsync(Iterable<? extends Iterable<? extends IndexableField>> docs) {
+    return updateDocumentsAsync((DocumentsWriterDeleteQueue.Node<?>) null, docs);
+  }
+
+  /**
+   * Asynchronously and atomically deletes documents matching the provided delTerm and adds a block of
+   * documents, like {@link #updateDocuments(Term, Iterable)}.
+   *
+   * See {@link #addDocumentsAsync(Iterable)}.
+   *
+   * @return a future that completes with the <a href="#sequence_number">sequence number</a>
+   * for this operation, or exceptionally if indexing the documents failed
+   *
+   * @throws AlreadyClosedException if this writer is closed
+   *
+   * @lucene.experimental
+   */
+  public CompletableFuture<Long> updateDocumentsAsync(Term delTerm, Iterable<? extends Iterable<? extends IndexableField>> docs) {
+    return updateDocumentsAsync(delTerm == null ? null : DocumentsWriterDeleteQueue.newNode(delTerm), docs);
+  }
+
+  private CompletableFuture<Long> updateDocumentsAsync(final DocumentsWriterDeleteQueue.Node<?> delNode, Iterable<? extends Iterable<? extends IndexableField>> docs) {
+    ensureOpen();
+    // batches that were accepted before close() was called still get indexed while the writer is closing:
+    return asyncWorkers.submit(() -> updateDocuments(delNode, docs, false));
+  }
+
   /**
    * Expert:
    * Atomically updates documents matching the provided
@@ -2160,11 +2345,11 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
 
   final void maybeMerge(MergePolicy mergePolicy, MergeTrigger trigger, int maxNumSegments) throws IOException {
     ensureOpen(false);
-    boolean newMergesFound = updatePendingMerges(mergePolicy, trigger, maxNumSegments);
+    boolean newMergesFound = updatePendingMerges(mergePolicy, trigger, maxNumSegments) != null;
     mergeScheduler.merge(this, trigger, newMergesFound);
   }
 
-  private synchronized boolean updatePendingMerges(MergePolicy mergePolicy, MergeTrigger trigger, int maxNumSegments)
+  private synchronized MergePolicy.MergeSpecification updatePendingMerges(MergePolicy mergePolicy, MergeTrigger trigger, int maxNumSegments)
     throws IOException {
 
     // In case infoStream was disabled on init, but then enabled at some
@@ -2174,16 +2359,19 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     assert maxNumSegments == UNBOUNDED_MAX_MERGE_SEGMENTS || maxNumSegments > 0;
     assert trigger != null;
     if (stopMerges) {
-      return false;
+      return null;
     }
 
     // Do not start new merges if disaster struck
     if (tragedy.get() != null) {
-      return false;
+      return null;
     }
     boolean newMergesFound = false;
     final MergePolicy.MergeSpecification spec;
-    if (maxNumSegments != UNBOUNDED_MAX_MERGE_SEGMENTS) {
+    if (trigger == MergeTrigger.COMMIT || trigger == MergeTrigger.GET_READER) {
+      assert maxNumSegments == UNBOUNDED_MAX_MERGE_SEGMENTS;
+      spec = mergePolicy.findFullFlushMerges(trigger, segmentInfos, this);
+    } else if (maxNumSegments != UNBOUNDED_MAX_MERGE_SEGMENTS) {
       assert trigger == MergeTrigger.EXPLICIT || trigger == MergeTrigger.MERGE_FINISHED :
       "Expected EXPLICT or MERGE_FINISHED as trigger even with maxNumSegments set but was: " + trigger.name();
 
@@ -2206,7 +2394,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
         registerMerge(spec.merges.get(i));
       }
     }
-    return newMergesFound;
+    return spec;
   }
 
   /** Expert: to be used by a {@link MergePolicy} to avoid
@@ -2295,6 +2483,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       mergeScheduler.close();
 
       docWriter.close(); // mark it as closed first to prevent subsequent indexing actions/flushes
+      asyncWorkers.abort(); // fail batches that didn't start and wait for running ones before aborting
       assert !Thread.holdsLock(this) : "IndexWriter lock should never be hold when aborting";
       docWriter.abort(); // don't sync on IW here
       docWriter.flushControl.waitForFlush(); // wait for all concurrently running flushes
@@ -2987,7 +3176,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
 
       SegmentMerger merger = new SegmentMerger(Arrays.asList(readers), info, infoStream, trackingDir,
                                                globalFieldNumberMap, 
-                                               context);
+                                               context, new SameThreadExecutorService());
 
       if (!merger.shouldMerge()) {
         return docWriter.deleteQueue.getNextSequenceNumber();
@@ -3077,6 +3266,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     newInfo.setFiles(info.info.files());
     newInfoPerCommit.setFieldInfosFiles(info.getFieldInfosFiles());
     newInfoPerCommit.setDocValuesUpdatesFiles(info.getDocValuesUpdatesFiles());
+    newInfoPerCommit.setHasStackedDocValuesUpdates(info.hasStackedDocValuesUpdates());
 
     boolean success = false;
 
@@ -3193,6 +3383,9 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       SegmentInfos toCommit = null;
       boolean anyChanges = false;
       long seqNo;
+      MergePolicy.MergeSpecification pointInTimeMerges = null;
+      final AtomicBoolean stopAddingMergedSegments = new AtomicBoolean(false);
+      final long maxCommitMergeWaitMillis = config.getMaxFullFlushMergeWaitMillis();
 
       // This is copied from doFlush, except it's modified to
       // clone & incRef the flushed SegmentInfos inside the
@@ -3256,6 +3449,11 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
               // removed the files we are now syncing.    
               filesToCommit = toCommit.files(false); 
               deleter.incRef(filesToCommit);
+              if (pendingCommitChangeCount != lastCommitChangeCount && maxCommitMergeWaitMillis > 0) {
+                // we can safely call preparePointInTimeMerge since writeReaderPool(true) above wrote all
+                // necessary files to disk and checkpointed them
+                pointInTimeMerges = preparePointInTimeMerge(toCommit, stopAddingMergedSegments::get, MergeTrigger.COMMIT, sci -> {});
+              }
             }
             success = true;
           } finally {
@@ -3281,6 +3479,26 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
         if (anyChanges) {
           maybeMerge.set(true);
         }
+        if (pointInTimeMerges != null) {
+          if (infoStream.isEnabled("IW")) {
+            infoStream.message("IW", "now run merges during commit: " + pointInTimeMerges.segString(directory));
+          }
+          try {
+            mergeScheduler.merge(this, MergeTrigger.COMMIT, true);
+            pointInTimeMerges.await(maxCommitMergeWaitMillis, TimeUnit.MILLISECONDS);
+          } finally {
+            synchronized (this) {
+              // merges that complete from now on won't be applied to the commit point; this needs
+              // to be done under lock since merged segments are applied while holding the lock
+              stopAddingMergedSegments.set(true);
+              // the files of merged segments have been incRef'd in place of the merged away ones
+              filesToCommit = toCommit.files(false);
+            }
+          }
+          if (infoStream.isEnabled("IW")) {
+            infoStream.message("IW", "done waiting for merges during commit");
+          }
+        }
         startCommit(toCommit);
         if (pendingCommit == null) {
           return -1;
@@ -3304,6 +3522,87 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     }
   }
 
+  /**
+   * Asks the merge policy for merges to run on a full flush and registers them.
+   * Merged segments are applied to the given point-in-time {@link SegmentInfos}
+   * as they get committed to the index, until {@code stopCollectingMergeResults}
+   * returns true. {@code mergeFinished} is called with the merged segment, while
+   * holding the lock on this writer, before it gets applied.
+   *
+   * @return the merges to wait for, or null if there are none
+   */
+  private MergePolicy.MergeSpecification preparePointInTimeMerge(SegmentInfos mergingSegmentInfos, BooleanSupplier stopCollectingMergeResults,
+                                                                 MergeTrigger trigger,
+                                                                 IOUtils.IOConsumer<SegmentCommitInfo> mergeFinished) throws IOException {
+    assert Thread.holdsLock(this);
+    assert trigger == MergeTrigger.GET_READER || trigger == MergeTrigger.COMMIT : "illegal trigger: " + trigger;
+    final MergePolicy mergePolicy = new OneMergeWrappingMergePolicy(config.getMergePolicy(), toWrap ->
+        new MergePolicy.OneMerge(toWrap.segments) {
+
+          @Override
+          void onMergeComplete() throws IOException {
+            assert Thread.holdsLock(IndexWriter.this);
+            if (stopCollectingMergeResults.getAsBoolean() == false && isAborted() == false) {
+              final Set<String> mergedSegmentNames = new HashSet<>();
+              for (SegmentCommitInfo sci : segments) {
+                mergedSegmentNames.add(sci.info.name);
+              }
+              // the point in time may hold clones of the segments that have been merged
+              final List<SegmentCommitInfo> mergedAwaySegments = new ArrayList<>();
+              for (SegmentCommitInfo sci : mergingSegmentInfos) {
+                if (mergedSegmentNames.contains(sci.info.name)) {
+                  mergedAwaySegments.add(sci);
+                }
+              }
+              if (mergedAwaySegments.isEmpty() == false) {
+                if (infoStream.isEnabled("IW")) {
+                  infoStream.message("IW", "now apply merge on " + trigger + ": " + segString());
+                }
+                // clone the merged segment so that deletes and doc values updates that get applied
+                // later on don't leak into the point in time
+                final SegmentCommitInfo mergedInfo = info.clone();
+                mergeFinished.accept(info);
+                if (trigger == MergeTrigger.COMMIT) {
+                  // the files of the commit point are protected until the commit is done
+                  deleter.incRef(mergedInfo.files());
+                  for (SegmentCommitInfo sci : mergedAwaySegments) {
+                    deleter.decRef(sci.files());
+                  }
+                }
+                final MergePolicy.OneMerge applicableMerge = new MergePolicy.OneMerge(mergedAwaySegments);
+                applicableMerge.info = mergedInfo;
+                final long segmentCounter = Long.parseLong(mergedInfo.info.name.substring(1), Character.MAX_RADIX);
+                mergingSegmentInfos.counter = Math.max(mergingSegmentInfos.counter, segmentCounter + 1);
+                mergingSegmentInfos.applyMergeChanges(applicableMerge, false);
+              }
+            }
+            toWrap.onMergeComplete();
+          }
+
+          @Override
+          public CodecReader wrapForMerge(CodecReader reader) throws IOException {
+            return toWrap.wrapForMerge(reader);
+          }
+
+          @Override
+          public void mergeFinished() throws IOException {
+            toWrap.mergeFinished();
+          }
+        });
+    final MergePolicy.MergeSpecification spec = updatePendingMerges(mergePolicy, trigger, UNBOUNDED_MAX_MERGE_SEGMENTS);
+    if (spec == null) {
+      return null;
+    }
+    // merges that conflict with running merges didn't get registered and will never run
+    final MergePolicy.MergeSpecification pointInTimeMerges = new MergePolicy.MergeSpecification();
+    for (MergePolicy.OneMerge merge : spec.merges) {
+      if (merge.registerDone) {
+        pointInTimeMerges.add(merge);
+      }
+    }
+    return pointInTimeMerges.merges.isEmpty() ? null : pointInTimeMerges;
+  }
+
   /**
    * Ensures that all changes in the reader-pool are written to disk.
    * @param writeDeletes if <code>true</code> if deletes should be written to disk too.
@@ -3988,6 +4287,9 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       readerPool.drop(merge.info);
       // Safe: these files must exist
       deleteNewFiles(merge.info.files());
+    } else {
+      merge.onMergeComplete();
+      merge.markDone(true);
     }
 
     try (Closeable finalizer = this::checkpoint) {
@@ -4314,6 +4616,8 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
     }
 
     runningMerges.remove(merge);
+    // no-op if the merged segment was committed
+    merge.markDone(false);
   }
 
   @SuppressWarnings("try")
@@ -4459,7 +4763,7 @@ public class IndexWriter implements Closeable, TwoPhaseCommit, Accountable,
       final SegmentMerger merger = new SegmentMerger(mergeReaders,
                                                      merge.info.info, infoStream, dirWrapper,
                                                      globalFieldNumberMap, 
-                                                     context);
+                                                     context, mergeScheduler.getIntraMergeExecutor(merge));
       merge.info.setSoftDelCount(Math.toIntExact(softDeleteCount.get()));
       merge.checkAborted();
 
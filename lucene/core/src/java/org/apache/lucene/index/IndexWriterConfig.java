@@ -19,7 +19,10 @@ package org.apache.lucene.index;
 
 import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -110,6 +113,23 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
   
   /** Default value for whether calls to {@link IndexWriter#close()} include a commit. */
   public final static boolean DEFAULT_COMMIT_ON_CLOSE = true;
+
+  /** Default value for time to wait for merges on commit or NRT reopen (when using a {@link MergePolicy}
+   *  that implements {@link MergePolicy#findFullFlushMerges}). Set to <code>0</code>, which disables
+   *  merging on full flushes. */
+  public static final long DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS = 0;
+
+  /** Default value for the maximum number of stacked doc values update layers. Set to <code>0</code>,
+   *  which rewrites updated doc values fields in full on every flush. */
+  public static final int DEFAULT_MAX_STACKED_DOC_VALUES_UPDATES = 0;
+
+  /** Default value for the maximum number of batches of documents that have been added asynchronously
+   *  but not indexed yet. */
+  public static final int DEFAULT_ASYNC_INDEXING_QUEUE_SIZE = 32;
+
+  /** Default value for the amount of RAM that is kept for reuse by the indexing buffer after
+   *  flushing: blocks are not pooled. */
+  public static final double DEFAULT_RAM_BLOCK_POOL_SIZE_MB = 0.0;
   
   // indicates whether this config instance is already attached to a writer.
   // not final so that it can be cloned properly.
@@ -543,4 +563,156 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
     this.softDeletesField = softDeletesField;
     return this;
   }
+
+  /**
+   * Sets the primary key field, a field that indexes a unique term per document that is used to
+   * update and delete documents, like with {@link IndexWriter#updateDocument(Term, Iterable)}.
+   * The writer records a {@link org.apache.lucene.codecs.pkfilter.PrimaryKeyFilter bloom filter}
+   * of the terms of this field alongside every segment that it writes, and checks it before
+   * seeking the terms dictionary when it resolves deletes and updates, which saves most seeks on
+   * segments that don't contain the term. Filters of segments can be retrieved with
+   * {@link org.apache.lucene.codecs.pkfilter.PrimaryKeyFilterPostingsFormat#getFilter(Terms)},
+   * which also report how often they were checked and their false positive rate.
+   *
+   * <p>Filters and their counters belong to the segment readers that load them. Deletes and updates
+   * are resolved with the writer's pooled readers, which are only kept once an NRT reader has been
+   * opened or with {@link #setReaderPooling(boolean) reader pooling}, so the counters that they
+   * record only live on these readers and on NRT readers opened from the writer, which share them.
+   * A {@link DirectoryReader} that is opened on the {@link org.apache.lucene.store.Directory} has
+   * its own filters, whose counters only reflect lookups on that reader.
+   *
+   * The postings format of the {@link #setCodec(Codec) codec} must be a
+   * {@link org.apache.lucene.codecs.perfield.PerFieldPostingsFormat}. The default value for this is
+   * <code>null</code> which disables the filter.
+   *
+   * @see #getPrimaryKeyField()
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setPrimaryKeyField(String primaryKeyField) {
+    this.primaryKeyField = primaryKeyField;
+    return this;
+  }
+
+  /**
+   * Expert: sets the amount of time to wait for merges (during {@link IndexWriter#commit}
+   * or {@link DirectoryReader#open(IndexWriter)}) returned by
+   * {@link MergePolicy#findFullFlushMerges(MergeTrigger, SegmentInfos, MergePolicy.MergeContext)}.
+   * This lets small segments that were just flushed get merged before they are exposed to a
+   * commit point or NRT reader, so that searches don't have to visit them one by one.
+   * If the merges do not complete within the given time, then they will continue to
+   * execute in the background, but the commit or NRT reader will not reflect them.
+   *
+   * <p>The default is <code>{@value IndexWriterConfig#DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS}</code>,
+   * which disables this behavior.
+   *
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setMaxFullFlushMergeWaitMillis(long maxFullFlushMergeWaitMillis) {
+    if (maxFullFlushMergeWaitMillis < 0) {
+      throw new IllegalArgumentException("maxFullFlushMergeWaitMillis must be >= 0, got " + maxFullFlushMergeWaitMillis);
+    }
+    this.maxFullFlushMergeWaitMillis = maxFullFlushMergeWaitMillis;
+    return this;
+  }
+
+  /**
+   * Expert: sets the maximum number of sparse update layers that may be stacked on top of a
+   * numeric or binary doc values field. When this is greater than zero, writing the updates
+   * of {@link IndexWriter#updateNumericDocValue} and {@link IndexWriter#updateBinaryDocValue}
+   * only writes the documents that were updated to a new doc values generation, which is
+   * merged with the generations below it at read time, so that the cost of a flush grows with
+   * the number of updated documents rather than with the size of the segment. The field is
+   * rewritten in full instead, which collapses its stack, once this many layers are stacked,
+   * once the stacked layers cover more than an eighth of the documents of the segment, or when
+   * an update removes values. Merges also collapse stacks.
+   *
+   * <p>The default is <code>{@value IndexWriterConfig#DEFAULT_MAX_STACKED_DOC_VALUES_UPDATES}</code>,
+   * which always rewrites updated fields in full.
+   *
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setMaxStackedDocValuesUpdates(int maxStackedDocValuesUpdates) {
+    if (maxStackedDocValuesUpdates < 0) {
+      throw new IllegalArgumentException("maxStackedDocValuesUpdates must be >= 0, got " + maxStackedDocValuesUpdates);
+    }
+    this.maxStackedDocValuesUpdates = maxStackedDocValuesUpdates;
+    return this;
+  }
+
+  /**
+   * Expert: sets the attributes of the segment readers that the writer opens, which
+   * includes the readers of near-real-time readers and of readers that are opened from
+   * them. See {@link DirectoryReader#open(org.apache.lucene.store.Directory, Map)}.
+   *
+   * <p>The default is an empty map.
+   *
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setReaderAttributes(Map<String, Object> readerAttributes) {
+    this.readerAttributes = Collections.unmodifiableMap(new HashMap<>(readerAttributes));
+    return this;
+  }
+
+  /**
+   * Sets the number of threads that analyze and invert documents that are added with
+   * {@link IndexWriter#addDocumentsAsync} and {@link IndexWriter#updateDocumentsAsync}. Every thread
+   * indexes into its own in-memory segment, so indexing throughput scales with the number of threads
+   * until IO or flushing becomes the bottleneck. Threads are only started once documents get added
+   * asynchronously.
+   *
+   * <p>The default is the number of available processors.
+   *
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setAsyncIndexingThreadCount(int asyncIndexingThreadCount) {
+    if (asyncIndexingThreadCount < 1) {
+      throw new IllegalArgumentException("asyncIndexingThreadCount must be >= 1, got " + asyncIndexingThreadCount);
+    }
+    this.asyncIndexingThreadCount = asyncIndexingThreadCount;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of batches of documents that may have been added with
+   * {@link IndexWriter#addDocumentsAsync} or {@link IndexWriter#updateDocumentsAsync} but not indexed
+   * yet. Threads that add more batches block until pending batches get indexed.
+   *
+   * <p>The default is <code>{@value IndexWriterConfig#DEFAULT_ASYNC_INDEXING_QUEUE_SIZE}</code>.
+   *
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setAsyncIndexingQueueSize(int asyncIndexingQueueSize) {
+    if (asyncIndexingQueueSize < 1) {
+      throw new IllegalArgumentException("asyncIndexingQueueSize must be >= 1, got " + asyncIndexingQueueSize);
+    }
+    this.asyncIndexingQueueSize = asyncIndexingQueueSize;
+    return this;
+  }
+
+  /**
+   * Sets the maximum amount of RAM, in MB, that is kept for reuse by the indexing buffer once
+   * segments are flushed. When set, the byte and int blocks that buffer postings are handed back to
+   * a pool that is shared by all indexing threads after a segment has been flushed, and are reused
+   * for the documents that get indexed next instead of being allocated again. With large RAM
+   * buffers, this saves the garbage collector from having to reclaim large amounts of long-lived
+   * blocks after every flush, at the cost of keeping up to this amount of RAM allocated while
+   * the writer is open.
+   *
+   * <p>Pooled blocks are not accounted against {@link #setRAMBufferSizeMB(double)}, which keeps
+   * tracking the RAM used by buffered documents only, but they are included in
+   * {@link IndexWriter#ramBytesUsed()}. A value of the order of the RAM buffer size
+   * allows to reuse all blocks of a flushed segment.
+   *
+   * <p>The default is <code>{@value IndexWriterConfig#DEFAULT_RAM_BLOCK_POOL_SIZE_MB}</code>, which
+   * disables pooling.
+   *
+   * @lucene.experimental
+   */
+  public IndexWriterConfig setRAMBlockPoolSizeMB(double ramBlockPoolSizeMB) {
+    if (ramBlockPoolSizeMB < 0.0 || Double.isNaN(ramBlockPoolSizeMB) || Double.isInfinite(ramBlockPoolSizeMB)) {
+      throw new IllegalArgumentException("ramBlockPoolSizeMB must be a finite value >= 0, got " + ramBlockPoolSizeMB);
+    }
+    this.ramBlockPoolSizeMB = ramBlockPoolSizeMB;
+    return this;
+  }
 }
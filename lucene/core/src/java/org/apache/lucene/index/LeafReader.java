@@ -197,6 +197,16 @@ public abstract class LeafReader extends IndexReader {
    *  used by a single thread. */
   public abstract SortedSetDocValues getSortedSetDocValues(String field) throws IOException;
 
+  /** Returns a {@link DocValuesSkipper} allowing to skip ranges of doc IDs that are not
+   *  competitive, or null if the field doesn't have doc values or if its doc values were
+   *  not indexed with a skip index. The returned instance should only be used by a single
+   *  thread.
+   *  <p>The default implementation returns null.
+   *  @lucene.experimental */
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    return null;
+  }
+
   /** Returns {@link NumericDocValues} representing norms
    *  for this field, or null if no {@link NumericDocValues}
    *  were indexed. The returned instance should only be
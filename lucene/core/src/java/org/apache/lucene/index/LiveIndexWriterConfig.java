@@ -18,6 +18,7 @@ package org.apache.lucene.index;
 
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -113,6 +114,27 @@ public class LiveIndexWriterConfig {
   /** soft deletes field */
   protected String softDeletesField = null;
 
+  /** primary key field */
+  protected String primaryKeyField = null;
+
+  /** Amount of time to wait for merges returned by MergePolicy.findFullFlushMerges(...) */
+  protected volatile long maxFullFlushMergeWaitMillis;
+
+  /** Maximum number of sparse doc values update layers that may be stacked on a field */
+  protected int maxStackedDocValuesUpdates;
+
+  /** Number of threads that index documents that are added asynchronously */
+  protected int asyncIndexingThreadCount;
+
+  /** Maximum number of asynchronously added batches of documents that may be pending */
+  protected int asyncIndexingQueueSize;
+
+  /** Maximum amount of RAM in MB that is kept for reuse by the indexing buffer after flushing */
+  protected double ramBlockPoolSizeMB;
+
+  /** Attributes of the segment readers that the writer opens */
+  protected Map<String, Object> readerAttributes = Collections.emptyMap();
+
 
   // used by IndexWriterConfig
   LiveIndexWriterConfig(Analyzer analyzer) {
@@ -137,6 +159,11 @@ public class LiveIndexWriterConfig {
     readerPooling = IndexWriterConfig.DEFAULT_READER_POOLING;
     indexerThreadPool = new DocumentsWriterPerThreadPool();
     perThreadHardLimitMB = IndexWriterConfig.DEFAULT_RAM_PER_THREAD_HARD_LIMIT_MB;
+    maxFullFlushMergeWaitMillis = IndexWriterConfig.DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS;
+    maxStackedDocValuesUpdates = IndexWriterConfig.DEFAULT_MAX_STACKED_DOC_VALUES_UPDATES;
+    asyncIndexingThreadCount = Runtime.getRuntime().availableProcessors();
+    asyncIndexingQueueSize = IndexWriterConfig.DEFAULT_ASYNC_INDEXING_QUEUE_SIZE;
+    ramBlockPoolSizeMB = IndexWriterConfig.DEFAULT_RAM_BLOCK_POOL_SIZE_MB;
   }
   
   /** Returns the default analyzer to use for indexing documents. */
@@ -476,6 +503,72 @@ public class LiveIndexWriterConfig {
     return softDeletesField;
   }
 
+  /**
+   * Returns the primary key field or <code>null</code> if no primary key field is configured.
+   * See {@link IndexWriterConfig#setPrimaryKeyField(String)} for details.
+   */
+  public String getPrimaryKeyField() {
+    return primaryKeyField;
+  }
+
+  /**
+   * Expert: return the amount of time to wait for merges returned by
+   * {@link MergePolicy#findFullFlushMerges(MergeTrigger, SegmentInfos, MergePolicy.MergeContext)}.
+   * If the merges do not complete within the given time, then they will
+   * continue to execute in the background, but the commit or NRT reader
+   * will not reflect them.
+   * @lucene.experimental
+   */
+  public long getMaxFullFlushMergeWaitMillis() {
+    return maxFullFlushMergeWaitMillis;
+  }
+
+  /**
+   * Expert: returns the maximum number of sparse doc values update layers that may be
+   * stacked on top of a field before it gets rewritten in full.
+   * See {@link IndexWriterConfig#setMaxStackedDocValuesUpdates(int)} for details.
+   * @lucene.experimental
+   */
+  public int getMaxStackedDocValuesUpdates() {
+    return maxStackedDocValuesUpdates;
+  }
+
+  /**
+   * Expert: returns the attributes of the segment readers that the writer opens.
+   * See {@link IndexWriterConfig#setReaderAttributes(Map)} for details.
+   * @lucene.experimental
+   */
+  public Map<String, Object> getReaderAttributes() {
+    return readerAttributes;
+  }
+
+  /**
+   * Returns the number of threads that index documents that are added asynchronously.
+   * See {@link IndexWriterConfig#setAsyncIndexingThreadCount(int)} for details.
+   * @lucene.experimental
+   */
+  public int getAsyncIndexingThreadCount() {
+    return asyncIndexingThreadCount;
+  }
+
+  /**
+   * Returns the maximum number of asynchronously added batches of documents that may be pending.
+   * See {@link IndexWriterConfig#setAsyncIndexingQueueSize(int)} for details.
+   * @lucene.experimental
+   */
+  public int getAsyncIndexingQueueSize() {
+    return asyncIndexingQueueSize;
+  }
+
+  /**
+   * Returns the maximum amount of RAM in MB that is kept for reuse by the indexing buffer after flushing.
+   * See {@link IndexWriterConfig#setRAMBlockPoolSizeMB(double)} for details.
+   * @lucene.experimental
+   */
+  public double getRAMBlockPoolSizeMB() {
+    return ramBlockPoolSizeMB;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
@@ -500,6 +593,13 @@ public class LiveIndexWriterConfig {
     sb.append("indexSort=").append(getIndexSort()).append("\n");
     sb.append("checkPendingFlushOnUpdate=").append(isCheckPendingFlushOnUpdate()).append("\n");
     sb.append("softDeletesField=").append(getSoftDeletesField()).append("\n");
+    sb.append("primaryKeyField=").append(getPrimaryKeyField()).append("\n");
+    sb.append("maxFullFlushMergeWaitMillis=").append(getMaxFullFlushMergeWaitMillis()).append("\n");
+    sb.append("maxStackedDocValuesUpdates=").append(getMaxStackedDocValuesUpdates()).append("\n");
+    sb.append("asyncIndexingThreadCount=").append(getAsyncIndexingThreadCount()).append("\n");
+    sb.append("asyncIndexingQueueSize=").append(getAsyncIndexingQueueSize()).append("\n");
+    sb.append("ramBlockPoolSizeMB=").append(getRAMBlockPoolSizeMB()).append("\n");
+    sb.append("readerAttributes=").append(getReaderAttributes()).append("\n");
     return sb.toString();
   }
 }
@@ -598,6 +598,12 @@ public abstract class LogMergePolicy extends MergePolicy {
     return maxMergeDocs;
   }
 
+  /** Segments that are smaller than the minimum merge size may be merged on full flushes. */
+  @Override
+  protected long maxFullFlushMergeSize() {
+    return minMergeSize;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder("[" + getClass().getSimpleName() + ": ");
@@ -24,6 +24,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
@@ -37,6 +41,7 @@ import org.apache.lucene.store.MergeInfo;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.IOSupplier;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 /**
  * <p>Expert: a MergePolicy determines the sequence of
@@ -96,11 +101,12 @@ public abstract class MergePolicy {
     private volatile boolean aborted;
 
     /**
-     * This field is for sanity-check purposes only. Only the same thread that invoked
-     * {@link OneMerge#mergeInit()} is permitted to be calling 
-     * {@link #pauseNanos}. This is always verified at runtime. 
+     * This field is for sanity-check purposes only. {@link #pauseNanos} may only be
+     * called once the merge has been started by {@link OneMerge#mergeInit()}, either
+     * by the owner thread or by the threads of the {@link MergeScheduler#getIntraMergeExecutor
+     * intra-merge executor}. This is always verified at runtime.
      */
-    private Thread owner;
+    private volatile Thread owner;
 
     /** Creates a new merge progress info. */
     public OneMergeProgress() {
@@ -142,10 +148,9 @@ public abstract class MergePolicy {
      *      condition 
      */
     public void pauseNanos(long pauseNanos, PauseReason reason, BooleanSupplier condition) throws InterruptedException {
-      if (Thread.currentThread() != owner) {
-        throw new RuntimeException("Only the merge owner thread can call pauseNanos(). This thread: "
-            + Thread.currentThread().getName() + ", owner thread: "
-            + owner);
+      if (owner == null) {
+        throw new RuntimeException("pauseNanos() can only be called on a started merge. This thread: "
+            + Thread.currentThread().getName());
       }
 
       long start = System.nanoTime();
@@ -225,6 +230,9 @@ public abstract class MergePolicy {
     public final int totalMaxDoc;
     Throwable error;
 
+    // completed with true iff the merged segment was committed to the index
+    private final CompletableFuture<Boolean> mergeCompleted = new CompletableFuture<>();
+
     /** Sole constructor.
      * @param segments List of {@link SegmentCommitInfo}s
      *        to be merged. */
@@ -255,6 +263,29 @@ public abstract class MergePolicy {
     public void mergeFinished() throws IOException {
     }
 
+    /**
+     * Called by {@link IndexWriter} right after the merged segment has been
+     * added to the index, while holding the lock on the writer.
+     */
+    void onMergeComplete() throws IOException {
+    }
+
+    /** Marks this merge as done. {@code committed} is true if the merged
+     *  segment was added to the index. */
+    void markDone(boolean committed) {
+      mergeCompleted.complete(committed);
+    }
+
+    /** Returns true if this merge is done, whether it succeeded or not. */
+    boolean isDone() {
+      return mergeCompleted.isDone();
+    }
+
+    /** Returns true if this merge is done and the merged segment was added to the index. */
+    boolean hasCompletedSuccessfully() {
+      return mergeCompleted.isDone() && mergeCompleted.getNow(false);
+    }
+
     /** Wrap the reader in order to add/remove information to the merged segment. */
     public CodecReader wrapForMerge(CodecReader reader) throws IOException {
       return reader;
@@ -399,6 +430,25 @@ public abstract class MergePolicy {
       }
       return b.toString();
     }
+
+    /**
+     * Waits up to the given amount of time for all merges of this
+     * specification to be done, and returns true if they all are.
+     */
+    boolean await(long timeout, TimeUnit unit) {
+      final CompletableFuture<?>[] futures = new CompletableFuture<?>[merges.size()];
+      for (int i = 0; i < futures.length; ++i) {
+        futures[i] = merges.get(i).mergeCompleted;
+      }
+      try {
+        CompletableFuture.allOf(futures).get(timeout, unit);
+        return true;
+      } catch (InterruptedException e) {
+        throw new ThreadInterruptedException(e);
+      } catch (ExecutionException | TimeoutException e) {
+        return false;
+      }
+    }
   }
 
   /** Exception thrown if there are any problems while executing a merge. */
@@ -526,6 +576,66 @@ public abstract class MergePolicy {
   public abstract MergeSpecification findForcedDeletesMerges(
       SegmentInfos segmentInfos, MergeContext mergeContext) throws IOException;
 
+  /**
+   * Identifies merges that we want to execute (synchronously) on commit or
+   * NRT reopen. By default, this returns the merges of
+   * {@link #findMerges(MergeTrigger, SegmentInfos, MergeContext)} whose
+   * segments are all smaller than {@link #maxFullFlushMergeSize()}, so that
+   * tiny flushed segments get merged before they are exposed to readers.
+   * Merges are only executed if
+   * {@link IndexWriterConfig#setMaxFullFlushMergeWaitMillis(long)} is greater
+   * than 0, and they are only reflected in the commit point or NRT reader if
+   * they complete within that amount of time.
+   *
+   * Any merges returned here must not conflict with merges that are already
+   * running, see {@link MergeContext#getMergingSegments()}.
+   *
+   * @param mergeTrigger the event that triggered the merge
+   *        ({@link MergeTrigger#COMMIT} or {@link MergeTrigger#GET_READER})
+   * @param segmentInfos the total set of segments in the index (while preparing the commit)
+   * @param mergeContext the MergeContext to find the merges on, which should be used to
+   *        determine which segments are already in a registered merge
+   *        (see {@link MergeContext#getMergingSegments()}).
+   */
+  public MergeSpecification findFullFlushMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, MergeContext mergeContext) throws IOException {
+    final long maxSize = maxFullFlushMergeSize();
+    if (maxSize <= 0) {
+      return null;
+    }
+    final MergeSpecification spec = findMerges(mergeTrigger, segmentInfos, mergeContext);
+    if (spec == null) {
+      return null;
+    }
+    MergeSpecification fullFlushSpec = null;
+    for (OneMerge merge : spec.merges) {
+      boolean small = true;
+      for (SegmentCommitInfo info : merge.segments) {
+        if (size(info, mergeContext) >= maxSize) {
+          small = false;
+          break;
+        }
+      }
+      if (small) {
+        if (fullFlushSpec == null) {
+          fullFlushSpec = new MergeSpecification();
+        }
+        fullFlushSpec.add(merge);
+      }
+    }
+    return fullFlushSpec;
+  }
+
+  /**
+   * Return the maximum size of segments to be included in full-flush merges
+   * by the default implementation of
+   * {@link #findFullFlushMerges(MergeTrigger, SegmentInfos, MergeContext)},
+   * in the same unit as {@link #size(SegmentCommitInfo, MergeContext)}.
+   * The default implementation returns 0, which disables full-flush merges.
+   */
+  protected long maxFullFlushMergeSize() {
+    return 0L;
+  }
+
   /**
    * Returns true if a new segment (regardless of its origin) should use the
    * compound file format. The default implementation returns <code>true</code>
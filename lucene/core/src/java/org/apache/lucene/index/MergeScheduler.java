@@ -19,11 +19,13 @@ package org.apache.lucene.index;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.RateLimitedIndexOutput;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.SameThreadExecutorService;
 
 /** <p>Expert: {@link IndexWriter} uses an instance
  *  implementing this interface to execute the merges
@@ -54,6 +56,18 @@ public abstract class MergeScheduler implements Closeable {
     return in;
   }
 
+  /**
+   * Provides an executor that {@link IndexWriter} uses to merge the index formats of the
+   * given merge (stored fields, postings, doc values, points, ...) concurrently. Tasks
+   * are submitted from the thread that runs the merge and write to the {@link Directory}
+   * returned by {@link #wrapForMerge}, so implementations must make sure that this
+   * directory may be used by the executor's threads.
+   * The default implementation runs all tasks in the calling thread.
+   */
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    return new SameThreadExecutorService();
+  }
+
   /** Close this MergeScheduler. */
   @Override
   public abstract void close() throws IOException;
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.index.IndexWriter.IndexReaderWarmer;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.RandomAccessInput;
+import org.apache.lucene.util.InfoStream;
+
+/**
+ * A segment warmer that pre-faults the files of a segment that have one of the configured
+ * extensions, so that the first searches on the segment don't have to wait for these files to be
+ * read from disk. This is typically useful for the terms index ({@code tip}), postings
+ * ({@code doc}), points ({@code dim}) and doc values ({@code dvd}) files of freshly merged segments,
+ * or of all segments after a restart.
+ * <p>
+ * Files are warmed by reading one byte of every page. On a {@link MMapDirectory}, this maps all
+ * pages of the file into the address space of the process, like {@link MMapDirectory#setPreload
+ * preloading} does for files that are opened afterwards; on other directories it brings the file
+ * into the page cache of the operating system. Files of compound segments are warmed individually
+ * by reading the corresponding ranges of the compound file.
+ * <p>
+ * This warmer can be registered with {@link IndexWriterConfig#setMergedSegmentWarmer} to warm
+ * merged segments before they become visible to near-real-time readers, and can warm the segments
+ * of a newly opened reader with {@link #warmLeaves(IndexReader)}, for instance from a
+ * {@link org.apache.lucene.search.SearcherFactory}. The number of warmed bytes and the time spent
+ * warming are reported to the {@link InfoStream} under the {@code PCSW} component and accumulated in
+ * {@link #getWarmedBytes()} and {@link #getWarmTimeMS()}.
+ *
+ * @lucene.experimental
+ */
+public class PageCacheSegmentWarmer implements IndexReaderWarmer {
+
+  /** Extensions that are warmed by default: terms index, postings, norms, doc values and points. */
+  public static final Set<String> DEFAULT_EXTENSIONS = Collections.unmodifiableSet(new HashSet<>(
+      Arrays.asList("tip", "doc", "nvd", "dvd", "dim")));
+
+  /** Distance between two bytes that are read to fault in a file. */
+  static final int PAGE_SIZE = 4096;
+
+  // keeps the JVM from optimizing away the reads that fault pages in
+  private static volatile byte sink;
+
+  private final Set<String> extensions;
+  private final InfoStream infoStream;
+  private final AtomicLong warmedBytes = new AtomicLong();
+  private final AtomicLong warmTimeNS = new AtomicLong();
+
+  /**
+   * Creates a new PageCacheSegmentWarmer that warms files with the {@link #DEFAULT_EXTENSIONS default extensions}.
+   * @param infoStream InfoStream to log statistics about warming.
+   */
+  public PageCacheSegmentWarmer(InfoStream infoStream) {
+    this(DEFAULT_EXTENSIONS, infoStream);
+  }
+
+  /**
+   * Creates a new PageCacheSegmentWarmer.
+   * @param extensions extensions, without leading dot, of the files to warm, e.g. {@code tip}.
+   * @param infoStream InfoStream to log statistics about warming.
+   */
+  public PageCacheSegmentWarmer(Set<String> extensions, InfoStream infoStream) {
+    this.extensions = Collections.unmodifiableSet(new HashSet<>(Objects.requireNonNull(extensions)));
+    this.infoStream = Objects.requireNonNull(infoStream);
+  }
+
+  /** Returns the extensions of the files that are warmed. */
+  public Set<String> getExtensions() {
+    return extensions;
+  }
+
+  /** Returns the total number of bytes that have been warmed by this warmer. */
+  public long getWarmedBytes() {
+    return warmedBytes.get();
+  }
+
+  /** Returns the total time that has been spent warming files, in milliseconds. */
+  public long getWarmTimeMS() {
+    return warmTimeNS.get() / 1000000;
+  }
+
+  /**
+   * Warms all segments of the given reader. Leaves that are not backed by a segment are ignored.
+   */
+  public void warmLeaves(IndexReader reader) throws IOException {
+    for (LeafReaderContext context : reader.leaves()) {
+      warm(context.reader());
+    }
+  }
+
+  @Override
+  public void warm(LeafReader reader) throws IOException {
+    final LeafReader unwrapped = FilterLeafReader.unwrap(reader);
+    if (unwrapped instanceof SegmentReader == false) {
+      return;
+    }
+    final SegmentCommitInfo info = ((SegmentReader) unwrapped).getSegmentInfo();
+    final Directory dir = info.info.dir;
+    final long startNS = System.nanoTime();
+    long bytes = 0;
+    int fileCount = 0;
+    for (String file : info.files()) {
+      if (accept(file)) {
+        bytes += warmFile(dir, file);
+        fileCount++;
+      }
+    }
+    if (info.info.getUseCompoundFile()) {
+      try (Directory cfs = info.info.getCodec().compoundFormat().getCompoundReader(dir, info.info, IOContext.READ)) {
+        for (String file : cfs.listAll()) {
+          if (accept(file)) {
+            bytes += warmFile(cfs, file);
+            fileCount++;
+          }
+        }
+      }
+    }
+    final long tookNS = System.nanoTime() - startNS;
+    warmedBytes.addAndGet(bytes);
+    warmTimeNS.addAndGet(tookNS);
+
+    if (infoStream.isEnabled("PCSW")) {
+      infoStream.message("PCSW",
+          "Finished warming segment: " + info.info.name +
+          ", files=" + fileCount +
+          ", bytes=" + bytes +
+          ", time=" + (tookNS / 1000000));
+    }
+  }
+
+  private boolean accept(String file) {
+    final String extension = IndexFileNames.getExtension(file);
+    return extension != null && extensions.contains(extension);
+  }
+
+  /** Reads one byte of every page of the given file and returns its length. */
+  private static long warmFile(Directory dir, String file) throws IOException {
+    try (IndexInput in = dir.openInput(file, IOContext.READ)) {
+      final long length = in.length();
+      if (length == 0) {
+        return 0;
+      }
+      final RandomAccessInput slice = in.randomAccessSlice(0, length);
+      byte b = 0;
+      for (long pos = 0; pos < length; pos += PAGE_SIZE) {
+        b ^= slice.readByte(pos);
+      }
+      b ^= slice.readByte(length - 1);
+      sink = b;
+      return length;
+    }
+  }
+}
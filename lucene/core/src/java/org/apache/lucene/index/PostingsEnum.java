@@ -93,6 +93,31 @@ public abstract class PostingsEnum extends DocIdSetIterator {
    *  offsets were not indexed. */
   public abstract int endOffset() throws IOException;
 
+  /**
+   * Bulk-reads the current document and the following ones, together with
+   * their term frequencies, into {@code docs} and {@code freqs}. Reading stops
+   * on the first document that is greater than or equal to {@code upTo}, or
+   * when the arrays are full, and this enum is then positioned on the first
+   * document that was not read, like {@link #nextDoc} would. Returns the number
+   * of documents that were read. Do not call this before {@link #nextDoc} is
+   * first called.
+   * <p>
+   * The default implementation calls {@link #nextDoc} and {@link #freq} in a
+   * loop, postings formats that decode documents in blocks may copy them from
+   * their buffers directly.
+   * @lucene.experimental
+   */
+  public int nextDocsAndFreqs(int upTo, int[] docs, int[] freqs) throws IOException {
+    assert docID() != -1;
+    int count = 0;
+    for (int doc = docID(); doc < upTo && count < docs.length; doc = nextDoc()) {
+      docs[count] = doc;
+      freqs[count] = freq();
+      count++;
+    }
+    return count;
+  }
+
   /** Returns the payload at this position, or null if no
    *  payload was indexed. You should not modify anything 
    *  (neither members of the returned BytesRef nor bytes 
@@ -67,6 +67,10 @@ final class ReaderPool implements Closeable {
   // in practice this should be called once the readers are likely
   // to be needed and reused ie if IndexWriter#getReader is called.
   private volatile boolean poolReaders;
+  // maximum number of sparse doc values update layers per field, 0 rewrites updated fields in full
+  private volatile int maxStackedDocValuesUpdates;
+  // attributes of the segment readers that this pool opens
+  private volatile Map<String, Object> readerAttributes = Collections.emptyMap();
   private final AtomicBoolean closed = new AtomicBoolean(false);
 
   ReaderPool(Directory directory, Directory originalDirectory, SegmentInfos segmentInfos,
@@ -91,7 +95,7 @@ final class ReaderPool implements Closeable {
         SegmentReader newReader = new SegmentReader(segmentInfos.info(i), segReader, segReader.getLiveDocs(),
             segReader.getHardLiveDocs(), segReader.numDocs(), true);
         readerMap.put(newReader.getOriginalSegmentInfo(), new ReadersAndUpdates(segmentInfos.getIndexCreatedVersionMajor(),
-            newReader, newPendingDeletes(newReader, newReader.getOriginalSegmentInfo())));
+            newReader, newPendingDeletes(newReader, newReader.getOriginalSegmentInfo()), readerAttributes));
       }
     }
   }
@@ -157,6 +161,22 @@ final class ReaderPool implements Closeable {
     return poolReaders;
   }
 
+  /**
+   * Sets the maximum number of sparse layers doc values updates may stack on a field before it gets
+   * rewritten in full, see {@link IndexWriterConfig#setMaxStackedDocValuesUpdates(int)}.
+   */
+  void setMaxStackedDocValuesUpdates(int maxStackedDocValuesUpdates) {
+    this.maxStackedDocValuesUpdates = maxStackedDocValuesUpdates;
+  }
+
+  /**
+   * Sets the attributes of the segment readers that this pool opens, see
+   * {@link IndexWriterConfig#setReaderAttributes(Map)}.
+   */
+  void setReaderAttributes(Map<String, Object> readerAttributes) {
+    this.readerAttributes = readerAttributes;
+  }
+
   /**
    * Releases the {@link ReadersAndUpdates}. This should only be called if the {@link #get(SegmentCommitInfo, boolean)}
    * is called with the create paramter set to true.
@@ -192,7 +212,7 @@ final class ReaderPool implements Closeable {
           // did was move the state to disk:
           changed = true;
         }
-        if (rld.writeFieldUpdates(directory, fieldNumbers, completedDelGenSupplier.getAsLong(), infoStream)) {
+        if (rld.writeFieldUpdates(directory, fieldNumbers, completedDelGenSupplier.getAsLong(), maxStackedDocValuesUpdates, infoStream)) {
           changed = true;
         }
         if (rld.getNumDVUpdates() == 0) {
@@ -225,7 +245,7 @@ final class ReaderPool implements Closeable {
     }
     boolean any = false;
     for (ReadersAndUpdates rld : copy) {
-      any |= rld.writeFieldUpdates(directory, fieldNumbers, completedDelGenSupplier.getAsLong(), infoStream);
+      any |= rld.writeFieldUpdates(directory, fieldNumbers, completedDelGenSupplier.getAsLong(), maxStackedDocValuesUpdates, infoStream);
     }
     return any;
   }
@@ -239,7 +259,7 @@ final class ReaderPool implements Closeable {
     for (SegmentCommitInfo info : infos) {
       ReadersAndUpdates rld = get(info, false);
       if (rld != null) {
-        any |= rld.writeFieldUpdates(directory, fieldNumbers, completedDelGenSupplier.getAsLong(), infoStream);
+        any |= rld.writeFieldUpdates(directory, fieldNumbers, completedDelGenSupplier.getAsLong(), maxStackedDocValuesUpdates, infoStream);
         rld.setIsMerging();
       }
     }
@@ -322,7 +342,7 @@ final class ReaderPool implements Closeable {
       if (rld != null) {
         assert rld.info == info;
         boolean changed = rld.writeLiveDocs(directory);
-        changed |= rld.writeFieldUpdates(directory, fieldNumbers, completedDelGenSupplier.getAsLong(), infoStream);
+        changed |= rld.writeFieldUpdates(directory, fieldNumbers, completedDelGenSupplier.getAsLong(), maxStackedDocValuesUpdates, infoStream);
 
         if (changed) {
           // Make sure we only write del docs for a live segment:
@@ -372,7 +392,7 @@ final class ReaderPool implements Closeable {
       if (create == false) {
         return null;
       }
-      rld = new ReadersAndUpdates(segmentInfos.getIndexCreatedVersionMajor(), info, newPendingDeletes(info));
+      rld = new ReadersAndUpdates(segmentInfos.getIndexCreatedVersionMajor(), info, newPendingDeletes(info), readerAttributes);
       // Steal initial reference:
       readerMap.put(info, rld);
     } else {
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -36,6 +37,7 @@ import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesConsumer;
 import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.FieldInfosFormat;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FlushInfo;
 import org.apache.lucene.store.IOContext;
@@ -66,6 +68,9 @@ final class ReadersAndUpdates {
   // the major version this index was created with
   private final int indexCreatedVersionMajor;
 
+  // attributes of the segment readers that are opened for this segment
+  private final Map<String, Object> readerAttributes;
+
   // Indicates whether this segment is currently being merged. While a segment
   // is merging, all field updates are also registered in the
   // mergingNumericUpdates map. Also, calls to writeFieldUpdates merge the 
@@ -88,17 +93,20 @@ final class ReadersAndUpdates {
 
   final AtomicLong ramBytesUsed = new AtomicLong();
 
-  ReadersAndUpdates(int indexCreatedVersionMajor, SegmentCommitInfo info, PendingDeletes pendingDeletes) {
+  ReadersAndUpdates(int indexCreatedVersionMajor, SegmentCommitInfo info, PendingDeletes pendingDeletes,
+                    Map<String, Object> readerAttributes) {
     this.info = info;
     this.pendingDeletes = pendingDeletes;
     this.indexCreatedVersionMajor = indexCreatedVersionMajor;
+    this.readerAttributes = readerAttributes;
   }
 
   /** Init from a previously opened SegmentReader.
    *
    * <p>NOTE: steals incoming ref from reader. */
-  ReadersAndUpdates(int indexCreatedVersionMajor, SegmentReader reader, PendingDeletes pendingDeletes) throws IOException {
-    this(indexCreatedVersionMajor, reader.getOriginalSegmentInfo(), pendingDeletes);
+  ReadersAndUpdates(int indexCreatedVersionMajor, SegmentReader reader, PendingDeletes pendingDeletes,
+                    Map<String, Object> readerAttributes) throws IOException {
+    this(indexCreatedVersionMajor, reader.getOriginalSegmentInfo(), pendingDeletes, readerAttributes);
     this.reader = reader;
     pendingDeletes.onNewReader(reader, info);
   }
@@ -168,7 +176,7 @@ final class ReadersAndUpdates {
   public synchronized SegmentReader getReader(IOContext context) throws IOException {
     if (reader == null) {
       // We steal returned ref:
-      reader = new SegmentReader(info, indexCreatedVersionMajor, context);
+      reader = new SegmentReader(info, indexCreatedVersionMajor, context, readerAttributes);
       pendingDeletes.onNewReader(reader, info);
     }
 
@@ -276,7 +284,8 @@ final class ReadersAndUpdates {
   
   private synchronized void handleDVUpdates(FieldInfos infos,
                                             Directory dir, DocValuesFormat dvFormat, final SegmentReader reader,
-                                            Map<Integer,Set<String>> fieldFiles, long maxDelGen, InfoStream infoStream) throws IOException {
+                                            Map<Integer,Set<String>> fieldFiles, long maxDelGen, int maxStackedUpdates,
+                                            InfoStream infoStream) throws IOException {
     for (Entry<String,List<DocValuesFieldUpdates>> ent : pendingDVUpdates.entrySet()) {
       final String field = ent.getKey();
       final List<DocValuesFieldUpdates> updates = ent.getValue();
@@ -303,29 +312,48 @@ final class ReadersAndUpdates {
                                                info,
                                                bytes/1024./1024.));
       }
+      final FieldInfo fieldInfo = infos.fieldInfo(field);
+      assert fieldInfo != null;
+      final Function<FieldInfo, DocValuesFieldUpdates.Iterator> updateSupplier = (info) -> {
+        if (info != fieldInfo) {
+          throw new IllegalArgumentException("expected field info for field: " + fieldInfo.name + " but got: " + info.name);
+        }
+        DocValuesFieldUpdates.Iterator[] subs = new DocValuesFieldUpdates.Iterator[updatesToApply.size()];
+        for(int i=0;i<subs.length;i++) {
+          subs[i] = updatesToApply.get(i).iterator();
+        }
+        return  DocValuesFieldUpdates.mergedIterator(subs);
+      };
+      // the layers the field reads from before these updates, null if the updates can't be stacked on them
+      final List<long[]> layers = getStackableLayers(reader, fieldInfo, updateSupplier, maxStackedUpdates);
       final long nextDocValuesGen = info.getNextDocValuesGen();
       final String segmentSuffix = Long.toString(nextDocValuesGen, Character.MAX_RADIX);
       final IOContext updatesContext = new IOContext(new FlushInfo(info.info.maxDoc(), bytes));
-      final FieldInfo fieldInfo = infos.fieldInfo(field);
-      assert fieldInfo != null;
       fieldInfo.setDocValuesGen(nextDocValuesGen);
       final FieldInfos fieldInfos = new FieldInfos(new FieldInfo[] { fieldInfo });
       // separately also track which files were created for this gen
       final TrackingDirectoryWrapper trackingDir = new TrackingDirectoryWrapper(dir);
       final SegmentWriteState state = new SegmentWriteState(null, trackingDir, info.info, fieldInfos, null, updatesContext, segmentSuffix);
       try (final DocValuesConsumer fieldsConsumer = dvFormat.fieldsConsumer(state)) {
-        Function<FieldInfo, DocValuesFieldUpdates.Iterator> updateSupplier = (info) -> {
-          if (info != fieldInfo) {
-            throw new IllegalArgumentException("expected field info for field: " + fieldInfo.name + " but got: " + info.name);
-          }
-          DocValuesFieldUpdates.Iterator[] subs = new DocValuesFieldUpdates.Iterator[updatesToApply.size()];
-          for(int i=0;i<subs.length;i++) {
-            subs[i] = updatesToApply.get(i).iterator();
-          }
-          return  DocValuesFieldUpdates.mergedIterator(subs);
-        };
         pendingDeletes.onDocValuesUpdate(fieldInfo, updateSupplier.apply(fieldInfo));
-        if (type == DocValuesType.BINARY) {
+        if (layers != null) {
+          // only write the updated documents, they are stacked on top of the current values at read time
+          if (type == DocValuesType.BINARY) {
+            fieldsConsumer.addBinaryField(fieldInfo, new EmptyDocValuesProducer() {
+              @Override
+              public BinaryDocValues getBinary(FieldInfo fieldInfoIn) throws IOException {
+                return DocValuesFieldUpdates.Iterator.asBinaryDocValues(updateSupplier.apply(fieldInfo));
+              }
+            });
+          } else {
+            fieldsConsumer.addNumericField(fieldInfo, new EmptyDocValuesProducer() {
+              @Override
+              public NumericDocValues getNumeric(FieldInfo fieldInfoIn) throws IOException {
+                return DocValuesFieldUpdates.Iterator.asNumericDocValues(updateSupplier.apply(fieldInfo));
+              }
+            });
+          }
+        } else if (type == DocValuesType.BINARY) {
           fieldsConsumer.addBinaryField(fieldInfo, new EmptyDocValuesProducer() {
             @Override
             public BinaryDocValues getBinary(FieldInfo fieldInfoIn) throws IOException {
@@ -404,10 +432,68 @@ final class ReadersAndUpdates {
       }
       info.advanceDocValuesGen();
       assert !fieldFiles.containsKey(fieldInfo.number);
-      fieldFiles.put(fieldInfo.number, trackingDir.getCreatedFiles());
+      if (layers != null) {
+        layers.add(new long[] { nextDocValuesGen, countUpdatedDocs(updateSupplier.apply(fieldInfo)) });
+        fieldInfo.putAttribute(StackedDocValuesProducer.LAYERS_KEY, StackedDocValuesProducer.encodeLayers(layers));
+        // the field still reads from the files of the layers below
+        final Set<String> files = new HashSet<>(info.getDocValuesUpdatesFiles().getOrDefault(fieldInfo.number, Collections.emptySet()));
+        files.addAll(trackingDir.getCreatedFiles());
+        fieldFiles.put(fieldInfo.number, files);
+      } else {
+        // the field was rewritten in full, which collapses any layers it had
+        fieldInfo.putAttribute(StackedDocValuesProducer.LAYERS_KEY, "");
+        fieldFiles.put(fieldInfo.number, trackingDir.getCreatedFiles());
+      }
     }
   }
 
+  /**
+   * Returns the layers the given field currently reads from if updates can be written as a new sparse
+   * layer on top of them, or {@code null} if the field must be rewritten in full. This is the case if
+   * stacking is disabled, if the field had no doc values in this segment yet, if an update removes a
+   * value, or if the stack would get too deep or cover too many documents.
+   */
+  private List<long[]> getStackableLayers(SegmentReader reader, FieldInfo fieldInfo,
+                                          Function<FieldInfo, DocValuesFieldUpdates.Iterator> updateSupplier,
+                                          int maxStackedUpdates) {
+    if (maxStackedUpdates == 0) {
+      return null;
+    }
+    final FieldInfo current = reader.getFieldInfos().fieldInfo(fieldInfo.name);
+    if (current == null || current.getDocValuesType() != fieldInfo.getDocValuesType()) {
+      return null;
+    }
+    final List<long[]> layers = StackedDocValuesProducer.getLayers(current);
+    if (layers.size() > maxStackedUpdates) {
+      return null;
+    }
+    long numDocs = 0;
+    for (long[] layer : layers) {
+      if (layer[1] != -1) {
+        numDocs += layer[1];
+      }
+    }
+    final DocValuesFieldUpdates.Iterator iterator = updateSupplier.apply(fieldInfo);
+    if (iterator == null) {
+      return null;
+    }
+    final long maxNumDocs = info.info.maxDoc() >>> 3;
+    for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+      if (iterator.hasValue() == false || ++numDocs > maxNumDocs) {
+        return null;
+      }
+    }
+    return layers;
+  }
+
+  private static long countUpdatedDocs(DocValuesFieldUpdates.Iterator iterator) {
+    long count = 0;
+    while (iterator.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+      count++;
+    }
+    return count;
+  }
+
   /**
    * This class merges the current on-disk DV with an incoming update DV instance and merges the two instances
    * giving the incoming update precedence in terms of values, in other words the values of the update always
@@ -501,7 +587,8 @@ final class ReadersAndUpdates {
     return trackingDir.getCreatedFiles();
   }
 
-  public synchronized boolean writeFieldUpdates(Directory dir, FieldInfos.FieldNumbers fieldNumbers, long maxDelGen, InfoStream infoStream) throws IOException {
+  public synchronized boolean writeFieldUpdates(Directory dir, FieldInfos.FieldNumbers fieldNumbers, long maxDelGen,
+                                                int maxStackedUpdates, InfoStream infoStream) throws IOException {
     long startTimeNS = System.nanoTime();
     final Map<Integer,Set<String>> newDVFiles = new HashMap<>();
     Set<String> fieldInfosFiles = null;
@@ -535,7 +622,7 @@ final class ReadersAndUpdates {
       // IndexWriter.commitMergedDeletes).
       final SegmentReader reader;
       if (this.reader == null) {
-        reader = new SegmentReader(info, indexCreatedVersionMajor, IOContext.READONCE);
+        reader = new SegmentReader(info, indexCreatedVersionMajor, IOContext.READONCE, readerAttributes);
         pendingDeletes.onNewReader(reader, info);
       } else {
         reader = this.reader;
@@ -566,7 +653,7 @@ final class ReadersAndUpdates {
         fieldInfos = builder.finish();
         final DocValuesFormat docValuesFormat = codec.docValuesFormat();
         
-        handleDVUpdates(fieldInfos, trackingDir, docValuesFormat, reader, newDVFiles, maxDelGen, infoStream);
+        handleDVUpdates(fieldInfos, trackingDir, docValuesFormat, reader, newDVFiles, maxDelGen, maxStackedUpdates, infoStream);
 
         fieldInfosFiles = writeFieldInfosGen(fieldInfos, trackingDir, codec.fieldInfosFormat());
       } finally {
@@ -616,6 +703,9 @@ final class ReadersAndUpdates {
     long bytes = ramBytesUsed.addAndGet(-bytesFreed);
     assert bytes >= 0;
 
+    // record stacked updates on the segment so that the commit gets a version that older readers refuse
+    info.setHasStackedDocValuesUpdates(StackedDocValuesProducer.hasStackedLayers(fieldInfos));
+
     // if there is a reader open, reopen it to reflect the updates
     if (reader != null) {
       swapNewReaderWithLatestLiveDocs();
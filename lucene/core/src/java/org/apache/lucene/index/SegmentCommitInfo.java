@@ -65,6 +65,9 @@ public class SegmentCommitInfo {
 
   // Track the per-field DocValues update files
   private final Map<Integer,Set<String>> dvUpdatesFiles = new HashMap<>();
+
+  // Whether some fields read their DocValues from a stack of update generations
+  private boolean hasStackedDocValuesUpdates;
   
   // TODO should we add .files() to FieldInfosFormat, like we have on
   // LiveDocsFormat?
@@ -121,6 +124,20 @@ public class SegmentCommitInfo {
     }
   }
   
+  /**
+   * Returns whether some doc values fields of this segment read from a stack of
+   * sparse update generations rather than from a single generation.
+   * @see IndexWriterConfig#setMaxStackedDocValuesUpdates(int)
+   */
+  public boolean hasStackedDocValuesUpdates() {
+    return hasStackedDocValuesUpdates;
+  }
+
+  /** Sets whether some doc values fields of this segment read from a stack of update generations. */
+  public void setHasStackedDocValuesUpdates(boolean hasStackedDocValuesUpdates) {
+    this.hasStackedDocValuesUpdates = hasStackedDocValuesUpdates;
+  }
+
   /** Returns the FieldInfos file names. */
   public Set<String> getFieldInfosFiles() {
     return Collections.unmodifiableSet(fieldInfosFiles);
@@ -355,6 +372,9 @@ public class SegmentCommitInfo {
     if (softDelCount > 0) {
       s += " :softDel=" + softDelCount;
     }
+    if (hasStackedDocValuesUpdates) {
+      s += ":stackedDV";
+    }
 
     return s;
   }
@@ -381,6 +401,7 @@ public class SegmentCommitInfo {
     }
     
     other.fieldInfosFiles.addAll(fieldInfosFiles);
+    other.hasStackedDocValuesUpdates = hasStackedDocValuesUpdates;
     
     return other;
   }
@@ -61,22 +61,36 @@ class SegmentDocValuesProducer extends DocValuesProducer {
         if (fi.getDocValuesType() == DocValuesType.NONE) {
           continue;
         }
-        long docValuesGen = fi.getDocValuesGen();
-        if (docValuesGen == -1) {
-          if (baseProducer == null) {
-            // the base producer gets the original fieldinfos it wrote
-            baseProducer = segDocValues.getDocValuesProducer(docValuesGen, si, dir, coreInfos);
+        // a field whose updates were stacked reads from several generations, see StackedDocValuesProducer
+        final List<long[]> layers = StackedDocValuesProducer.getLayers(fi);
+        if (layers.size() > 1 && si.hasStackedDocValuesUpdates() == false) {
+          throw new CorruptIndexException("field=\"" + fi.name + "\" has stacked doc values updates but segment "
+              + si.info.name + " does not record any", si.info.name);
+        }
+        final DocValuesProducer[] layerProducers = new DocValuesProducer[layers.size()];
+        for (int i = 0; i < layerProducers.length; i++) {
+          long docValuesGen = layers.get(i)[0];
+          if (docValuesGen == -1) {
+            if (baseProducer == null) {
+              // the base producer gets the original fieldinfos it wrote
+              baseProducer = segDocValues.getDocValuesProducer(docValuesGen, si, dir, coreInfos);
+              dvGens.add(docValuesGen);
+              dvProducers.add(baseProducer);
+            }
+            layerProducers[i] = baseProducer;
+          } else {
+            assert !dvGens.contains(docValuesGen);
+            // otherwise, producer sees only the one fieldinfo it wrote
+            final DocValuesProducer dvp = segDocValues.getDocValuesProducer(docValuesGen, si, dir, new FieldInfos(new FieldInfo[]{fi}));
             dvGens.add(docValuesGen);
-            dvProducers.add(baseProducer);
+            dvProducers.add(dvp);
+            layerProducers[i] = dvp;
           }
-          dvProducersByField.put(fi.name, baseProducer);
+        }
+        if (layerProducers.length == 1) {
+          dvProducersByField.put(fi.name, layerProducers[0]);
         } else {
-          assert !dvGens.contains(docValuesGen);
-          // otherwise, producer sees only the one fieldinfo it wrote
-          final DocValuesProducer dvp = segDocValues.getDocValuesProducer(docValuesGen, si, dir, new FieldInfos(new FieldInfo[]{fi}));
-          dvGens.add(docValuesGen);
-          dvProducers.add(dvp);
-          dvProducersByField.put(fi.name, dvp);
+          dvProducersByField.put(fi.name, new StackedDocValuesProducer(layerProducers));
         }
       }
     } catch (Throwable t) {
@@ -124,6 +138,13 @@ class SegmentDocValuesProducer extends DocValuesProducer {
     return dvProducer.getSortedSet(field);
   }
 
+  @Override
+  public DocValuesSkipper getSkipper(FieldInfo field) throws IOException {
+    DocValuesProducer dvProducer = dvProducersByField.get(field.name);
+    assert dvProducer != null;
+    return dvProducer.getSkipper(field);
+  }
+
   @Override
   public void checkIntegrity() throws IOException {
     for (DocValuesProducer producer : dvProducers) {
@@ -66,7 +66,7 @@ import org.apache.lucene.util.Version;
  * <ul>
  * <li><code>segments_N</code>: Header, LuceneVersion, Version, NameCounter, SegCount, MinSegmentLuceneVersion, &lt;SegName,
  * SegID, SegCodec, DelGen, DeletionCount, FieldInfosGen, DocValuesGen,
- * UpdatesFiles&gt;<sup>SegCount</sup>, CommitUserData, Footer
+ * StackedDocValuesUpdates, UpdatesFiles&gt;<sup>SegCount</sup>, CommitUserData, Footer
  * </ul>
  * Data types:
  * <ul>
@@ -110,6 +110,11 @@ import org.apache.lucene.util.Version;
  * <li>DocValuesGen is the generation count of the updatable DocValues. If this
  * is -1, there are no updates to DocValues in that segment. Anything above zero
  * means there are updates to DocValues stored by {@link DocValuesFormat}.</li>
+ * <li>StackedDocValuesUpdates is 1 if some doc values fields of the segment
+ * read from a stack of sparse update generations, see
+ * {@link IndexWriterConfig#setMaxStackedDocValuesUpdates(int)}, and 0
+ * otherwise. It is only written, with version {@link #VERSION_90}, if some
+ * segment of the commit has stacked updates.</li>
  * <li>UpdatesFiles stores the set of files that were updated in that segment
  * per field.</li>
  * </ul>
@@ -124,7 +129,12 @@ public final class SegmentInfos implements Cloneable, Iterable<SegmentCommitInfo
   public static final int VERSION_72 = 8;
   /** The version that recorded softDelCount */
   public static final int VERSION_74 = 9;
-  static final int VERSION_CURRENT = VERSION_74;
+  /**
+   * The version that recorded whether segments have stacked doc values updates. It is
+   * only written if a segment has some so that older versions refuse to read them.
+   */
+  public static final int VERSION_90 = 10;
+  static final int VERSION_CURRENT = VERSION_90;
 
   /** Name of the generation reference file name */
   private static final String OLD_SEGMENTS_GEN = "segments.gen";
@@ -375,6 +385,13 @@ public final class SegmentInfos implements Cloneable, Iterable<SegmentCommitInfo
         throw new CorruptIndexException("invalid deletion count: " + softDelCount + delCount + " vs maxDoc=" + info.maxDoc(), input);
       }
       SegmentCommitInfo siPerCommit = new SegmentCommitInfo(info, delCount, softDelCount, delGen, fieldInfosGen, dvGen);
+      if (format >= VERSION_90) {
+        final byte stackedDocValuesUpdates = input.readByte();
+        if (stackedDocValuesUpdates != 0 && stackedDocValuesUpdates != 1) {
+          throw new CorruptIndexException("invalid stacked doc values updates flag: " + stackedDocValuesUpdates, input);
+        }
+        siPerCommit.setHasStackedDocValuesUpdates(stackedDocValuesUpdates == 1);
+      }
       siPerCommit.setFieldInfosFiles(input.readSetOfStrings());
       final Map<Integer,Set<String>> dvUpdateFiles;
       final int numDVFields = input.readInt();
@@ -480,7 +497,16 @@ public final class SegmentInfos implements Cloneable, Iterable<SegmentCommitInfo
 
   /** Write ourselves to the provided {@link IndexOutput} */
   public void write(Directory directory, IndexOutput out) throws IOException {
-    CodecUtil.writeIndexHeader(out, "segments", VERSION_CURRENT, 
+    // only use the current version if needed so that older versions can still read commits
+    // that don't have stacked doc values updates, and refuse those that do
+    int format = VERSION_74;
+    for (SegmentCommitInfo siPerCommit : this) {
+      if (siPerCommit.hasStackedDocValuesUpdates()) {
+        format = VERSION_90;
+        break;
+      }
+    }
+    CodecUtil.writeIndexHeader(out, "segments", format, 
                                StringHelper.randomId(), Long.toString(generation, Character.MAX_RADIX));
     out.writeVInt(Version.LATEST.major);
     out.writeVInt(Version.LATEST.minor);
@@ -537,6 +563,9 @@ public final class SegmentInfos implements Cloneable, Iterable<SegmentCommitInfo
         throw new IllegalStateException("cannot write segment: invalid maxDoc segment=" + si.name + " maxDoc=" + si.maxDoc() + " softDelCount=" + softDelCount);
       }
       out.writeInt(softDelCount);
+      if (format >= VERSION_90) {
+        out.writeByte((byte) (siPerCommit.hasStackedDocValuesUpdates() ? 1 : 0));
+      }
       out.writeSetOfStrings(siPerCommit.getFieldInfosFiles());
       final Map<Integer,Set<String>> dvUpdatesFiles = siPerCommit.getDocValuesUpdatesFiles();
       out.writeInt(dvUpdatesFiles.size());
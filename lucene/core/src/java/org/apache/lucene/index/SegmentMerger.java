@@ -18,7 +18,11 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesConsumer;
@@ -30,13 +34,19 @@ import org.apache.lucene.codecs.StoredFieldsWriter;
 import org.apache.lucene.codecs.TermVectorsWriter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.Version;
 
 /**
  * The SegmentMerger class combines two or more Segments, represented by an
  * IndexReader, into a single Segment.  Call the merge method to combine the
  * segments.
+ * <p>
+ * Stored fields, doc values, points and term vectors are merged on the
+ * intra-merge {@link Executor} while the calling thread merges norms and
+ * postings, since each of these formats writes its own files.
  *
  * @see #merge
  */
@@ -50,9 +60,11 @@ final class SegmentMerger {
   final MergeState mergeState;
   private final FieldInfos.Builder fieldInfosBuilder;
 
+  private final Executor intraMergeExecutor;
+
   // note, just like in codec apis Directory 'dir' is NOT the same as segmentInfo.dir!!
   SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
-                FieldInfos.FieldNumbers fieldNumbers, IOContext context) throws IOException {
+                FieldInfos.FieldNumbers fieldNumbers, IOContext context, Executor intraMergeExecutor) throws IOException {
     if (context.context != IOContext.Context.MERGE) {
       throw new IllegalArgumentException("IOContext.context should be MERGE; got: " + context.context);
     }
@@ -61,6 +73,7 @@ final class SegmentMerger {
     this.codec = segmentInfo.getCodec();
     this.context = context;
     this.fieldInfosBuilder = new FieldInfos.Builder(fieldNumbers);
+    this.intraMergeExecutor = intraMergeExecutor;
     Version minVersion = Version.LATEST;
     for (CodecReader reader : readers) {
       Version leafMinVersion = reader.getMetaData().getMinVersion();
@@ -98,96 +111,118 @@ final class SegmentMerger {
       throw new IllegalStateException("Merge would result in 0 document segment");
     }
     mergeFieldInfos();
-    long t0 = 0;
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    int numMerged = mergeFields();
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge stored fields [" + numMerged + " docs]");
-    }
-    assert numMerged == mergeState.segmentInfo.maxDoc(): "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + mergeState.segmentInfo.maxDoc();
 
     final SegmentWriteState segmentWriteState = new SegmentWriteState(mergeState.infoStream, directory, mergeState.segmentInfo,
                                                                       mergeState.mergeFieldInfos, null, context);
     final SegmentReadState segmentReadState = new SegmentReadState(directory, mergeState.segmentInfo, mergeState.mergeFieldInfos,
         IOContext.READ, segmentWriteState.segmentSuffix);
 
-    if (mergeState.mergeFieldInfos.hasNorms()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      mergeNorms(segmentWriteState);
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge norms [" + numMerged + " docs]");
-      }
+    final List<FutureTask<Void>> tasks = new ArrayList<>();
+    tasks.add(newMergeTask("stored fields", () -> {
+      int numMerged = mergeFields();
+      assert numMerged == mergeState.segmentInfo.maxDoc(): "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + mergeState.segmentInfo.maxDoc();
+    }));
+    if (mergeState.mergeFieldInfos.hasDocValues()) {
+      tasks.add(newMergeTask("doc values", () -> mergeDocValues(segmentWriteState)));
     }
-
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
+    if (mergeState.mergeFieldInfos.hasPointValues()) {
+      tasks.add(newMergeTask("points", () -> mergePoints(segmentWriteState)));
     }
-    try (NormsProducer norms = mergeState.mergeFieldInfos.hasNorms()
-        ? codec.normsFormat().normsProducer(segmentReadState)
-        : null) {
-      NormsProducer normsMergeInstance = null;
-      if (norms != null) {
-        // Use the merge instance in order to reuse the same IndexInput for all terms
-        normsMergeInstance = norms.getMergeInstance();
-      }
-      mergeTerms(segmentWriteState, normsMergeInstance);
+    if (mergeState.mergeFieldInfos.hasVectors()) {
+      tasks.add(newMergeTask("vectors", () -> {
+        int numMerged = mergeVectors();
+        assert numMerged == mergeState.segmentInfo.maxDoc();
+      }));
     }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge postings [" + numMerged + " docs]");
+
+    Throwable th = null;
+    int submitted = 0;
+    try {
+      for (FutureTask<Void> task : tasks) {
+        intraMergeExecutor.execute(task);
+        submitted++;
+      }
+
+      // postings need the merged norms and are usually the most expensive format
+      // to merge, so the calling thread takes care of them
+      if (mergeState.mergeFieldInfos.hasNorms()) {
+        timeMerge("norms", () -> mergeNorms(segmentWriteState));
+      }
+      timeMerge("postings", () -> {
+        try (NormsProducer norms = mergeState.mergeFieldInfos.hasNorms()
+            ? codec.normsFormat().normsProducer(segmentReadState)
+            : null) {
+          NormsProducer normsMergeInstance = null;
+          if (norms != null) {
+            // Use the merge instance in order to reuse the same IndexInput for all terms
+            normsMergeInstance = norms.getMergeInstance();
+          }
+          mergeTerms(segmentWriteState, normsMergeInstance);
+        }
+      });
+    } catch (Throwable t) {
+      th = t;
     }
 
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
+    // all tasks must be done before we return, even on failure, since they write files of this segment
+    InterruptedException interrupted = null;
+    for (FutureTask<Void> task : tasks.subList(0, submitted)) {
+      while (true) {
+        try {
+          task.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = e;
+        } catch (ExecutionException e) {
+          th = IOUtils.useOrSuppress(th, e.getCause());
+          break;
+        }
+      }
     }
-    if (mergeState.mergeFieldInfos.hasDocValues()) {
-      mergeDocValues(segmentWriteState);
+    if (interrupted != null) {
+      th = IOUtils.useOrSuppress(th, new ThreadInterruptedException(interrupted));
     }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge doc values [" + numMerged + " docs]");
+    if (th != null) {
+      throw IOUtils.rethrowAlways(th);
     }
 
+    // write the merged infos
+    final int numMerged = mergeState.segmentInfo.maxDoc();
+    long t0 = 0;
     if (mergeState.infoStream.isEnabled("SM")) {
       t0 = System.nanoTime();
     }
-    if (mergeState.mergeFieldInfos.hasPointValues()) {
-      mergePoints(segmentWriteState);
-    }
+    codec.fieldInfosFormat().write(directory, mergeState.segmentInfo, "", mergeState.mergeFieldInfos, context);
     if (mergeState.infoStream.isEnabled("SM")) {
       long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge points [" + numMerged + " docs]");
+      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to write field infos [" + numMerged + " docs]");
     }
 
-    if (mergeState.mergeFieldInfos.hasVectors()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      numMerged = mergeVectors();
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge vectors [" + numMerged + " docs]");
-      }
-      assert numMerged == mergeState.segmentInfo.maxDoc();
-    }
-    
-    // write the merged infos
+    return mergeState;
+  }
+
+  @FunctionalInterface
+  private interface FormatMerger {
+    void merge() throws IOException;
+  }
+
+  private FutureTask<Void> newMergeTask(String formatName, FormatMerger merger) {
+    return new FutureTask<>(() -> {
+      timeMerge(formatName, merger);
+      return null;
+    });
+  }
+
+  private void timeMerge(String formatName, FormatMerger merger) throws IOException {
+    long t0 = 0;
     if (mergeState.infoStream.isEnabled("SM")) {
       t0 = System.nanoTime();
     }
-    codec.fieldInfosFormat().write(directory, mergeState.segmentInfo, "", mergeState.mergeFieldInfos, context);
+    merger.merge();
     if (mergeState.infoStream.isEnabled("SM")) {
       long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to write field infos [" + numMerged + " docs]");
+      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge " + formatName + " [" + mergeState.segmentInfo.maxDoc() + " docs]");
     }
-
-    return mergeState;
   }
 
   private void mergeDocValues(SegmentWriteState segmentWriteState) throws IOException {
@@ -16,6 +16,9 @@
  */
 package org.apache.lucene.index;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.apache.lucene.codecs.PostingsFormat; // javadocs
 import org.apache.lucene.codecs.perfield.PerFieldPostingsFormat; // javadocs
 import org.apache.lucene.store.Directory;
@@ -48,11 +51,26 @@ public class SegmentReadState {
    *  {@link IndexFileNames#segmentFileName(String,String,String)}). */
   public final String segmentSuffix;
 
+  /**
+   * Read-side settings that were given when opening the reader, see
+   * {@link DirectoryReader#open(Directory, Map)}. They are not recorded
+   * in the index and formats should ignore attributes that they don't know.
+   * @lucene.experimental
+   */
+  public final Map<String, Object> readerAttributes;
+
   /** Create a {@code SegmentReadState}. */
   public SegmentReadState(Directory dir, SegmentInfo info,
                           FieldInfos fieldInfos, IOContext context) {
     this(dir, info, fieldInfos, context, "");
   }
+
+  /** Create a {@code SegmentReadState}. */
+  public SegmentReadState(Directory dir, SegmentInfo info,
+                          FieldInfos fieldInfos, IOContext context,
+                          Map<String, Object> readerAttributes) {
+    this(dir, info, fieldInfos, context, "", readerAttributes);
+  }
   
   /** Create a {@code SegmentReadState}. */
   public SegmentReadState(Directory dir,
@@ -60,11 +78,22 @@ public class SegmentReadState {
                           FieldInfos fieldInfos,
                           IOContext context,
                           String segmentSuffix) {
+    this(dir, info, fieldInfos, context, segmentSuffix, Collections.emptyMap());
+  }
+
+  /** Create a {@code SegmentReadState}. */
+  public SegmentReadState(Directory dir,
+                          SegmentInfo info,
+                          FieldInfos fieldInfos,
+                          IOContext context,
+                          String segmentSuffix,
+                          Map<String, Object> readerAttributes) {
     this.directory = dir;
     this.segmentInfo = info;
     this.fieldInfos = fieldInfos;
     this.context = context;
     this.segmentSuffix = segmentSuffix;
+    this.readerAttributes = Collections.unmodifiableMap(readerAttributes);
   }
 
   /** Create a {@code SegmentReadState}. */
@@ -75,5 +104,6 @@ public class SegmentReadState {
     this.fieldInfos = other.fieldInfos;
     this.context = other.context;
     this.segmentSuffix = newSegmentSuffix;
+    this.readerAttributes = other.readerAttributes;
   }
 }
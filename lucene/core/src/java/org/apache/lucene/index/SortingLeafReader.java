@@ -1099,6 +1099,12 @@ class SortingLeafReader extends FilterLeafReader {
     }
   }
 
+  @Override
+  public DocValuesSkipper getDocValuesSkipper(String field) throws IOException {
+    // the skip index describes ranges of doc IDs of the unsorted view
+    return null;
+  }
+
   private final Map<String,CachedNumericDVs> cachedNorms = new HashMap<>();
 
   @Override
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.codecs.DocValuesProducer;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * Reads a numeric or binary doc values field whose updates were written as a stack of
+ * doc values generations: a full layer at the bottom, followed by sparse layers that only hold
+ * the documents that were updated. A document takes its value from the top-most layer that
+ * has a value for it.
+ *
+ * @see IndexWriterConfig#setMaxStackedDocValuesUpdates(int)
+ */
+final class StackedDocValuesProducer extends EmptyDocValuesProducer {
+
+  /**
+   * {@link FieldInfo} attribute that lists the layers of an updated field from the bottom to the
+   * top, separated by commas. The full bottom layer is recorded as its generation, sparse layers
+   * as {@code generation:numDocs}. The top-most layer is always the field's
+   * {@link FieldInfo#getDocValuesGen() current generation}. If the attribute is missing or
+   * empty, the current generation holds all values of the field.
+   */
+  static final String LAYERS_KEY = StackedDocValuesProducer.class.getSimpleName() + ".layers";
+
+  /**
+   * Returns the layers of the given field as {@code {generation, numDocs}} pairs, from the bottom
+   * to the top. {@code numDocs} is {@code -1} for the full bottom layer.
+   */
+  static List<long[]> getLayers(FieldInfo fi) {
+    final List<long[]> layers = new ArrayList<>();
+    // merges copy attributes but not generations, so the attribute is stale if the field has no generation
+    final String value = fi.getDocValuesGen() == -1 ? null : fi.getAttribute(LAYERS_KEY);
+    if (value == null || value.isEmpty()) {
+      layers.add(new long[] { fi.getDocValuesGen(), -1 });
+      return layers;
+    }
+    for (String layer : value.split(",")) {
+      final int sep = layer.indexOf(':');
+      if (sep == -1) {
+        layers.add(new long[] { Long.parseLong(layer), -1 });
+      } else {
+        layers.add(new long[] { Long.parseLong(layer.substring(0, sep)), Long.parseLong(layer.substring(sep + 1)) });
+      }
+    }
+    final long topGen = layers.get(layers.size() - 1)[0];
+    if (topGen != fi.getDocValuesGen()) {
+      throw new IllegalStateException("field=\"" + fi.name + "\" has doc values generation " + fi.getDocValuesGen()
+          + " but its top-most layer has generation " + topGen);
+    }
+    return layers;
+  }
+
+  /** Returns whether some fields of the given {@link FieldInfos} read from several layers. */
+  static boolean hasStackedLayers(FieldInfos fieldInfos) {
+    for (FieldInfo fi : fieldInfos) {
+      if (fi.getDocValuesType() != DocValuesType.NONE && getLayers(fi).size() > 1) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Encodes layers as returned by {@link #getLayers(FieldInfo)} into the value of {@link #LAYERS_KEY}. */
+  static String encodeLayers(List<long[]> layers) {
+    final StringBuilder sb = new StringBuilder();
+    for (long[] layer : layers) {
+      if (sb.length() > 0) {
+        sb.append(',');
+      }
+      sb.append(layer[0]);
+      if (layer[1] != -1) {
+        sb.append(':').append(layer[1]);
+      }
+    }
+    return sb.toString();
+  }
+
+  // from the bottom to the top
+  private final DocValuesProducer[] layers;
+
+  StackedDocValuesProducer(DocValuesProducer[] layers) {
+    assert layers.length > 1;
+    this.layers = layers;
+  }
+
+  @Override
+  public NumericDocValues getNumeric(FieldInfo field) throws IOException {
+    final NumericDocValues[] values = new NumericDocValues[layers.length];
+    for (int i = 0; i < layers.length; i++) {
+      values[i] = layers[i].getNumeric(field);
+    }
+    return new StackedNumericDocValues(values);
+  }
+
+  @Override
+  public BinaryDocValues getBinary(FieldInfo field) throws IOException {
+    final BinaryDocValues[] values = new BinaryDocValues[layers.length];
+    for (int i = 0; i < layers.length; i++) {
+      values[i] = layers[i].getBinary(field);
+    }
+    return new StackedBinaryDocValues(values);
+  }
+
+  /**
+   * Positions the layers on the first document that is greater than or equal to {@code target}
+   * and returns the index of the top-most layer that has a value for it, or {@code -1} if
+   * there are no more documents. {@code hasValue[i]} records whether layer {@code i} has a
+   * value for its current document, which is not the case after a failed
+   * {@link DocValuesIterator#advanceExact(int)}.
+   */
+  private static int advance(DocValuesIterator[] layers, boolean[] hasValue, int target) throws IOException {
+    int doc = DocIdSetIterator.NO_MORE_DOCS;
+    int current = -1;
+    for (int i = layers.length - 1; i >= 0; i--) {
+      int layerDoc = layers[i].docID();
+      if (layerDoc < target) {
+        layerDoc = layers[i].advance(target);
+        hasValue[i] = true;
+      } else if (hasValue[i] == false) {
+        layerDoc = layers[i].nextDoc();
+        hasValue[i] = true;
+      }
+      // strict comparison so that upper layers win ties
+      if (layerDoc < doc) {
+        doc = layerDoc;
+        current = i;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Returns the index of the top-most layer that has a value for {@code target}, or {@code -1}
+   * if no layer has a value for it.
+   */
+  private static int advanceExact(DocValuesIterator[] layers, boolean[] hasValue, int target) throws IOException {
+    for (int i = layers.length - 1; i >= 0; i--) {
+      final int layerDoc = layers[i].docID();
+      if (layerDoc < target) {
+        hasValue[i] = layers[i].advanceExact(target);
+      } else if (layerDoc > target) {
+        // the layer is already past the target, so it has no value for it
+        continue;
+      }
+      if (hasValue[i]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static long cost(DocValuesIterator[] layers) {
+    long cost = 0;
+    for (DocValuesIterator layer : layers) {
+      cost = Math.max(cost, layer.cost());
+    }
+    return cost;
+  }
+
+  private static class StackedNumericDocValues extends NumericDocValues {
+
+    private final NumericDocValues[] layers;
+    private final boolean[] hasValue;
+    private int doc = -1;
+    private NumericDocValues current;
+
+    StackedNumericDocValues(NumericDocValues[] layers) {
+      this.layers = layers;
+      this.hasValue = new boolean[layers.length];
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return advance(doc + 1);
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      final int layer = StackedDocValuesProducer.advance(layers, hasValue, target);
+      if (layer == -1) {
+        current = null;
+        return doc = NO_MORE_DOCS;
+      }
+      current = layers[layer];
+      return doc = current.docID();
+    }
+
+    @Override
+    public boolean advanceExact(int target) throws IOException {
+      doc = target;
+      final int layer = StackedDocValuesProducer.advanceExact(layers, hasValue, target);
+      current = layer == -1 ? null : layers[layer];
+      return current != null;
+    }
+
+    @Override
+    public long cost() {
+      return StackedDocValuesProducer.cost(layers);
+    }
+
+    @Override
+    public long longValue() throws IOException {
+      return current.longValue();
+    }
+  }
+
+  private static class StackedBinaryDocValues extends BinaryDocValues {
+
+    private final BinaryDocValues[] layers;
+    private final boolean[] hasValue;
+    private int doc = -1;
+    private BinaryDocValues current;
+
+    StackedBinaryDocValues(BinaryDocValues[] layers) {
+      this.layers = layers;
+      this.hasValue = new boolean[layers.length];
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return advance(doc + 1);
+    }
+
+    @Override
+    public int advance(int target) throws IOException {
+      final int layer = StackedDocValuesProducer.advance(layers, hasValue, target);
+      if (layer == -1) {
+        current = null;
+        return doc = NO_MORE_DOCS;
+      }
+      current = layers[layer];
+      return doc = current.docID();
+    }
+
+    @Override
+    public boolean advanceExact(int target) throws IOException {
+      doc = target;
+      final int layer = StackedDocValuesProducer.advanceExact(layers, hasValue, target);
+      current = layer == -1 ? null : layers[layer];
+      return current != null;
+    }
+
+    @Override
+    public long cost() {
+      return StackedDocValuesProducer.cost(layers);
+    }
+
+    @Override
+    public BytesRef binaryValue() throws IOException {
+      return current.binaryValue();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(layers=" + layers.length + ")";
+  }
+}
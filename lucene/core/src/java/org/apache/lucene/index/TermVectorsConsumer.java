@@ -49,7 +49,7 @@ class TermVectorsConsumer extends TermsHash {
   private TermVectorsConsumerPerField[] perFields = new TermVectorsConsumerPerField[1];
 
   public TermVectorsConsumer(DocumentsWriterPerThread docWriter) {
-    super(docWriter, false, null);
+    super(docWriter, docWriter.termVectorsIntBlockAllocator, docWriter.termVectorsByteBlockAllocator, false, null);
     this.docWriter = docWriter;
   }
 
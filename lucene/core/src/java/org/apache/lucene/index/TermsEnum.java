@@ -167,6 +167,18 @@ public abstract class TermsEnum implements BytesRefIterator {
    * @see #postings(PostingsEnum, int)
    */
   public abstract ImpactsEnum impacts(int flags) throws IOException;
+
+  /**
+   * Hints that the postings of the current term are going to be read soon. Callers that know
+   * about several terms before consuming any of their postings, e.g. queries that match many
+   * terms, may call this method on every term first, so that the directory can fetch postings
+   * concurrently. Do not call this when the enum is unpositioned. The default implementation
+   * does nothing.
+   * @see org.apache.lucene.store.IndexInput#prefetch(long, long)
+   * @lucene.experimental
+   */
+  public void prefetchPostings() throws IOException {
+  }
   
   /**
    * Expert: Returns the TermsEnums internal state to position the TermsEnum
@@ -819,6 +819,12 @@ public class TieredMergePolicy extends MergePolicy {
     return Math.max(floorSegmentBytes, bytes);
   }
 
+  /** Segments that are smaller than the floor segment size may be merged on full flushes. */
+  @Override
+  protected long maxFullFlushMergeSize() {
+    return floorSegmentBytes;
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder("[" + getClass().getSimpleName() + ": ");
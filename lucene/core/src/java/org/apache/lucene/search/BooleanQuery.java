@@ -233,6 +233,16 @@ public class BooleanQuery extends Query implements Iterable<BooleanClause> {
 
   @Override
   public Query rewrite(IndexReader reader) throws IOException {
+    return rewrite(reader, null);
+  }
+
+  @Override
+  public Query rewrite(IndexSearcher searcher) throws IOException {
+    return rewrite(searcher.getIndexReader(), searcher);
+  }
+
+  // sub queries are rewritten with the searcher if there is one
+  private Query rewrite(IndexReader reader, IndexSearcher searcher) throws IOException {
     if (clauses.size() == 0) {
       return new MatchNoDocsQuery("empty BooleanQuery");
     }
@@ -267,7 +277,7 @@ public class BooleanQuery extends Query implements Iterable<BooleanClause> {
       boolean actuallyRewritten = false;
       for (BooleanClause clause : this) {
         Query query = clause.getQuery();
-        Query rewritten = query.rewrite(reader);
+        Query rewritten = searcher == null ? query.rewrite(reader) : query.rewrite(searcher);
         if (rewritten != query) {
           // rewrite clause
           actuallyRewritten = true;
@@ -81,7 +81,17 @@ public final class BoostQuery extends Query {
 
   @Override
   public Query rewrite(IndexReader reader) throws IOException {
-    final Query rewritten = query.rewrite(reader);
+    return rewrite(reader, null);
+  }
+
+  @Override
+  public Query rewrite(IndexSearcher searcher) throws IOException {
+    return rewrite(searcher.getIndexReader(), searcher);
+  }
+
+  // sub queries are rewritten with the searcher if there is one
+  private Query rewrite(IndexReader reader, IndexSearcher searcher) throws IOException {
+    final Query rewritten = searcher == null ? query.rewrite(reader) : query.rewrite(searcher);
 
     if (boost == 1f) {
       return rewritten;
@@ -22,7 +22,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.lucene.search.spans.Spans;
 import org.apache.lucene.util.ArrayUtil;
@@ -172,8 +174,21 @@ public final class ConjunctionDISI extends DocIdSetIterator {
     return disi;
   }
 
-  final DocIdSetIterator lead1, lead2;
-  final DocIdSetIterator[] others;
+  /** Number of candidates to sample before reordering iterators. */
+  static final int NUM_SAMPLES = 1024;
+
+  /** A follower that doesn't match this fraction of the candidates of the
+   *  lead iterator is considered sparser than the lead. */
+  private static final float LEAD_HIT_RATE = 0.5f;
+
+  DocIdSetIterator lead1, lead2;
+  DocIdSetIterator[] others;
+  private final long cost;
+
+  // sampling state: how often followers have been checked and agreed with the lead
+  private int remainingSamples = NUM_SAMPLES;
+  private DocIdSetIterator[] followers;
+  private int[] checks, hits;
 
   private ConjunctionDISI(List<? extends DocIdSetIterator> iterators) {
     assert iterators.size() >= 2;
@@ -188,9 +203,16 @@ public final class ConjunctionDISI extends DocIdSetIterator {
     lead1 = iterators.get(0);
     lead2 = iterators.get(1);
     others = iterators.subList(2, iterators.size()).toArray(new DocIdSetIterator[0]);
+    cost = lead1.cost();
+    followers = iterators.subList(1, iterators.size()).toArray(new DocIdSetIterator[0]);
+    checks = new int[followers.length];
+    hits = new int[followers.length];
   }
 
   private int doNext(int doc) throws IOException {
+    if (remainingSamples >= 0) {
+      return doNextSampling(doc);
+    }
     advanceHead: for(;;) {
       assert doc == lead1.docID();
 
@@ -225,6 +247,67 @@ public final class ConjunctionDISI extends DocIdSetIterator {
     }
   }
 
+  /**
+   * Same as {@link #doNext} for the first {@link #NUM_SAMPLES} candidates of
+   * the lead iterator, while recording how often each follower agrees with the
+   * lead. Costs are only estimates, which can be off by orders of magnitude,
+   * e.g. for multi-term or range queries, so iterators are then reordered
+   * based on these observed hit rates.
+   */
+  private int doNextSampling(int doc) throws IOException {
+    advanceHead: for(;;) {
+      assert doc == lead1.docID();
+
+      if (remainingSamples == 0) {
+        reorder();
+        // the new lead may be behind the current candidate
+        if (lead1.docID() < doc) {
+          doc = lead1.advance(doc);
+        }
+      } else if (remainingSamples > 0) {
+        remainingSamples--;
+      }
+
+      // all iterators are on or before doc, which might not be the case of
+      // lead2 if iterators were just reordered, so check every follower
+      for (int i = 0; i < followers.length; ++i) {
+        final DocIdSetIterator follower = followers[i];
+        checks[i]++;
+        if (follower.docID() < doc) {
+          final int next = follower.advance(doc);
+          if (next > doc) {
+            doc = lead1.advance(next);
+            continue advanceHead;
+          }
+        }
+        hits[i]++;
+      }
+
+      return doc;
+    }
+  }
+
+  /** Reorder iterators so that the followers that agree the least often with
+   *  the lead are checked first, and become the lead if they are sparser. */
+  private void reorder() {
+    remainingSamples = -1;
+    final List<DocIdSetIterator> iterators = new ArrayList<>(followers.length + 1);
+    final Map<DocIdSetIterator, Float> hitRates = new IdentityHashMap<>();
+    iterators.add(lead1);
+    hitRates.put(lead1, LEAD_HIT_RATE);
+    for (int i = 0; i < followers.length; ++i) {
+      iterators.add(followers[i]);
+      // followers that were never checked keep their position relative to each other
+      hitRates.put(followers[i], checks[i] == 0 ? 1f : (float) hits[i] / checks[i]);
+    }
+    // stable sort, ties keep the cost-based order
+    CollectionUtil.timSort(iterators, Comparator.comparing(hitRates::get));
+    lead1 = iterators.get(0);
+    lead2 = iterators.get(1);
+    others = iterators.subList(2, iterators.size()).toArray(new DocIdSetIterator[0]);
+    followers = iterators.subList(1, iterators.size()).toArray(new DocIdSetIterator[0]);
+  }
+
   @Override
   public int advance(int target) throws IOException {
     return doNext(lead1.advance(target));
@@ -242,7 +325,7 @@ public final class ConjunctionDISI extends DocIdSetIterator {
 
   @Override
   public long cost() {
-    return lead1.cost(); // overestimate
+    return cost; // overestimate
   }
 
   /** Conjunction between a {@link DocIdSetIterator} and one or more {@link BitSetIterator}s. */
@@ -45,7 +45,17 @@ public final class ConstantScoreQuery extends Query {
 
   @Override
   public Query rewrite(IndexReader reader) throws IOException {
-    Query rewritten = query.rewrite(reader);
+    return rewrite(reader, null);
+  }
+
+  @Override
+  public Query rewrite(IndexSearcher searcher) throws IOException {
+    return rewrite(searcher.getIndexReader(), searcher);
+  }
+
+  // sub queries are rewritten with the searcher if there is one
+  private Query rewrite(IndexReader reader, IndexSearcher searcher) throws IOException {
+    Query rewritten = searcher == null ? query.rewrite(reader) : query.rewrite(searcher);
 
     if (rewritten != query) {
       return new ConstantScoreQuery(rewritten);
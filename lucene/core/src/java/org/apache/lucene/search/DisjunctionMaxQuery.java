@@ -201,6 +201,16 @@ public final class DisjunctionMaxQuery extends Query implements Iterable<Query>
    * @return an optimized copy of us (which may not be a copy if there is nothing to optimize) */
   @Override
   public Query rewrite(IndexReader reader) throws IOException {
+    return rewrite(reader, null);
+  }
+
+  @Override
+  public Query rewrite(IndexSearcher searcher) throws IOException {
+    return rewrite(searcher.getIndexReader(), searcher);
+  }
+
+  // sub queries are rewritten with the searcher if there is one
+  private Query rewrite(IndexReader reader, IndexSearcher searcher) throws IOException {
     if (disjuncts.length == 1) {
       return disjuncts[0];
     }
@@ -216,7 +226,7 @@ public final class DisjunctionMaxQuery extends Query implements Iterable<Query>
     boolean actuallyRewritten = false;
     List<Query> rewrittenDisjuncts = new ArrayList<>();
     for (Query sub : disjuncts) {
-      Query rewrittenSub = sub.rewrite(reader);
+      Query rewrittenSub = searcher == null ? sub.rewrite(reader) : sub.rewrite(searcher);
       actuallyRewritten |= rewrittenSub != sub;
       rewrittenDisjuncts.add(rewrittenSub);
     }
@@ -19,14 +19,19 @@ package org.apache.lucene.search;
 
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PointValues.Relation;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.DocIdSetBuilder;
+import org.apache.lucene.util.NumericUtils;
 
 /**
  * Expert: a FieldComparator compares hits so as to determine their
@@ -136,15 +141,48 @@ public abstract class FieldComparator<T> {
     }
   }
 
+  /**
+   * How the points that index the same values as a {@link NumericComparator} are encoded, which
+   * numeric comparators need to know in order to skip non-competitive documents.
+   */
+  interface PointsEncoding {
+
+    /** Number of bytes per dimension of the points. */
+    int bytesPerDim();
+
+    /** Encodes the bottom value of the comparator the way points are encoded. */
+    void encodeBottom(byte[] packedValue);
+
+    /** Compares the missing value of the comparator to its bottom value. */
+    int compareMissingToBottom();
+  }
 
   /**
-   * Base FieldComparator class for numeric types
+   * Base FieldComparator class for numeric types.
+   * <p>
+   * When it is the primary sort of a {@link SortField} that {@link SortField#setCanUsePoints() can use points},
+   * the comparator narrows its {@link #competitiveIterator() competitive iterator} down to the documents
+   * whose point value may still compete with the bottom of the queue, once the queue is full and the
+   * hits threshold has been reached.
    */
   public static abstract class NumericComparator<T extends Number> extends SimpleFieldComparator<T> {
     protected final T missingValue;
     protected final String field;
     protected NumericDocValues currentReaderValues;
-    
+
+    // non-null if documents may be skipped using points
+    private PointsEncoding pointsEncoding;
+    private boolean reverse;
+    private boolean hitsThresholdReached;
+    private boolean queueFull;
+    // per-segment state, pointValues is null if documents can't be skipped in the current segment
+    private PointValues pointValues;
+    private int maxDoc;
+    private byte[] bottomAsBytes;
+    private DocIdSetIterator competitiveIterator;
+    private long iteratorCost;
+    private int updateCounter;
+
     public NumericComparator(String field, T missingValue) {
       this.field = field;
       this.missingValue = missingValue;
@@ -153,12 +191,158 @@ public abstract class FieldComparator<T> {
     @Override
     protected void doSetNextReader(LeafReaderContext context) throws IOException {
       currentReaderValues = getNumericDocValues(context, field);
+      pointValues = null;
+      if (pointsEncoding != null) {
+        PointValues values = context.reader().getPointValues(field);
+        if (values != null && values.getNumIndexDimensions() == 1
+            && values.getBytesPerDimension() == pointsEncoding.bytesPerDim()) {
+          pointValues = values;
+          maxDoc = context.reader().maxDoc();
+          if (bottomAsBytes == null) {
+            bottomAsBytes = new byte[pointsEncoding.bytesPerDim()];
+          }
+          competitiveIterator = DocIdSetIterator.all(maxDoc);
+          iteratorCost = maxDoc;
+          updateCounter = 0;
+          updateCompetitiveIterator();
+        }
+      }
     }
-    
+
     /** Retrieves the NumericDocValues for the field in this segment */
     protected NumericDocValues getNumericDocValues(LeafReaderContext context, String field) throws IOException {
       return DocValues.getNumeric(context.reader(), field);
     }
+
+    @Override
+    public void setHitsThresholdReached() throws IOException {
+      hitsThresholdReached = true;
+      updateCompetitiveIterator();
+    }
+
+    @Override
+    public DocIdSetIterator competitiveIterator() {
+      if (pointValues == null) {
+        return null;
+      }
+      // the delegate gets replaced with a narrower iterator as the bottom of the queue becomes
+      // more competitive, so we return a view that always advances the current one
+      return new DocIdSetIterator() {
+        private int docID = -1;
+
+        @Override
+        public int docID() {
+          return docID;
+        }
+
+        @Override
+        public int nextDoc() throws IOException {
+          return advance(docID + 1);
+        }
+
+        @Override
+        public int advance(int target) throws IOException {
+          return docID = competitiveIterator.advance(target);
+        }
+
+        @Override
+        public long cost() {
+          return competitiveIterator.cost();
+        }
+      };
+    }
+
+    /** Called by sub-classes every time the bottom of the queue changes. */
+    void bottomUpdated() throws IOException {
+      queueFull = true;
+      updateCompetitiveIterator();
+    }
+
+    /**
+     * Enables skipping of non-competitive documents with points, see {@link SortField#setCanUsePoints()}.
+     * This has no effect on comparators that don't know how points encode their values.
+     */
+    void enablePointsSkipping(boolean reverse) {
+      pointsEncoding = pointsEncoding();
+      this.reverse = reverse;
+    }
+
+    /**
+     * Returns how points that index the same values as this comparator are encoded, or null if
+     * this comparator can't skip documents using points, which is the default.
+     */
+    PointsEncoding pointsEncoding() {
+      return null;
+    }
+
+    private void updateCompetitiveIterator() throws IOException {
+      if (pointValues == null || hitsThresholdReached == false || queueFull == false) {
+        return;
+      }
+      if (pointValues.getDocCount() < maxDoc) {
+        // documents that don't have a point can only be skipped if the missing value doesn't compete
+        final int cmp = pointsEncoding.compareMissingToBottom();
+        if (reverse ? cmp >= 0 : cmp <= 0) {
+          return;
+        }
+      }
+      updateCounter++;
+      if (updateCounter > 256 && (updateCounter & 0x1f) != 0x1f) {
+        // the bottom changes often, only sample updates from now on
+        return;
+      }
+      pointsEncoding.encodeBottom(bottomAsBytes);
+      final int bytesPerDim = bottomAsBytes.length;
+      // values that are equal to the bottom are kept since secondary sorts may break ties in their favor
+      final DocIdSetBuilder result = new DocIdSetBuilder(maxDoc, pointValues, field);
+      final PointValues.IntersectVisitor visitor = new PointValues.IntersectVisitor() {
+
+        DocIdSetBuilder.BulkAdder adder;
+
+        @Override
+        public void grow(int count) {
+          adder = result.grow(count);
+        }
+
+        @Override
+        public void visit(int docID) {
+          adder.add(docID);
+        }
+
+        @Override
+        public void visit(int docID, byte[] packedValue) {
+          final int cmp = Arrays.compareUnsigned(packedValue, 0, bytesPerDim, bottomAsBytes, 0, bytesPerDim);
+          if (reverse ? cmp >= 0 : cmp <= 0) {
+            adder.add(docID);
+          }
+        }
+
+        @Override
+        public Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+          final int cmpMin = Arrays.compareUnsigned(minPackedValue, 0, bytesPerDim, bottomAsBytes, 0, bytesPerDim);
+          final int cmpMax = Arrays.compareUnsigned(maxPackedValue, 0, bytesPerDim, bottomAsBytes, 0, bytesPerDim);
+          if (reverse) {
+            if (cmpMax < 0) {
+              return Relation.CELL_OUTSIDE_QUERY;
+            }
+            return cmpMin >= 0 ? Relation.CELL_INSIDE_QUERY : Relation.CELL_CROSSES_QUERY;
+          } else {
+            if (cmpMin > 0) {
+              return Relation.CELL_OUTSIDE_QUERY;
+            }
+            return cmpMax <= 0 ? Relation.CELL_INSIDE_QUERY : Relation.CELL_CROSSES_QUERY;
+          }
+        }
+      };
+      // only materialize the competitive documents if this divides the number of candidates by 8 or more
+      final long threshold = iteratorCost >>> 3;
+      if (pointValues.estimatePointCount(visitor) >= threshold) {
+        return;
+      }
+      pointValues.intersect(visitor);
+      competitiveIterator = result.build().iterator();
+      iteratorCost = competitiveIterator.cost();
+    }
   }
 
   /** Parses field's values as double (using {@link
@@ -201,8 +385,9 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomUpdated();
     }
 
     @Override
@@ -219,6 +404,26 @@ public abstract class FieldComparator<T> {
     public int compareTop(int doc) throws IOException {
       return Double.compare(topValue, getValueForDoc(doc));
     }
+
+    @Override
+    PointsEncoding pointsEncoding() {
+      return new PointsEncoding() {
+        @Override
+        public int bytesPerDim() {
+          return Double.BYTES;
+        }
+
+        @Override
+        public void encodeBottom(byte[] packedValue) {
+          NumericUtils.longToSortableBytes(NumericUtils.doubleToSortableLong(bottom), packedValue, 0);
+        }
+
+        @Override
+        public int compareMissingToBottom() {
+          return Double.compare(missingValue, bottom);
+        }
+      };
+    }
   }
 
   /** Parses field's values as float (using {@link
@@ -261,8 +466,9 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomUpdated();
     }
 
     @Override
@@ -279,6 +485,26 @@ public abstract class FieldComparator<T> {
     public int compareTop(int doc) throws IOException {
       return Float.compare(topValue, getValueForDoc(doc));
     }
+
+    @Override
+    PointsEncoding pointsEncoding() {
+      return new PointsEncoding() {
+        @Override
+        public int bytesPerDim() {
+          return Float.BYTES;
+        }
+
+        @Override
+        public void encodeBottom(byte[] packedValue) {
+          NumericUtils.intToSortableBytes(NumericUtils.floatToSortableInt(bottom), packedValue, 0);
+        }
+
+        @Override
+        public int compareMissingToBottom() {
+          return Float.compare(missingValue, bottom);
+        }
+      };
+    }
   }
 
   /** Parses field's values as int (using {@link
@@ -323,8 +549,9 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomUpdated();
     }
 
     @Override
@@ -341,6 +568,26 @@ public abstract class FieldComparator<T> {
     public int compareTop(int doc) throws IOException {
       return Integer.compare(topValue, getValueForDoc(doc));
     }
+
+    @Override
+    PointsEncoding pointsEncoding() {
+      return new PointsEncoding() {
+        @Override
+        public int bytesPerDim() {
+          return Integer.BYTES;
+        }
+
+        @Override
+        public void encodeBottom(byte[] packedValue) {
+          NumericUtils.intToSortableBytes(bottom, packedValue, 0);
+        }
+
+        @Override
+        public int compareMissingToBottom() {
+          return Integer.compare(missingValue, bottom);
+        }
+      };
+    }
   }
 
   /** Parses field's values as long (using {@link
@@ -383,8 +630,9 @@ public abstract class FieldComparator<T> {
     }
     
     @Override
-    public void setBottom(final int bottom) {
+    public void setBottom(final int bottom) throws IOException {
       this.bottom = values[bottom];
+      bottomUpdated();
     }
 
     @Override
@@ -401,6 +649,26 @@ public abstract class FieldComparator<T> {
     public int compareTop(int doc) throws IOException {
       return Long.compare(topValue, getValueForDoc(doc));
     }
+
+    @Override
+    PointsEncoding pointsEncoding() {
+      return new PointsEncoding() {
+        @Override
+        public int bytesPerDim() {
+          return Long.BYTES;
+        }
+
+        @Override
+        public void encodeBottom(byte[] packedValue) {
+          NumericUtils.longToSortableBytes(bottom, packedValue, 0);
+        }
+
+        @Override
+        public int compareMissingToBottom() {
+          return Long.compare(missingValue, bottom);
+        }
+      };
+    }
   }
 
   /** Sorts by descending relevance.  NOTE: if you are
@@ -294,7 +294,8 @@ public class IndexSearcher {
   /**
    * Expert: Creates an array of leaf slices each holding a subset of the given leaves.
    * Each {@link LeafSlice} is executed in a single thread. By default, segments with more than
-   * MAX_DOCS_PER_SLICE will get their own thread
+   * MAX_DOCS_PER_SLICE will get their own thread. Override this method and call
+   * {@link #slices(List, int, int, boolean)} to also split large segments across threads.
    */
   protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
     return slices(leaves, MAX_DOCS_PER_SLICE, MAX_SEGMENTS_PER_SLICE);
@@ -305,6 +306,21 @@ public class IndexSearcher {
    */
   public static LeafSlice[] slices (List<LeafReaderContext> leaves, int maxDocsPerSlice,
                                     int maxSegmentsPerSlice) {
+    return slices(leaves, maxDocsPerSlice, maxSegmentsPerSlice, false);
+  }
+
+  /**
+   * Static method to segregate LeafReaderContexts amongst multiple slices. If
+   * {@code allowSegmentPartitions} is true, segments that have more than
+   * {@code maxDocsPerSlice} documents are split into ranges of doc IDs of
+   * roughly equal sizes that are searched concurrently, which allows searches
+   * on indices that have few large segments, such as force-merged indices, to
+   * make use of multiple threads.
+   *
+   * @lucene.experimental
+   */
+  public static LeafSlice[] slices(List<LeafReaderContext> leaves, int maxDocsPerSlice,
+                                   int maxSegmentsPerSlice, boolean allowSegmentPartitions) {
     // Make a copy so we can sort:
     List<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
 
@@ -312,13 +328,24 @@ public class IndexSearcher {
     Collections.sort(sortedLeaves,
         Collections.reverseOrder(Comparator.comparingInt(l -> l.reader().maxDoc())));
 
+    final List<LeafSlice> slices = new ArrayList<>();
     final List<List<LeafReaderContext>> groupedLeaves = new ArrayList<>();
     long docSum = 0;
     List<LeafReaderContext> group = null;
     for (LeafReaderContext ctx : sortedLeaves) {
       if (ctx.reader().maxDoc() > maxDocsPerSlice) {
         assert group == null;
-        groupedLeaves.add(Collections.singletonList(ctx));
+        if (allowSegmentPartitions) {
+          final int maxDoc = ctx.reader().maxDoc();
+          final int numPartitions = (int) ((maxDoc + (long) maxDocsPerSlice - 1) / maxDocsPerSlice);
+          final int docsPerPartition = (int) ((maxDoc + (long) numPartitions - 1) / numPartitions);
+          for (int minDocId = 0; minDocId < maxDoc; minDocId += docsPerPartition) {
+            final int maxDocId = Math.min(maxDoc, minDocId + docsPerPartition);
+            slices.add(new LeafSlice(LeafReaderContextPartition.createFromAndTo(ctx, minDocId, maxDocId)));
+          }
+        } else {
+          groupedLeaves.add(Collections.singletonList(ctx));
+        }
       } else {
         if (group == null) {
           group = new ArrayList<>();
@@ -337,14 +364,11 @@ public class IndexSearcher {
       }
     }
 
-    LeafSlice[] slices = new LeafSlice[groupedLeaves.size()];
-    int upto = 0;
     for (List<LeafReaderContext> currentLeaf : groupedLeaves) {
-      slices[upto] = new LeafSlice(currentLeaf);
-      ++upto;
+      slices.add(new LeafSlice(currentLeaf));
     }
 
-    return slices;
+    return slices.toArray(new LeafSlice[0]);
   }
 
   /** Return the {@link IndexReader} this searches. */
@@ -664,10 +688,10 @@ public class IndexSearcher {
       final Weight weight = createWeight(query, scoreMode, 1);
       final List<Future<C>> topDocsFutures = new ArrayList<>(leafSlices.length);
       for (int i = 0; i < leafSlices.length - 1; ++i) {
-        final LeafReaderContext[] leaves = leafSlices[i].leaves;
+        final LeafSlice slice = leafSlices[i];
         final C collector = collectors.get(i);
         FutureTask<C> task = new FutureTask<>(() -> {
-          search(Arrays.asList(leaves), weight, collector);
+          search(slice.partitions, weight, collector);
           return collector;
         });
         boolean executedOnCallerThread = false;
@@ -675,7 +699,7 @@ public class IndexSearcher {
           executor.execute(task);
         } catch (RejectedExecutionException e) {
           // Execute on caller thread
-          search(Arrays.asList(leaves), weight, collector);
+          search(slice.partitions, weight, collector);
           topDocsFutures.add(CompletableFuture.completedFuture(collector));
           executedOnCallerThread = true;
         }
@@ -685,10 +709,9 @@ public class IndexSearcher {
           topDocsFutures.add(task);
         }
       }
-      final LeafReaderContext[] leaves = leafSlices[leafSlices.length - 1].leaves;
       final C collector = collectors.get(leafSlices.length - 1);
       // execute the last on the caller thread
-      search(Arrays.asList(leaves), weight, collector);
+      search(leafSlices[leafSlices.length - 1].partitions, weight, collector);
       topDocsFutures.add(CompletableFuture.completedFuture(collector));
       final List<C> collectedCollectors = new ArrayList<>();
       for (Future<C> future : topDocsFutures) {
@@ -714,6 +737,12 @@ public class IndexSearcher {
    * NOTE: this method executes the searches on all given leaves exclusively.
    * To search across all the searchers leaves use {@link #leafContexts}.
    * 
+   * <p>
+   * This method searches partitions that cover the entire leaves with
+   * {@link #search(LeafReaderContextPartition[], Weight, Collector)}, which
+   * is the method to override in order to intercept the collection of all
+   * leaves, including partitions of leaves that are searched concurrently.
+   * 
    * @param leaves 
    *          the searchers leaves to execute the searches on
    * @param weight
@@ -725,26 +754,57 @@ public class IndexSearcher {
    */
   protected void search(List<LeafReaderContext> leaves, Weight weight, Collector collector)
       throws IOException {
+    final LeafReaderContextPartition[] partitions = new LeafReaderContextPartition[leaves.size()];
+    for (int i = 0; i < partitions.length; ++i) {
+      partitions[i] = LeafReaderContextPartition.createForEntireSegment(leaves.get(i));
+    }
+    search(partitions, weight, collector);
+  }
+
+  /**
+   * Lower-level search API.
+   *
+   * <p>
+   * Same as {@link #search(List, Weight, Collector)}, but only collects
+   * documents within the range of doc IDs of each given partition. All
+   * searches end up calling this method, both on entire leaves and on
+   * partitions of leaves.
+   *
+   * @param partitions
+   *          the partitions of the searchers leaves to execute the searches on
+   * @param weight
+   *          to match documents
+   * @param collector
+   *          to receive hits
+   * @lucene.experimental
+   */
+  protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector)
+      throws IOException {
 
     // TODO: should we make this
     // threaded...?  the Collector could be sync'd?
     // always use single thread:
-    for (LeafReaderContext ctx : leaves) { // search each subreader
+    for (LeafReaderContextPartition partition : partitions) { // search each partition
+      final LeafReaderContext ctx = partition.ctx;
       final LeafCollector leafCollector;
       try {
         leafCollector = collector.getLeafCollector(ctx);
       } catch (CollectionTerminatedException e) {
         // there is no doc of interest in this reader context
-        // continue with the following leaf
+        // continue with the following partition
         continue;
       }
       BulkScorer scorer = weight.bulkScorer(ctx);
       if (scorer != null) {
         try {
-          scorer.score(leafCollector, ctx.reader().getLiveDocs());
+          if (partition.isEntireSegment()) {
+            scorer.score(leafCollector, ctx.reader().getLiveDocs());
+          } else {
+            scorer.score(leafCollector, ctx.reader().getLiveDocs(), partition.minDocId, partition.maxDocId);
+          }
         } catch (CollectionTerminatedException e) {
           // collection was terminated prematurely
-          // continue with the following leaf
+          // continue with the following partition
         }
       }
     }
@@ -756,8 +816,8 @@ public class IndexSearcher {
    */
   public Query rewrite(Query original) throws IOException {
     Query query = original;
-    for (Query rewrittenQuery = query.rewrite(reader); rewrittenQuery != query;
-         rewrittenQuery = query.rewrite(reader)) {
+    for (Query rewrittenQuery = query.rewrite(this); rewrittenQuery != query;
+         rewrittenQuery = query.rewrite(this)) {
       query = rewrittenQuery;
     }
     query.visit(getNumClausesCheckVisitor());
@@ -843,7 +903,7 @@ public class IndexSearcher {
     final QueryCache queryCache = this.queryCache;
     Weight weight = query.createWeight(this, scoreMode, boost);
     if (scoreMode.needsScores() == false && queryCache != null) {
-      weight = queryCache.doCache(weight, queryCachingPolicy);
+      weight = queryCache.doCache(weight, queryCachingPolicy, executor);
     }
     return weight;
   }
@@ -869,10 +929,82 @@ public class IndexSearcher {
      *
      *  @lucene.experimental */
     public final LeafReaderContext[] leaves;
+
+    /** The ranges of doc IDs of the leaves that make up this slice, in the
+     *  same order as {@link #leaves}. Partitions that cover an entire leaf
+     *  have a {@link LeafReaderContextPartition#minDocId minDocId} of 0 and a
+     *  {@link LeafReaderContextPartition#maxDocId maxDocId} of
+     *  {@link DocIdSetIterator#NO_MORE_DOCS}.
+     *
+     *  @lucene.experimental */
+    public final LeafReaderContextPartition[] partitions;
     
     public LeafSlice(List<LeafReaderContext> leavesList) {
       Collections.sort(leavesList, Comparator.comparingInt(l -> l.docBase));
       this.leaves = leavesList.toArray(new LeafReaderContext[0]);
+      this.partitions = new LeafReaderContextPartition[leaves.length];
+      for (int i = 0; i < leaves.length; ++i) {
+        partitions[i] = LeafReaderContextPartition.createForEntireSegment(leaves[i]);
+      }
+    }
+
+    /** Create a slice that is made of the given partitions of leaves. */
+    public LeafSlice(LeafReaderContextPartition... partitions) {
+      this.partitions = partitions.clone();
+      Arrays.sort(this.partitions, Comparator.<LeafReaderContextPartition>comparingInt(p -> p.ctx.docBase)
+          .thenComparingInt(p -> p.minDocId));
+      this.leaves = new LeafReaderContext[this.partitions.length];
+      for (int i = 0; i < this.partitions.length; ++i) {
+        leaves[i] = this.partitions[i].ctx;
+      }
+    }
+  }
+
+  /**
+   * A range of doc IDs of a {@link LeafReaderContext}. Partitions allow a
+   * single segment to be searched concurrently by multiple threads, each of
+   * them collecting the doc IDs in {@code [minDocId, maxDocId)}.
+   *
+   * @lucene.experimental
+   */
+  public static final class LeafReaderContextPartition {
+
+    /** The leaf that this partition belongs to. */
+    public final LeafReaderContext ctx;
+    /** The first doc ID of this partition, inclusive. */
+    public final int minDocId;
+    /** The last doc ID of this partition, exclusive. */
+    public final int maxDocId;
+
+    private LeafReaderContextPartition(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (minDocId < 0 || minDocId >= maxDocId) {
+        throw new IllegalArgumentException("Illegal range of doc IDs: [" + minDocId + ", " + maxDocId + ")");
+      }
+      this.ctx = ctx;
+      this.minDocId = minDocId;
+      this.maxDocId = maxDocId;
+    }
+
+    /** Create a partition that covers all doc IDs of the given leaf. */
+    public static LeafReaderContextPartition createForEntireSegment(LeafReaderContext ctx) {
+      return new LeafReaderContextPartition(ctx, 0, DocIdSetIterator.NO_MORE_DOCS);
+    }
+
+    /** Create a partition that covers doc IDs in {@code [minDocId, maxDocId)} of the given leaf. */
+    public static LeafReaderContextPartition createFromAndTo(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (minDocId == 0 && maxDocId >= ctx.reader().maxDoc()) {
+        return createForEntireSegment(ctx);
+      }
+      return new LeafReaderContextPartition(ctx, minDocId, maxDocId);
+    }
+
+    boolean isEntireSegment() {
+      return minDocId == 0 && maxDocId == DocIdSetIterator.NO_MORE_DOCS;
+    }
+
+    @Override
+    public String toString() {
+      return "LeafReaderContextPartition(ord=" + ctx.ord + ", minDocId=" + minDocId + ", maxDocId=" + maxDocId + ")";
     }
   }
 
@@ -28,6 +28,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
@@ -37,6 +40,7 @@ import org.apache.lucene.index.IndexReaderContext;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
 import org.apache.lucene.util.BitDocIdSet;
@@ -84,6 +88,15 @@ import static org.apache.lucene.util.RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_U
  * It is better to not perform heavy computations in these methods though since
  * they are called synchronously and under a lock.
  *
+ * By default, the {@link DocIdSet} of a query that the {@link QueryCachingPolicy}
+ * decides to cache is computed by the search thread that first needs it. When
+ * created with {@code asyncPopulation=true}, this cache instead computes these
+ * {@link DocIdSet}s on the {@link IndexSearcher#getExecutor() executor} of the
+ * searcher, if any, and the query that triggered caching runs uncached.
+ * Entries that fail to be computed this way are reported to
+ * {@link #onAsyncFailure} and counted by {@link #getAsyncFailureCount()}.
+ *
+ * @see ShardedLRUQueryCache
  * @see QueryCachingPolicy
  * @lucene.experimental
  */
@@ -102,6 +115,9 @@ public class LRUQueryCache implements QueryCache, Accountable {
   private final Map<IndexReader.CacheKey, LeafCache> cache;
   private final ReentrantLock lock;
   private final float skipCacheFactor;
+  private final boolean asyncPopulation;
+  // entries that are being computed asynchronously
+  private final Set<PendingEntry> pendingEntries;
 
   // these variables are volatile so that we do not need to sync reads
   // but increments need to be performed under the lock
@@ -110,6 +126,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
   private volatile long missCount;
   private volatile long cacheCount;
   private volatile long cacheSize;
+  private volatile long asyncFailureCount;
 
   /**
    * Expert: Create a new instance that will cache at most <code>maxSize</code>
@@ -121,6 +138,18 @@ public class LRUQueryCache implements QueryCache, Accountable {
    */
   public LRUQueryCache(int maxSize, long maxRamBytesUsed,
                        Predicate<LeafReaderContext> leavesToCache, float skipCacheFactor) {
+    this(maxSize, maxRamBytesUsed, leavesToCache, skipCacheFactor, false);
+  }
+
+  /**
+   * Expert: Same as {@link #LRUQueryCache(int, long, Predicate, float)}, but
+   * if {@code asyncPopulation} is true, cache entries are computed on the
+   * executor of the {@link IndexSearcher} rather than by the query that first
+   * needs them. This has no effect on searchers that have no executor.
+   */
+  public LRUQueryCache(int maxSize, long maxRamBytesUsed,
+                       Predicate<LeafReaderContext> leavesToCache, float skipCacheFactor,
+                       boolean asyncPopulation) {
     this.maxSize = maxSize;
     this.maxRamBytesUsed = maxRamBytesUsed;
     this.leavesToCache = leavesToCache;
@@ -128,6 +157,8 @@ public class LRUQueryCache implements QueryCache, Accountable {
       throw new IllegalArgumentException("skipCacheFactor must be no less than 1, get " + skipCacheFactor);
     }
     this.skipCacheFactor = skipCacheFactor;
+    this.asyncPopulation = asyncPopulation;
+    pendingEntries = ConcurrentHashMap.newKeySet();
 
     uniqueQueries = new LinkedHashMap<>(16, 0.75f, true);
     mostRecentlyUsedQueries = uniqueQueries.keySet();
@@ -246,6 +277,19 @@ public class LRUQueryCache implements QueryCache, Accountable {
     cacheSize -= numEntries;
   }
 
+  /**
+   * Expert: callback when a cache entry that was being computed asynchronously
+   * could not be computed, either because computing it failed or because the
+   * reader was closed in the meantime. The query that triggered caching ran
+   * uncached, so such failures are not otherwise visible.
+   * @see #getAsyncFailureCount()
+   * @lucene.experimental
+   */
+  protected void onAsyncFailure(Object readerCoreKey, Query query, Exception exception) {
+    assert lock.isHeldByCurrentThread();
+    asyncFailureCount += 1;
+  }
+
   /**
    * Expert: callback when the cache is completely cleared.
    * @lucene.experimental
@@ -298,21 +342,23 @@ public class LRUQueryCache implements QueryCache, Accountable {
     // under a lock to make sure that mostRecentlyUsedQueries and cache remain sync'ed
     lock.lock();
     try {
-      Query singleton = uniqueQueries.putIfAbsent(query, query);
-      if (singleton == null) {
-        onQueryCache(query, LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY + QUERY_DEFAULT_RAM_BYTES_USED);
-      } else {
-        query = singleton;
-      }
       final IndexReader.CacheKey key = cacheHelper.getKey();
       LeafCache leafCache = cache.get(key);
       if (leafCache == null) {
+        // we are about to create a new leaf cache, need to register a close listener
+        // first: this fails if the reader has been closed in the meantime, which
+        // may happen when the entry has been computed asynchronously
+        cacheHelper.addClosedListener(this::clearCoreCacheKey);
         leafCache = new LeafCache(key);
         final LeafCache previous = cache.put(key, leafCache);
         ramBytesUsed += HASHTABLE_RAM_BYTES_PER_ENTRY;
         assert previous == null;
-        // we just created a new leaf cache, need to register a close listener
-        cacheHelper.addClosedListener(this::clearCoreCacheKey);
+      }
+      Query singleton = uniqueQueries.putIfAbsent(query, query);
+      if (singleton == null) {
+        onQueryCache(query, LINKED_HASHTABLE_RAM_BYTES_PER_ENTRY + QUERY_DEFAULT_RAM_BYTES_USED);
+      } else {
+        query = singleton;
       }
       leafCache.putIfAbsent(query, set);
       evictIfNecessary();
@@ -459,11 +505,16 @@ public class LRUQueryCache implements QueryCache, Accountable {
 
   @Override
   public Weight doCache(Weight weight, QueryCachingPolicy policy) {
+    return doCache(weight, policy, null);
+  }
+
+  @Override
+  public Weight doCache(Weight weight, QueryCachingPolicy policy, Executor executor) {
     while (weight instanceof CachingWrapperWeight) {
       weight = ((CachingWrapperWeight) weight).in;
     }
 
-    return new CachingWrapperWeight(weight, policy);
+    return new CachingWrapperWeight(weight, policy, asyncPopulation ? executor : null);
   }
 
   @Override
@@ -603,6 +654,43 @@ public class LRUQueryCache implements QueryCache, Accountable {
     return getCacheCount() - getCacheSize();
   }
 
+  /**
+   * Return the number of cache entries that could not be computed
+   * asynchronously, because computing them failed or because their reader
+   * was closed before they could be cached. This is always 0 unless this
+   * cache populates entries asynchronously.
+   * @see #onAsyncFailure(Object, Query, Exception)
+   */
+  public final long getAsyncFailureCount() {
+    return asyncFailureCount;
+  }
+
+  /** A cache entry that is being computed asynchronously. */
+  private static class PendingEntry {
+
+    private final Query query;
+    private final IndexReader.CacheKey key;
+
+    PendingEntry(Query query, IndexReader.CacheKey key) {
+      this.query = query;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != getClass()) {
+        return false;
+      }
+      PendingEntry that = (PendingEntry) obj;
+      return key == that.key && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * query.hashCode() + System.identityHashCode(key);
+    }
+  }
+
   // this class is not thread-safe, everything but ramBytesUsed needs to be called under a lock
   private class LeafCache implements Accountable {
 
@@ -661,14 +749,17 @@ public class LRUQueryCache implements QueryCache, Accountable {
 
     private final Weight in;
     private final QueryCachingPolicy policy;
+    // the executor to compute cache entries on, or null to compute them in the current thread
+    private final Executor populationExecutor;
     // we use an AtomicBoolean because Weight.scorer may be called from multiple
     // threads when IndexSearcher is created with threads
     private final AtomicBoolean used;
 
-    CachingWrapperWeight(Weight in, QueryCachingPolicy policy) {
+    CachingWrapperWeight(Weight in, QueryCachingPolicy policy, Executor populationExecutor) {
       super(in.getQuery(), 1f);
       this.in = in;
       this.policy = policy;
+      this.populationExecutor = populationExecutor;
       used = new AtomicBoolean(false);
     }
 
@@ -698,6 +789,39 @@ public class LRUQueryCache implements QueryCache, Accountable {
       }
     }
 
+    /**
+     * Compute the cache entry for the given segment on the population executor,
+     * unless another thread is already computing it.
+     */
+    private void cacheAsync(LeafReaderContext context, IndexReader.CacheHelper cacheHelper) {
+      final Query query = in.getQuery();
+      final PendingEntry pendingEntry = new PendingEntry(query, cacheHelper.getKey());
+      if (pendingEntries.add(pendingEntry) == false) {
+        return;
+      }
+      try {
+        populationExecutor.execute(() -> {
+          try {
+            putIfAbsent(query, cache(context), cacheHelper);
+          } catch (IOException | AlreadyClosedException e) {
+            // the reader has been closed in the meantime or failed to compute the
+            // entry, the query that triggered caching surfaces errors if any
+            lock.lock();
+            try {
+              onAsyncFailure(cacheHelper.getKey(), query, e);
+            } finally {
+              lock.unlock();
+            }
+          } finally {
+            pendingEntries.remove(pendingEntry);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // skip caching, a later query will retry
+        pendingEntries.remove(pendingEntry);
+      }
+    }
+
     /** Check whether this segment is eligible for caching, regardless of the query. */
     private boolean shouldCache(LeafReaderContext context) throws IOException {
       return cacheEntryHasReasonableWorstCaseSize(ReaderUtil.getTopLevelContext(context).reader().maxDoc())
@@ -756,6 +880,11 @@ public class LRUQueryCache implements QueryCache, Accountable {
                 return supplier.get(leadCost);
               }
 
+              if (populationExecutor != null) {
+                cacheAsync(context, cacheHelper);
+                return supplier.get(leadCost);
+              }
+
               Scorer scorer = supplier.get(Long.MAX_VALUE);
               DocIdSet docIdSet = cacheImpl(new DefaultBulkScorer(scorer), context.reader().maxDoc());
               putIfAbsent(in.getQuery(), docIdSet, cacheHelper);
@@ -852,6 +981,10 @@ public class LRUQueryCache implements QueryCache, Accountable {
 
       if (docIdSet == null) {
         if (policy.shouldCache(in.getQuery())) {
+          if (populationExecutor != null) {
+            cacheAsync(context, cacheHelper);
+            return in.bulkScorer(context);
+          }
           docIdSet = cache(context);
           putIfAbsent(in.getQuery(), docIdSet, cacheHelper);
         } else {
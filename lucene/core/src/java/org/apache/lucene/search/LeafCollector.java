@@ -93,4 +93,17 @@ public interface LeafCollector {
    */
   void collect(int doc) throws IOException;
 
+  /**
+   * Optionally returns an iterator over the documents that are competitive for this
+   * collector. Bulk scorers may use it to skip documents that would otherwise be
+   * passed to {@link #collect(int)} and ignored. The iterator may be updated by the
+   * collector as it collects documents, but it may only ever skip more documents.
+   * <p>
+   * The default implementation returns {@code null}, meaning that all matches are
+   * competitive.
+   */
+  default DocIdSetIterator competitiveIterator() throws IOException {
+    return null;
+  }
+
 }
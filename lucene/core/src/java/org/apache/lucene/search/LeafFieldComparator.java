@@ -116,4 +116,23 @@ public interface LeafFieldComparator {
    * obtain the current hit's score, if necessary. */
   void setScorer(Scorable scorer) throws IOException;
 
+  /**
+   * Informs this leaf comparator that the hits threshold of the collector has been
+   * reached, meaning that hits no longer need to be counted accurately and that
+   * non-competitive documents may be skipped from now on.
+   */
+  default void setHitsThresholdReached() throws IOException {}
+
+  /**
+   * Returns an iterator over the documents of the current segment that may still be
+   * competitive. The returned iterator may be narrowed by the comparator as the bottom
+   * of the queue changes, but it will only ever skip documents that are not competitive.
+   *
+   * @return an iterator over competitive documents, or {@code null} if this comparator
+   *         can't skip documents in the current segment
+   */
+  default DocIdSetIterator competitiveIterator() throws IOException {
+    return null;
+  }
+
 }
@@ -22,6 +22,7 @@ import java.util.Objects;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.search.similarities.Similarity.SimScorer;
+import org.apache.lucene.util.ArrayUtil;
 
 /**
  * {@link SimScorer} on a specific {@link LeafReader}.
@@ -30,6 +31,7 @@ public final class LeafSimScorer {
 
   private final SimScorer scorer;
   private final NumericDocValues norms;
+  private long[] normValues = new long[0];
 
   /**
    * Sole constructor: Score documents of {@code reader} with {@code scorer}.
@@ -61,6 +63,19 @@ public final class LeafSimScorer {
     return scorer.score(freq, getNormValue(doc));
   }
 
+  /** Score a batch of documents assuming the given term document frequencies,
+   *  and write their scores into {@code scores}. {@code docs} must be sorted
+   *  and this method must be called on non-decreasing sequences of doc ids.
+   *  @see SimScorer#score(int[], long[], float[], int)
+   *  @lucene.experimental */
+  public void score(int[] docs, int[] freqs, float[] scores, int count) throws IOException {
+    normValues = ArrayUtil.grow(normValues, count);
+    for (int i = 0; i < count; ++i) {
+      normValues[i] = getNormValue(docs[i]);
+    }
+    scorer.score(freqs, normValues, scores, count);
+  }
+
   /** Explain the score for the provided document assuming the given term document frequency.
    *  This method must be called on non-decreasing sequences of doc ids.
    *  @see SimScorer#explain(Explanation, long) */
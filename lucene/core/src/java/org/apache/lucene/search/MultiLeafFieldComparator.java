@@ -89,4 +89,15 @@ final class MultiLeafFieldComparator implements LeafFieldComparator {
     }
   }
 
+  @Override
+  public void setHitsThresholdReached() throws IOException {
+    // only the primary comparator can skip documents
+    firstComparator.setHitsThresholdReached();
+  }
+
+  @Override
+  public DocIdSetIterator competitiveIterator() throws IOException {
+    return firstComparator.competitiveIterator();
+  }
+
 }
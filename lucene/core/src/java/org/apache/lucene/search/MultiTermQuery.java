@@ -70,6 +70,16 @@ public abstract class MultiTermQuery extends Query {
   /** Abstract class that defines how the query is rewritten. */
   public static abstract class RewriteMethod {
     public abstract Query rewrite(IndexReader reader, MultiTermQuery query) throws IOException;
+    /**
+     * Rewrites the query with the given searcher. Rewrite methods that enumerate
+     * terms may override this method in order to visit segments concurrently using
+     * the {@link IndexSearcher#getExecutor() executor} of the searcher.
+     * The default implementation calls {@link #rewrite(IndexReader, MultiTermQuery)}.
+     * @lucene.experimental
+     */
+    public Query rewrite(IndexSearcher searcher, MultiTermQuery query) throws IOException {
+      return rewrite(searcher.getIndexReader(), query);
+    }
     /**
      * Returns the {@link MultiTermQuery}s {@link TermsEnum}
      * @see MultiTermQuery#getTermsEnum(Terms, AttributeSource)
@@ -313,6 +323,11 @@ public abstract class MultiTermQuery extends Query {
     return rewriteMethod.rewrite(reader, this);
   }
 
+  @Override
+  public final Query rewrite(IndexSearcher searcher) throws IOException {
+    return rewriteMethod.rewrite(searcher, this);
+  }
+
   /**
    * @see #setRewriteMethod
    */
@@ -113,7 +113,8 @@ final class MultiTermQueryConstantScoreWrapper<Q extends MultiTermQuery> extends
 
       /** Try to collect terms from the given terms enum and return true iff all
        *  terms could be collected. If {@code false} is returned, the enum is
-       *  left positioned on the next term. */
+       *  left positioned on the next term. Postings of collected terms are
+       *  hinted since they are going to be read in any case. */
       private boolean collectTerms(LeafReaderContext context, TermsEnum termsEnum, List<TermAndState> terms) throws IOException {
         final int threshold = Math.min(BOOLEAN_REWRITE_TERM_COUNT_THRESHOLD, IndexSearcher.getMaxClauseCount());
         for (int i = 0; i < threshold; ++i) {
@@ -121,12 +122,17 @@ final class MultiTermQueryConstantScoreWrapper<Q extends MultiTermQuery> extends
           if (term == null) {
             return true;
           }
-          TermState state = termsEnum.termState();
-          terms.add(new TermAndState(BytesRef.deepCopyOf(term), state, termsEnum.docFreq(), termsEnum.totalTermFreq()));
+          collectTerm(termsEnum, terms);
         }
         return termsEnum.next() == null;
       }
 
+      private void collectTerm(TermsEnum termsEnum, List<TermAndState> terms) throws IOException {
+        termsEnum.prefetchPostings();
+        TermState state = termsEnum.termState();
+        terms.add(new TermAndState(BytesRef.deepCopyOf(termsEnum.term()), state, termsEnum.docFreq(), termsEnum.totalTermFreq()));
+      }
+
       /**
        * On the given leaf context, try to either rewrite to a disjunction if
        * there are few terms, or build a bitset containing matching docs.
@@ -157,23 +163,27 @@ final class MultiTermQueryConstantScoreWrapper<Q extends MultiTermQuery> extends
           return new WeightOrDocIdSet(weight);
         }
 
-        // Too many terms: go back to the terms we already collected and start building the bit set
+        // Too many terms: go back to the terms we already collected and start building the bit set,
+        // then keep filling it with remaining terms, which are collected in batches so that their
+        // postings can be hinted before any of them is read
         DocIdSetBuilder builder = new DocIdSetBuilder(context.reader().maxDoc(), terms);
-        if (collectedTerms.isEmpty() == false) {
-          TermsEnum termsEnum2 = terms.iterator();
+        TermsEnum termsEnum2 = terms.iterator();
+        boolean exhausted = false;
+        while (true) {
           for (TermAndState t : collectedTerms) {
             termsEnum2.seekExact(t.term, t.state);
             docs = termsEnum2.postings(docs, PostingsEnum.NONE);
             builder.add(docs);
           }
+          if (exhausted) {
+            break;
+          }
+          collectedTerms.clear();
+          // the enum is positioned on a term that hasn't been collected yet
+          collectTerm(termsEnum, collectedTerms);
+          exhausted = collectTerms(context, termsEnum, collectedTerms);
         }
 
-        // Then keep filling the bit set with remaining terms
-        do {
-          docs = termsEnum.postings(docs, PostingsEnum.NONE);
-          builder.add(docs);
-        } while (termsEnum.next() != null);
-
         return new WeightOrDocIdSet(builder.build());
       }
 
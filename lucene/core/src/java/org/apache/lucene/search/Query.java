@@ -74,6 +74,19 @@ public abstract class Query {
     return this;
   }
 
+  /** Expert: called by {@link IndexSearcher#rewrite(Query)} to re-write queries
+   * into primitive queries. Queries that can make use of the searcher, for
+   * instance to run parts of the rewrite concurrently on its
+   * {@link IndexSearcher#getExecutor() executor}, should override this method.
+   * Queries that wrap other queries should override it in order to propagate
+   * the searcher to their sub queries.
+   * <p>The default implementation calls {@link #rewrite(IndexReader)}.
+   * @lucene.experimental
+   */
+  public Query rewrite(IndexSearcher searcher) throws IOException {
+    return rewrite(searcher.getIndexReader());
+  }
+
   /**
    * Recurse through the query tree, visiting any child queries
    * @param visitor a QueryVisitor to be called by each query in the tree
@@ -16,6 +16,7 @@
  */
 package org.apache.lucene.search;
 
+import java.util.concurrent.Executor;
 
 /**
  * A cache for queries.
@@ -33,4 +34,14 @@ public interface QueryCache {
    */
   Weight doCache(Weight weight, QueryCachingPolicy policy);
 
+  /**
+   * Same as {@link #doCache(Weight, QueryCachingPolicy)}, but provides the
+   * {@link Executor} of the {@link IndexSearcher}, or {@code null} if it has
+   * none, which may be used to compute cache entries in the background.
+   * The default implementation ignores the executor.
+   */
+  default Weight doCache(Weight weight, QueryCachingPolicy policy, Executor executor) {
+    return doCache(weight, policy);
+  }
+
 }
@@ -17,6 +17,7 @@
 package org.apache.lucene.search;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
@@ -93,6 +94,13 @@ public abstract class ScoringRewrite<B> extends TermCollectingRewrite<B> {
       // strip the scores off
       return new ConstantScoreQuery(bq);
     }
+
+    @Override
+    public Query rewrite(IndexSearcher searcher, MultiTermQuery query) throws IOException {
+      final Query bq = SCORING_BOOLEAN_REWRITE.rewrite(searcher, query);
+      // strip the scores off
+      return new ConstantScoreQuery(bq);
+    }
   };
 
   /** This method is called after every new term to check if the number of max clauses
@@ -101,9 +109,18 @@ public abstract class ScoringRewrite<B> extends TermCollectingRewrite<B> {
   
   @Override
   public final Query rewrite(final IndexReader reader, final MultiTermQuery query) throws IOException {
+    return rewrite(reader, query, null);
+  }
+
+  @Override
+  public final Query rewrite(final IndexSearcher searcher, final MultiTermQuery query) throws IOException {
+    return rewrite(searcher.getIndexReader(), query, searcher.getExecutor());
+  }
+
+  private Query rewrite(final IndexReader reader, final MultiTermQuery query, final Executor executor) throws IOException {
     final B builder = getTopLevelBuilder();
     final ParallelArraysTermCollector col = new ParallelArraysTermCollector();
-    collectTerms(reader, query, col);
+    collectTerms(reader, query, col, executor);
     
     final int size = col.terms.size();
     if (size > 0) {
@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+
+/**
+ * A {@link QueryCache} that partitions cache entries across several
+ * independent {@link LRUQueryCache} shards based on both the core cache key
+ * of their segment and their query. Each shard has its own lock, LRU list and
+ * RAM accounting, which reduces lock contention when many threads search
+ * concurrently.
+ *
+ * The maximum number of cached queries and the maximum RAM usage are split
+ * evenly across shards. Since entries of every segment are spread across all
+ * shards, large segments do not concentrate on a single shard. However,
+ * {@link LRUQueryCache} refuses to cache segments whose worst-case cache entry
+ * would not fit five times in the cache, so the number of shards should be
+ * kept small enough that the largest segments can still be cached.
+ *
+ * Statistics such as {@link #getHitCount()} are summed across shards.
+ *
+ * @see LRUQueryCache
+ * @lucene.experimental
+ */
+public class ShardedLRUQueryCache implements QueryCache, Accountable {
+
+  private final LRUQueryCache[] shards;
+
+  /**
+   * Expert: Create a new instance that spreads at most <code>maxSize</code>
+   * queries and <code>maxRamBytesUsed</code> bytes of memory across
+   * <code>numShards</code> shards.
+   * @see LRUQueryCache#LRUQueryCache(int, long, Predicate, float, boolean)
+   */
+  public ShardedLRUQueryCache(int numShards, int maxSize, long maxRamBytesUsed,
+                              Predicate<LeafReaderContext> leavesToCache, float skipCacheFactor,
+                              boolean asyncPopulation) {
+    if (numShards < 1) {
+      throw new IllegalArgumentException("numShards must be at least 1, got " + numShards);
+    }
+    shards = new LRUQueryCache[numShards];
+    for (int i = 0; i < numShards; ++i) {
+      // distribute the remainder over the first shards
+      final int shardMaxSize = maxSize / numShards + (i < maxSize % numShards ? 1 : 0);
+      final long shardMaxRamBytesUsed = maxRamBytesUsed / numShards;
+      shards[i] = new LRUQueryCache(shardMaxSize, shardMaxRamBytesUsed, leavesToCache, skipCacheFactor, asyncPopulation);
+    }
+  }
+
+  /**
+   * Create a new instance that spreads at most <code>maxSize</code> queries
+   * and <code>maxRamBytesUsed</code> bytes of memory across
+   * <code>numShards</code> shards, using the same segment predicate and
+   * skip factor as {@link LRUQueryCache#LRUQueryCache(int, long)}.
+   */
+  public ShardedLRUQueryCache(int numShards, int maxSize, long maxRamBytesUsed) {
+    this(numShards, maxSize, maxRamBytesUsed, new LRUQueryCache.MinSegmentSizePredicate(10000, .03f), 250, false);
+  }
+
+  private int shardIndex(LeafReaderContext context, int queryHash) {
+    final IndexReader.CacheHelper cacheHelper = context.reader().getCoreCacheHelper();
+    if (cacheHelper == null) {
+      // this reader is not cacheable, any shard will refuse to cache it
+      return 0;
+    }
+    return Math.floorMod(31 * cacheHelper.getKey().hashCode() + queryHash, shards.length);
+  }
+
+  /**
+   * Remove all cache entries for the given core cache key.
+   */
+  public void clearCoreCacheKey(Object coreKey) {
+    for (LRUQueryCache shard : shards) {
+      shard.clearCoreCacheKey(coreKey);
+    }
+  }
+
+  /**
+   * Remove all cache entries for the given query.
+   */
+  public void clearQuery(Query query) {
+    for (LRUQueryCache shard : shards) {
+      shard.clearQuery(query);
+    }
+  }
+
+  /**
+   * Clear the content of this cache.
+   */
+  public void clear() {
+    for (LRUQueryCache shard : shards) {
+      shard.clear();
+    }
+  }
+
+  // pkg-private for testing
+  void assertConsistent() {
+    for (LRUQueryCache shard : shards) {
+      shard.assertConsistent();
+    }
+  }
+
+  // pkg-private for testing
+  List<LRUQueryCache> shards() {
+    return Collections.unmodifiableList(Arrays.asList(shards));
+  }
+
+  @Override
+  public Weight doCache(Weight weight, QueryCachingPolicy policy) {
+    return doCache(weight, policy, null);
+  }
+
+  @Override
+  public Weight doCache(Weight weight, QueryCachingPolicy policy, Executor executor) {
+    while (weight instanceof ShardedCachingWeight) {
+      weight = ((ShardedCachingWeight) weight).in;
+    }
+
+    // shards must not report usage themselves, otherwise usage would be
+    // recorded once per shard that the query is run on
+    final QueryCachingPolicy shardPolicy = new QueryCachingPolicy() {
+      @Override
+      public void onUse(Query query) {}
+
+      @Override
+      public boolean shouldCache(Query query) throws IOException {
+        return policy.shouldCache(query);
+      }
+    };
+    final Weight[] shardWeights = new Weight[shards.length];
+    for (int i = 0; i < shards.length; ++i) {
+      shardWeights[i] = shards[i].doCache(weight, shardPolicy, executor);
+    }
+    return new ShardedCachingWeight(weight, shardWeights, policy);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    long ramBytesUsed = 0;
+    for (LRUQueryCache shard : shards) {
+      ramBytesUsed += shard.ramBytesUsed();
+    }
+    return ramBytesUsed;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    List<Accountable> resources = new ArrayList<>();
+    for (int i = 0; i < shards.length; ++i) {
+      resources.add(Accountables.namedAccountable("shard " + i, shards[i]));
+    }
+    return Collections.unmodifiableList(resources);
+  }
+
+  /**
+   * Return the total number of times that a {@link Query} has been looked up
+   * in this {@link QueryCache}.
+   * @see LRUQueryCache#getTotalCount()
+   */
+  public final long getTotalCount() {
+    return getHitCount() + getMissCount();
+  }
+
+  /**
+   * Return the number of cache hits across all shards.
+   * @see LRUQueryCache#getHitCount()
+   */
+  public final long getHitCount() {
+    long hitCount = 0;
+    for (LRUQueryCache shard : shards) {
+      hitCount += shard.getHitCount();
+    }
+    return hitCount;
+  }
+
+  /**
+   * Return the number of cache misses across all shards.
+   * @see LRUQueryCache#getMissCount()
+   */
+  public final long getMissCount() {
+    long missCount = 0;
+    for (LRUQueryCache shard : shards) {
+      missCount += shard.getMissCount();
+    }
+    return missCount;
+  }
+
+  /**
+   * Return the number of {@link DocIdSet}s which are currently stored in the
+   * cache across all shards.
+   * @see LRUQueryCache#getCacheSize()
+   */
+  public final long getCacheSize() {
+    long cacheSize = 0;
+    for (LRUQueryCache shard : shards) {
+      cacheSize += shard.getCacheSize();
+    }
+    return cacheSize;
+  }
+
+  /**
+   * Return the number of cache entries that have been generated and put in
+   * the cache across all shards.
+   * @see LRUQueryCache#getCacheCount()
+   */
+  public final long getCacheCount() {
+    long cacheCount = 0;
+    for (LRUQueryCache shard : shards) {
+      cacheCount += shard.getCacheCount();
+    }
+    return cacheCount;
+  }
+
+  /**
+   * Return the number of cache entries that have been removed from the cache
+   * across all shards.
+   * @see LRUQueryCache#getEvictionCount()
+   */
+  public final long getEvictionCount() {
+    return getCacheCount() - getCacheSize();
+  }
+
+  /**
+   * Return the number of cache entries that could not be computed
+   * asynchronously across all shards.
+   * @see LRUQueryCache#getAsyncFailureCount()
+   */
+  public final long getAsyncFailureCount() {
+    long asyncFailureCount = 0;
+    for (LRUQueryCache shard : shards) {
+      asyncFailureCount += shard.getAsyncFailureCount();
+    }
+    return asyncFailureCount;
+  }
+
+  private class ShardedCachingWeight extends Weight {
+
+    private final Weight in;
+    private final Weight[] shardWeights;
+    private final QueryCachingPolicy policy;
+    // computed once since hashing large queries is not free
+    private final int queryHash;
+    // we use an AtomicBoolean because Weight.scorer may be called from multiple
+    // threads when IndexSearcher is created with threads
+    private final AtomicBoolean used;
+
+    ShardedCachingWeight(Weight in, Weight[] shardWeights, QueryCachingPolicy policy) {
+      super(in.getQuery());
+      this.in = in;
+      this.shardWeights = shardWeights;
+      this.policy = policy;
+      queryHash = in.getQuery().hashCode();
+      used = new AtomicBoolean(false);
+    }
+
+    private Weight shardWeight(LeafReaderContext context) {
+      if (used.compareAndSet(false, true)) {
+        policy.onUse(getQuery());
+      }
+      return shardWeights[shardIndex(context, queryHash)];
+    }
+
+    @Override
+    public Matches matches(LeafReaderContext context, int doc) throws IOException {
+      return in.matches(context, doc);
+    }
+
+    @Override
+    public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+      return shardWeight(context).explain(context, doc);
+    }
+
+    @Override
+    public Scorer scorer(LeafReaderContext context) throws IOException {
+      return shardWeight(context).scorer(context);
+    }
+
+    @Override
+    public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+      return shardWeight(context).scorerSupplier(context);
+    }
+
+    @Override
+    public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
+      return shardWeight(context).bulkScorer(context);
+    }
+
+    @Override
+    public boolean isCacheable(LeafReaderContext ctx) {
+      return in.isCacheable(ctx);
+    }
+  }
+}
@@ -30,6 +30,7 @@ import java.util.stream.Collectors;
 
 import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.Impacts;
+import org.apache.lucene.index.ImpactsEnum;
 import org.apache.lucene.index.ImpactsSource;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.similarities.Similarity.SimScorer;
@@ -92,38 +93,15 @@ final class SloppyPhraseMatcher extends PhraseMatcher {
       phrasePositions[i] = new PhrasePositions(postings[i].postings, postings[i].position, i, postings[i].terms);
     }
 
-    approximation = ConjunctionDISI.intersectIterators(Arrays.stream(postings).map(p -> p.postings).collect(Collectors.toList()));
-    // What would be a good upper bound of the sloppy frequency? A sum of the
-    // sub frequencies would be correct, but it is usually so much higher than
-    // the actual sloppy frequency that it doesn't help skip irrelevant
-    // documents. As a consequence for now, sloppy phrase queries use dummy
-    // impacts:
-    final ImpactsSource impactsSource = new ImpactsSource() {
-      @Override
-      public Impacts getImpacts() throws IOException {
-        return new Impacts() {
-
-          @Override
-          public int numLevels() {
-            return 1;
-          }
-
-          @Override
-          public List<Impact> getImpacts(int level) {
-            return Collections.singletonList(new Impact(Integer.MAX_VALUE, 1L));
-          }
-
-          @Override
-          public int getDocIdUpTo(int level) {
-            return DocIdSetIterator.NO_MORE_DOCS;
-          }
-        };
-      }
+    final DocIdSetIterator approximation = ConjunctionDISI.intersectIterators(Arrays.stream(postings).map(p -> p.postings).collect(Collectors.toList()));
+    final ImpactsSource impactsSource = mergeImpacts(Arrays.stream(postings).map(p -> p.impacts).toArray(ImpactsEnum[]::new));
 
-      @Override
-      public void advanceShallow(int target) throws IOException {}
-    };
-    impactsApproximation = new ImpactsDISI(approximation, impactsSource, scorer);
+    if (scoreMode == ScoreMode.TOP_SCORES) {
+      this.approximation = this.impactsApproximation = new ImpactsDISI(approximation, impactsSource, scorer);
+    } else {
+      this.approximation = approximation;
+      this.impactsApproximation = new ImpactsDISI(approximation, impactsSource, scorer);
+    }
   }
 
   @Override
@@ -640,4 +618,142 @@ final class SloppyPhraseMatcher extends PhraseMatcher {
     return tg;
   }
 
+  /**
+   * Merge impacts for multiple terms of a sloppy phrase. Like {@link #maxFreq()}, this
+   * relies on the fact that the sloppy frequency of a document is bounded by the sum of
+   * the frequencies of its terms.
+   */
+  static ImpactsSource mergeImpacts(ImpactsEnum[] impactsEnums) {
+    // Iteration of block boundaries uses the impacts enum with the lower cost.
+    // This is consistent with BlockMaxConjunctionScorer.
+    int tmpLeadIndex = -1;
+    for (int i = 0; i < impactsEnums.length; ++i) {
+      if (tmpLeadIndex == -1 || impactsEnums[i].cost() < impactsEnums[tmpLeadIndex].cost()) {
+        tmpLeadIndex = i;
+      }
+    }
+    final int leadIndex = tmpLeadIndex;
+
+    return new ImpactsSource() {
+
+      @Override
+      public Impacts getImpacts() throws IOException {
+        final Impacts[] impacts = new Impacts[impactsEnums.length];
+        for (int i = 0; i < impactsEnums.length; ++i) {
+          impacts[i] = impactsEnums[i].getImpacts();
+        }
+        final Impacts lead = impacts[leadIndex];
+        return new Impacts() {
+
+          @Override
+          public int numLevels() {
+            // Delegate to the lead
+            return lead.numLevels();
+          }
+
+          @Override
+          public int getDocIdUpTo(int level) {
+            // Delegate to the lead
+            return lead.getDocIdUpTo(level);
+          }
+
+          @Override
+          public List<Impact> getImpacts(int level) {
+            final int docIdUpTo = getDocIdUpTo(level);
+            final List<List<Impact>> impactLists = new ArrayList<>(impacts.length);
+            for (Impacts subImpacts : impacts) {
+              final int subLevel = getLevel(subImpacts, docIdUpTo);
+              if (subLevel == -1) {
+                // Unlike exact phrases, we can't ignore a term whose frequency is unknown
+                return DUMMY_IMPACTS;
+              }
+              final List<Impact> impactList = subImpacts.getImpacts(subLevel);
+              final Impact firstImpact = impactList.get(0);
+              if (firstImpact.freq == Integer.MAX_VALUE && firstImpact.norm == 1L) {
+                // Dummy impacts, the sum is unbounded too
+                return DUMMY_IMPACTS;
+              }
+              impactLists.add(impactList);
+            }
+            return sumImpacts(impactLists);
+          }
+        };
+      }
+
+      @Override
+      public void advanceShallow(int target) throws IOException {
+        for (ImpactsEnum impactsEnum : impactsEnums) {
+          impactsEnum.advanceShallow(target);
+        }
+      }
+    };
+  }
+
+  private static final List<Impact> DUMMY_IMPACTS = Collections.singletonList(new Impact(Integer.MAX_VALUE, 1L));
+
+  /**
+   * Return the minimum level whose impacts are valid up to {@code docIdUpTo},
+   * or {@code -1} if there is no such level.
+   */
+  private static int getLevel(Impacts impacts, int docIdUpTo) {
+    for (int level = 0, numLevels = impacts.numLevels(); level < numLevels; ++level) {
+      if (impacts.getDocIdUpTo(level) >= docIdUpTo) {
+        return level;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Sum impacts of multiple terms. For a given norm, the frequency of a term is bounded
+   * by the frequency of its last impact whose norm is less than or equal to this norm,
+   * so we walk all distinct norms in increasing order and sum up these bounds.
+   */
+  static List<Impact> sumImpacts(List<List<Impact>> impactLists) {
+    final int[] indexes = new int[impactLists.size()];
+    // documents can't have a norm that is less than the first norm of any of the lists
+    long currentNorm = 0;
+    for (List<Impact> impactList : impactLists) {
+      if (Long.compareUnsigned(impactList.get(0).norm, currentNorm) > 0) {
+        currentNorm = impactList.get(0).norm;
+      }
+    }
+
+    final List<Impact> mergedImpacts = new ArrayList<>();
+    while (true) {
+      long freq = 0;
+      for (int i = 0; i < indexes.length; ++i) {
+        final List<Impact> impactList = impactLists.get(i);
+        while (indexes[i] + 1 < impactList.size()
+            && Long.compareUnsigned(impactList.get(indexes[i] + 1).norm, currentNorm) <= 0) {
+          indexes[i]++;
+        }
+        freq += impactList.get(indexes[i]).freq;
+      }
+      final int mergedFreq = (int) Math.min(freq, Integer.MAX_VALUE);
+      if (mergedImpacts.isEmpty() || mergedImpacts.get(mergedImpacts.size() - 1).freq < mergedFreq) {
+        mergedImpacts.add(new Impact(mergedFreq, currentNorm));
+      }
+
+      // move to the next smallest norm
+      boolean hasNext = false;
+      long nextNorm = 0;
+      for (int i = 0; i < indexes.length; ++i) {
+        final List<Impact> impactList = impactLists.get(i);
+        if (indexes[i] + 1 < impactList.size()) {
+          final long norm = impactList.get(indexes[i] + 1).norm;
+          if (hasNext == false || Long.compareUnsigned(norm, nextNorm) < 0) {
+            nextNorm = norm;
+            hasNext = true;
+          }
+        }
+      }
+      if (hasNext == false) {
+        break;
+      }
+      currentNorm = nextNorm;
+    }
+    return mergedImpacts;
+  }
+
 }
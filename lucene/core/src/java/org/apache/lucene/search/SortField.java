@@ -98,6 +98,9 @@ public class SortField {
   // Used for 'sortMissingFirst/Last'
   protected Object missingValue = null;
 
+  // Whether the field is also indexed with points that can be used to skip non-competitive documents
+  private boolean canUsePoints = false;
+
   /** Creates a sort by terms in the given field with the type of term
    * values explicitly given.
    * @param field  Name of field to sort by.  Can be <code>null</code> if
@@ -168,6 +171,32 @@ public class SortField {
     this.missingValue = missingValue;
   }
 
+  /**
+   * Allows the primary comparator of a numeric sort ({@link Type#INT}, {@link Type#LONG},
+   * {@link Type#FLOAT} or {@link Type#DOUBLE}) to use the points indexed under the same field
+   * name in order to skip documents that can't compete with the current top hits, once the
+   * hits threshold of the collector has been reached.
+   * <p>
+   * NOTE: this must only be enabled if every document indexes the same single value as a
+   * one-dimensional point and as a numeric doc value, using the same encoding, e.g. with
+   * {@link org.apache.lucene.document.LongPoint} and
+   * {@link org.apache.lucene.document.NumericDocValuesField} for {@link Type#LONG}.
+   * Otherwise, results are undefined.
+   * @lucene.experimental
+   */
+  public void setCanUsePoints() {
+    this.canUsePoints = true;
+  }
+
+  /**
+   * Returns whether the comparator of this sort field may use points to skip
+   * non-competitive documents.
+   * @see #setCanUsePoints()
+   */
+  public boolean getCanUsePoints() {
+    return canUsePoints;
+  }
+
   /** Creates a sort with a custom comparison function.
    * @param field Name of field to sort by; cannot be <code>null</code>.
    * @param comparator Returns a comparator for sorting hits.
@@ -345,16 +374,16 @@ public class SortField {
       return new FieldComparator.DocComparator(numHits);
 
     case INT:
-      return new FieldComparator.IntComparator(numHits, field, (Integer) missingValue);
+      return enablePointsSkipping(new FieldComparator.IntComparator(numHits, field, (Integer) missingValue), sortPos);
 
     case FLOAT:
-      return new FieldComparator.FloatComparator(numHits, field, (Float) missingValue);
+      return enablePointsSkipping(new FieldComparator.FloatComparator(numHits, field, (Float) missingValue), sortPos);
 
     case LONG:
-      return new FieldComparator.LongComparator(numHits, field, (Long) missingValue);
+      return enablePointsSkipping(new FieldComparator.LongComparator(numHits, field, (Long) missingValue), sortPos);
 
     case DOUBLE:
-      return new FieldComparator.DoubleComparator(numHits, field, (Double) missingValue);
+      return enablePointsSkipping(new FieldComparator.DoubleComparator(numHits, field, (Double) missingValue), sortPos);
 
     case CUSTOM:
       assert comparatorSource != null;
@@ -374,6 +403,14 @@ public class SortField {
     }
   }
 
+  // only the primary sort may skip documents, secondary sorts merely break ties
+  private <C extends FieldComparator.NumericComparator<?>> C enablePointsSkipping(C comparator, int sortPos) {
+    if (canUsePoints && sortPos == 0) {
+      comparator.enablePointsSkipping(reverse);
+    }
+    return comparator;
+  }
+
   /**
    * Rewrites this SortField, returning a new SortField if a change is made.
    * Subclasses should override this define their rewriting behavior when this
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.util.Bits;
+
+/**
+ * A {@link BulkScorer} for documents matching a term, which reads postings
+ * and computes scores in batches rather than one document at a time.
+ */
+final class TermBulkScorer extends BulkScorer {
+
+  /** Same as the block size of the default postings format. */
+  static final int BATCH_SIZE = 128;
+
+  private final PostingsEnum postingsEnum;
+  private final LeafSimScorer docScorer;
+  private final Scorer scorer;
+  private final ScoreAndDoc scoreAndDoc = new ScoreAndDoc();
+  private final int[] docs = new int[BATCH_SIZE];
+  private final int[] freqs = new int[BATCH_SIZE];
+  private final float[] scores = new float[BATCH_SIZE];
+
+  TermBulkScorer(Weight weight, PostingsEnum postingsEnum, LeafSimScorer docScorer) {
+    this.postingsEnum = postingsEnum;
+    this.docScorer = docScorer;
+    this.scorer = new TermScorer(weight, postingsEnum, docScorer);
+  }
+
+  @Override
+  public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
+    if (collector.competitiveIterator() != null) {
+      // the collector wants to skip documents, let the default bulk scorer leap-frog
+      return new Weight.DefaultBulkScorer(scorer).score(collector, acceptDocs, min, max);
+    }
+    collector.setScorer(scoreAndDoc);
+    int doc = postingsEnum.docID();
+    if (doc < min) {
+      doc = postingsEnum.advance(min);
+    }
+    while (doc < max) {
+      final int count = postingsEnum.nextDocsAndFreqs(max, docs, freqs);
+      int numAccepted = count;
+      if (acceptDocs != null) {
+        // compact accepted documents so that deleted documents don't get scored
+        numAccepted = 0;
+        for (int i = 0; i < count; ++i) {
+          if (acceptDocs.get(docs[i])) {
+            docs[numAccepted] = docs[i];
+            freqs[numAccepted] = freqs[i];
+            numAccepted++;
+          }
+        }
+      }
+      docScorer.score(docs, freqs, scores, numAccepted);
+      for (int i = 0; i < numAccepted; ++i) {
+        scoreAndDoc.doc = docs[i];
+        scoreAndDoc.score = scores[i];
+        collector.collect(docs[i]);
+      }
+      doc = postingsEnum.docID();
+    }
+    return doc;
+  }
+
+  @Override
+  public long cost() {
+    return postingsEnum.cost();
+  }
+}
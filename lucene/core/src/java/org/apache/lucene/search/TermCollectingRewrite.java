@@ -18,16 +18,31 @@ package org.apache.lucene.search;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.apache.lucene.index.ImpactsEnum;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexReaderContext;
+import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermState;
 import org.apache.lucene.index.TermStates;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.AttributeSource;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefArray;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 abstract class TermCollectingRewrite<B> extends MultiTermQuery.RewriteMethod {
   
@@ -47,7 +62,20 @@ abstract class TermCollectingRewrite<B> extends MultiTermQuery.RewriteMethod {
 
   
   final void collectTerms(IndexReader reader, MultiTermQuery query, TermCollector collector) throws IOException {
+    collectTerms(reader, query, collector, null);
+  }
+
+  /**
+   * Collect terms of all segments. If an executor is provided, the terms of the
+   * different segments are enumerated concurrently and then passed to the
+   * collector in segment order, from the calling thread.
+   */
+  final void collectTerms(IndexReader reader, MultiTermQuery query, TermCollector collector, Executor executor) throws IOException {
     IndexReaderContext topReaderContext = reader.getContext();
+    if (executor != null && topReaderContext.leaves().size() > 1) {
+      collectTermsConcurrently(topReaderContext, query, collector, executor);
+      return;
+    }
     for (LeafReaderContext context : topReaderContext.leaves()) {
       final Terms terms = context.reader().terms(query.field);
       if (terms == null) {
@@ -70,6 +98,241 @@ abstract class TermCollectingRewrite<B> extends MultiTermQuery.RewriteMethod {
       }
     }
   }
+
+  /**
+   * Maximum number of matching terms that are buffered per segment when enumerating segments
+   * concurrently. Remaining terms are enumerated on the calling thread while they are collected,
+   * so that memory usage remains bounded and collectors that stop collecting early still do.
+   */
+  static final int MAX_BUFFERED_TERMS_PER_SEGMENT = 1024;
+
+  private void collectTermsConcurrently(IndexReaderContext topReaderContext, MultiTermQuery query,
+      TermCollector collector, Executor executor) throws IOException {
+    final List<LeafReaderContext> leaves = topReaderContext.leaves();
+    // there is no point in buffering more terms than a rewritten query may have clauses
+    final int maxBufferedTerms = Math.min(MAX_BUFFERED_TERMS_PER_SEGMENT, IndexSearcher.getMaxClauseCount());
+    final List<Future<SegmentTerms>> futures = new ArrayList<>(leaves.size());
+    for (LeafReaderContext context : leaves) {
+      // Each segment gets its own attributes: they can't be shared across threads. The downside is that
+      // the collector can't give feedback to the enums of other segments, e.g. about competitive boosts.
+      final FutureTask<SegmentTerms> task = new FutureTask<>(
+          () -> enumerateTerms(context, query, new AttributeSource(), maxBufferedTerms));
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        // Execute on caller thread
+        task.run();
+      }
+      futures.add(task);
+    }
+
+    try {
+      for (int i = 0; i < leaves.size(); ++i) {
+        final SegmentTerms segmentTerms;
+        try {
+          segmentTerms = futures.get(i).get();
+        } catch (InterruptedException e) {
+          throw new ThreadInterruptedException(e);
+        } catch (ExecutionException e) {
+          final Throwable cause = e.getCause();
+          if (cause instanceof IOException) {
+            throw (IOException) cause;
+          } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          throw new RuntimeException(cause);
+        }
+        if (segmentTerms == null) {
+          continue;
+        }
+        collector.setReaderContext(topReaderContext, leaves.get(i));
+        collector.setNextEnum(segmentTerms);
+        BytesRef bytes;
+        while ((bytes = segmentTerms.next()) != null) {
+          if (!collector.collect(bytes)) {
+            return; // interrupt whole term collection, so also don't iterate other subReaders
+          }
+        }
+      }
+    } finally {
+      // if collection stopped early, either on purpose or because the collector threw an exception
+      // such as TooManyClauses, enumerations that haven't started yet are not needed anymore
+      for (Future<SegmentTerms> future : futures) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Enumerate up to {@code maxBufferedTerms} matching terms of a segment, or return null if the
+   * segment has no matching terms.
+   */
+  private SegmentTerms enumerateTerms(LeafReaderContext context, MultiTermQuery query, AttributeSource atts,
+      int maxBufferedTerms) throws IOException {
+    final Terms terms = context.reader().terms(query.field);
+    if (terms == null) {
+      // field does not exist
+      return null;
+    }
+    final TermsEnum termsEnum = getTermsEnum(query, terms, atts);
+    assert termsEnum != null;
+    if (termsEnum == TermsEnum.EMPTY) {
+      return null;
+    }
+    final SegmentTerms segmentTerms = new SegmentTerms(terms, termsEnum);
+    final BoostAttribute boostAtt = termsEnum.attributes().addAttribute(BoostAttribute.class);
+    BytesRef bytes;
+    while ((bytes = termsEnum.next()) != null) {
+      segmentTerms.add(bytes, termsEnum.termState(), termsEnum.docFreq(), termsEnum.totalTermFreq(), boostAtt.getBoost());
+      if (segmentTerms.size() == maxBufferedTerms) {
+        // the calling thread enumerates remaining terms, if any
+        return segmentTerms;
+      }
+    }
+    if (segmentTerms.size() == 0) {
+      return null;
+    }
+    segmentTerms.exhausted = true;
+    return segmentTerms;
+  }
+
+  /**
+   * The first matching terms of a segment together with their states and boosts, followed by the
+   * remaining terms of the enum that produced them. Iterating replays buffered terms first and then
+   * moves on to the original enum. Other operations are delegated to the original enum, or to a
+   * fresh enum of the segment that is positioned on the current buffered term.
+   */
+  private static final class SegmentTerms extends TermsEnum {
+    private final Terms terms;
+    private final TermsEnum in;
+    private final BoostAttribute boostAtt;
+    private final BytesRefArray bufferedTerms = new BytesRefArray(Counter.newCounter());
+    private final List<TermState> termStates = new ArrayList<>();
+    private int[] docFreqs = new int[8];
+    private long[] totalTermFreqs = new long[8];
+    private float[] boosts = new float[8];
+    // whether the original enum has no more terms after the buffered ones
+    private boolean exhausted;
+
+    private final BytesRefBuilder term = new BytesRefBuilder();
+    private int index = -1;
+    // whether the original enum, rather than the buffer, is positioned on the current term
+    private boolean delegating;
+    // lazily created enum that is positioned on the current buffered term
+    private TermsEnum positioned;
+
+    SegmentTerms(Terms terms, TermsEnum in) {
+      this.terms = terms;
+      this.in = in;
+      boostAtt = in.attributes().addAttribute(BoostAttribute.class);
+    }
+
+    void add(BytesRef term, TermState termState, int docFreq, long totalTermFreq, float boost) {
+      final int index = bufferedTerms.append(term);
+      termStates.add(termState);
+      docFreqs = ArrayUtil.grow(docFreqs, index + 1);
+      totalTermFreqs = ArrayUtil.grow(totalTermFreqs, index + 1);
+      boosts = ArrayUtil.grow(boosts, index + 1);
+      docFreqs[index] = docFreq;
+      totalTermFreqs[index] = totalTermFreq;
+      boosts[index] = boost;
+    }
+
+    int size() {
+      return bufferedTerms.size();
+    }
+
+    /** Return an enum of the segment that is positioned on the current buffered term. */
+    private TermsEnum positioned() throws IOException {
+      assert delegating == false && index >= 0 && index < size();
+      if (positioned == null) {
+        positioned = terms.iterator();
+      }
+      positioned.seekExact(term.get(), termStates.get(index));
+      return positioned;
+    }
+
+    @Override
+    public AttributeSource attributes() {
+      // the boost of buffered terms is exposed through the attributes of the original enum
+      return in.attributes();
+    }
+
+    @Override
+    public BytesRef next() throws IOException {
+      if (delegating == false) {
+        if (++index < size()) {
+          boostAtt.setBoost(boosts[index]);
+          return bufferedTerms.get(term, index);
+        }
+        index = size();
+        delegating = true;
+        if (exhausted) {
+          return null;
+        }
+      }
+      return in.next();
+    }
+
+    @Override
+    public BytesRef term() throws IOException {
+      return delegating ? in.term() : term.get();
+    }
+
+    @Override
+    public TermState termState() throws IOException {
+      return delegating ? in.termState() : termStates.get(index);
+    }
+
+    @Override
+    public int docFreq() throws IOException {
+      return delegating ? in.docFreq() : docFreqs[index];
+    }
+
+    @Override
+    public long totalTermFreq() throws IOException {
+      return delegating ? in.totalTermFreq() : totalTermFreqs[index];
+    }
+
+    @Override
+    public long ord() throws IOException {
+      return delegating ? in.ord() : positioned().ord();
+    }
+
+    @Override
+    public PostingsEnum postings(PostingsEnum reuse, int flags) throws IOException {
+      return delegating ? in.postings(reuse, flags) : positioned().postings(reuse, flags);
+    }
+
+    @Override
+    public ImpactsEnum impacts(int flags) throws IOException {
+      return delegating ? in.impacts(flags) : positioned().impacts(flags);
+    }
+
+    @Override
+    public boolean seekExact(BytesRef text) throws IOException {
+      delegating = true;
+      return in.seekExact(text);
+    }
+
+    @Override
+    public SeekStatus seekCeil(BytesRef text) throws IOException {
+      delegating = true;
+      return in.seekCeil(text);
+    }
+
+    @Override
+    public void seekExact(long ord) throws IOException {
+      delegating = true;
+      in.seekExact(ord);
+    }
+
+    @Override
+    public void seekExact(BytesRef term, TermState state) throws IOException {
+      delegating = true;
+      in.seekExact(term, state);
+    }
+  }
   
   static abstract class TermCollector {
     
@@ -250,36 +250,29 @@ public class TermInSetQuery extends Query implements Accountable {
         TermIterator iterator = termData.iterator();
 
         // We will first try to collect up to 'threshold' terms into 'matchingTerms'
-        // if there are two many terms, we will fall back to building the 'builder'
+        // if there are two many terms, we will fall back to building the 'builder'.
+        // Postings of matching terms are read in any case, so they are hinted as soon
+        // as terms are found, and consumed in batches of 'threshold' + 1 terms.
         final int threshold = Math.min(BOOLEAN_REWRITE_TERM_COUNT_THRESHOLD, IndexSearcher.getMaxClauseCount());
         assert termData.size() > threshold : "Query should have been rewritten";
-        List<TermAndState> matchingTerms = new ArrayList<>(threshold);
+        List<TermAndState> matchingTerms = new ArrayList<>(threshold + 1);
         DocIdSetBuilder builder = null;
 
         for (BytesRef term = iterator.next(); term != null; term = iterator.next()) {
           assert field.equals(iterator.field());
           if (termsEnum.seekExact(term)) {
-            if (matchingTerms == null) {
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
-              builder.add(docs);
-            } else if (matchingTerms.size() < threshold) {
-              matchingTerms.add(new TermAndState(field, termsEnum));
-            } else {
-              assert matchingTerms.size() == threshold;
-              builder = new DocIdSetBuilder(reader.maxDoc(), terms);
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
-              builder.add(docs);
-              for (TermAndState t : matchingTerms) {
-                t.termsEnum.seekExact(t.term, t.state);
-                docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
-                builder.add(docs);
+            termsEnum.prefetchPostings();
+            matchingTerms.add(new TermAndState(field, termsEnum));
+            if (matchingTerms.size() > threshold) {
+              if (builder == null) {
+                builder = new DocIdSetBuilder(reader.maxDoc(), terms);
               }
-              matchingTerms = null;
+              docs = addPostings(matchingTerms, docs, builder);
             }
           }
         }
-        if (matchingTerms != null) {
-          assert builder == null;
+        if (builder == null) {
+          assert matchingTerms.size() <= threshold;
           BooleanQuery.Builder bq = new BooleanQuery.Builder();
           for (TermAndState t : matchingTerms) {
             final TermStates termStates = new TermStates(searcher.getTopReaderContext());
@@ -290,11 +283,22 @@ public class TermInSetQuery extends Query implements Accountable {
           final Weight weight = searcher.rewrite(q).createWeight(searcher, scoreMode, score());
           return new WeightOrDocIdSet(weight);
         } else {
-          assert builder != null;
+          addPostings(matchingTerms, docs, builder);
           return new WeightOrDocIdSet(builder.build());
         }
       }
 
+      /** Adds postings of the given terms to the builder and clears the list of terms. */
+      private PostingsEnum addPostings(List<TermAndState> terms, PostingsEnum docs, DocIdSetBuilder builder) throws IOException {
+        for (TermAndState t : terms) {
+          t.termsEnum.seekExact(t.term, t.state);
+          docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
+          builder.add(docs);
+        }
+        terms.clear();
+        return docs;
+      }
+
       private Scorer scorer(DocIdSet set) throws IOException {
         if (set == null) {
           return null;
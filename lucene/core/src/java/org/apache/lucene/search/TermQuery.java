@@ -112,6 +112,20 @@ public class TermQuery extends Query {
       }
     }
 
+    @Override
+    public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
+      if (scoreMode != ScoreMode.COMPLETE) {
+        return super.bulkScorer(context);
+      }
+      final TermsEnum termsEnum = getTermsEnum(context);
+      if (termsEnum == null) {
+        return null;
+      }
+      // all hits get scored, so postings and scores are processed in batches
+      LeafSimScorer scorer = new LeafSimScorer(simScorer, context.reader(), term.field(), true);
+      return new TermBulkScorer(this, termsEnum.postings(null, PostingsEnum.FREQS), scorer);
+    }
+
     @Override
     public boolean isCacheable(LeafReaderContext ctx) {
       return true;
@@ -73,11 +73,18 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
 
     final boolean canEarlyTerminate;
     boolean collectedAllCompetitiveHits = false;
+    // non-null if the primary comparator can skip non-competitive documents
+    final DocIdSetIterator competitiveIterator;
+    boolean hitsThresholdReached = false;
 
     TopFieldLeafCollector(FieldValueHitQueue<Entry> queue, Sort sort, LeafReaderContext context) throws IOException {
       super(queue.getComparators(context), queue.getReverseMul());
       final Sort indexSort = context.reader().getMetaData().getSort();
       canEarlyTerminate = canEarlyTerminate(sort, indexSort);
+      competitiveIterator = comparator.competitiveIterator();
+      if (competitiveIterator != null) {
+        checkHitsThreshold();
+      }
     }
 
     void countHit(int doc) throws IOException {
@@ -87,6 +94,23 @@ public abstract class TopFieldCollector extends TopDocsCollector<Entry> {
       if (minScoreAcc != null && (totalHits & minScoreAcc.modInterval) == 0) {
         updateGlobalMinCompetitiveScore(scorer);
       }
+      if (competitiveIterator != null && hitsThresholdReached == false) {
+        checkHitsThreshold();
+      }
+    }
+
+    private void checkHitsThreshold() throws IOException {
+      if (hitsThresholdChecker.isThresholdReached()) {
+        // from now on the comparator may skip non-competitive documents, which won't be counted
+        hitsThresholdReached = true;
+        totalHitsRelation = Relation.GREATER_THAN_OR_EQUAL_TO;
+        comparator.setHitsThresholdReached();
+      }
+    }
+
+    @Override
+    public DocIdSetIterator competitiveIterator() {
+      return competitiveIterator;
     }
 
     boolean thresholdCheck(int doc) throws IOException {
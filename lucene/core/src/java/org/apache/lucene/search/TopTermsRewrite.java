@@ -22,6 +22,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
@@ -62,6 +63,15 @@ public abstract class TopTermsRewrite<B> extends TermCollectingRewrite<B> {
   
   @Override
   public final Query rewrite(final IndexReader reader, final MultiTermQuery query) throws IOException {
+    return rewrite(reader, query, null);
+  }
+
+  @Override
+  public final Query rewrite(final IndexSearcher searcher, final MultiTermQuery query) throws IOException {
+    return rewrite(searcher.getIndexReader(), query, searcher.getExecutor());
+  }
+
+  private Query rewrite(final IndexReader reader, final MultiTermQuery query, final Executor executor) throws IOException {
     final int maxSize = Math.min(size, getMaxSize());
     final PriorityQueue<ScoreTerm> stQueue = new PriorityQueue<>();
     collectTerms(reader, query, new TermCollector() {
@@ -152,7 +162,7 @@ public abstract class TopTermsRewrite<B> extends TermCollectingRewrite<B> {
        
         return true;
       }
-    });
+    }, executor);
     
     final B b = getTopLevelBuilder();
     final ScoreTerm[] scoreTerms = stQueue.toArray(new ScoreTerm[stQueue.size()]);
@@ -201,6 +201,15 @@ public abstract class Weight implements SegmentCacheable {
     @Override
     public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
       collector.setScorer(scorer);
+      final DocIdSetIterator competitiveIterator = collector.competitiveIterator();
+      if (competitiveIterator != null) {
+        final DocIdSetIterator approximation = twoPhase == null ? iterator : twoPhase.approximation();
+        int doc = scorer.docID();
+        if (doc < min) {
+          doc = approximation.advance(min);
+        }
+        return scoreCompetitiveRange(collector, competitiveIterator, approximation, twoPhase, acceptDocs, doc, max);
+      }
       if (scorer.docID() == -1 && min == 0 && max == DocIdSetIterator.NO_MORE_DOCS) {
         scoreAll(collector, iterator, twoPhase, acceptDocs);
         return DocIdSetIterator.NO_MORE_DOCS;
@@ -243,6 +252,28 @@ public abstract class Weight implements SegmentCacheable {
       }
     }
     
+    /** Bulk-scores a range of hits, only collecting the documents that are also
+     *  matched by the collector's competitive iterator. */
+    static int scoreCompetitiveRange(LeafCollector collector, DocIdSetIterator competitiveIterator,
+        DocIdSetIterator approximation, TwoPhaseIterator twoPhase, Bits acceptDocs, int currentDoc, int end) throws IOException {
+      while (currentDoc < end) {
+        int competitiveDoc = competitiveIterator.docID();
+        if (competitiveDoc < currentDoc) {
+          competitiveDoc = competitiveIterator.advance(currentDoc);
+        }
+        if (competitiveDoc != currentDoc) {
+          // leap-frog to the next competitive doc, without going past the end of the range
+          currentDoc = approximation.advance(Math.min(competitiveDoc, end));
+          continue;
+        }
+        if ((acceptDocs == null || acceptDocs.get(currentDoc)) && (twoPhase == null || twoPhase.matches())) {
+          collector.collect(currentDoc);
+        }
+        currentDoc = approximation.nextDoc();
+      }
+      return currentDoc;
+    }
+
     /** Specialized method to bulk-score all hits; we
      *  separate this from {@link #scoreRange} to help out
      *  hotspot.
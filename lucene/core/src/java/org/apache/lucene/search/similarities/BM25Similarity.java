@@ -234,6 +234,17 @@ public class BM25Similarity extends Similarity {
       return weight - weight / (1f + freq * normInverse);
     }
 
+    @Override
+    public void score(int[] freqs, long[] encodedNorms, float[] scores, int count) {
+      // same formula as score(float, long), hoisted into a loop without virtual calls
+      final float[] cache = this.cache;
+      final float weight = this.weight;
+      for (int i = 0; i < count; ++i) {
+        final float normInverse = cache[((byte) encodedNorms[i]) & 0xFF];
+        scores[i] = weight - weight / (1f + freqs[i] * normInverse);
+      }
+    }
+
     @Override
     public Explanation explain(Explanation freq, long encodedNorm) {
       List<Explanation> subs = new ArrayList<>(explainConstantFactors());
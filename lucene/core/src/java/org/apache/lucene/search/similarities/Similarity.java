@@ -171,6 +171,23 @@ public abstract class Similarity {
      */
     public abstract float score(float freq, long norm);
 
+    /**
+     * Score a batch of documents. This is equivalent to setting
+     * {@code scores[i] = score(freqs[i], norms[i])} for every {@code i} in
+     * {@code [0, count)}, but allows implementations to run the computation
+     * in a tight loop rather than with one virtual call per document.
+     * @param freqs term frequencies, must be positive
+     * @param norms encoded normalization factors or {@code 1} if norms are disabled
+     * @param scores array that receives the scores of the documents
+     * @param count number of documents to score
+     * @lucene.experimental
+     */
+    public void score(int[] freqs, long[] norms, float[] scores, int count) {
+      for (int i = 0; i < count; ++i) {
+        scores[i] = score(freqs[i], norms[i]);
+      }
+    }
+
     /**
      * Explain the score for a single document
      * @param freq Explanation of how the sloppy term frequency was computed
@@ -472,6 +472,12 @@ public abstract class BufferedIndexInput extends IndexInput implements RandomAcc
     
     @Override
     protected void seekInternal(long pos) {}
+
+    @Override
+    public void prefetch(long offset, long length) throws IOException {
+      super.prefetch(offset, length);
+      base.prefetch(fileOffset + offset, length);
+    }
     
     @Override
     public void close() throws IOException {
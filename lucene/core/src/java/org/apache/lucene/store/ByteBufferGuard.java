@@ -19,6 +19,8 @@ package org.apache.lucene.store;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.LongBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -41,28 +43,62 @@ final class ByteBufferGuard {
     void freeBuffer(String resourceDescription, ByteBuffer b) throws IOException;
   }
   
+  /** Distance between two bytes that are read to fault in a range of a mapped buffer. */
+  static final int PREFETCH_PAGE_SIZE = 4096;
+
   private final String resourceDescription;
   private final BufferCleaner cleaner;
+  private final Executor prefetchExecutor;
   
   /** Not volatile; see comments on visibility below! */
   private boolean invalidated = false;
   
   /** Used as a store-store barrier; see comments below! */
   private final AtomicInteger barrier = new AtomicInteger();
+
+  /** Keeps the JVM from optimizing away the reads that fault pages in. */
+  private static volatile byte prefetchSink;
+
+  /** Set in {@link #prefetchState} once the guard is invalidated. */
+  private static final int PREFETCH_CLOSED = Integer.MIN_VALUE;
+
+  /**
+   * Number of prefetch tasks that are reading the buffers, or'ed with {@link #PREFETCH_CLOSED}
+   * once invalidated. Unlike searching threads, these tasks read the buffers after the
+   * caller returned, so they are tracked exactly and buffers are only unmapped after they
+   * are done.
+   */
+  private final AtomicInteger prefetchState = new AtomicInteger();
   
   /**
    * Creates an instance to be used for a single {@link ByteBufferIndexInput} which
    * must be shared by all of its clones.
    */
   public ByteBufferGuard(String resourceDescription, BufferCleaner cleaner) {
+    this(resourceDescription, cleaner, null);
+  }
+
+  /**
+   * Creates an instance to be used for a single {@link ByteBufferIndexInput} which
+   * must be shared by all of its clones. Prefetch hints fault in pages on the given
+   * executor, or are ignored if it is {@code null}.
+   */
+  public ByteBufferGuard(String resourceDescription, BufferCleaner cleaner, Executor prefetchExecutor) {
     this.resourceDescription = resourceDescription;
     this.cleaner = cleaner;
+    this.prefetchExecutor = prefetchExecutor;
   }
   
   /**
    * Invalidates this guard and unmaps (if supported).
    */
   public void invalidateAndUnmap(ByteBuffer... bufs) throws IOException {
+    // prevent prefetch tasks from starting and wait for running ones to stop
+    int state = prefetchState.getAndUpdate(s -> s | PREFETCH_CLOSED);
+    while ((state & ~PREFETCH_CLOSED) != 0) {
+      Thread.yield();
+      state = prefetchState.get();
+    }
     if (cleaner != null) {
       invalidated = true;
       // This call should hopefully flush any CPU caches and as a result make
@@ -139,4 +175,45 @@ final class ByteBufferGuard {
     receiver.get(dst, offset, length);
   }
 
+  /**
+   * Asynchronously reads one byte of every page of the given range of the buffer, so that the
+   * operating system starts reading it from disk before the caller needs it. This is best effort:
+   * the hint is dropped if there is no executor, if the executor rejects it, or if the guard
+   * gets invalidated in the meantime, in which case {@link #invalidateAndUnmap} waits for the
+   * task to stop reading before unmapping.
+   */
+  public void prefetch(ByteBuffer buffer, int offset, int length) {
+    if (prefetchExecutor == null || length == 0) {
+      return;
+    }
+    ensureValid();
+    final ByteBuffer range = buffer.duplicate();
+    range.position(offset).limit(offset + length);
+    final ByteBuffer slice = range.slice();
+    try {
+      prefetchExecutor.execute(() -> {
+        int state;
+        do {
+          state = prefetchState.get();
+          if ((state & PREFETCH_CLOSED) != 0) {
+            // invalidated in the meantime, the hint is not needed anymore
+            return;
+          }
+        } while (prefetchState.compareAndSet(state, state + 1) == false);
+        try {
+          byte b = 0;
+          for (int pos = 0; pos < length && (prefetchState.get() & PREFETCH_CLOSED) == 0; pos += PREFETCH_PAGE_SIZE) {
+            b ^= slice.get(pos);
+          }
+          b ^= slice.get(length - 1);
+          prefetchSink = b;
+        } finally {
+          prefetchState.decrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // the executor is shut down or saturated: ignore the hint
+    }
+  }
+
 }
@@ -288,6 +288,32 @@ public abstract class ByteBufferIndexInput extends IndexInput implements RandomA
     return length;
   }
 
+  @Override
+  public void prefetch(long offset, long length) throws IOException {
+    super.prefetch(offset, length);
+    if (buffers == null) {
+      throw new AlreadyClosedException("Already closed: " + this);
+    }
+    try {
+      prefetchBuffers(offset, length);
+    } catch (NullPointerException npe) {
+      throw new AlreadyClosedException("Already closed: " + this);
+    }
+  }
+
+  /** Passes the hint for the given range of the buffers, which may span several buffers, to the guard. */
+  void prefetchBuffers(long pos, long length) {
+    while (length > 0) {
+      final int bi = (int) (pos >> chunkSizePower);
+      final int bufferOffset = (int) (pos & chunkSizeMask);
+      final ByteBuffer buffer = buffers[bi];
+      final int len = (int) Math.min(length, buffer.limit() - bufferOffset);
+      guard.prefetch(buffer, bufferOffset, len);
+      pos += len;
+      length -= len;
+    }
+  }
+
   @Override
   public final ByteBufferIndexInput clone() {
     final ByteBufferIndexInput clone = buildSlice((String) null, 0L, this.length);
@@ -532,6 +558,11 @@ public abstract class ByteBufferIndexInput extends IndexInput implements RandomA
       return super.readLong(pos + offset);
     }
 
+    @Override
+    void prefetchBuffers(long pos, long length) {
+      super.prefetchBuffers(pos + offset, length);
+    }
+
     @Override
     protected ByteBufferIndexInput buildSlice(String sliceDescription, long ofs, long length) {
       return super.buildSlice(sliceDescription, this.offset + ofs, length);
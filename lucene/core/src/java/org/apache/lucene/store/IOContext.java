@@ -44,12 +44,29 @@ public class IOContext {
 
   public final boolean readOnce;
 
+  /**
+   * Whether the file is expected to be read entirely right after opening it,
+   * such as terms indices that are loaded on heap, so that {@link Directory}
+   * implementations may want to load it into physical memory eagerly.
+   * @see MMapDirectory#setPreload(java.util.function.BiPredicate)
+   * @lucene.experimental
+   */
+  public final boolean load;
+
   public static final IOContext DEFAULT = new IOContext(Context.DEFAULT);
 
   public static final IOContext READONCE = new IOContext(true);
 
   public static final IOContext READ = new IOContext(false);
 
+  /**
+   * Context for files that are read entirely right after opening them, such as
+   * terms indices that are loaded on heap, and that are worth loading into
+   * physical memory on open.
+   * @lucene.experimental
+   */
+  public static final IOContext LOAD = new IOContext(false, true);
+
   public IOContext() {
     this(false);
   }
@@ -59,6 +76,7 @@ public class IOContext {
     this.context = Context.FLUSH;
     this.mergeInfo = null;
     this.readOnce = false;
+    this.load = false;
     this.flushInfo = flushInfo;
   }
 
@@ -67,9 +85,14 @@ public class IOContext {
   }
 
   private IOContext(boolean readOnce) {
+    this(readOnce, false);
+  }
+
+  private IOContext(boolean readOnce, boolean load) {
     this.context = Context.READ;
     this.mergeInfo = null;
     this.readOnce = readOnce;
+    this.load = load;
     this.flushInfo = null;
   }
 
@@ -82,6 +105,7 @@ public class IOContext {
     assert context != Context.FLUSH : "Use IOContext(FlushInfo) to create a FLUSH IOContext";
     this.context = context;
     this.readOnce = false;
+    this.load = false;
     this.mergeInfo = mergeInfo;
     this.flushInfo = null;
   }
@@ -96,6 +120,7 @@ public class IOContext {
     this.mergeInfo = ctxt.mergeInfo;
     this.flushInfo = ctxt.flushInfo;
     this.readOnce = readOnce;
+    this.load = ctxt.load;
   }
 
   @Override
@@ -106,6 +131,7 @@ public class IOContext {
     result = prime * result + ((flushInfo == null) ? 0 : flushInfo.hashCode());
     result = prime * result + ((mergeInfo == null) ? 0 : mergeInfo.hashCode());
     result = prime * result + (readOnce ? 1231 : 1237);
+    result = prime * result + (load ? 1231 : 1237);
     return result;
   }
 
@@ -132,13 +158,15 @@ public class IOContext {
       return false;
     if (readOnce != other.readOnce)
       return false;
+    if (load != other.load)
+      return false;
     return true;
   }
 
   @Override
   public String toString() {
     return "IOContext [context=" + context + ", mergeInfo=" + mergeInfo
-        + ", flushInfo=" + flushInfo + ", readOnce=" + readOnce + "]";
+        + ", flushInfo=" + flushInfo + ", readOnce=" + readOnce + ", load=" + load + "]";
   }
 
 }
\ No newline at end of file
@@ -74,6 +74,25 @@ public abstract class IndexInput extends DataInput implements Cloneable,Closeabl
   /** The number of bytes in the file. */
   public abstract long length();
 
+  /**
+   * Optional method: Gives a hint to this input that the given range of bytes will be read in the
+   * near future. Implementations may use this hint to start fetching the data in the background, so
+   * that callers that know about multiple ranges ahead of reading them can overlap the latency of
+   * fetching them. This method never changes the file pointer and must return quickly.
+   * <p>
+   * The default implementation only validates the range.
+   *
+   * @param offset start offset of the range, relative to the beginning of this input
+   * @param length number of bytes that will be read
+   * @throws IllegalArgumentException if the range is out of the bounds of this input
+   * @lucene.experimental
+   */
+  public void prefetch(long offset, long length) throws IOException {
+    if (offset < 0 || length < 0 || offset + length > length()) {
+      throw new IllegalArgumentException("prefetch() out of bounds: offset=" + offset + ",length=" + length + ",fileLength=" + length() + ": " + this);
+    }
+  }
+
   @Override
   public String toString() {
     return resourceDescription;
@@ -32,7 +32,9 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.function.BiPredicate;
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 
@@ -91,7 +93,26 @@ import org.apache.lucene.util.SuppressForbidden;
  */
 public class MMapDirectory extends FSDirectory {
   private boolean useUnmapHack = UNMAP_SUPPORTED;
-  private boolean preload;
+  private BiPredicate<String, IOContext> preload = NO_FILES;
+  private Executor prefetchExecutor = null;
+
+  /**
+   * Argument for {@link #setPreload(BiPredicate)} that configures all files to be preloaded
+   * upon opening them.
+   */
+  public static final BiPredicate<String, IOContext> ALL_FILES = (filename, context) -> true;
+
+  /**
+   * Argument for {@link #setPreload(BiPredicate)} that configures no files to be preloaded upon
+   * opening them.
+   */
+  public static final BiPredicate<String, IOContext> NO_FILES = (filename, context) -> false;
+
+  /**
+   * Argument for {@link #setPreload(BiPredicate)} that configures files to be preloaded upon
+   * opening them if they use the {@link IOContext#load} context, such as on-heap terms indices.
+   */
+  public static final BiPredicate<String, IOContext> BASED_ON_LOAD_IO_CONTEXT = (filename, context) -> context.load;
 
   /** 
    * Default max chunk size.
@@ -207,17 +228,55 @@ public class MMapDirectory extends FSDirectory {
    * into physical memory on init. The behavior is best-effort 
    * and operating system dependent.
    * @see MappedByteBuffer#load
+   * @see #setPreload(BiPredicate)
    */
   public void setPreload(boolean preload) {
-    this.preload = preload;
+    this.preload = preload ? ALL_FILES : NO_FILES;
+  }
+
+  /**
+   * Configure which files to preload in physical memory upon opening, based on
+   * their name and the {@link IOContext} they are opened with. This makes it
+   * possible to warm frequently accessed files, e.g. with a predicate on file
+   * extensions or with {@link #BASED_ON_LOAD_IO_CONTEXT}, without paying this
+   * cost for other files. The behavior is best-effort and operating system
+   * dependent.
+   * @see MappedByteBuffer#load
+   * @lucene.experimental
+   */
+  public void setPreload(BiPredicate<String, IOContext> preload) {
+    this.preload = Objects.requireNonNull(preload);
   }
   
   /**
-   * Returns {@code true} if mapped pages should be loaded.
+   * Returns {@code true} if mapped pages of all files should be loaded.
    * @see #setPreload
    */
   public boolean getPreload() {
-    return preload;
+    return preload == ALL_FILES;
+  }
+
+  /**
+   * Sets the executor that serves {@link IndexInput#prefetch prefetch hints} on inputs that are
+   * opened afterwards, or {@code null} to ignore hints, which is the default. Since Java offers no
+   * way to advise the operating system that mapped pages will be needed soon, hints are served by
+   * reading one byte of every page of the hinted range on the executor's threads: pages that are not
+   * in the page cache yet are then read from disk concurrently instead of one after the other by
+   * the searching thread. This helps searches that read many small ranges of files that are larger
+   * than the page cache, and only adds overhead otherwise. The executor should be bounded, and may
+   * reject hints that it can't serve in time.
+   * @lucene.experimental
+   */
+  public void setPrefetchExecutor(Executor prefetchExecutor) {
+    this.prefetchExecutor = prefetchExecutor;
+  }
+
+  /**
+   * Returns the executor that serves prefetch hints, or {@code null} if hints are ignored.
+   * @see #setPrefetchExecutor
+   */
+  public Executor getPrefetchExecutor() {
+    return prefetchExecutor;
   }
   
   /**
@@ -237,14 +296,15 @@ public class MMapDirectory extends FSDirectory {
     try (FileChannel c = FileChannel.open(path, StandardOpenOption.READ)) {
       final String resourceDescription = "MMapIndexInput(path=\"" + path.toString() + "\")";
       final boolean useUnmap = getUseUnmap();
+      final boolean preload = this.preload.test(name, context);
       return ByteBufferIndexInput.newInstance(resourceDescription,
-          map(resourceDescription, c, 0, c.size()), 
-          c.size(), chunkSizePower, new ByteBufferGuard(resourceDescription, useUnmap ? CLEANER : null));
+          map(resourceDescription, c, 0, c.size(), preload), 
+          c.size(), chunkSizePower, new ByteBufferGuard(resourceDescription, useUnmap ? CLEANER : null, prefetchExecutor));
     }
   }
 
   /** Maps a file into a set of buffers */
-  final ByteBuffer[] map(String resourceDescription, FileChannel fc, long offset, long length) throws IOException {
+  final ByteBuffer[] map(String resourceDescription, FileChannel fc, long offset, long length, boolean preload) throws IOException {
     if ((length >>> chunkSizePower) >= Integer.MAX_VALUE)
       throw new IllegalArgumentException("RandomAccessFile too big for chunk size: " + resourceDescription);
     
@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.IntFunction;
 
 import org.apache.lucene.codecs.CodecUtil;
@@ -33,6 +35,7 @@ import org.apache.lucene.store.ChecksumIndexInput;
 import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.TrackingDirectoryWrapper;
 import org.apache.lucene.util.ArrayUtil;
@@ -51,7 +54,6 @@ import org.apache.lucene.util.PriorityQueue;
 //     (monotonic) long[] leafBlockFPs; or we could use MonotonicLongValues ... but then
 //     the index is already plenty small: 60M OSM points --> 1.1 MB with 128 points
 //     per leaf, and you can reduce that by putting more points per leaf
-//   - we could use threads while building; the higher nodes are very parallelizable
 
 /**
  *  Recursively builds a block KD-tree to assign all incoming points in N-dim space to smaller
@@ -67,6 +69,14 @@ import org.apache.lucene.util.PriorityQueue;
  *  a <code>byte[numLeaves*(1+bytesPerDim)]</code> and then uses up to the specified
  *  {@code maxMBSortInHeap} heap space for writing.
  *
+ *  <p>If a {@link ForkJoinPool} is provided, independent subtrees of the upper levels of the tree
+ *  are built concurrently on this pool when building a multi-dimensional tree or when calling
+ *  {@link #finish}. The leaf blocks of such subtrees are written to temporary files and then copied
+ *  in order, so that the written tree is byte-identical to the one built by a single thread. Each
+ *  subtree that is built concurrently may use up to {@code maxMBSortInHeap} heap space.
+ *  One-dimensional trees are not partitioned: their points are sorted on the pool instead, and
+ *  batches of consecutive leaf blocks are encoded concurrently before being written in order.
+ *
  *  <p>
  *  <b>NOTE</b>: This can write at most Integer.MAX_VALUE * <code>maxPointsInLeafNode</code> / (1+bytesPerDim)
  *  total points.
@@ -101,6 +111,9 @@ public class BKDWriter implements Closeable {
   /** Number of splits before we compute the exact bounding box of an inner node. */
   private static final int SPLITS_BEFORE_EXACT_BOUNDS = 4;
 
+  /** Minimum number of leaves of a subtree for it to be built concurrently. */
+  private static final int MIN_LEAVES_PER_TASK = 8;
+
   /** How many dimensions we are storing at the leaf (data) nodes */
   protected final int numDataDims;
 
@@ -120,7 +133,6 @@ public class BKDWriter implements Closeable {
   final String tempFileNamePrefix;
   final double maxMBSortInHeap;
 
-  final byte[] scratchDiff;
   final byte[] scratch1;
   final byte[] scratch2;
   final BytesRef scratchBytesRef1 = new BytesRef();
@@ -149,8 +161,17 @@ public class BKDWriter implements Closeable {
 
   private final int maxDoc;
 
+  /** Pool to build subtrees concurrently, or null to build the tree in the calling thread */
+  private final ForkJoinPool forkJoinPool;
+
   public BKDWriter(int maxDoc, Directory tempDir, String tempFileNamePrefix, int numDataDims, int numIndexDims, int bytesPerDim,
                       int maxPointsInLeafNode, double maxMBSortInHeap, long totalPointCount) throws IOException {
+    this(maxDoc, tempDir, tempFileNamePrefix, numDataDims, numIndexDims, bytesPerDim, maxPointsInLeafNode, maxMBSortInHeap, totalPointCount, null);
+  }
+
+  /** Creates a writer that builds subtrees concurrently on the given {@link ForkJoinPool}, unless it is {@code null}. */
+  public BKDWriter(int maxDoc, Directory tempDir, String tempFileNamePrefix, int numDataDims, int numIndexDims, int bytesPerDim,
+                   int maxPointsInLeafNode, double maxMBSortInHeap, long totalPointCount, ForkJoinPool forkJoinPool) throws IOException {
     verifyParams(numDataDims, numIndexDims, maxPointsInLeafNode, maxMBSortInHeap, totalPointCount);
     // We use tracking dir to deal with removing files on exception, so each place that
     // creates temp files doesn't need crazy try/finally/sucess logic:
@@ -166,7 +187,6 @@ public class BKDWriter implements Closeable {
     packedBytesLength = numDataDims * bytesPerDim;
     packedIndexBytesLength = numIndexDims * bytesPerDim;
 
-    scratchDiff = new byte[bytesPerDim];
     scratch1 = new byte[packedBytesLength];
     scratch2 = new byte[packedBytesLength];
     commonPrefixLengths = new int[numDataDims];
@@ -186,6 +206,7 @@ public class BKDWriter implements Closeable {
     }
 
     this.maxMBSortInHeap = maxMBSortInHeap;
+    this.forkJoinPool = forkJoinPool;
   }
 
   public static void verifyParams(int numDims, int numIndexDims, int maxPointsInLeafNode, double maxMBSortInHeap, long totalPointCount) {
@@ -377,6 +398,12 @@ public class BKDWriter implements Closeable {
    *  disk. This method does not use transient disk in order to reorder points.
    */
   public long writeField(IndexOutput out, String fieldName, MutablePointValues reader) throws IOException {
+    return writeIndex(out, writeFieldLeaves(out, fieldName, reader));
+  }
+
+  /** Like {@link #writeField}, but only writes the leaf blocks and returns the index to write once they have been
+   *  copied to their final output, or {@code null} if there are no points. */
+  public DeferredIndex writeFieldLeaves(IndexOutput out, String fieldName, MutablePointValues reader) throws IOException {
     if (numDataDims == 1) {
       return writeField1Dim(out, fieldName, reader);
     } else {
@@ -384,6 +411,32 @@ public class BKDWriter implements Closeable {
     }
   }
 
+  /** The index of a tree whose leaf blocks have already been written.
+   *  @see #writeFieldLeaves
+   *  @see #mergeLeaves
+   *  @see #finishLeaves */
+  @FunctionalInterface
+  public interface DeferredIndex {
+    /** Writes the index to {@code out}, shifting the file pointers of all leaf blocks by {@code leafBlockFPOffset},
+     *  and returns the file offset where the index was written. */
+    long write(IndexOutput out, long leafBlockFPOffset) throws IOException;
+  }
+
+  private static long writeIndex(IndexOutput out, DeferredIndex index) throws IOException {
+    return index == null ? -1 : index.write(out, 0);
+  }
+
+  private static long[] shiftFPs(long[] leafBlockFPs, long offset) {
+    if (offset == 0) {
+      return leafBlockFPs;
+    }
+    long[] shifted = new long[leafBlockFPs.length];
+    for (int i = 0; i < leafBlockFPs.length; ++i) {
+      shifted[i] = leafBlockFPs[i] + offset;
+    }
+    return shifted;
+  }
+
   private void computePackedValueBounds(MutablePointValues values, int from, int to, byte[] minPackedValue, byte[] maxPackedValue, BytesRef scratch) {
     if (from == to) {
       return;
@@ -407,7 +460,7 @@ public class BKDWriter implements Closeable {
 
   /* In the 2+D case, we recursively pick the split dimension, compute the
    * median value and partition other values around it. */
-  private long writeFieldNDims(IndexOutput out, String fieldName, MutablePointValues values) throws IOException {
+  private DeferredIndex writeFieldNDims(IndexOutput out, String fieldName, MutablePointValues values) throws IOException {
     if (pointCount != 0) {
       throw new IllegalStateException("cannot mix add and writeField");
     }
@@ -442,21 +495,40 @@ public class BKDWriter implements Closeable {
     }
 
     final int[] parentSplits = new int[numIndexDims];
-    build(1, numLeaves, values, 0, Math.toIntExact(pointCount), out,
-          minPackedValue.clone(), maxPackedValue.clone(), parentSplits,
-          splitPackedValues, leafBlockFPs,
-          new int[maxPointsInLeafNode]);
-    assert Arrays.equals(parentSplits, new int[numIndexDims]);
-
-    long indexFP = out.getFilePointer();
-    writeIndex(out, Math.toIntExact(countPerLeaf), leafBlockFPs, splitPackedValues);
-    return indexFP;
+    final int to = Math.toIntExact(pointCount);
+    boolean success = false;
+    try {
+      buildTree(out, parentSplits,
+          (o, splits, state) -> build(1, numLeaves, values, 0, to, o,
+              minPackedValue.clone(), maxPackedValue.clone(), splits,
+              splitPackedValues, leafBlockFPs, state));
+      assert Arrays.equals(parentSplits, new int[numIndexDims]);
+      // If no exception, we should have cleaned everything up:
+      assert tempDir.getCreatedFiles().isEmpty();
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.deleteFilesIgnoringExceptions(tempDir, tempDir.getCreatedFiles());
+      }
+    }
+
+    final int leafCount = Math.toIntExact(countPerLeaf);
+    return (indexOut, leafBlockFPOffset) -> {
+      long indexFP = indexOut.getFilePointer();
+      writeIndex(indexOut, leafCount, shiftFPs(leafBlockFPs, leafBlockFPOffset), splitPackedValues);
+      return indexFP;
+    };
   }
 
   /* In the 1D case, we can simply sort points in ascending order and use the
    * same writing logic as we use at merge time. */
-  private long writeField1Dim(IndexOutput out, String fieldName, MutablePointValues reader) throws IOException {
-    MutablePointsReaderUtils.sort(maxDoc, packedIndexBytesLength, reader, 0, Math.toIntExact(reader.size()));
+  private DeferredIndex writeField1Dim(IndexOutput out, String fieldName, MutablePointValues reader) throws IOException {
+    final int size = Math.toIntExact(reader.size());
+    if (forkJoinPool == null) {
+      MutablePointsReaderUtils.sort(maxDoc, packedIndexBytesLength, reader, 0, size);
+    } else {
+      forkJoinPool.invoke(new SortTask(reader, 0, size, 4 * forkJoinPool.getParallelism()));
+    }
 
     final OneDimensionBKDWriter oneDimWriter = new OneDimensionBKDWriter(out);
 
@@ -485,6 +557,12 @@ public class BKDWriter implements Closeable {
    *  sorted values and currently only works when numDims==1.  This returns -1 if all documents containing
    *  dimensional values were deleted. */
   public long merge(IndexOutput out, List<MergeState.DocMap> docMaps, List<BKDReader> readers) throws IOException {
+    return writeIndex(out, mergeLeaves(out, docMaps, readers));
+  }
+
+  /** Like {@link #merge}, but only writes the leaf blocks and returns the index to write once they have been
+   *  copied to their final output, or {@code null} if all documents containing dimensional values were deleted. */
+  public DeferredIndex mergeLeaves(IndexOutput out, List<MergeState.DocMap> docMaps, List<BKDReader> readers) throws IOException {
     assert docMaps == null || readers.size() == docMaps.size();
 
     BKDMergeQueue queue = new BKDMergeQueue(bytesPerDim, readers.size());
@@ -522,19 +600,16 @@ public class BKDWriter implements Closeable {
     return oneDimWriter.finish();
   }
 
-  // Reused when writing leaf blocks
-  private final ByteBuffersDataOutput scratchOut = ByteBuffersDataOutput.newResettableInstance();
-
   private class OneDimensionBKDWriter {
 
     final IndexOutput out;
     final List<Long> leafBlockFPs = new ArrayList<>();
     final List<byte[]> leafBlockStartValues = new ArrayList<>();
-    final byte[] leafValues = new byte[maxPointsInLeafNode * packedBytesLength];
-    final int[] leafDocs = new int[maxPointsInLeafNode];
+    // Full leaf blocks are buffered so that they can be encoded concurrently if there is a fork-join pool
+    final LeafBlock[] leafBlocks;
+    private int numBufferedLeafBlocks;
+    private LeafBlock leafBlock;
     private long valueCount;
-    private int leafCount;
-    private int leafCardinality;
 
     OneDimensionBKDWriter(IndexOutput out) {
       if (numIndexDims != 1) {
@@ -554,6 +629,9 @@ public class BKDWriter implements Closeable {
 
       this.out = out;
 
+      leafBlocks = new LeafBlock[forkJoinPool == null ? 1 : 4 * forkJoinPool.getParallelism()];
+      leafBlock = leafBlocks[0] = new LeafBlock();
+
       lastPackedValue = new byte[packedBytesLength];
     }
 
@@ -562,47 +640,44 @@ public class BKDWriter implements Closeable {
     private int lastDocID;
 
     void add(byte[] packedValue, int docID) throws IOException {
+      final int leafCount = leafBlock.count;
       assert valueInOrder(valueCount + leafCount,
           0, lastPackedValue, packedValue, 0, docID, lastDocID);
 
+      final byte[] leafValues = leafBlock.values;
       if (leafCount == 0 || Arrays.mismatch(leafValues, (leafCount - 1) * bytesPerDim, leafCount * bytesPerDim, packedValue, 0, bytesPerDim) != -1) {
-        leafCardinality++;
+        leafBlock.cardinality++;
       }
       System.arraycopy(packedValue, 0, leafValues, leafCount * packedBytesLength, packedBytesLength);
-      leafDocs[leafCount] = docID;
+      leafBlock.docs[leafCount] = docID;
       docsSeen.set(docID);
-      leafCount++;
+      leafBlock.count++;
 
-      if (valueCount + leafCount > totalPointCount) {
-        throw new IllegalStateException("totalPointCount=" + totalPointCount + " was passed when we were created, but we just hit " + (valueCount + leafCount) + " values");
+      if (valueCount + leafBlock.count > totalPointCount) {
+        throw new IllegalStateException("totalPointCount=" + totalPointCount + " was passed when we were created, but we just hit " + (valueCount + leafBlock.count) + " values");
       }
 
-      if (leafCount == maxPointsInLeafNode) {
+      if (leafBlock.count == maxPointsInLeafNode) {
         // We write a block once we hit exactly the max count ... this is different from
         // when we write N > 1 dimensional points where we write between max/2 and max per leaf block
-        writeLeafBlock(leafCardinality);
-        leafCardinality = 0;
-        leafCount = 0;
+        addLeafBlock();
       }
 
       assert (lastDocID = docID) >= 0; // only assign when asserts are enabled
     }
 
-    public long finish() throws IOException {
-      if (leafCount > 0) {
-        writeLeafBlock(leafCardinality);
-        leafCardinality = 0;
-        leafCount = 0;
+    public DeferredIndex finish() throws IOException {
+      if (leafBlock.count > 0) {
+        addLeafBlock();
       }
+      writeLeafBlocks();
 
       if (valueCount == 0) {
-        return -1;
+        return null;
       }
 
       pointCount = valueCount;
 
-      long indexFP = out.getFilePointer();
-
       int numInnerNodes = leafBlockStartValues.size();
 
       //System.out.println("BKDW: now rotate numInnerNodes=" + numInnerNodes + " leafBlockStarts=" + leafBlockStartValues.size());
@@ -613,55 +688,161 @@ public class BKDWriter implements Closeable {
       for(int i=0;i<leafBlockFPs.size();i++) {
         arr[i] = leafBlockFPs.get(i);
       }
-      writeIndex(out, maxPointsInLeafNode, arr, index);
-      return indexFP;
+      return (indexOut, leafBlockFPOffset) -> {
+        long indexFP = indexOut.getFilePointer();
+        writeIndex(indexOut, maxPointsInLeafNode, shiftFPs(arr, leafBlockFPOffset), index);
+        return indexFP;
+      };
     }
 
-    private void writeLeafBlock(int leafCardinality) throws IOException {
+    /** Records the bounds and start value of the current leaf block, and buffers it. */
+    private void addLeafBlock() throws IOException {
+      final int leafCount = leafBlock.count;
       assert leafCount != 0;
+      final byte[] leafValues = leafBlock.values;
       if (valueCount == 0) {
         System.arraycopy(leafValues, 0, minPackedValue, 0, packedIndexBytesLength);
       }
       System.arraycopy(leafValues, (leafCount - 1) * packedBytesLength, maxPackedValue, 0, packedIndexBytesLength);
 
-      valueCount += leafCount;
-
-      if (leafBlockFPs.size() > 0) {
+      if (valueCount > 0) {
         // Save the first (minimum) value in each leaf block except the first, to build the split value index in the end:
         leafBlockStartValues.add(ArrayUtil.copyOfSubArray(leafValues, 0, packedBytesLength));
       }
-      leafBlockFPs.add(out.getFilePointer());
-      checkMaxLeafNodeCount(leafBlockFPs.size());
+      valueCount += leafCount;
+
+      if (++numBufferedLeafBlocks == leafBlocks.length) {
+        writeLeafBlocks();
+      }
+      if (leafBlocks[numBufferedLeafBlocks] == null) {
+        leafBlocks[numBufferedLeafBlocks] = new LeafBlock();
+      }
+      leafBlock = leafBlocks[numBufferedLeafBlocks];
+      leafBlock.count = 0;
+      leafBlock.cardinality = 0;
+    }
+
+    /** Encodes buffered leaf blocks and writes them in order. */
+    private void writeLeafBlocks() throws IOException {
+      if (numBufferedLeafBlocks > 1) {
+        EncodeTask task = new EncodeTask(leafBlocks, 0, numBufferedLeafBlocks);
+        forkJoinPool.invoke(task);
+        if (task.failure != null) {
+          throw IOUtils.rethrowAlways(task.failure);
+        }
+      } else if (numBufferedLeafBlocks == 1) {
+        leafBlocks[0].encode();
+      }
+      for (int i = 0; i < numBufferedLeafBlocks; ++i) {
+        leafBlockFPs.add(out.getFilePointer());
+        checkMaxLeafNodeCount(leafBlockFPs.size());
+        leafBlocks[i].encoded.copyTo(out);
+        leafBlocks[i].encoded.reset();
+      }
+      numBufferedLeafBlocks = 0;
+    }
+  }
+
+  /** A full leaf block of a one-dimension tree, which is buffered until it gets encoded. */
+  private class LeafBlock {
+    final byte[] values = new byte[maxPointsInLeafNode * packedBytesLength];
+    final int[] docs = new int[maxPointsInLeafNode];
+    int count;
+    int cardinality;
 
+    final ByteBuffersDataOutput encoded = ByteBuffersDataOutput.newResettableInstance();
+    final int[] commonPrefixLengths = new int[numDataDims];
+    final byte[] scratch = new byte[packedBytesLength];
+    final BytesRef scratchBytesRef = new BytesRef();
+
+    void encode() throws IOException {
       // Find per-dim common prefix:
-      int offset = (leafCount - 1) * packedBytesLength;
-      int prefix = Arrays.mismatch(leafValues, 0, bytesPerDim, leafValues, offset, offset + bytesPerDim);
+      int offset = (count - 1) * packedBytesLength;
+      int prefix = Arrays.mismatch(values, 0, bytesPerDim, values, offset, offset + bytesPerDim);
       if (prefix == -1) {
         prefix = bytesPerDim;
       }
 
       commonPrefixLengths[0] = prefix;
 
-      assert scratchOut.size() == 0;
-      writeLeafBlockDocs(scratchOut, leafDocs, 0, leafCount);
-      writeCommonPrefixes(scratchOut, commonPrefixLengths, leafValues);
+      assert encoded.size() == 0;
+      writeLeafBlockDocs(encoded, docs, 0, count);
+      writeCommonPrefixes(encoded, commonPrefixLengths, values);
+
+      scratchBytesRef.length = packedBytesLength;
+      scratchBytesRef.bytes = values;
 
-      scratchBytesRef1.length = packedBytesLength;
-      scratchBytesRef1.bytes = leafValues;
-      
       final IntFunction<BytesRef> packedValues = new IntFunction<BytesRef>() {
         @Override
         public BytesRef apply(int i) {
-          scratchBytesRef1.offset = packedBytesLength * i;
-          return scratchBytesRef1;
+          scratchBytesRef.offset = packedBytesLength * i;
+          return scratchBytesRef;
         }
       };
-      assert valuesInOrderAndBounds(leafCount, 0, ArrayUtil.copyOfSubArray(leafValues, 0, packedBytesLength),
-          ArrayUtil.copyOfSubArray(leafValues, (leafCount - 1) * packedBytesLength, leafCount * packedBytesLength),
-          packedValues, leafDocs, 0);
-      writeLeafBlockPackedValues(scratchOut, commonPrefixLengths, leafCount, 0, packedValues, leafCardinality);
-      scratchOut.copyTo(out);
-      scratchOut.reset();
+      assert valuesInOrderAndBounds(count, 0, ArrayUtil.copyOfSubArray(values, 0, packedBytesLength),
+          ArrayUtil.copyOfSubArray(values, (count - 1) * packedBytesLength, count * packedBytesLength),
+          packedValues, docs, 0);
+      writeLeafBlockPackedValues(encoded, commonPrefixLengths, count, 0, packedValues, cardinality, scratch);
+    }
+  }
+
+  /** Encodes a range of leaf blocks on the fork-join pool. */
+  private static class EncodeTask extends RecursiveAction {
+    private final LeafBlock[] leafBlocks;
+    private final int from, to;
+    private Throwable failure;
+
+    EncodeTask(LeafBlock[] leafBlocks, int from, int to) {
+      this.leafBlocks = leafBlocks;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        try {
+          leafBlocks[from].encode();
+        } catch (Throwable t) {
+          failure = t;
+        }
+      } else {
+        final int mid = (from + to) >>> 1;
+        EncodeTask left = new EncodeTask(leafBlocks, from, mid);
+        EncodeTask right = new EncodeTask(leafBlocks, mid, to);
+        invokeAll(left, right);
+        failure = left.failure;
+        if (right.failure != null) {
+          failure = IOUtils.useOrSuppress(failure, right.failure);
+        }
+      }
+    }
+  }
+
+  /** Sorts points by value and then doc ID on the fork-join pool: ranges are partitioned around their median first,
+   *  so that both halves can be sorted concurrently. This gives the same order as a single sort. */
+  private class SortTask extends RecursiveAction {
+    private final MutablePointValues reader;
+    private final int from, to;
+    private final int numTasks;
+
+    SortTask(MutablePointValues reader, int from, int to, int numTasks) {
+      this.reader = reader;
+      this.from = from;
+      this.to = to;
+      this.numTasks = numTasks;
+    }
+
+    @Override
+    protected void compute() {
+      if (numTasks <= 1 || to - from < 2 * MIN_LEAVES_PER_TASK * maxPointsInLeafNode) {
+        MutablePointsReaderUtils.sort(maxDoc, packedIndexBytesLength, reader, from, to);
+      } else {
+        final int mid = (from + to) >>> 1;
+        MutablePointsReaderUtils.partition(numDataDims, numIndexDims, maxDoc, 0, bytesPerDim, 0,
+            reader, from, to, mid, new BytesRef(), new BytesRef());
+        invokeAll(new SortTask(reader, from, mid, numTasks / 2), new SortTask(reader, mid, to, numTasks - numTasks / 2));
+      }
     }
   }
 
@@ -743,6 +924,12 @@ public class BKDWriter implements Closeable {
 
   /** Writes the BKD tree to the provided {@link IndexOutput} and returns the file offset where index was written. */
   public long finish(IndexOutput out) throws IOException {
+    return writeIndex(out, finishLeaves(out));
+  }
+
+  /** Like {@link #finish}, but only writes the leaf blocks and returns the index to write once they have been
+   *  copied to their final output. */
+  public DeferredIndex finishLeaves(IndexOutput out) throws IOException {
     // System.out.println("\nBKDTreeWriter.finish pointCount=" + pointCount + " out=" + out + " heapWriter=" + heapPointWriter);
 
     // TODO: specialize the 1D case?  it's much faster at indexing time (no partitioning on recurse...)
@@ -790,20 +977,18 @@ public class BKDWriter implements Closeable {
     // Make sure the math above "worked":
     assert pointCount / numLeaves <= maxPointsInLeafNode: "pointCount=" + pointCount + " numLeaves=" + numLeaves + " maxPointsInLeafNode=" + maxPointsInLeafNode;
 
-    //We re-use the selector so we do not need to create an object every time.
-    BKDRadixSelector radixSelector = new BKDRadixSelector(numDataDims, numIndexDims, bytesPerDim, maxPointsSortInHeap, tempDir, tempFileNamePrefix);
-
     boolean success = false;
     try {
 
       final int[] parentSplits = new int[numIndexDims];
-      build(1, numLeaves, points,
-             out, radixSelector,
-            minPackedValue.clone(), maxPackedValue.clone(),
-            parentSplits,
-            splitPackedValues,
-            leafBlockFPs,
-            new int[maxPointsInLeafNode]);
+      buildTree(out, parentSplits,
+          (o, splits, state) -> build(1, numLeaves, points,
+              o,
+              minPackedValue.clone(), maxPackedValue.clone(),
+              splits,
+              splitPackedValues,
+              leafBlockFPs,
+              state));
       assert Arrays.equals(parentSplits, new int[numIndexDims]);
 
       // If no exception, we should have cleaned everything up:
@@ -820,10 +1005,13 @@ public class BKDWriter implements Closeable {
 
     //System.out.println("Total nodes: " + innerNodeCount);
 
-    // Write index:
-    long indexFP = out.getFilePointer();
-    writeIndex(out, Math.toIntExact(countPerLeaf), leafBlockFPs, splitPackedValues);
-    return indexFP;
+    final int leafCount = Math.toIntExact(countPerLeaf);
+    return (indexOut, leafBlockFPOffset) -> {
+      // Write index:
+      long indexFP = indexOut.getFilePointer();
+      writeIndex(indexOut, leafCount, shiftFPs(leafBlockFPs, leafBlockFPOffset), splitPackedValues);
+      return indexFP;
+    };
   }
 
   /** Packs the two arrays, representing a balanced binary tree, into a compact byte[] structure. */
@@ -1053,7 +1241,7 @@ public class BKDWriter implements Closeable {
     DocIdsWriter.writeDocIds(docIDs, start, count, out);
   }
 
-  private void writeLeafBlockPackedValues(DataOutput out, int[] commonPrefixLengths, int count, int sortedDim, IntFunction<BytesRef> packedValues, int leafCardinality) throws IOException {
+  private void writeLeafBlockPackedValues(DataOutput out, int[] commonPrefixLengths, int count, int sortedDim, IntFunction<BytesRef> packedValues, int leafCardinality, byte[] scratch) throws IOException {
     int prefixLenSum = Arrays.stream(commonPrefixLengths).sum();
     if (prefixLenSum == packedBytesLength) {
       // all values in this block are equal
@@ -1085,7 +1273,7 @@ public class BKDWriter implements Closeable {
       }
       if (lowCardinalityCost <= highCardinalityCost) {
         out.writeByte((byte) -2);
-        writeLowCardinalityLeafBlockPackedValues(out, commonPrefixLengths, count, packedValues);
+        writeLowCardinalityLeafBlockPackedValues(out, commonPrefixLengths, count, packedValues, scratch);
       } else {
         out.writeByte((byte) sortedDim);
         writeHighCardinalityLeafBlockPackedValues(out, commonPrefixLengths, count, sortedDim, packedValues, compressedByteOffset);
@@ -1093,7 +1281,7 @@ public class BKDWriter implements Closeable {
     }
   }
 
-  private void writeLowCardinalityLeafBlockPackedValues(DataOutput out, int[] commonPrefixLengths, int count, IntFunction<BytesRef> packedValues) throws IOException {
+  private void writeLowCardinalityLeafBlockPackedValues(DataOutput out, int[] commonPrefixLengths, int count, IntFunction<BytesRef> packedValues, byte[] scratch1) throws IOException {
     if (numIndexDims != 1) {
       writeActualBounds(out, commonPrefixLengths, count, packedValues);
     }
@@ -1286,12 +1474,15 @@ public class BKDWriter implements Closeable {
       }
     }
 
-    // Find which dim has the largest span so we can split on it:
+    // Find which dim has the largest span so we can split on it;
+    // scratch arrays are local since subtrees may be built concurrently:
+    final byte[] scratchDiff = new byte[bytesPerDim];
+    final byte[] maxDiff = new byte[bytesPerDim];
     int splitDim = -1;
     for(int dim=0;dim<numIndexDims;dim++) {
       NumericUtils.subtract(bytesPerDim, dim, maxPackedValue, minPackedValue, scratchDiff);
-      if (splitDim == -1 || Arrays.compareUnsigned(scratchDiff, 0, bytesPerDim, scratch1, 0, bytesPerDim) > 0) {
-        System.arraycopy(scratchDiff, 0, scratch1, 0, bytesPerDim);
+      if (splitDim == -1 || Arrays.compareUnsigned(scratchDiff, 0, bytesPerDim, maxDiff, 0, bytesPerDim) > 0) {
+        System.arraycopy(scratchDiff, 0, maxDiff, 0, bytesPerDim);
         splitDim = dim;
       }
     }
@@ -1326,7 +1517,12 @@ public class BKDWriter implements Closeable {
                      int[] parentSplits,
                      byte[] splitPackedValues,
                      long[] leafBlockFPs,
-                     int[] spareDocIds) throws IOException {
+                     BuildState state) throws IOException {
+    final int[] commonPrefixLengths = state.commonPrefixLengths;
+    final byte[] scratch1 = state.scratch;
+    final BytesRef scratchBytesRef1 = state.scratchBytesRef1;
+    final BytesRef scratchBytesRef2 = state.scratchBytesRef2;
+    final ByteBuffersDataOutput scratchOut = state.scratchOut;
 
     if (nodeID >= leafNodeOffset) {
       // leaf node
@@ -1407,7 +1603,7 @@ public class BKDWriter implements Closeable {
       assert scratchOut.size() == 0;
 
       // Write doc IDs
-      int[] docIDs = spareDocIds;
+      int[] docIDs = state.spareDocIds;
       for (int i = from; i < to; ++i) {
         docIDs[i - from] = reader.getDocID(i);
       }
@@ -1429,7 +1625,7 @@ public class BKDWriter implements Closeable {
       };
       assert valuesInOrderAndBounds(count, sortedDim, minPackedValue, maxPackedValue, packedValues,
           docIDs, 0);
-      writeLeafBlockPackedValues(scratchOut, commonPrefixLengths, count, sortedDim, packedValues, leafCardinality);
+      writeLeafBlockPackedValues(scratchOut, commonPrefixLengths, count, sortedDim, packedValues, leafCardinality, scratch1);
       scratchOut.copyTo(out);
       scratchOut.reset();
     } else {
@@ -1476,12 +1672,13 @@ public class BKDWriter implements Closeable {
 
       // recurse
       parentSplits[splitDim]++;
-      build(nodeID * 2, leafNodeOffset, reader, from, mid, out,
-          minPackedValue, maxSplitPackedValue, parentSplits,
-          splitPackedValues, leafBlockFPs, spareDocIds);
-      build(nodeID * 2 + 1, leafNodeOffset, reader, mid, to, out,
-          minSplitPackedValue, maxPackedValue, parentSplits,
-          splitPackedValues, leafBlockFPs, spareDocIds);
+      buildSubtrees(nodeID, leafNodeOffset, out, parentSplits, leafBlockFPs, state,
+          (o, splits, st) -> build(nodeID * 2, leafNodeOffset, reader, from, mid, o,
+              minPackedValue, maxSplitPackedValue, splits,
+              splitPackedValues, leafBlockFPs, st),
+          (o, splits, st) -> build(nodeID * 2 + 1, leafNodeOffset, reader, mid, to, o,
+              minSplitPackedValue, maxPackedValue, splits,
+              splitPackedValues, leafBlockFPs, st));
       parentSplits[splitDim]--;
     }
   }
@@ -1515,12 +1712,15 @@ public class BKDWriter implements Closeable {
   private void build(int nodeID, int leafNodeOffset,
                      BKDRadixSelector.PathSlice points,
                      IndexOutput out,
-                     BKDRadixSelector radixSelector,
                      byte[] minPackedValue, byte[] maxPackedValue,
                      int[] parentSplits,
                      byte[] splitPackedValues,
                      long[] leafBlockFPs,
-                     int[] spareDocIds) throws IOException {
+                     BuildState state) throws IOException {
+    final int[] commonPrefixLengths = state.commonPrefixLengths;
+    final byte[] scratch1 = state.scratch;
+    final BKDRadixSelector radixSelector = state.radixSelector;
+    final int[] spareDocIds = state.spareDocIds;
 
     if (nodeID >= leafNodeOffset) {
 
@@ -1538,7 +1738,7 @@ public class BKDWriter implements Closeable {
       int from = Math.toIntExact(points.start);
       int to = Math.toIntExact(points.start + points.count);
       //we store common prefix on scratch1
-      computeCommonPrefixLength(heapSource, scratch1, from, to);
+      computeCommonPrefixLength(heapSource, commonPrefixLengths, scratch1, from, to);
 
       int sortedDim = 0;
       int sortedDimCardinality = Integer.MAX_VALUE;
@@ -1610,7 +1810,7 @@ public class BKDWriter implements Closeable {
       };
       assert valuesInOrderAndBounds(count, sortedDim, minPackedValue, maxPackedValue, packedValues,
           docIDs, 0);
-      writeLeafBlockPackedValues(out, commonPrefixLengths, count, sortedDim, packedValues, leafCardinality);
+      writeLeafBlockPackedValues(out, commonPrefixLengths, count, sortedDim, packedValues, leafCardinality, scratch1);
 
     } else {
       // Inner node: partition/recurse
@@ -1658,22 +1858,134 @@ public class BKDWriter implements Closeable {
       System.arraycopy(splitValue, 0, minSplitPackedValue, splitDim * bytesPerDim, bytesPerDim);
       System.arraycopy(splitValue, 0, maxSplitPackedValue, splitDim * bytesPerDim, bytesPerDim);
 
-      parentSplits[splitDim]++;
-      // Recurse on left tree:
-      build(2 * nodeID, leafNodeOffset, slices[0],
-          out, radixSelector, minPackedValue, maxSplitPackedValue,
-          parentSplits, splitPackedValues, leafBlockFPs, spareDocIds);
+      final BKDRadixSelector.PathSlice leftSlice = slices[0];
+      BKDRadixSelector.PathSlice rightSlice = slices[1];
+      if (forkJoinPool != null && rightSlice.writer instanceof HeapPointWriter) {
+        // both slices share the same heap writer, which needs its own scratch state if subtrees are built concurrently
+        rightSlice = new BKDRadixSelector.PathSlice(((HeapPointWriter) rightSlice.writer).view(), rightSlice.start, rightSlice.count);
+      }
+      final BKDRadixSelector.PathSlice finalRightSlice = rightSlice;
 
-      // Recurse on right tree:
-      build(2 * nodeID + 1, leafNodeOffset, slices[1],
-          out, radixSelector, minSplitPackedValue, maxPackedValue
-          , parentSplits, splitPackedValues, leafBlockFPs, spareDocIds);
+      parentSplits[splitDim]++;
+      buildSubtrees(nodeID, leafNodeOffset, out, parentSplits, leafBlockFPs, state,
+          // Recurse on left tree:
+          (o, splits, st) -> build(2 * nodeID, leafNodeOffset, leftSlice,
+              o, minPackedValue, maxSplitPackedValue,
+              splits, splitPackedValues, leafBlockFPs, st),
+          // Recurse on right tree:
+          (o, splits, st) -> build(2 * nodeID + 1, leafNodeOffset, finalRightSlice,
+              o, minSplitPackedValue, maxPackedValue,
+              splits, splitPackedValues, leafBlockFPs, st));
 
       parentSplits[splitDim]--;
     }
   }
 
-  private void computeCommonPrefixLength(HeapPointWriter heapPointWriter, byte[] commonPrefix, int from, int to) {
+  /** Scratch state used to build a subtree; subtrees that are built concurrently each use their own. */
+  private class BuildState {
+    final int[] commonPrefixLengths = new int[numDataDims];
+    final byte[] scratch = new byte[packedBytesLength];
+    final BytesRef scratchBytesRef1 = new BytesRef();
+    final BytesRef scratchBytesRef2 = new BytesRef();
+    final ByteBuffersDataOutput scratchOut = ByteBuffersDataOutput.newResettableInstance();
+    final int[] spareDocIds = new int[maxPointsInLeafNode];
+    // We re-use the selector so we do not need to create an object every time.
+    final BKDRadixSelector radixSelector = new BKDRadixSelector(numDataDims, numIndexDims, bytesPerDim, maxPointsSortInHeap, tempDir, tempFileNamePrefix);
+  }
+
+  /** Builds a subtree, writing its leaf blocks to the provided output. */
+  @FunctionalInterface
+  private interface SubtreeBuilder {
+    void build(IndexOutput out, int[] parentSplits, BuildState state) throws IOException;
+  }
+
+  /** Builds the whole tree, on the fork-join pool if there is one. */
+  private void buildTree(IndexOutput out, int[] parentSplits, SubtreeBuilder builder) throws IOException {
+    if (forkJoinPool == null) {
+      builder.build(out, parentSplits, new BuildState());
+    } else {
+      BuildTask task = new BuildTask(builder, out, parentSplits);
+      forkJoinPool.invoke(task);
+      if (task.failure != null) {
+        throw IOUtils.rethrowAlways(task.failure);
+      }
+    }
+  }
+
+  /** Builds the subtrees of an inner node. The right subtree is built concurrently if there is a fork-join pool and the
+   *  node is in the upper levels of the tree, in which case its leaf blocks are appended to the output once the left subtree
+   *  has been built. */
+  private void buildSubtrees(int nodeID, int leafNodeOffset, IndexOutput out, int[] parentSplits, long[] leafBlockFPs,
+                             BuildState state, SubtreeBuilder left, SubtreeBuilder right) throws IOException {
+    // the tree is fully balanced, so both children have the same number of leaves
+    final int numChildLeaves = leafNodeOffset / (2 * Integer.highestOneBit(nodeID));
+    if (forkJoinPool == null || numChildLeaves < MIN_LEAVES_PER_TASK || nodeID >= 4 * forkJoinPool.getParallelism()) {
+      left.build(out, parentSplits, state);
+      right.build(out, parentSplits, state);
+      return;
+    }
+
+    BuildTask rightTask = new BuildTask(right, null, parentSplits.clone());
+    rightTask.fork();
+    Throwable failure = null;
+    try {
+      left.build(out, parentSplits, state);
+    } catch (Throwable t) {
+      failure = t;
+    }
+    // wait for the right subtree even on failure, so that it is done with temporary files when we return
+    rightTask.join();
+    if (rightTask.failure != null) {
+      failure = IOUtils.useOrSuppress(failure, rightTask.failure);
+    }
+    if (failure != null) {
+      throw IOUtils.rethrowAlways(failure);
+    }
+
+    final long rightFP = out.getFilePointer();
+    try (IndexInput in = tempDir.openInput(rightTask.tempFileName, IOContext.READONCE)) {
+      out.copyBytes(in, in.length());
+    }
+    tempDir.deleteFile(rightTask.tempFileName);
+    // file pointers of the right leaves were recorded relative to the temporary file
+    final int firstRightLeaf = (2 * nodeID + 1) * numChildLeaves - leafNodeOffset;
+    for (int i = firstRightLeaf; i < firstRightLeaf + numChildLeaves; ++i) {
+      leafBlockFPs[i] += rightFP;
+    }
+  }
+
+  /** Builds a subtree on the fork-join pool, to the provided output or to a temporary file if it is null. */
+  private class BuildTask extends RecursiveAction {
+    private final SubtreeBuilder builder;
+    private final IndexOutput out;
+    private final int[] parentSplits;
+    private String tempFileName;
+    private Throwable failure;
+
+    BuildTask(SubtreeBuilder builder, IndexOutput out, int[] parentSplits) {
+      this.builder = builder;
+      this.out = out;
+      this.parentSplits = parentSplits;
+    }
+
+    @Override
+    protected void compute() {
+      try {
+        if (out == null) {
+          try (IndexOutput tempOut = tempDir.createTempOutput(tempFileNamePrefix, "bkd_subtree", IOContext.DEFAULT)) {
+            tempFileName = tempOut.getName();
+            builder.build(tempOut, parentSplits, new BuildState());
+          }
+        } else {
+          builder.build(out, parentSplits, new BuildState());
+        }
+      } catch (Throwable t) {
+        failure = t;
+      }
+    }
+  }
+
+  private void computeCommonPrefixLength(HeapPointWriter heapPointWriter, int[] commonPrefixLengths, byte[] commonPrefix, int from, int to) {
     Arrays.fill(commonPrefixLengths, bytesPerDim);
     PointValue value = heapPointWriter.getPackedValueSlice(from);
     BytesRef packedValue = value.packedValue();
@@ -51,6 +51,23 @@ public final class HeapPointWriter implements PointWriter {
     }
   }
 
+  private HeapPointWriter(HeapPointWriter other) {
+    this.packedBytesDocIDLength = other.packedBytesDocIDLength;
+    this.packedBytesLength = other.packedBytesLength;
+    this.block = other.block;
+    this.size = other.size;
+    this.scratch = new byte[packedBytesDocIDLength];
+    this.nextWrite = other.nextWrite;
+    this.closed = other.closed;
+    this.pointValue = other.pointValue == null ? null : new HeapPointReader.HeapPointValue(block, packedBytesLength);
+  }
+
+  /** Returns a writer over the same points that has its own scratch state, so that another
+   *  thread may access a range of points that is disjoint from the ranges accessed through this writer. */
+  HeapPointWriter view() {
+    return new HeapPointWriter(this);
+  }
+
   /** Returns a reference, in <code>result</code>, to the byte[] slice holding this value */
   public PointValue getPackedValueSlice(int index) {
     assert index < nextWrite : "nextWrite=" + (nextWrite) + " vs index=" + index;
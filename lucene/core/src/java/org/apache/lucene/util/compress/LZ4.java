@@ -78,13 +78,26 @@ public final class LZ4 {
 
   /**
    * Decompress at least <code>decompressedLen</code> bytes into
-   * <code>dest[dOff:]</code>. Please note that <code>dest</code> must be large
+   * <code>dest[0:]</code>. Please note that <code>dest</code> must be large
    * enough to be able to hold <b>all</b> decompressed data (meaning that you
    * need to know the total decompressed length).
    */
   public static int decompress(DataInput compressed, int decompressedLen, byte[] dest) throws IOException {
-    int dOff = 0;
+    return decompress(compressed, decompressedLen, dest, 0);
+  }
+
+  /**
+   * Decompress at least <code>decompressedLen</code> bytes into
+   * <code>dest[dOff:]</code> and return the end offset of the decompressed
+   * data in <code>dest</code>. Bytes that are before <code>dOff</code> are
+   * used as a dictionary, see {@link #compressWithDictionary}. Please note
+   * that <code>dest</code> must be large enough to be able to hold <b>all</b>
+   * decompressed data (meaning that you need to know the total decompressed
+   * length).
+   */
+  public static int decompress(DataInput compressed, int decompressedLen, byte[] dest, int dOff) throws IOException {
     final int destEnd = dest.length;
+    final int decompressedEnd = dOff + decompressedLen;
 
     do {
       // literals
@@ -103,7 +116,7 @@ public final class LZ4 {
         dOff += literalLen;
       }
 
-      if (dOff >= decompressedLen) {
+      if (dOff >= decompressedEnd) {
         break;
       }
 
@@ -133,7 +146,7 @@ public final class LZ4 {
         System.arraycopy(dest, dOff - matchDec, dest, dOff, fastLen);
         dOff += matchLen;
       }
-    } while (dOff < decompressedLen);
+    } while (dOff < decompressedEnd);
 
     return dOff;
   }
@@ -190,6 +203,14 @@ public final class LZ4 {
     /** Reset this hash table in order to compress the given content. */
     abstract void reset(byte[] b, int off, int len);
 
+    /**
+     * Record occurrences of the first {@code dictLen} bytes of the content
+     * that was passed to {@link #reset}, which serve as a dictionary. This
+     * must be called right after {@link #reset}, and {@link #get} may then
+     * only be called on offsets that are after the dictionary.
+     */
+    abstract void initDictionary(int dictLen);
+
     /**
      * Advance the cursor to {@off} and return an index that stored the same
      * 4 bytes as {@code b[o:o+4)}. This may only be called on strictly
@@ -243,6 +264,15 @@ public final class LZ4 {
       }
     }
 
+    @Override
+    void initDictionary(int dictLen) {
+      assert lastOff <= base;
+      for (int off = base; off < base + dictLen; ++off) {
+        hashTable.set(hash(readInt(bytes, off), hashLog), off - base);
+      }
+      lastOff = base + dictLen - 1;
+    }
+
     @Override
     int get(int off) {
       assert off > lastOff;
@@ -327,6 +357,15 @@ public final class LZ4 {
       this.end = off + len;
     }
 
+    @Override
+    void initDictionary(int dictLen) {
+      assert next == base;
+      // the last byte of the dictionary is hashed by the first call to get()
+      for (; next < base + dictLen - 1; next++) {
+        addHash(next);
+      }
+    }
+
     @Override
     int get(int off) {
       assert off > next;
@@ -394,18 +433,37 @@ public final class LZ4 {
    * but can safely be reused.
    */
   public static void compress(byte[] bytes, int off, int len, DataOutput out, HashTable ht) throws IOException {
-    Objects.checkFromIndexSize(off, len, bytes.length);
+    compressWithDictionary(bytes, off, 0, len, out, ht);
+  }
 
-    final int base = off;
-    final int end = off + len;
+  /**
+   * Compress <code>bytes[dictOff+dictLen:dictOff+dictLen+len]</code> into
+   * <code>out</code>, using <code>bytes[dictOff:dictOff+dictLen]</code> as a
+   * dictionary. Matches may refer to the dictionary, so the same dictionary
+   * bytes must be present right before the destination offset when calling
+   * {@link #decompress(DataInput, int, byte[], int)}. This allows several
+   * short inputs to share a dictionary while still being decompressed
+   * independently. <code>ht</code> shouldn't be shared across threads but can
+   * safely be reused.
+   */
+  public static void compressWithDictionary(byte[] bytes, int dictOff, int dictLen, int len, DataOutput out, HashTable ht) throws IOException {
+    Objects.checkFromIndexSize(dictOff, dictLen, bytes.length);
+    Objects.checkFromIndexSize(dictOff + dictLen, len, bytes.length);
 
+    final int base = dictOff;
+    final int end = dictOff + dictLen + len;
+
+    int off = dictOff + dictLen;
     int anchor = off++;
 
     if (len > LAST_LITERALS + MIN_MATCH) {
 
       final int limit = end - LAST_LITERALS;
       final int matchLimit = limit - MIN_MATCH;
-      ht.reset(bytes, base, len);
+      ht.reset(bytes, base, dictLen + len);
+      if (dictLen > 0) {
+        ht.initDictionary(dictLen);
+      }
 
       main:
       while (off <= limit) {
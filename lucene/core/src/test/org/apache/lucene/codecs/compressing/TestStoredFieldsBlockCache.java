@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat.Mode;
+import org.apache.lucene.codecs.lucene84.Lucene84Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.RamUsageEstimator;
+
+public class TestStoredFieldsBlockCache extends LuceneTestCase {
+
+  public void testHitsAndMisses() {
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(1 << 20);
+    Object segment1 = new Object();
+    Object segment2 = new Object();
+    byte[] block = new byte[100];
+
+    assertNull(cache.get(segment1, 0));
+    cache.put(segment1, 0, block);
+    assertSame(block, cache.get(segment1, 0));
+    assertNull(cache.get(segment1, 10));
+    assertNull(cache.get(segment2, 0));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+    assertEquals(4, cache.getTotalCount());
+    assertEquals(1, cache.getCacheSize());
+    assertEquals(1, cache.getCacheCount());
+    assertEquals(0, cache.getEvictionCount());
+    assertTrue(cache.ramBytesUsed() >= RamUsageEstimator.sizeOf(block));
+
+    cache.clear();
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+    assertNull(cache.get(segment1, 0));
+  }
+
+  public void testEviction() {
+    final int numBlocks = 10;
+    final long maxRamBytesUsed = numBlocks * (RamUsageEstimator.sizeOf(new byte[1000]) + 200);
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(maxRamBytesUsed);
+    Object segment = new Object();
+    for (int i = 0; i < 100; i++) {
+      cache.put(segment, i, new byte[1000]);
+      // keep the first block hot
+      assertNotNull(cache.get(segment, 0));
+      assertTrue(cache.ramBytesUsed() <= maxRamBytesUsed);
+    }
+    assertTrue(cache.getCacheSize() <= numBlocks);
+    assertEquals(100, cache.getCacheCount());
+    assertEquals(cache.getCacheCount() - cache.getCacheSize(), cache.getEvictionCount());
+    // least recently used blocks are evicted first
+    assertNotNull(cache.get(segment, 0));
+    assertNotNull(cache.get(segment, 99));
+    assertNull(cache.get(segment, 1));
+
+    // blocks that are larger than the cache are not cached
+    cache.put(segment, 1000, new byte[Math.toIntExact(maxRamBytesUsed)]);
+    assertNull(cache.get(segment, 1000));
+  }
+
+  public void testClearSegment() {
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(1 << 20);
+    Object segment1 = new Object();
+    Object segment2 = new Object();
+    cache.put(segment1, 0, new byte[10]);
+    cache.put(segment1, 10, new byte[10]);
+    cache.put(segment2, 0, new byte[10]);
+    final long ramBytesUsed = cache.ramBytesUsed();
+    cache.clearSegment(segment1);
+    assertEquals(1, cache.getCacheSize());
+    assertEquals(ramBytesUsed / 3, cache.ramBytesUsed());
+    assertNull(cache.get(segment1, 0));
+    assertNotNull(cache.get(segment2, 0));
+  }
+
+  public void testClearSegmentAfterEviction() {
+    final long maxRamBytesUsed = 4 * (RamUsageEstimator.sizeOf(new byte[1000]) + 200);
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(maxRamBytesUsed);
+    Object segment1 = new Object();
+    Object segment2 = new Object();
+    for (int i = 0; i < 10; i++) {
+      cache.put(segment1, i, new byte[1000]);
+      cache.put(segment2, i, new byte[1000]);
+    }
+    final long cacheSize = cache.getCacheSize();
+    assertTrue(cacheSize > 0);
+    cache.clearSegment(segment1);
+    cache.clearSegment(segment1);
+    assertTrue(cache.getCacheSize() > 0);
+    assertNull(cache.get(segment1, 9));
+    assertNotNull(cache.get(segment2, 9));
+    cache.clearSegment(segment2);
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+  }
+
+  public void testReader() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    iwc.setCodec(new Lucene84Codec(Mode.BEST_SPEED));
+    IndexWriter w = new IndexWriter(dir, iwc);
+    indexDocs(w);
+    w.close();
+
+    // the cache is given to readers that are opened from the directory
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(1 << 20);
+    DirectoryReader reader = DirectoryReader.open(dir,
+        Collections.singletonMap(StoredFieldsBlockCache.READER_ATTRIBUTE_KEY, cache));
+    readAllDocs(reader);
+    // every block is decompressed once, and then read from the cache
+    assertTrue(cache.getCacheCount() > 0);
+    assertEquals(cache.getCacheCount(), cache.getMissCount());
+    assertEquals(2 * reader.maxDoc(), cache.getTotalCount());
+    assertEquals(0, cache.getEvictionCount());
+
+    // closing the segment removes its blocks from the cache
+    reader.close();
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+
+    // readers that are opened without the attribute do not use the cache
+    final long totalCount = cache.getTotalCount();
+    reader = DirectoryReader.open(dir);
+    readAllDocs(reader);
+    assertEquals(totalCount, cache.getTotalCount());
+    reader.close();
+
+    expectThrows(IllegalArgumentException.class, () -> DirectoryReader.open(dir,
+        Collections.singletonMap(StoredFieldsBlockCache.READER_ATTRIBUTE_KEY, "cache")));
+    dir.close();
+  }
+
+  public void testWriterReader() throws Exception {
+    Directory dir = newDirectory();
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(1 << 20);
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    iwc.setCodec(new Lucene84Codec(Mode.BEST_SPEED));
+    iwc.setReaderAttributes(Collections.singletonMap(StoredFieldsBlockCache.READER_ATTRIBUTE_KEY, cache));
+    IndexWriter w = new IndexWriter(dir, iwc);
+    indexDocs(w);
+
+    DirectoryReader reader = DirectoryReader.open(w);
+    readAllDocs(reader);
+    assertTrue(cache.getCacheCount() > 0);
+    assertEquals(2 * reader.maxDoc(), cache.getTotalCount());
+    reader.close();
+    w.close();
+    assertEquals(0, cache.getCacheSize());
+    dir.close();
+  }
+
+  public void testPresetDictNotCached() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    iwc.setCodec(new Lucene84Codec(Mode.BEST_SPEED_PRESET_DICT));
+    IndexWriter w = new IndexWriter(dir, iwc);
+    indexDocs(w);
+    w.close();
+
+    // documents are decompressed from their sub-block instead of caching whole blocks
+    StoredFieldsBlockCache cache = new StoredFieldsBlockCache(1 << 20);
+    DirectoryReader reader = DirectoryReader.open(dir,
+        Collections.singletonMap(StoredFieldsBlockCache.READER_ATTRIBUTE_KEY, cache));
+    readAllDocs(reader);
+    assertEquals(0, cache.getCacheCount());
+    reader.close();
+    dir.close();
+  }
+
+  private static void indexDocs(IndexWriter w) throws IOException {
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StoredField("id", i));
+      doc.add(new StoredField("body", "value" + i));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+  }
+
+  private static void readAllDocs(DirectoryReader reader) throws IOException {
+    for (int iter = 0; iter < 2; iter++) {
+      for (int i = 0; i < reader.maxDoc(); i++) {
+        Document doc = reader.document(i);
+        assertEquals("value" + doc.getField("id").numericValue(), doc.get("body"));
+      }
+    }
+  }
+}
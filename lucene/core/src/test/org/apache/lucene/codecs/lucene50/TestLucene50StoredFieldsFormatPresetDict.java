@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene50;
+
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.lucene50.Lucene50StoredFieldsFormat.Mode;
+import org.apache.lucene.codecs.lucene84.Lucene84Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.BaseStoredFieldsFormatTestCase;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+
+public class TestLucene50StoredFieldsFormatPresetDict extends BaseStoredFieldsFormatTestCase {
+
+  private Mode mode;
+
+  @Override
+  public void setUp() throws Exception {
+    mode = random().nextBoolean() ? Mode.BEST_SPEED_PRESET_DICT : Mode.BEST_COMPRESSION_PRESET_DICT;
+    super.setUp();
+  }
+
+  @Override
+  protected Codec getCodec() {
+    return new Lucene84Codec(mode);
+  }
+
+  /**
+   * Index many small documents so that chunks are split into several
+   * sub-blocks, and retrieve them individually.
+   */
+  public void testManySmallDocuments() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    iwc.setCodec(getCodec());
+    IndexWriter iw = new IndexWriter(dir, iwc);
+    final int numDocs = atLeast(5000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StoredField("id", i));
+      doc.add(new StoredField("body", "{\"id\":" + i + ",\"status\":\"ok\",\"user\":\"user" + (i % 100) + "\"}"));
+      iw.addDocument(doc);
+    }
+    iw.forceMerge(1);
+    iw.close();
+
+    DirectoryReader ir = DirectoryReader.open(dir);
+    assertEquals(numDocs, ir.numDocs());
+    for (int iter = 0; iter < 1000; iter++) {
+      final int docID = random().nextInt(numDocs);
+      Document doc = ir.document(docID);
+      final int id = doc.getField("id").numericValue().intValue();
+      assertEquals("{\"id\":" + id + ",\"status\":\"ok\",\"user\":\"user" + (id % 100) + "\"}", doc.get("body"));
+    }
+    ir.close();
+    dir.close();
+  }
+}
@@ -18,28 +18,41 @@ package org.apache.lucene.codecs.lucene60;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.FilterCodec;
 import org.apache.lucene.codecs.PointsFormat;
 import org.apache.lucene.codecs.PointsReader;
 import org.apache.lucene.codecs.PointsWriter;
 import org.apache.lucene.document.BinaryPoint;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.BasePointsFormatTestCase;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LogDocMergePolicy;
 import org.apache.lucene.index.MockRandomMergePolicy;
 import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.index.PointValues.IntersectVisitor;
 import org.apache.lucene.index.PointValues.Relation;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.TestUtil;
 import org.apache.lucene.util.bkd.BKDWriter;
 
@@ -397,4 +410,90 @@ public class TestLucene60PointsFormat extends BasePointsFormatTestCase {
       }
     };
   }
+
+  public void testForkJoinPoolWritesSameFiles() throws IOException {
+    final long seed = random().nextLong();
+    final ForkJoinPool pool = new ForkJoinPool(TestUtil.nextInt(random(), 1, 4));
+    try {
+      List<byte[]> expected = writePointsFiles(seed, null);
+      List<byte[]> actual = writePointsFiles(seed, pool);
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); ++i) {
+        assertArrayEquals(expected.get(i), actual.get(i));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** Flushes two segments with several point fields and merges them, and returns the content of all written points
+   *  files, without their headers and footers since they depend on the segment ID. */
+  private List<byte[]> writePointsFiles(long seed, ForkJoinPool pool) throws IOException {
+    final Codec defaultCodec = TestUtil.getDefaultCodec();
+    final Codec codec = new FilterCodec(defaultCodec.getName(), defaultCodec) {
+      @Override
+      public PointsFormat pointsFormat() {
+        return new Lucene60PointsFormat(pool);
+      }
+    };
+    final Random random = new Random(seed);
+    final List<byte[]> files = new ArrayList<>();
+    try (Directory dir = newDirectory()) {
+      LogDocMergePolicy mp = new LogDocMergePolicy();
+      mp.setNoCFSRatio(0);
+      IndexWriterConfig iwc = new IndexWriterConfig(null)
+          .setCodec(codec)
+          .setUseCompoundFile(false)
+          .setMergePolicy(mp)
+          .setRAMBufferSizeMB(64);
+      try (IndexWriter w = new IndexWriter(dir, iwc)) {
+        final int numDocs = atLeast(5000);
+        for (int i = 0; i < 2 * numDocs; ++i) {
+          Document doc = new Document();
+          doc.add(new StringField("id", Integer.toString(i), Store.NO));
+          doc.add(new LongPoint("long", random.nextLong()));
+          doc.add(new IntPoint("int", random.nextInt(100)));
+          doc.add(new IntPoint("2d", random.nextInt(), random.nextInt()));
+          if (random.nextBoolean()) {
+            byte[] bytes = new byte[3];
+            random.nextBytes(bytes);
+            doc.add(new BinaryPoint("binary", bytes));
+          }
+          w.addDocument(doc);
+          if (i == numDocs) {
+            w.commit();
+          }
+        }
+        for (int i = 0; i < numDocs / 10; ++i) {
+          w.deleteDocuments(new Term("id", Integer.toString(random.nextInt(2 * numDocs))));
+        }
+        w.commit();
+        addPointsFiles(dir, files);
+        w.forceMerge(1);
+        w.commit();
+        addPointsFiles(dir, files);
+      }
+    }
+    return files;
+  }
+
+  private static void addPointsFiles(Directory dir, List<byte[]> files) throws IOException {
+    for (String file : dir.listAll()) {
+      final String codecName;
+      if (file.endsWith("." + Lucene60PointsFormat.DATA_EXTENSION)) {
+        codecName = Lucene60PointsFormat.DATA_CODEC_NAME;
+      } else if (file.endsWith("." + Lucene60PointsFormat.INDEX_EXTENSION)) {
+        codecName = Lucene60PointsFormat.META_CODEC_NAME;
+      } else {
+        continue;
+      }
+      try (IndexInput in = dir.openInput(file, IOContext.READONCE)) {
+        final int headerLength = CodecUtil.indexHeaderLength(codecName, "");
+        byte[] bytes = new byte[Math.toIntExact(in.length() - headerLength - CodecUtil.footerLength())];
+        in.seek(headerLength);
+        in.readBytes(bytes, 0, bytes.length);
+        files.add(bytes);
+      }
+    }
+  }
 }
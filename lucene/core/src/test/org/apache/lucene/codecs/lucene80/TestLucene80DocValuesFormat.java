@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.LongSupplier;
@@ -45,6 +46,8 @@ import org.apache.lucene.index.BaseCompressingDocValuesFormatTestCase;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesSkipper;
+import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -61,11 +64,13 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.index.TermsEnum.SeekStatus;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.ByteBuffersDataInput;
 import org.apache.lucene.store.ByteBuffersDataOutput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.TestUtil;
 
 /**
@@ -715,6 +720,143 @@ public class TestLucene80DocValuesFormat extends BaseCompressingDocValuesFormatT
     dir.close();
   }
 
+  public void testNumericSkipIndex() throws IOException {
+    doTestSkipIndex(DocValuesType.NUMERIC);
+  }
+
+  public void testSortedNumericSkipIndex() throws IOException {
+    doTestSkipIndex(DocValuesType.SORTED_NUMERIC);
+  }
+
+  public void testSortedSkipIndex() throws IOException {
+    doTestSkipIndex(DocValuesType.SORTED);
+  }
+
+  public void testSortedSetSkipIndex() throws IOException {
+    doTestSkipIndex(DocValuesType.SORTED_SET);
+  }
+
+  private void doTestSkipIndex(DocValuesType type) throws IOException {
+    final Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setCodec(getCodec()).setMergePolicy(newLogMergePolicy()));
+    final int numDocs = atLeast(Lucene80DocValuesFormat.SKIP_INDEX_INTERVAL_SIZE * 10);
+    final int density = random().nextInt(4);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      if (density == 0 || random().nextInt(density + 1) != 0) {
+        // values are correlated with doc IDs so that blocks have narrow ranges of values
+        final long value = i / 10 + random().nextInt(100);
+        final int numValues = type == DocValuesType.SORTED_NUMERIC || type == DocValuesType.SORTED_SET ? TestUtil.nextInt(random(), 1, 3) : 1;
+        for (int j = 0; j < numValues; ++j) {
+          final BytesRef bytes = new BytesRef(String.format(Locale.ROOT, "%09d", value + j));
+          switch (type) {
+            case NUMERIC:
+              doc.add(NumericDocValuesField.indexedField("dv", value));
+              doc.add(new NumericDocValuesField("no_skip", value));
+              break;
+            case SORTED_NUMERIC:
+              doc.add(SortedNumericDocValuesField.indexedField("dv", value + j));
+              doc.add(new SortedNumericDocValuesField("no_skip", value + j));
+              break;
+            case SORTED:
+              doc.add(SortedDocValuesField.indexedField("dv", bytes));
+              doc.add(new SortedDocValuesField("no_skip", bytes));
+              break;
+            case SORTED_SET:
+              doc.add(SortedSetDocValuesField.indexedField("dv", bytes));
+              doc.add(new SortedSetDocValuesField("no_skip", bytes));
+              break;
+            default:
+              throw new AssertionError();
+          }
+        }
+      }
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    DirectoryReader reader = DirectoryReader.open(w);
+    w.close();
+    LeafReader leafReader = getOnlyLeafReader(reader);
+    assertNull(leafReader.getDocValuesSkipper("no_skip"));
+
+    // brute-force the min and max value of each document
+    final int maxDoc = leafReader.maxDoc();
+    final long[] minValues = new long[maxDoc];
+    final long[] maxValues = new long[maxDoc];
+    final FixedBitSet docsWithField = new FixedBitSet(maxDoc);
+    long globalMin = Long.MAX_VALUE;
+    long globalMax = Long.MIN_VALUE;
+    if (type == DocValuesType.NUMERIC || type == DocValuesType.SORTED_NUMERIC) {
+      SortedNumericDocValues values = DocValues.getSortedNumeric(leafReader, "dv");
+      for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+        docsWithField.set(doc);
+        minValues[doc] = values.nextValue();
+        maxValues[doc] = minValues[doc];
+        for (int i = 1; i < values.docValueCount(); ++i) {
+          maxValues[doc] = values.nextValue();
+        }
+        globalMin = Math.min(globalMin, minValues[doc]);
+        globalMax = Math.max(globalMax, maxValues[doc]);
+      }
+    } else {
+      SortedSetDocValues values = DocValues.getSortedSet(leafReader, "dv");
+      for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+        docsWithField.set(doc);
+        minValues[doc] = values.nextOrd();
+        maxValues[doc] = minValues[doc];
+        for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+          maxValues[doc] = ord;
+        }
+        globalMin = Math.min(globalMin, minValues[doc]);
+        globalMax = Math.max(globalMax, maxValues[doc]);
+      }
+    }
+
+    DocValuesSkipper skipper = leafReader.getDocValuesSkipper("dv");
+    assertNotNull(skipper);
+    assertEquals(docsWithField.cardinality(), skipper.docCount());
+    assertEquals(globalMin, skipper.minValue());
+    assertEquals(globalMax, skipper.maxValue());
+    assertTrue(skipper.numLevels() > 1);
+    assertEquals(-1, skipper.minDocID(0));
+    assertEquals(-1, skipper.maxDocID(0));
+
+    for (int target = random().nextInt(100); target < maxDoc; target = Math.max(target, skipper.maxDocID(0)) + 1 + random().nextInt(Lucene80DocValuesFormat.SKIP_INDEX_INTERVAL_SIZE * 2)) {
+      skipper.advance(target);
+      final int nextDocWithField = target < maxDoc ? docsWithField.nextSetBit(target) : DocIdSetIterator.NO_MORE_DOCS;
+      if (nextDocWithField == DocIdSetIterator.NO_MORE_DOCS) {
+        assertEquals(DocIdSetIterator.NO_MORE_DOCS, skipper.minDocID(0));
+        break;
+      }
+      assertTrue(skipper.minDocID(0) <= nextDocWithField);
+      assertTrue(skipper.maxDocID(0) >= nextDocWithField);
+      for (int level = 0; level < skipper.numLevels(); ++level) {
+        if (level > 0) {
+          assertTrue(skipper.minDocID(level) <= skipper.minDocID(level - 1));
+          assertTrue(skipper.maxDocID(level) >= skipper.maxDocID(level - 1));
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int docCount = 0;
+        for (int doc = skipper.minDocID(level); doc <= skipper.maxDocID(level); ++doc) {
+          if (docsWithField.get(doc)) {
+            min = Math.min(min, minValues[doc]);
+            max = Math.max(max, maxValues[doc]);
+            docCount++;
+          }
+        }
+        assertEquals(docCount, skipper.docCount(level));
+        assertEquals(min, skipper.minValue(level));
+        assertEquals(max, skipper.maxValue(level));
+        assertTrue(docsWithField.get(skipper.minDocID(level)));
+        assertTrue(docsWithField.get(skipper.maxDocID(level)));
+      }
+    }
+
+    reader.close();
+    dir.close();
+  }
+
   // Tests that advanceExact does not change the outcome
   private void assertDVAdvance(Directory dir, int jumpStep) throws IOException {
     DirectoryReader ir = DirectoryReader.open(dir);
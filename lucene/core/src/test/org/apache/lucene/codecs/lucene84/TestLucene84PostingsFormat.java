@@ -17,13 +17,21 @@
 package org.apache.lucene.codecs.lucene84;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.CompetitiveImpactAccumulator;
+import org.apache.lucene.codecs.FieldsProducer;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
 import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.codecs.blocktree.Stats;
 import org.apache.lucene.codecs.lucene84.Lucene84ScoreSkipReader.MutableImpactList;
@@ -31,14 +39,21 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.BasePostingsFormatTestCase;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.TestUtil;
 
 public class TestLucene84PostingsFormat extends BasePostingsFormatTestCase {
@@ -73,6 +88,148 @@ public class TestLucene84PostingsFormat extends BasePostingsFormatTestCase {
     d.close();
   }
 
+  public void testFSTLoadModes() throws Exception {
+    Directory d = newDirectory();
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()))
+        .setCodec(TestUtil.getDefaultCodec());
+    // files of compound segments are opened through the compound file
+    iwc.setUseCompoundFile(false);
+    iwc.getMergePolicy().setNoCFSRatio(0);
+    IndexWriter w = new IndexWriter(d, iwc);
+    for (int i = 0; i < 1000; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("id", Integer.toString(i), Field.Store.NO));
+      doc.add(newStringField("other", Integer.toString(i), Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    w.close();
+
+    Set<String> loadedFiles = Collections.synchronizedSet(new HashSet<>());
+    Directory dir = new FilterDirectory(d) {
+      @Override
+      public IndexInput openInput(String name, IOContext context) throws IOException {
+        if (context.load) {
+          loadedFiles.add(name);
+        }
+        return super.openInput(name, context);
+      }
+    };
+
+    // terms indices are off-heap by default
+    final long offHeapId, offHeapOther;
+    try (DirectoryReader r = DirectoryReader.open(dir)) {
+      offHeapId = termsRamBytesUsed(r, "id");
+      offHeapOther = termsRamBytesUsed(r, "other");
+      assertSeekExact(r, "id");
+    }
+    assertTrue(loadedFiles.isEmpty());
+
+    // the mode of all fields
+    try (DirectoryReader r = DirectoryReader.open(dir,
+        Collections.singletonMap(BlockTreeTermsReader.FST_MODE_KEY, BlockTreeTermsReader.FSTLoadMode.ON_HEAP))) {
+      // the on-heap terms index holds the FST bytes
+      assertTrue(termsRamBytesUsed(r, "id") > offHeapId);
+      assertTrue(termsRamBytesUsed(r, "other") > offHeapOther);
+      assertSeekExact(r, "id");
+    }
+    // only on-heap terms indices are opened with IOContext.LOAD
+    assertFalse(loadedFiles.isEmpty());
+    for (String file : loadedFiles) {
+      assertTrue(file, file.endsWith(".tip"));
+    }
+
+    // the mode of a single field takes precedence
+    Map<String, Object> readerAttributes = new HashMap<>();
+    readerAttributes.put(BlockTreeTermsReader.FST_MODE_KEY, BlockTreeTermsReader.FSTLoadMode.OFF_HEAP);
+    readerAttributes.put(BlockTreeTermsReader.FST_MODE_KEY + ".id", "ON_HEAP");
+    DirectoryReader r = DirectoryReader.open(dir, readerAttributes);
+    assertTrue(termsRamBytesUsed(r, "id") > offHeapId);
+    assertEquals(offHeapOther, termsRamBytesUsed(r, "other"));
+    assertSeekExact(r, "id");
+
+    // reopened readers keep the attributes
+    w = new IndexWriter(d, new IndexWriterConfig(new MockAnalyzer(random()))
+        .setCodec(TestUtil.getDefaultCodec())
+        .setUseCompoundFile(false));
+    Document doc = new Document();
+    doc.add(newStringField("id", "1000", Field.Store.NO));
+    w.addDocument(doc);
+    w.commit();
+    loadedFiles.clear();
+    DirectoryReader r2 = DirectoryReader.openIfChanged(r);
+    assertNotNull(r2);
+    r.close();
+    assertEquals(1, loadedFiles.size());
+    r2.close();
+
+    // and so do readers of the writer
+    w.close();
+    loadedFiles.clear();
+    w = new IndexWriter(dir, new IndexWriterConfig(new MockAnalyzer(random()))
+        .setCodec(TestUtil.getDefaultCodec())
+        .setReaderAttributes(readerAttributes));
+    try (DirectoryReader nrt = DirectoryReader.open(w)) {
+      assertEquals(nrt.leaves().size(), loadedFiles.size());
+    }
+    w.close();
+
+    expectThrows(IllegalArgumentException.class, () -> DirectoryReader.open(dir,
+        Collections.singletonMap(BlockTreeTermsReader.FST_MODE_KEY, "ON_DISK")));
+    d.close();
+  }
+
+  private static long termsRamBytesUsed(DirectoryReader r, String field) throws IOException {
+    assertEquals(1, r.leaves().size());
+    return ((FieldReader) r.leaves().get(0).reader().terms(field)).ramBytesUsed();
+  }
+
+  private static void assertSeekExact(DirectoryReader r, String field) throws IOException {
+    TermsEnum termsEnum = r.leaves().get(0).reader().terms(field).iterator();
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(termsEnum.seekExact(new BytesRef(Integer.toString(i))));
+    }
+    assertFalse(termsEnum.seekExact(new BytesRef("foo")));
+  }
+
+  public void testFSTLoadModeRespectsReadOnce() throws Exception {
+    Directory d = newDirectory();
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()))
+        .setCodec(TestUtil.getDefaultCodec())
+        .setUseCompoundFile(false);
+    IndexWriter w = new IndexWriter(d, iwc);
+    Document doc = new Document();
+    doc.add(newStringField("id", "1", Field.Store.NO));
+    w.addDocument(doc);
+    w.commit();
+    w.close();
+
+    SegmentInfo info = SegmentInfos.readLatestCommit(d).info(0).info;
+    FieldInfos fieldInfos = info.getCodec().fieldInfosFormat().read(d, info, "", IOContext.READ);
+    List<IOContext> contexts = Collections.synchronizedList(new ArrayList<>());
+    Directory dir = new FilterDirectory(d) {
+      @Override
+      public IndexInput openInput(String name, IOContext context) throws IOException {
+        if (name.endsWith(".tip")) {
+          contexts.add(context);
+        }
+        return super.openInput(name, context);
+      }
+    };
+    // the suffix of the first postings format of the per-field postings format
+    String suffix = "Lucene84_0";
+    PostingsFormat postingsFormat = new Lucene84PostingsFormat();
+    Map<String, Object> onHeap = Collections.singletonMap(BlockTreeTermsReader.FST_MODE_KEY, BlockTreeTermsReader.FSTLoadMode.ON_HEAP);
+    for (IOContext context : new IOContext[] { IOContext.READ, IOContext.READONCE }) {
+      try (FieldsProducer producer = postingsFormat.fieldsProducer(new SegmentReadState(dir, info, fieldInfos, context, suffix, onHeap))) {
+        assertTrue(producer.terms("id").iterator().seekExact(new BytesRef("1")));
+      }
+    }
+    // the READ context is upgraded to LOAD, other contexts are passed through
+    assertEquals(Arrays.asList(IOContext.LOAD, IOContext.READONCE), contexts);
+    d.close();
+  }
+
   private void shouldFail(int minItemsInBlock, int maxItemsInBlock) {
     expectThrows(IllegalArgumentException.class, () -> {
       new Lucene84PostingsFormat(minItemsInBlock, maxItemsInBlock);
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.pkfilter;
+
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.FilterCodec;
+import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.BasePostingsFormatTestCase;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.TestUtil;
+
+/**
+ * Tests for {@link PrimaryKeyFilterPostingsFormat}
+ */
+public class TestPrimaryKeyFilterPostingsFormat extends BasePostingsFormatTestCase {
+  private final Codec codec = TestUtil.alwaysPostingsFormat(new PrimaryKeyFilterPostingsFormat(TestUtil.getDefaultPostingsFormat()));
+
+  @Override
+  protected Codec getCodec() {
+    return codec;
+  }
+
+  public void testFilter() {
+    final int numTerms = atLeast(1000);
+    final PrimaryKeyFilter filter = new PrimaryKeyFilter(numTerms);
+    final Set<BytesRef> terms = new HashSet<>();
+    while (terms.size() < numTerms) {
+      terms.add(new BytesRef(TestUtil.randomUnicodeString(random(), 20)));
+    }
+    for (BytesRef term : terms) {
+      filter.add(term);
+    }
+    for (BytesRef term : terms) {
+      assertTrue(filter.mayContain(term));
+    }
+    int falsePositives = 0;
+    final int numLookups = atLeast(10000);
+    for (int i = 0; i < numLookups; i++) {
+      final BytesRef term = new BytesRef(TestUtil.randomUnicodeString(random(), 20));
+      if (terms.contains(term) == false && filter.mayContain(term)) {
+        falsePositives++;
+      }
+    }
+    // the expected false positive probability is about 1%
+    assertTrue("falsePositives=" + falsePositives, falsePositives < numLookups / 20);
+  }
+
+  public void testPrimaryKeyField() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig()
+        .setCodec(TestUtil.getDefaultCodec())
+        .setPrimaryKeyField("id");
+    IndexWriter w = new IndexWriter(dir, iwc);
+    final int numIds = atLeast(200);
+    final int numUpdates = atLeast(1000);
+    final Set<String> ids = new HashSet<>();
+    for (int i = 0; i < numUpdates; i++) {
+      final String id = Integer.toString(random().nextInt(numIds));
+      ids.add(id);
+      Document doc = new Document();
+      doc.add(new StringField("id", id, Store.NO));
+      doc.add(new StringField("other", id, Store.NO));
+      w.updateDocument(new Term("id", id), doc);
+      if (rarely()) {
+        w.commit();
+      }
+    }
+    DirectoryReader reader = DirectoryReader.open(w);
+    assertLiveIds(reader, ids);
+    for (LeafReaderContext ctx : reader.leaves()) {
+      final Terms terms = ctx.reader().terms("id");
+      final PrimaryKeyFilter filter = PrimaryKeyFilterPostingsFormat.getFilter(terms);
+      assertNotNull(filter);
+      final TermsEnum termsEnum = terms.iterator();
+      for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+        assertTrue(filter.mayContain(term));
+      }
+      assertNull(PrimaryKeyFilterPostingsFormat.getFilter(ctx.reader().terms("other")));
+    }
+    reader.close();
+    w.close();
+
+    // segments with filters can be read and merged without the primary key field
+    w = new IndexWriter(dir, newIndexWriterConfig().setCodec(TestUtil.getDefaultCodec()));
+    w.forceMerge(1);
+    reader = DirectoryReader.open(w);
+    assertLiveIds(reader, ids);
+    assertNull(PrimaryKeyFilterPostingsFormat.getFilter(reader.leaves().get(0).reader().terms("id")));
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
+  private static void assertLiveIds(DirectoryReader reader, Set<String> ids) throws IOException {
+    assertEquals(ids.size(), reader.numDocs());
+    final IndexSearcher searcher = newSearcher(reader);
+    for (String id : ids) {
+      assertEquals(1, searcher.count(new TermQuery(new Term("other", id))));
+    }
+  }
+
+  public void testRequiresPerFieldPostingsFormat() {
+    final Codec codec = new FilterCodec(TestUtil.getDefaultCodec().getName(), TestUtil.getDefaultCodec()) {
+      @Override
+      public PostingsFormat postingsFormat() {
+        return TestUtil.getDefaultPostingsFormat();
+      }
+    };
+    expectThrows(IllegalArgumentException.class, () -> PrimaryKeyFilterPostingsFormat.wrap(codec, "id"));
+  }
+}
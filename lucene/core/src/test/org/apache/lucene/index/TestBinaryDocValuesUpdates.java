@@ -1273,6 +1273,86 @@ public class TestBinaryDocValuesUpdates extends LuceneTestCase {
     dir.close();
   }
 
+  public void testStackedUpdates() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    // a single segment, so that doc IDs match ids
+    conf.setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    conf.setRAMBufferSizeMB(IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB);
+    conf.setMergePolicy(NoMergePolicy.INSTANCE);
+    final int maxStackedUpdates = TestUtil.nextInt(random(), 1, 4);
+    conf.setMaxStackedDocValuesUpdates(maxStackedUpdates);
+    IndexWriter writer = new IndexWriter(dir, conf);
+
+    final int numDocs = atLeast(1000);
+    final Long[] expected = new Long[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "doc-" + i, Store.NO));
+      doc.add(new BinaryDocValuesField("val", toBytes(i)));
+      writer.addDocument(doc);
+      expected[i] = (long) i;
+    }
+    writer.commit();
+
+    DirectoryReader reader = DirectoryReader.open(writer);
+    boolean stacked = false;
+    final int numRounds = atLeast(10);
+    for (int round = 0; round < numRounds; round++) {
+      final int numUpdates = TestUtil.nextInt(random(), 1, numDocs / 40);
+      for (int i = 0; i < numUpdates; i++) {
+        final int id = random().nextInt(numDocs);
+        final long value = random().nextLong();
+        writer.updateBinaryDocValue(new Term("id", "doc-" + id), "val", toBytes(value));
+        expected[id] = value;
+      }
+      if (round > 0 && rarely()) {
+        // removing values forces a full rewrite
+        final int id = random().nextInt(numDocs);
+        writer.updateDocValues(new Term("id", "doc-" + id), new BinaryDocValuesField("val", null));
+        expected[id] = null;
+      }
+      if (random().nextBoolean()) {
+        writer.commit();
+      }
+      DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
+      assertNotNull(newReader);
+      reader.close();
+      reader = newReader;
+
+      assertEquals(1, reader.leaves().size());
+      LeafReader leaf = reader.leaves().get(0).reader();
+      final int numLayers = StackedDocValuesProducer.getLayers(leaf.getFieldInfos().fieldInfo("val")).size();
+      assertTrue(numLayers <= maxStackedUpdates + 1);
+      stacked |= numLayers > 1;
+      BinaryDocValues values = leaf.getBinaryDocValues("val");
+      for (int doc = 0; doc < numDocs; doc++) {
+        if (expected[doc] == null) {
+          assertFalse(values.advanceExact(doc));
+        } else {
+          assertTrue(values.advanceExact(doc));
+          assertEquals(expected[doc].longValue(), getValue(values));
+        }
+      }
+    }
+    assertTrue(stacked);
+    reader.close();
+    writer.close();
+
+    // stacked layers are readable after a commit
+    reader = DirectoryReader.open(dir);
+    BinaryDocValues values = reader.leaves().get(0).reader().getBinaryDocValues("val");
+    for (int doc = 0; doc < numDocs; doc++) {
+      if (expected[doc] != null) {
+        assertEquals(doc, values.nextDoc());
+        assertEquals(expected[doc].longValue(), getValue(values));
+      }
+    }
+    assertEquals(NO_MORE_DOCS, values.nextDoc());
+    reader.close();
+    dir.close();
+  }
+
   @Nightly
   public void testTonsOfUpdates() throws Exception {
     // LUCENE-5248: make sure that when there are many updates, we don't use too much RAM
@@ -18,8 +18,20 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.TestUtil;
 import org.junit.Test;
 
 public class TestCheckIndex extends BaseTestCheckIndex {
@@ -52,8 +64,127 @@ public class TestCheckIndex extends BaseTestCheckIndex {
     testChecksumsOnlyVerbose(directory);
   }
 
+  @Test
+  public void testThreadCount() throws IOException {
+    testThreadCount(directory);
+  }
+
   @Test
   public void testObtainsLock() throws IOException {
     testObtainsLock(directory);
   }
+
+  public void testParseThreadCount() {
+    CheckIndex.Options opts = CheckIndex.parseOptions(new String[] {"-threadCount", "4", "/path/to/index"});
+    assertEquals(4, opts.threadCount);
+    assertEquals(1, CheckIndex.parseOptions(new String[] {"/path/to/index"}).threadCount);
+    expectThrows(IllegalArgumentException.class, () -> CheckIndex.parseOptions(new String[] {"-threadCount", "0", "/path/to/index"}));
+    expectThrows(IllegalArgumentException.class, () -> CheckIndex.parseOptions(new String[] {"/path/to/index", "-threadCount"}));
+  }
+
+  public void testFailFastThreadCount() throws IOException {
+    IndexWriter iw = new IndexWriter(directory, newIndexWriterConfig(new MockAnalyzer(random()))
+                                                  .setCodec(TestUtil.getDefaultCodec())
+                                                  .setMaxBufferedDocs(TestUtil.nextInt(random(), 10, 30))
+                                                  .setMergePolicy(NoMergePolicy.INSTANCE)
+                                                  .setUseCompoundFile(false));
+    for (int i = 0; i < 200; i++) {
+      Document doc = new Document();
+      doc.add(new StoredField("stored", i));
+      doc.add(new StringField("id", Integer.toString(i), Store.NO));
+      doc.add(new NumericDocValuesField("dv", i));
+      iw.addDocument(doc);
+    }
+    iw.close();
+
+    // stored fields fail to read when they are checked, while other parts of the segment are read
+    final AtomicInteger readsAfterClose = new AtomicInteger();
+    Directory dir = new FilterDirectory(directory) {
+      @Override
+      public IndexInput openInput(String name, IOContext context) throws IOException {
+        final boolean fail = name.endsWith(".fdt");
+        return new CheckClosedIndexInput(in.openInput(name, context), new AtomicBoolean(), false, fail, readsAfterClose);
+      }
+    };
+    CheckIndex checker = new CheckIndex(dir);
+    checker.setFailFast(true);
+    checker.setThreadCount(TestUtil.nextInt(random(), 2, 8));
+    IOException e = expectThrows(IOException.class, checker::checkIndex);
+    assertEquals("injected", e.getMessage());
+    checker.close();
+    // segment readers are only closed once all checks that read them are done
+    assertEquals(0, readsAfterClose.get());
+  }
+
+  private static class CheckClosedIndexInput extends IndexInput {
+    private final IndexInput in;
+    private final AtomicBoolean closed;
+    private final boolean isClone;
+    private final boolean fail;
+    private final AtomicInteger readsAfterClose;
+
+    CheckClosedIndexInput(IndexInput in, AtomicBoolean closed, boolean isClone, boolean fail, AtomicInteger readsAfterClose) {
+      super(in.toString());
+      this.in = in;
+      this.closed = closed;
+      this.isClone = isClone;
+      this.fail = fail;
+      this.readsAfterClose = readsAfterClose;
+    }
+
+    private void beforeRead() throws IOException {
+      if (closed.get()) {
+        readsAfterClose.incrementAndGet();
+      }
+      if (fail && Thread.currentThread().getName().startsWith("CheckIndex-parts")) {
+        throw new IOException("injected");
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (isClone == false) {
+        closed.set(true);
+        in.close();
+      }
+    }
+
+    @Override
+    public long getFilePointer() {
+      return in.getFilePointer();
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+      beforeRead();
+      in.seek(pos);
+    }
+
+    @Override
+    public long length() {
+      return in.length();
+    }
+
+    @Override
+    public IndexInput slice(String sliceDescription, long offset, long length) throws IOException {
+      return new CheckClosedIndexInput(in.slice(sliceDescription, offset, length), closed, true, fail, readsAfterClose);
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+      beforeRead();
+      return in.readByte();
+    }
+
+    @Override
+    public void readBytes(byte[] b, int offset, int len) throws IOException {
+      beforeRead();
+      in.readBytes(b, offset, len);
+    }
+
+    @Override
+    public CheckClosedIndexInput clone() {
+      return new CheckClosedIndexInput(in.clone(), closed, true, fail, readsAfterClose);
+    }
+  }
 }
@@ -18,7 +18,11 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -26,6 +30,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
@@ -657,4 +663,157 @@ public class TestConcurrentMergeScheduler extends LuceneTestCase {
 
     assertFalse(failed.get());
   }
+
+  public void testIntraMergeExecutor() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+    Set<String> taskThreads = Collections.synchronizedSet(new HashSet<>());
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler() {
+      @Override
+      public Executor getIntraMergeExecutor(MergePolicy.OneMerge merge) {
+        Executor executor = super.getIntraMergeExecutor(merge);
+        return command -> executor.execute(() -> {
+          taskThreads.add(Thread.currentThread().getName());
+          command.run();
+        });
+      }
+    };
+    cms.setMaxMergesAndThreads(4, 4);
+    iwc.setMergeScheduler(cms);
+    IndexWriter w = new IndexWriter(dir, iwc);
+    for (int i = 0; i < 2; i++) {
+      for (int j = 0; j < 100; j++) {
+        Document doc = new Document();
+        doc.add(newStringField("id", "" + j, Field.Store.YES));
+        doc.add(new NumericDocValuesField("dv", j));
+        doc.add(new IntPoint("point", j));
+        w.addDocument(doc);
+      }
+      w.commit();
+    }
+    w.getConfig().setMergePolicy(newTieredMergePolicy());
+    // a single merge, so that spare threads are available to merge stored fields, doc values and points
+    w.forceMerge(1);
+    w.close();
+    dir.close();
+
+    assertTrue(taskThreads.toString(), taskThreads.stream().anyMatch(name -> name.startsWith("Lucene Merge Worker")));
+  }
+
+  public void testPrioritizedNonSpinningDefaults() throws Exception {
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
+    assertFalse(cms.getPrioritizeMerges());
+    cms.setPrioritizeMerges(true);
+    assertTrue(cms.getPrioritizeMerges());
+    cms.setDefaultMaxMergesAndThreads(false);
+    int threadCount = cms.getMaxThreadCount();
+    assertEquals(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), threadCount);
+    assertEquals(5+threadCount, cms.getMaxMergeCount());
+  }
+
+  public void testPrioritizedMergesPreempt() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+    AtomicInteger mergeCount = new AtomicInteger();
+    AtomicBoolean failed = new AtomicBoolean();
+    CountDownLatch preempted = new CountDownLatch(1);
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler() {
+      @Override
+      protected double getMergePriority(MergePolicy.OneMerge merge) {
+        // merges that are registered later have a higher priority
+        return mergeCount.incrementAndGet();
+      }
+
+      @Override
+      protected void doMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
+        try {
+          MergeThread mergeThread = (MergeThread) Thread.currentThread();
+          if (mergeThread.priority == 1) {
+            // wait for the next merge to pause this one
+            long deadlineNS = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (mergeThread.rateLimiter.getMBPerSec() != 0.0) {
+              assertTrue("merge was not preempted", System.nanoTime() < deadlineNS);
+              Thread.sleep(10);
+            }
+            assertTrue(getPausedMergeCount() >= 1);
+            preempted.countDown();
+          } else {
+            preempted.await();
+          }
+          super.doMerge(writer, merge);
+        } catch (Throwable t) {
+          failed.set(true);
+          preempted.countDown();
+          writer.mergeFinish(merge);
+          throw new RuntimeException(t);
+        }
+      }
+    };
+    cms.setPrioritizeMerges(true);
+    cms.setMaxMergesAndThreads(10, 1);
+    iwc.setMergeScheduler(cms);
+    iwc.setMaxBufferedDocs(2);
+    LogMergePolicy lmp = newLogMergePolicy();
+    lmp.setMergeFactor(2);
+    iwc.setMergePolicy(lmp);
+
+    IndexWriter w = new IndexWriter(dir, iwc);
+    Document doc = new Document();
+    doc.add(newStringField("field", "value", Field.Store.YES));
+    while (preempted.getCount() != 0) {
+      w.addDocument(doc);
+    }
+    w.close();
+    dir.close();
+
+    assertFalse(failed.get());
+    assertTrue(cms.getPreemptedMergeCount() >= 1);
+    assertEquals(0, cms.getPausedMergeCount());
+  }
+
+  public void testStallMetrics() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
+    AtomicBoolean failed = new AtomicBoolean();
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler() {
+      @Override
+      protected void doMerge(IndexWriter writer, MergePolicy.OneMerge merge) throws IOException {
+        try {
+          // block merges until the indexing thread stalls
+          long deadlineNS = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+          while (getStallCount() == 0) {
+            assertTrue("indexing thread did not stall", System.nanoTime() < deadlineNS);
+            Thread.sleep(10);
+          }
+          super.doMerge(writer, merge);
+        } catch (Throwable t) {
+          failed.set(true);
+          writer.mergeFinish(merge);
+          throw new RuntimeException(t);
+        }
+      }
+    };
+    assertEquals(0, cms.getStallCount());
+    assertEquals(0, cms.getTotalStallTimeMS());
+    cms.setMaxMergesAndThreads(1, 1);
+    iwc.setMergeScheduler(cms);
+    iwc.setMaxBufferedDocs(2);
+    LogMergePolicy lmp = newLogMergePolicy();
+    lmp.setMergeFactor(2);
+    iwc.setMergePolicy(lmp);
+
+    IndexWriter w = new IndexWriter(dir, iwc);
+    Document doc = new Document();
+    doc.add(newStringField("field", "value", Field.Store.YES));
+    while (cms.getStallCount() == 0 && failed.get() == false) {
+      w.addDocument(doc);
+    }
+    w.close();
+    dir.close();
+
+    assertFalse(failed.get());
+    assertTrue(cms.getStallCount() >= 1);
+    assertTrue(cms.getTotalStallTimeMS() >= 0);
+  }
 }
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.ByteBlockPool;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.IntBlockPool;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestDocumentsWriterBlockPool extends LuceneTestCase {
+
+  public void testReuseByteBlocks() {
+    DocumentsWriterBlockPool pool = new DocumentsWriterBlockPool(2 * ByteBlockPool.BYTE_BLOCK_SIZE);
+    Counter bytesUsed = Counter.newCounter();
+    ByteBlockPool.Allocator allocator = pool.newByteBlockAllocator(bytesUsed);
+    byte[][] blocks = new byte[3][];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = allocator.getByteBlock();
+      blocks[i][random().nextInt(blocks[i].length)] = 42;
+    }
+    assertEquals(3 * ByteBlockPool.BYTE_BLOCK_SIZE, bytesUsed.get());
+    byte[] first = blocks[0];
+    byte[] second = blocks[1];
+
+    allocator.recycleByteBlocks(blocks, 0, blocks.length);
+    assertEquals(0, bytesUsed.get());
+    for (byte[] block : blocks) {
+      assertNull(block);
+    }
+    // the third block doesn't fit in the pool
+    assertEquals(2 * ByteBlockPool.BYTE_BLOCK_SIZE, pool.getPooledBytes());
+
+    // another allocator reuses recycled blocks, which are zero-filled
+    Counter otherBytesUsed = Counter.newCounter();
+    ByteBlockPool.Allocator other = pool.newByteBlockAllocator(otherBytesUsed);
+    for (int i = 0; i < 2; i++) {
+      byte[] block = other.getByteBlock();
+      assertTrue(block == first || block == second);
+      for (byte b : block) {
+        assertEquals(0, b);
+      }
+    }
+    assertEquals(0, pool.getPooledBytes());
+    assertEquals(2 * ByteBlockPool.BYTE_BLOCK_SIZE, otherBytesUsed.get());
+    byte[] block = other.getByteBlock();
+    assertTrue(block != first && block != second);
+    assertEquals(3 * ByteBlockPool.BYTE_BLOCK_SIZE, otherBytesUsed.get());
+  }
+
+  public void testReuseIntBlocks() {
+    final int intBlockBytes = IntBlockPool.INT_BLOCK_SIZE * Integer.BYTES;
+    DocumentsWriterBlockPool pool = new DocumentsWriterBlockPool(ByteBlockPool.BYTE_BLOCK_SIZE + intBlockBytes);
+    Counter bytesUsed = Counter.newCounter();
+    IntBlockPool.Allocator intAllocator = pool.newIntBlockAllocator(bytesUsed);
+    ByteBlockPool.Allocator byteAllocator = pool.newByteBlockAllocator(bytesUsed);
+    int[][] intBlocks = new int[][] { intAllocator.getIntBlock() };
+    byte[][] byteBlocks = new byte[][] { byteAllocator.getByteBlock() };
+    intBlocks[0][0] = 42;
+    int[] intBlock = intBlocks[0];
+    assertEquals(ByteBlockPool.BYTE_BLOCK_SIZE + intBlockBytes, bytesUsed.get());
+
+    intAllocator.recycleIntBlocks(intBlocks, 0, 1);
+    byteAllocator.recycleByteBlocks(byteBlocks, 0, 1);
+    assertEquals(0, bytesUsed.get());
+    assertEquals(ByteBlockPool.BYTE_BLOCK_SIZE + intBlockBytes, pool.getPooledBytes());
+
+    int[] reused = intAllocator.getIntBlock();
+    assertSame(intBlock, reused);
+    assertEquals(0, reused[0]);
+    assertEquals(ByteBlockPool.BYTE_BLOCK_SIZE, pool.getPooledBytes());
+  }
+
+  public void testClose() {
+    DocumentsWriterBlockPool pool = new DocumentsWriterBlockPool(4 * ByteBlockPool.BYTE_BLOCK_SIZE);
+    Counter bytesUsed = Counter.newCounter();
+    ByteBlockPool.Allocator allocator = pool.newByteBlockAllocator(bytesUsed);
+    byte[][] blocks = new byte[][] { allocator.getByteBlock(), allocator.getByteBlock() };
+    allocator.recycleByteBlocks(blocks, 0, 1);
+    assertEquals(ByteBlockPool.BYTE_BLOCK_SIZE, pool.getPooledBytes());
+    pool.close();
+    assertEquals(0, pool.getPooledBytes());
+    // blocks that are recycled after closing are not pooled anymore
+    allocator.recycleByteBlocks(blocks, 1, 2);
+    assertEquals(0, pool.getPooledBytes());
+    assertEquals(0, bytesUsed.get());
+  }
+
+  public void testIllegalSize() {
+    expectThrows(IllegalArgumentException.class, () -> new DocumentsWriterBlockPool(-1));
+  }
+
+  public void testOnlyRecycleOnFlush() throws IOException {
+    FieldType vectorsType = new FieldType(TextField.TYPE_NOT_STORED);
+    vectorsType.setStoreTermVectors(true);
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()))
+        .setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+        .setRAMBufferSizeMB(256)
+        .setMergePolicy(NoMergePolicy.INSTANCE)
+        .setRAMBlockPoolSizeMB(64);
+    try (Directory dir = newDirectory();
+         IndexWriter w = new IndexWriter(dir, iwc)) {
+      final int numDocs = atLeast(20);
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = new Document();
+        doc.add(new Field("vectors", TestUtil.randomSimpleString(random(), 20), vectorsType));
+        w.addDocument(doc);
+        // term vectors release their blocks after every document, but these blocks are not pooled
+        assertEquals(0, w.getDocsWriter().getPooledBlockBytes());
+      }
+      w.flush();
+      final long pooledBytes = w.getDocsWriter().getPooledBlockBytes();
+      assertTrue(pooledBytes > 0);
+      assertTrue(w.ramBytesUsed() >= pooledBytes);
+    }
+  }
+
+  public void testIndexing() throws IOException {
+    final long seed = random().nextLong();
+    final int numDocs = atLeast(500);
+    try (Directory expectedDir = newDirectory();
+         Directory actualDir = newDirectory()) {
+      indexDocs(expectedDir, seed, numDocs, 0);
+      indexDocs(actualDir, seed, numDocs, 64);
+      try (DirectoryReader expected = DirectoryReader.open(expectedDir);
+           DirectoryReader actual = DirectoryReader.open(actualDir)) {
+        assertEquals(expected.leaves().size(), actual.leaves().size());
+        assertReaderEquals("pooled blocks", expected, actual);
+      }
+    }
+  }
+
+  private static void indexDocs(Directory dir, long seed, int numDocs, double blockPoolSizeMB) throws IOException {
+    IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(new Random(seed)))
+        .setMaxBufferedDocs(50)
+        .setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+        .setMergePolicy(NoMergePolicy.INSTANCE)
+        .setRAMBlockPoolSizeMB(blockPoolSizeMB);
+    FieldType vectorsType = new FieldType(TextField.TYPE_NOT_STORED);
+    vectorsType.setStoreTermVectors(true);
+    vectorsType.setStoreTermVectorPositions(true);
+    vectorsType.setStoreTermVectorOffsets(true);
+    Random random = new Random(seed);
+    try (IndexWriter w = new IndexWriter(dir, iwc)) {
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = new Document();
+        doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+        doc.add(new TextField("body", TestUtil.randomAnalysisString(random, 200, false), Field.Store.NO));
+        doc.add(new Field("vectors", TestUtil.randomSimpleString(random, 20) + " " + TestUtil.randomSimpleString(random, 20), vectorsType));
+        doc.add(new IntPoint("point", random.nextInt()));
+        w.addDocument(doc);
+      }
+      if (blockPoolSizeMB > 0) {
+        assertTrue(w.getDocsWriter().getPooledBlockBytes() > 0);
+      } else {
+        assertEquals(0, w.getDocsWriter().getPooledBlockBytes());
+      }
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestIndexWriterAsync extends LuceneTestCase {
+
+  private IndexWriterConfig newAsyncConfig() {
+    return newIndexWriterConfig(new MockAnalyzer(random()))
+        .setAsyncIndexingThreadCount(TestUtil.nextInt(random(), 1, 4))
+        .setAsyncIndexingQueueSize(TestUtil.nextInt(random(), 1, 16));
+  }
+
+  private static List<Document> newBatch(int firstId, int numDocs) {
+    List<Document> batch = new ArrayList<>();
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(firstId + i), Field.Store.YES));
+      doc.add(new TextField("body", "some text " + (firstId + i), Field.Store.NO));
+      batch.add(doc);
+    }
+    return batch;
+  }
+
+  private static void assertUniqueIds(IndexReader r, int numIds) throws IOException {
+    IndexSearcher searcher = newSearcher(r);
+    for (int id = 0; id < numIds; id++) {
+      assertEquals(1, searcher.count(new TermQuery(new Term("id", Integer.toString(id)))));
+    }
+  }
+
+  public void testAddDocumentsAsync() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newAsyncConfig());
+    int numBatches = atLeast(50);
+    int numDocs = 0;
+    List<CompletableFuture<Long>> futures = new ArrayList<>();
+    for (int i = 0; i < numBatches; i++) {
+      int batchSize = TestUtil.nextInt(random(), 1, 20);
+      futures.add(w.addDocumentsAsync(newBatch(numDocs, batchSize)));
+      numDocs += batchSize;
+    }
+    Set<Long> seqNos = new HashSet<>();
+    for (CompletableFuture<Long> future : futures) {
+      long seqNo = future.get();
+      assertTrue(seqNo > 0);
+      assertTrue(seqNos.add(seqNo));
+    }
+    w.commit();
+    DirectoryReader r = DirectoryReader.open(dir);
+    assertEquals(numDocs, r.numDocs());
+    assertUniqueIds(r, numDocs);
+    r.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testUpdateDocumentsAsync() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newAsyncConfig());
+    int numIds = TestUtil.nextInt(random(), 10, 50);
+    int numUpdates = atLeast(200);
+    List<CompletableFuture<Long>> futures = new ArrayList<>();
+    for (int i = 0; i < numUpdates; i++) {
+      int id = random().nextInt(numIds);
+      futures.add(w.updateDocumentsAsync(new Term("id", Integer.toString(id)), newBatch(id, 1)));
+    }
+    for (int id = 0; id < numIds; id++) {
+      futures.add(w.updateDocumentsAsync(new Term("id", Integer.toString(id)), newBatch(id, 1)));
+    }
+    for (CompletableFuture<Long> future : futures) {
+      future.get();
+    }
+    DirectoryReader r = DirectoryReader.open(w);
+    assertEquals(numIds, r.numDocs());
+    assertUniqueIds(r, numIds);
+    r.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testFailedBatch() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newAsyncConfig());
+    Document doc = new Document();
+    // immense terms are rejected
+    doc.add(new StringField("id", new String(new char[IndexWriter.MAX_TERM_LENGTH + 1]).replace('\0', 'a'), Field.Store.NO));
+    CompletableFuture<Long> failed = w.addDocumentsAsync(List.of(doc));
+    ExecutionException e = expectThrows(ExecutionException.class, failed::get);
+    assertTrue(e.getCause() instanceof IllegalArgumentException);
+
+    // the writer is still usable
+    w.addDocumentsAsync(newBatch(0, 3)).get();
+    w.commit();
+    DirectoryReader r = DirectoryReader.open(dir);
+    assertEquals(3, r.numDocs());
+    r.close();
+    w.close();
+    dir.close();
+  }
+
+  public void testCloseIndexesPendingBatches() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newAsyncConfig());
+    int numBatches = atLeast(20);
+    List<CompletableFuture<Long>> futures = new ArrayList<>();
+    for (int i = 0; i < numBatches; i++) {
+      futures.add(w.addDocumentsAsync(newBatch(10 * i, 10)));
+    }
+    w.close();
+    for (CompletableFuture<Long> future : futures) {
+      assertTrue(future.isDone());
+      future.get();
+    }
+    expectThrows(AlreadyClosedException.class, () -> w.addDocumentsAsync(newBatch(0, 1)));
+
+    DirectoryReader r = DirectoryReader.open(dir);
+    assertEquals(10 * numBatches, r.numDocs());
+    r.close();
+    dir.close();
+  }
+
+  public void testRollbackFailsPendingBatches() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newAsyncConfig());
+    int numBatches = atLeast(20);
+    List<CompletableFuture<Long>> futures = new ArrayList<>();
+    for (int i = 0; i < numBatches; i++) {
+      futures.add(w.addDocumentsAsync(newBatch(10 * i, 10)));
+    }
+    w.rollback();
+    for (CompletableFuture<Long> future : futures) {
+      assertTrue(future.isDone());
+      if (future.isCompletedExceptionally()) {
+        ExecutionException e = expectThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause().toString(), e.getCause() instanceof AlreadyClosedException);
+      }
+    }
+    expectThrows(AlreadyClosedException.class, () -> w.addDocumentsAsync(newBatch(0, 1)));
+    assertFalse(DirectoryReader.indexExists(dir));
+    dir.close();
+  }
+}
@@ -75,6 +75,13 @@ public class TestIndexWriterConfig extends LuceneTestCase {
     assertEquals(InfoStream.getDefault(), conf.getInfoStream());
     assertEquals(IndexWriterConfig.DEFAULT_USE_COMPOUND_FILE_SYSTEM, conf.getUseCompoundFile());
     assertTrue(conf.isCheckPendingFlushOnUpdate());
+    assertNull(conf.getPrimaryKeyField());
+    assertEquals(IndexWriterConfig.DEFAULT_MAX_FULL_FLUSH_MERGE_WAIT_MILLIS, conf.getMaxFullFlushMergeWaitMillis());
+    assertEquals(IndexWriterConfig.DEFAULT_MAX_STACKED_DOC_VALUES_UPDATES, conf.getMaxStackedDocValuesUpdates());
+    assertEquals(Runtime.getRuntime().availableProcessors(), conf.getAsyncIndexingThreadCount());
+    assertEquals(IndexWriterConfig.DEFAULT_ASYNC_INDEXING_QUEUE_SIZE, conf.getAsyncIndexingQueueSize());
+    assertEquals(IndexWriterConfig.DEFAULT_RAM_BLOCK_POOL_SIZE_MB, conf.getRAMBlockPoolSizeMB(), 0.0);
+    assertTrue(conf.getReaderAttributes().isEmpty());
     // Sanity check - validate that all getters are covered.
     Set<String> getters = new HashSet<>();
     getters.add("getAnalyzer");
@@ -101,6 +108,13 @@ public class TestIndexWriterConfig extends LuceneTestCase {
     getters.add("getUseCompoundFile");
     getters.add("isCheckPendingFlushOnUpdate");
     getters.add("getSoftDeletesField");
+    getters.add("getPrimaryKeyField");
+    getters.add("getMaxFullFlushMergeWaitMillis");
+    getters.add("getMaxStackedDocValuesUpdates");
+    getters.add("getAsyncIndexingThreadCount");
+    getters.add("getAsyncIndexingQueueSize");
+    getters.add("getRAMBlockPoolSizeMB");
+    getters.add("getReaderAttributes");
     
     for (Method m : IndexWriterConfig.class.getDeclaredMethods()) {
       if (m.getDeclaringClass() == IndexWriterConfig.class && m.getName().startsWith("get")) {
@@ -258,6 +272,22 @@ public class TestIndexWriterConfig extends LuceneTestCase {
     expectThrows(IllegalArgumentException.class, () -> {
       conf.setRAMPerThreadHardLimitMB(0);
     });
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setAsyncIndexingThreadCount(0);
+    });
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setAsyncIndexingQueueSize(0);
+    });
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setRAMBlockPoolSizeMB(-1);
+    });
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      conf.setRAMBlockPoolSizeMB(Double.NaN);
+    });
     
     // Test MergePolicy
     assertEquals(TieredMergePolicy.class, conf.getMergePolicy().getClass());
@@ -32,6 +32,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.codecs.pkfilter.PrimaryKeyFilter;
+import org.apache.lucene.codecs.pkfilter.PrimaryKeyFilterPostingsFormat;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
@@ -41,6 +43,7 @@ import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.MockDirectoryWrapper;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase.SuppressCodecs;
@@ -1395,4 +1398,52 @@ public class TestIndexWriterDelete extends LuceneTestCase {
     w.close();
     dir.close();
   }
+
+  public void testPrimaryKeyFilterRejectsAbsentKeys() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()))
+        .setCodec(TestUtil.getDefaultCodec())
+        .setMergePolicy(NoMergePolicy.INSTANCE)
+        .setReaderPooling(true)
+        .setPrimaryKeyField("id");
+    IndexWriter w = new IndexWriter(dir, iwc);
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "old" + i, Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.flush();
+    final List<SegmentCommitInfo> oldInfos = new ArrayList<>(w.listOfSegmentCommitInfos());
+
+    // none of these keys exist in the old segments
+    final int numUpdates = atLeast(100);
+    for (int i = 0; i < numUpdates; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "new" + i, Field.Store.NO));
+      w.updateDocument(new Term("id", "new" + i), doc);
+    }
+    w.flush();
+
+    // deletes are resolved against the writer's pooled readers, which hold the filters that
+    // record lookups
+    for (SegmentCommitInfo info : oldInfos) {
+      ReadersAndUpdates rld = w.getPooledInstance(info, false);
+      assertNotNull(rld);
+      SegmentReader reader = rld.getReader(IOContext.READ);
+      try {
+        PrimaryKeyFilter filter = PrimaryKeyFilterPostingsFormat.getFilter(reader.terms("id"));
+        assertNotNull(filter);
+        assertEquals(numUpdates, filter.getLookupCount());
+        assertEquals(numUpdates, filter.getRejectionCount() + filter.getFalsePositiveCount());
+        assertTrue(filter.getRejectionCount() > 0);
+        assertEquals(0, reader.numDeletedDocs());
+      } finally {
+        rld.release(reader);
+      }
+    }
+
+    w.close();
+    dir.close();
+  }
 }
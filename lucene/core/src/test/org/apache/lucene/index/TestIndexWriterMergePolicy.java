@@ -18,6 +18,8 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
@@ -228,6 +230,107 @@ public class TestIndexWriterMergePolicy extends LuceneTestCase {
     dir.close();
   }
 
+  /** Merges all segments that are not already being merged on full flushes. */
+  private static class MergeAllOnFullFlushMergePolicy extends FilterMergePolicy {
+
+    MergeAllOnFullFlushMergePolicy() {
+      super(NoMergePolicy.INSTANCE);
+    }
+
+    @Override
+    public MergeSpecification findFullFlushMerges(MergeTrigger mergeTrigger, SegmentInfos segmentInfos, MergeContext mergeContext) {
+      List<SegmentCommitInfo> segments = new ArrayList<>();
+      for (SegmentCommitInfo info : segmentInfos) {
+        if (mergeContext.getMergingSegments().contains(info) == false) {
+          segments.add(info);
+        }
+      }
+      if (segments.size() < 2) {
+        return null;
+      }
+      MergeSpecification spec = new MergeSpecification();
+      spec.add(new OneMerge(segments));
+      return spec;
+    }
+  }
+
+  public void testMergeOnCommit() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+        .setMergePolicy(new MergeAllOnFullFlushMergePolicy())
+        .setMergeScheduler(new SerialMergeScheduler())
+        .setMaxFullFlushMergeWaitMillis(Integer.MAX_VALUE));
+
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 10; j++) {
+        addDoc(writer);
+      }
+      writer.flush();
+    }
+    writer.commit();
+    SegmentInfos sis = SegmentInfos.readLatestCommit(dir);
+    assertEquals(1, sis.size());
+    assertEquals(50, sis.totalMaxDoc());
+    writer.close();
+
+    // the segment counter of the commit must account for the merged segment
+    writer = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+        .setMergePolicy(NoMergePolicy.INSTANCE));
+    addDoc(writer);
+    writer.commit();
+    DirectoryReader reader = DirectoryReader.open(dir);
+    assertEquals(2, reader.leaves().size());
+    assertEquals(51, reader.numDocs());
+    reader.close();
+    writer.close();
+    dir.close();
+  }
+
+  public void testMergeOnGetReader() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+        .setMergePolicy(new MergeAllOnFullFlushMergePolicy())
+        .setMergeScheduler(new SerialMergeScheduler())
+        .setMaxFullFlushMergeWaitMillis(Integer.MAX_VALUE));
+
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 10; j++) {
+        addDoc(writer);
+      }
+      writer.flush();
+    }
+    DirectoryReader reader = DirectoryReader.open(writer);
+    assertEquals(1, reader.leaves().size());
+    assertEquals(50, reader.numDocs());
+
+    addDoc(writer);
+    DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
+    assertNotNull(newReader);
+    reader.close();
+    assertEquals(1, newReader.leaves().size());
+    assertEquals(51, newReader.numDocs());
+    newReader.close();
+    writer.close();
+    dir.close();
+  }
+
+  public void testNoMergeOnFullFlushByDefault() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random()))
+        .setMergePolicy(new MergeAllOnFullFlushMergePolicy()));
+    for (int i = 0; i < 3; i++) {
+      addDoc(writer);
+      writer.flush();
+    }
+    DirectoryReader reader = DirectoryReader.open(writer);
+    assertEquals(3, reader.leaves().size());
+    reader.close();
+    writer.commit();
+    assertEquals(3, SegmentInfos.readLatestCommit(dir).size());
+    writer.close();
+    dir.close();
+  }
+
   private void addDoc(IndexWriter writer) throws IOException {
     Document doc = new Document();
     doc.add(newTextField("content", "aaa", Field.Store.NO));
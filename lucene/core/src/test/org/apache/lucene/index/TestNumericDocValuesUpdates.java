@@ -29,7 +29,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.DocValuesFormat;
+import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.codecs.asserting.AssertingCodec;
 import org.apache.lucene.codecs.asserting.AssertingDocValuesFormat;
 import org.apache.lucene.document.BinaryDocValuesField;
@@ -40,6 +42,7 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Sort;
@@ -47,6 +50,8 @@ import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.NRTCachingDirectory;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
@@ -1512,6 +1517,193 @@ public class TestNumericDocValuesUpdates extends LuceneTestCase {
     dir.close();
   }
 
+  public void testStackedUpdates() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    // a single segment, so that doc IDs match ids
+    conf.setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    conf.setRAMBufferSizeMB(IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB);
+    conf.setMergePolicy(NoMergePolicy.INSTANCE);
+    final int maxStackedUpdates = TestUtil.nextInt(random(), 1, 4);
+    conf.setMaxStackedDocValuesUpdates(maxStackedUpdates);
+    IndexWriter writer = new IndexWriter(dir, conf);
+
+    final int numDocs = atLeast(1000);
+    final Long[] expected = new Long[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "doc-" + i, Store.NO));
+      doc.add(new NumericDocValuesField("val", i));
+      writer.addDocument(doc);
+      expected[i] = (long) i;
+    }
+    writer.commit();
+
+    DirectoryReader reader = DirectoryReader.open(writer);
+    boolean stacked = false;
+    final int numRounds = atLeast(10);
+    for (int round = 0; round < numRounds; round++) {
+      final int numUpdates = TestUtil.nextInt(random(), 1, numDocs / 40);
+      for (int i = 0; i < numUpdates; i++) {
+        final int id = random().nextInt(numDocs);
+        final long value = random().nextLong();
+        writer.updateNumericDocValue(new Term("id", "doc-" + id), "val", value);
+        expected[id] = value;
+      }
+      if (round > 0 && rarely()) {
+        // removing values forces a full rewrite
+        final int id = random().nextInt(numDocs);
+        writer.updateDocValues(new Term("id", "doc-" + id), new NumericDocValuesField("val", (Long) null));
+        expected[id] = null;
+      }
+      if (random().nextBoolean()) {
+        writer.commit();
+      }
+      DirectoryReader newReader = DirectoryReader.openIfChanged(reader);
+      assertNotNull(newReader);
+      reader.close();
+      reader = newReader;
+
+      assertEquals(1, reader.leaves().size());
+      LeafReader leaf = reader.leaves().get(0).reader();
+      final int numLayers = StackedDocValuesProducer.getLayers(leaf.getFieldInfos().fieldInfo("val")).size();
+      assertTrue(numLayers <= maxStackedUpdates + 1);
+      stacked |= numLayers > 1;
+      NumericDocValues values = leaf.getNumericDocValues("val");
+      for (int doc = 0; doc < numDocs; doc++) {
+        if (expected[doc] == null) {
+          assertFalse(values.advanceExact(doc));
+        } else {
+          assertTrue(values.advanceExact(doc));
+          assertEquals(expected[doc].longValue(), values.longValue());
+        }
+      }
+    }
+    assertTrue(stacked);
+    reader.close();
+    writer.close();
+
+    // stacked layers are readable after a commit
+    reader = DirectoryReader.open(dir);
+    NumericDocValues values = reader.leaves().get(0).reader().getNumericDocValues("val");
+    for (int doc = 0; doc < numDocs; doc++) {
+      if (expected[doc] != null) {
+        assertEquals(doc, values.nextDoc());
+        assertEquals(expected[doc].longValue(), values.longValue());
+      }
+    }
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, values.nextDoc());
+    reader.close();
+    dir.close();
+  }
+
+  public void testStackedUpdatesCommitVersion() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    conf.setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    conf.setRAMBufferSizeMB(IndexWriterConfig.DEFAULT_RAM_BUFFER_SIZE_MB);
+    conf.setMergePolicy(NoMergePolicy.INSTANCE);
+    conf.setMaxStackedDocValuesUpdates(2);
+    IndexWriter writer = new IndexWriter(dir, conf);
+    for (int i = 0; i < 100; i++) {
+      writer.addDocument(doc(i));
+    }
+    writer.commit();
+    assertEquals(SegmentInfos.VERSION_74, readCommitVersion(dir));
+
+    // a sparse update is stacked, the commit needs a version that older readers refuse
+    writer.updateNumericDocValue(new Term("id", "doc-3"), "val", 42L);
+    writer.commit();
+    assertEquals(SegmentInfos.VERSION_90, readCommitVersion(dir));
+    assertTrue(SegmentInfos.readLatestCommit(dir).info(0).hasStackedDocValuesUpdates());
+
+    // removing a value rewrites the field in full, which collapses its stack
+    writer.updateDocValues(new Term("id", "doc-5"), new NumericDocValuesField("val", (Long) null));
+    writer.commit();
+    assertEquals(SegmentInfos.VERSION_74, readCommitVersion(dir));
+    assertFalse(SegmentInfos.readLatestCommit(dir).info(0).hasStackedDocValuesUpdates());
+
+    writer.close();
+    dir.close();
+  }
+
+  private static int readCommitVersion(Directory dir) throws IOException {
+    try (IndexInput in = dir.openInput(SegmentInfos.getLastCommitSegmentsFileName(dir), IOContext.READONCE)) {
+      assertEquals(CodecUtil.CODEC_MAGIC, in.readInt());
+      return CodecUtil.checkHeaderNoMagic(in, "segments", SegmentInfos.VERSION_70, Integer.MAX_VALUE);
+    }
+  }
+
+  public void testStackedAdvanceExactAfterMiss() throws IOException {
+    final NumericDocValues bottom = docValues(new int[] { 3, 5, 7 }, new long[] { 1, 2, 3 });
+    final NumericDocValues top = docValues(new int[] { 7 }, new long[] { 4 });
+    StackedDocValuesProducer producer = new StackedDocValuesProducer(new DocValuesProducer[] {
+        numericProducer(bottom), numericProducer(top) });
+    NumericDocValues values = producer.getNumeric(null);
+
+    // the top layer has no value for 5 and is left positioned on it
+    assertTrue(values.advanceExact(5));
+    assertEquals(2, values.longValue());
+    assertTrue(values.advanceExact(5));
+    assertEquals(2, values.longValue());
+    assertEquals(7, values.nextDoc());
+    assertEquals(4, values.longValue());
+    assertEquals(DocIdSetIterator.NO_MORE_DOCS, values.nextDoc());
+  }
+
+  private static DocValuesProducer numericProducer(NumericDocValues values) {
+    return new EmptyDocValuesProducer() {
+      @Override
+      public NumericDocValues getNumeric(FieldInfo field) {
+        return values;
+      }
+    };
+  }
+
+  private static NumericDocValues docValues(int[] docs, long[] values) {
+    return new NumericDocValues() {
+      int index = -1;
+      int doc = -1;
+
+      @Override
+      public int docID() {
+        return doc;
+      }
+
+      @Override
+      public int nextDoc() {
+        return advance(doc + 1);
+      }
+
+      @Override
+      public int advance(int target) {
+        while (index < docs.length && (index == -1 || docs[index] < target)) {
+          index++;
+        }
+        return doc = index < docs.length ? docs[index] : NO_MORE_DOCS;
+      }
+
+      @Override
+      public boolean advanceExact(int target) {
+        doc = target;
+        while (index < docs.length && (index == -1 || docs[index] < target)) {
+          index++;
+        }
+        return index < docs.length && docs[index] == target;
+      }
+
+      @Override
+      public long cost() {
+        return docs.length;
+      }
+
+      @Override
+      public long longValue() {
+        return values[index];
+      }
+    };
+  }
+
   public void testTonsOfUpdates() throws Exception {
     // LUCENE-5248: make sure that when there are many updates, we don't use too much RAM
     Directory dir = newDirectory();
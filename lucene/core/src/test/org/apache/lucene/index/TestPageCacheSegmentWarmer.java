@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestPageCacheSegmentWarmer extends LuceneTestCase {
+
+  private static void addDocs(IndexWriter w, int numDocs) throws IOException {
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new TextField("body", TestUtil.randomSimpleString(random(), 50) + " common", Field.Store.NO));
+      doc.add(new NumericDocValuesField("dv", random().nextLong()));
+      doc.add(new IntPoint("point", random().nextInt()));
+      w.addDocument(doc);
+    }
+  }
+
+  private static long expectedBytes(Directory dir, SegmentCommitInfo info, PageCacheSegmentWarmer warmer) throws IOException {
+    long bytes = 0;
+    for (String file : info.files()) {
+      if (warmer.getExtensions().contains(IndexFileNames.getExtension(file))) {
+        bytes += dir.fileLength(file);
+      }
+    }
+    return bytes;
+  }
+
+  public void testWarmMergedSegment() throws IOException {
+    try (Directory dir = newDirectory()) {
+      PageCacheSegmentWarmer warmer = new PageCacheSegmentWarmer(InfoStream.NO_OUTPUT);
+      LogDocMergePolicy mp = new LogDocMergePolicy();
+      mp.setNoCFSRatio(0.0);
+      IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()))
+          .setMergedSegmentWarmer(warmer)
+          .setMergePolicy(mp)
+          .setUseCompoundFile(false);
+      try (IndexWriter w = new IndexWriter(dir, iwc)) {
+        addDocs(w, atLeast(100));
+        w.commit();
+        addDocs(w, atLeast(100));
+        w.commit();
+        assertEquals(0, warmer.getWarmedBytes());
+        w.forceMerge(1);
+        w.commit();
+        SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+        assertEquals(1, infos.size());
+        long expected = expectedBytes(dir, infos.info(0), warmer);
+        assertTrue(expected > 0);
+        assertEquals(expected, warmer.getWarmedBytes());
+        assertTrue(warmer.getWarmTimeMS() >= 0);
+      }
+    }
+  }
+
+  public void testWarmLeaves() throws IOException {
+    try (Directory dir = newDirectory()) {
+      final boolean useCompoundFile = random().nextBoolean();
+      IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()))
+          .setMergePolicy(NoMergePolicy.INSTANCE)
+          .setUseCompoundFile(useCompoundFile);
+      try (IndexWriter w = new IndexWriter(dir, iwc)) {
+        addDocs(w, atLeast(100));
+        w.commit();
+        addDocs(w, atLeast(100));
+      }
+      PageCacheSegmentWarmer warmer = new PageCacheSegmentWarmer(InfoStream.NO_OUTPUT);
+      try (DirectoryReader reader = DirectoryReader.open(dir)) {
+        warmer.warmLeaves(reader);
+        assertTrue(warmer.getWarmedBytes() > 0);
+        if (useCompoundFile == false) {
+          long expected = 0;
+          for (SegmentCommitInfo info : SegmentInfos.readLatestCommit(dir)) {
+            expected += expectedBytes(dir, info, warmer);
+          }
+          assertEquals(expected, warmer.getWarmedBytes());
+        }
+      }
+    }
+  }
+
+  public void testNoMatchingExtensions() throws IOException {
+    try (Directory dir = newDirectory()) {
+      try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random())))) {
+        addDocs(w, atLeast(10));
+      }
+      PageCacheSegmentWarmer warmer = new PageCacheSegmentWarmer(Collections.singleton("foo"), InfoStream.NO_OUTPUT);
+      try (DirectoryReader reader = DirectoryReader.open(dir)) {
+        warmer.warmLeaves(reader);
+      }
+      assertEquals(0, warmer.getWarmedBytes());
+    }
+  }
+}
@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
@@ -214,6 +215,40 @@ public class TestSegmentToThreadMapping extends LuceneTestCase {
     assertTrue(thirdSliceleaves.length == 1);
   }
 
+  public void testSegmentPartitions() {
+    LeafReader largeSegmentReader = dummyIndexReader(600_000);
+    LeafReader firstSmallSegmentReader = dummyIndexReader(10_000);
+    LeafReader secondSmallSegmentReader = dummyIndexReader(10_000);
+    List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
+
+    leafReaderContexts.add(new LeafReaderContext(largeSegmentReader));
+    leafReaderContexts.add(new LeafReaderContext(firstSmallSegmentReader));
+    leafReaderContexts.add(new LeafReaderContext(secondSmallSegmentReader));
+
+    // without partitions, the large segment gets a single slice
+    assertEquals(2, IndexSearcher.slices(leafReaderContexts, 250_000, 5).length);
+
+    IndexSearcher.LeafSlice[] resultSlices = IndexSearcher.slices(leafReaderContexts, 250_000, 5, true);
+
+    assertEquals(4, resultSlices.length);
+
+    int nextDoc = 0;
+    for (int i = 0; i < 3; ++i) {
+      assertEquals(1, resultSlices[i].partitions.length);
+      IndexSearcher.LeafReaderContextPartition partition = resultSlices[i].partitions[0];
+      assertSame(largeSegmentReader, partition.ctx.reader());
+      assertEquals(nextDoc, partition.minDocId);
+      assertEquals(nextDoc + 200_000, partition.maxDocId);
+      nextDoc = partition.maxDocId;
+    }
+
+    assertEquals(2, resultSlices[3].leaves.length);
+    for (IndexSearcher.LeafReaderContextPartition partition : resultSlices[3].partitions) {
+      assertEquals(0, partition.minDocId);
+      assertEquals(DocIdSetIterator.NO_MORE_DOCS, partition.maxDocId);
+    }
+  }
+
   public void testIntraSliceDocIDOrder() throws Exception {
     Directory dir = newDirectory();
     RandomIndexWriter w = new RandomIndexWriter(random(), dir);
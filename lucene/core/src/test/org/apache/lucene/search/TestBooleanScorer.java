@@ -181,7 +181,7 @@ public class TestBooleanScorer extends LuceneTestCase {
       .build();
     weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE, 1);
     scorer = ((BooleanWeight) weight).booleanScorer(ctx);
-    assertTrue(scorer instanceof DefaultBulkScorer); // term scorer
+    assertTrue(scorer instanceof TermBulkScorer); // term scorer that scores in batches
 
     w.close();
     reader.close();
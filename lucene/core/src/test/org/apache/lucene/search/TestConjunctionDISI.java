@@ -391,4 +391,54 @@ public class TestConjunctionDISI extends LuceneTestCase {
   public void testCollapseSubConjunctionScorers() throws IOException {
     testCollapseSubConjunctions(true);
   }
+
+  /** Wrap the given iterator so that it reports the given cost. */
+  private static DocIdSetIterator withCost(DocIdSetIterator it, long cost) {
+    return new DocIdSetIterator() {
+
+      @Override
+      public int nextDoc() throws IOException {
+        return it.nextDoc();
+      }
+
+      @Override
+      public int docID() {
+        return it.docID();
+      }
+
+      @Override
+      public long cost() {
+        return cost;
+      }
+
+      @Override
+      public int advance(int target) throws IOException {
+        return it.advance(target);
+      }
+    };
+  }
+
+  // Test that iterators get reordered when their costs are misleading
+  public void testReorderOnHitRates() throws IOException {
+    final int maxDoc = TestUtil.nextInt(random(), 100000, 200000);
+    final FixedBitSet dense = new FixedBitSet(maxDoc);
+    dense.set(0, maxDoc);
+    for (int i = 0; i < maxDoc; i += 50) {
+      dense.clear(i);
+    }
+    final FixedBitSet sparse = new FixedBitSet(maxDoc);
+    for (int i = 1; i < maxDoc; i += 17) {
+      sparse.set(i);
+    }
+    // the dense iterator claims to be the cheapest
+    final DocIdSetIterator denseIterator = withCost(new BitDocIdSet(dense).iterator(), 10);
+    final DocIdSetIterator sparseIterator = withCost(new BitDocIdSet(sparse).iterator(), maxDoc);
+    final ConjunctionDISI conjunction = (ConjunctionDISI) ConjunctionDISI.intersectIterators(Arrays.asList(denseIterator, sparseIterator));
+    assertSame(denseIterator, conjunction.lead1);
+    assertEquals(10, conjunction.cost());
+    assertEquals(intersect(new FixedBitSet[] {dense, sparse}), toBitSet(maxDoc, conjunction));
+    assertSame(sparseIterator, conjunction.lead1);
+    assertSame(denseIterator, conjunction.lead2);
+    assertEquals(10, conjunction.cost());
+  }
 }
@@ -36,32 +36,53 @@ import org.apache.lucene.util.TestUtil;
 public class TestDocValuesQueries extends LuceneTestCase {
 
   public void testDuelPointRangeSortedNumericRangeQuery() throws IOException {
-    doTestDuelPointRangeNumericRangeQuery(true, 1);
+    doTestDuelPointRangeNumericRangeQuery(true, 1, false);
   }
 
   public void testDuelPointRangeMultivaluedSortedNumericRangeQuery() throws IOException {
-    doTestDuelPointRangeNumericRangeQuery(true, 3);
+    doTestDuelPointRangeNumericRangeQuery(true, 3, false);
   }
 
   public void testDuelPointRangeNumericRangeQuery() throws IOException {
-    doTestDuelPointRangeNumericRangeQuery(false, 1);
+    doTestDuelPointRangeNumericRangeQuery(false, 1, false);
   }
 
-  private void doTestDuelPointRangeNumericRangeQuery(boolean sortedNumeric, int maxValuesPerDoc) throws IOException {
-    final int iters = atLeast(10);
+  public void testDuelPointRangeSortedNumericRangeQueryWithSkipIndex() throws IOException {
+    doTestDuelPointRangeNumericRangeQuery(true, 1, true);
+  }
+
+  public void testDuelPointRangeMultivaluedSortedNumericRangeQueryWithSkipIndex() throws IOException {
+    doTestDuelPointRangeNumericRangeQuery(true, 3, true);
+  }
+
+  public void testDuelPointRangeNumericRangeQueryWithSkipIndex() throws IOException {
+    doTestDuelPointRangeNumericRangeQuery(false, 1, true);
+  }
+
+  /** Returns a random value, which is correlated with the doc ID when documents are indexed with a skip index. */
+  private static long nextValue(int doc, int numDocs, boolean skipIndex) {
+    if (skipIndex && random().nextInt(10) != 0) {
+      return -100 + (long) doc * 10100 / numDocs + random().nextInt(20);
+    }
+    return TestUtil.nextLong(random(), -100, 10000);
+  }
+
+  private void doTestDuelPointRangeNumericRangeQuery(boolean sortedNumeric, int maxValuesPerDoc, boolean skipIndex) throws IOException {
+    final int iters = skipIndex ? atLeast(2) : atLeast(10);
     for (int iter = 0; iter < iters; ++iter) {
       Directory dir = newDirectory();
       RandomIndexWriter iw = new RandomIndexWriter(random(), dir);
-      final int numDocs = atLeast(100);
+      // the skip index records ranges of values per blocks of thousands of documents
+      final int numDocs = skipIndex ? atLeast(10000) : atLeast(100);
       for (int i = 0; i < numDocs; ++i) {
         Document doc = new Document();
         final int numValues = TestUtil.nextInt(random(), 0, maxValuesPerDoc);
         for (int j = 0; j < numValues; ++j) {
-          final long value = TestUtil.nextLong(random(), -100, 10000);
+          final long value = nextValue(i, numDocs, skipIndex);
           if (sortedNumeric) {
-            doc.add(new SortedNumericDocValuesField("dv", value));
+            doc.add(skipIndex ? SortedNumericDocValuesField.indexedField("dv", value) : new SortedNumericDocValuesField("dv", value));
           } else {
-            doc.add(new NumericDocValuesField("dv", value));
+            doc.add(skipIndex ? NumericDocValuesField.indexedField("dv", value) : new NumericDocValuesField("dv", value));
           }
           doc.add(new LongPoint("idx", value));
         }
@@ -92,23 +113,23 @@ public class TestDocValuesQueries extends LuceneTestCase {
     }
   }
 
-  private void doTestDuelPointRangeSortedRangeQuery(boolean sortedSet, int maxValuesPerDoc) throws IOException {
-    final int iters = atLeast(10);
+  private void doTestDuelPointRangeSortedRangeQuery(boolean sortedSet, int maxValuesPerDoc, boolean skipIndex) throws IOException {
+    final int iters = skipIndex ? atLeast(2) : atLeast(10);
     for (int iter = 0; iter < iters; ++iter) {
       Directory dir = newDirectory();
       RandomIndexWriter iw = new RandomIndexWriter(random(), dir);
-      final int numDocs = atLeast(100);
+      final int numDocs = skipIndex ? atLeast(10000) : atLeast(100);
       for (int i = 0; i < numDocs; ++i) {
         Document doc = new Document();
         final int numValues = TestUtil.nextInt(random(), 0, maxValuesPerDoc);
         for (int j = 0; j < numValues; ++j) {
-          final long value = TestUtil.nextLong(random(), -100, 10000);
+          final long value = nextValue(i, numDocs, skipIndex);
           byte[] encoded = new byte[Long.BYTES];
           LongPoint.encodeDimension(value, encoded, 0);
           if (sortedSet) {
-            doc.add(new SortedSetDocValuesField("dv", new BytesRef(encoded)));
+            doc.add(skipIndex ? SortedSetDocValuesField.indexedField("dv", new BytesRef(encoded)) : new SortedSetDocValuesField("dv", new BytesRef(encoded)));
           } else {
-            doc.add(new SortedDocValuesField("dv", new BytesRef(encoded)));
+            doc.add(skipIndex ? SortedDocValuesField.indexedField("dv", new BytesRef(encoded)) : new SortedDocValuesField("dv", new BytesRef(encoded)));
           }
           doc.add(new LongPoint("idx", value));
         }
@@ -160,15 +181,27 @@ public class TestDocValuesQueries extends LuceneTestCase {
   }
 
   public void testDuelPointRangeSortedSetRangeQuery() throws IOException {
-    doTestDuelPointRangeSortedRangeQuery(true, 1);
+    doTestDuelPointRangeSortedRangeQuery(true, 1, false);
   }
 
   public void testDuelPointRangeMultivaluedSortedSetRangeQuery() throws IOException {
-    doTestDuelPointRangeSortedRangeQuery(true, 3);
+    doTestDuelPointRangeSortedRangeQuery(true, 3, false);
   }
 
   public void testDuelPointRangeSortedRangeQuery() throws IOException {
-    doTestDuelPointRangeSortedRangeQuery(false, 1);
+    doTestDuelPointRangeSortedRangeQuery(false, 1, false);
+  }
+
+  public void testDuelPointRangeSortedSetRangeQueryWithSkipIndex() throws IOException {
+    doTestDuelPointRangeSortedRangeQuery(true, 1, true);
+  }
+
+  public void testDuelPointRangeMultivaluedSortedSetRangeQueryWithSkipIndex() throws IOException {
+    doTestDuelPointRangeSortedRangeQuery(true, 3, true);
+  }
+
+  public void testDuelPointRangeSortedRangeQueryWithSkipIndex() throws IOException {
+    doTestDuelPointRangeSortedRangeQuery(false, 1, true);
   }
 
   private void assertSameMatches(IndexSearcher searcher, Query q1, Query q2, boolean scores) throws IOException {
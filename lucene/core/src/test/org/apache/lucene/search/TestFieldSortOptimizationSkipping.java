@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestFieldSortOptimizationSkipping extends LuceneTestCase {
+
+  public void testLongSortOptimization() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig());
+    final int numDocs = atLeast(10000);
+    final List<Long> values = new ArrayList<>();
+    for (long i = 0; i < numDocs; ++i) {
+      values.add(i);
+    }
+    Collections.shuffle(values, random());
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      doc.add(new NumericDocValuesField("my_field", values.get(i)));
+      doc.add(new LongPoint("my_field", values.get(i)));
+      writer.addDocument(doc);
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final int numHits = 3;
+    final int totalHitsThreshold = 3;
+
+    for (boolean reverse : new boolean[] {false, true}) {
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG, reverse);
+      sortField.setCanUsePoints();
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), numHits, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      final TopDocs topDocs = collector.topDocs();
+      assertEquals(numHits, topDocs.scoreDocs.length);
+      for (int i = 0; i < numHits; i++) {
+        final long expected = reverse ? numDocs - 1 - i : i;
+        assertEquals(expected, ((FieldDoc) topDocs.scoreDocs[i]).fields[0]);
+      }
+      assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHits.relation);
+      assertTrue(topDocs.totalHits.value < numDocs); // non-competitive docs were skipped
+    }
+
+    { // skipping is opt-in
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), numHits, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      assertEquals(numDocs, collector.topDocs().totalHits.value);
+    }
+
+    { // hits are counted accurately until the threshold is reached
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+      sortField.setCanUsePoints();
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), numHits, Integer.MAX_VALUE);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      final TopDocs topDocs = collector.topDocs();
+      assertEquals(numDocs, topDocs.totalHits.value);
+      assertEquals(TotalHits.Relation.EQUAL_TO, topDocs.totalHits.relation);
+    }
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testSortOptimizationWithMissingValues() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig());
+    final int numDocs = atLeast(10000);
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      if ((i % 500) != 0) { // miss values on every 500th document
+        doc.add(new NumericDocValuesField("my_field", i));
+        doc.add(new LongPoint("my_field", i));
+      }
+      writer.addDocument(doc);
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final int numHits = 3;
+    final int totalHitsThreshold = 3;
+
+    { // the default missing value of 0 is competitive, documents can't be skipped
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+      sortField.setCanUsePoints();
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), numHits, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      final TopDocs topDocs = collector.topDocs();
+      assertEquals(numDocs, topDocs.totalHits.value);
+    }
+
+    { // missing values sort last, documents can be skipped
+      final SortField sortField = new SortField("my_field", SortField.Type.LONG);
+      sortField.setCanUsePoints();
+      sortField.setMissingValue(Long.MAX_VALUE);
+      final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), numHits, totalHitsThreshold);
+      searcher.search(new MatchAllDocsQuery(), collector);
+      final TopDocs topDocs = collector.topDocs();
+      assertEquals(1L, ((FieldDoc) topDocs.scoreDocs[0]).fields[0]);
+      assertEquals(2L, ((FieldDoc) topDocs.scoreDocs[1]).fields[0]);
+      assertEquals(3L, ((FieldDoc) topDocs.scoreDocs[2]).fields[0]);
+      assertTrue(topDocs.totalHits.value < numDocs);
+    }
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testDoubleSortOptimization() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig());
+    final int numDocs = atLeast(10000);
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      final double value = numDocs / 2 - i + 0.5;
+      doc.add(new DoubleDocValuesField("my_field", value));
+      doc.add(new DoublePoint("my_field", value));
+      writer.addDocument(doc);
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    final int numHits = 3;
+    final int totalHitsThreshold = 3;
+
+    final SortField sortField = new SortField("my_field", SortField.Type.DOUBLE, true);
+    sortField.setCanUsePoints();
+    final TopFieldCollector collector = TopFieldCollector.create(new Sort(sortField), numHits, totalHitsThreshold);
+    searcher.search(new MatchAllDocsQuery(), collector);
+    final TopDocs topDocs = collector.topDocs();
+    for (int i = 0; i < numHits; i++) {
+      final double expected = numDocs / 2 - i + 0.5;
+      assertEquals(expected, (Double) ((FieldDoc) topDocs.scoreDocs[i]).fields[0], 0d);
+    }
+    assertTrue(topDocs.totalHits.value < numDocs);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testRandom() throws IOException {
+    final Directory dir = newDirectory();
+    final IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+    final int numDocs = atLeast(5000);
+    final int maxValue = TestUtil.nextInt(random(), 1, numDocs);
+    for (int i = 0; i < numDocs; ++i) {
+      final Document doc = new Document();
+      if (random().nextInt(20) != 0) {
+        final int value = random().nextInt(maxValue);
+        doc.add(new NumericDocValuesField("my_field", value));
+        doc.add(new IntPoint("my_field", value));
+      }
+      doc.add(new NumericDocValuesField("tie_breaker", random().nextInt(10)));
+      doc.add(new StringField("category", random().nextBoolean() ? "a" : "b", Store.NO));
+      writer.addDocument(doc);
+      if (rarely()) {
+        writer.commit();
+      }
+    }
+    final IndexReader reader = DirectoryReader.open(writer);
+    writer.close();
+    final IndexSearcher searcher = newSearcher(reader);
+
+    final int iters = atLeast(10);
+    for (int iter = 0; iter < iters; ++iter) {
+      final boolean reverse = random().nextBoolean();
+      final Integer missingValue = random().nextBoolean() ? null : random().nextBoolean() ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+      final SortField sortField = new SortField("my_field", SortField.Type.INT, reverse);
+      sortField.setMissingValue(missingValue);
+      final SortField optimizedSortField = new SortField("my_field", SortField.Type.INT, reverse);
+      optimizedSortField.setMissingValue(missingValue);
+      optimizedSortField.setCanUsePoints();
+      final Sort sort;
+      final Sort optimizedSort;
+      if (random().nextBoolean()) {
+        sort = new Sort(sortField);
+        optimizedSort = new Sort(optimizedSortField);
+      } else {
+        final SortField tieBreaker = new SortField("tie_breaker", SortField.Type.LONG, random().nextBoolean());
+        sort = new Sort(sortField, tieBreaker);
+        optimizedSort = new Sort(optimizedSortField, tieBreaker);
+      }
+      final Query query = random().nextBoolean() ? new MatchAllDocsQuery() : new TermQuery(new Term("category", "a"));
+      final int numHits = TestUtil.nextInt(random(), 1, 100);
+      final int totalHitsThreshold = TestUtil.nextInt(random(), 1, 1000);
+
+      final TopFieldCollector collector = TopFieldCollector.create(sort, numHits, Integer.MAX_VALUE);
+      searcher.search(query, collector);
+      final TopDocs expected = collector.topDocs();
+      final TopFieldCollector optimizedCollector = TopFieldCollector.create(optimizedSort, numHits, totalHitsThreshold);
+      searcher.search(query, optimizedCollector);
+      final TopDocs actual = optimizedCollector.topDocs();
+
+      assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+      for (int i = 0; i < expected.scoreDocs.length; ++i) {
+        final FieldDoc expectedDoc = (FieldDoc) expected.scoreDocs[i];
+        final FieldDoc actualDoc = (FieldDoc) actual.scoreDocs[i];
+        assertEquals(expectedDoc.doc, actualDoc.doc);
+        assertArrayEquals(expectedDoc.fields, actualDoc.fields);
+      }
+      assertTrue(actual.totalHits.value <= expected.totalHits.value);
+      if (actual.totalHits.relation == TotalHits.Relation.EQUAL_TO) {
+        assertEquals(expected.totalHits.value, actual.totalHits.value);
+      } else {
+        assertTrue(actual.totalHits.value > totalHitsThreshold);
+      }
+    }
+
+    reader.close();
+    dir.close();
+  }
+}
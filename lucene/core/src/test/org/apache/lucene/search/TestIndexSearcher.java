@@ -272,6 +272,95 @@ public class TestIndexSearcher extends LuceneTestCase {
     }
   }
 
+  public void testSegmentPartitions() throws Exception {
+    ExecutorService service = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>(),
+                                   new NamedThreadFactory("TestIndexSearcher"));
+    final int maxDocsPerSlice = 1 + random().nextInt(30);
+    IndexSearcher searcher = new IndexSearcher(reader, service) {
+      @Override
+      protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        return slices(leaves, maxDocsPerSlice, 1 + random().nextInt(5), true);
+      }
+    };
+    searcher.setQueryCache(null);
+    IndexSearcher singleThreadedSearcher = newSearcher(reader, false);
+    singleThreadedSearcher.setQueryCache(null);
+
+    for (IndexSearcher.LeafSlice slice : searcher.getSlices()) {
+      for (IndexSearcher.LeafReaderContextPartition partition : slice.partitions) {
+        assertTrue(partition.minDocId < partition.ctx.reader().maxDoc());
+      }
+    }
+
+    Query[] queries = new Query[] {
+        new MatchAllDocsQuery(),
+        new TermQuery(new Term("field2", "true")),
+        new BooleanQuery.Builder()
+            .add(new TermQuery(new Term("field", "3")), Occur.SHOULD)
+            .add(new TermQuery(new Term("field", "42")), Occur.SHOULD)
+            .add(new TermQuery(new Term("field", "97")), Occur.SHOULD)
+            .build()
+    };
+    for (Query query : queries) {
+      assertEquals(singleThreadedSearcher.count(query), searcher.count(query));
+      CheckHits.checkEqual(query, singleThreadedSearcher.search(query, 100).scoreDocs, searcher.search(query, 100).scoreDocs);
+      Sort sort = new Sort(new SortField("field2", SortField.Type.STRING));
+      TopDocs expected = singleThreadedSearcher.search(query, 10, sort);
+      TopDocs actual = searcher.search(query, 10, sort);
+      assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+      for (int i = 0; i < expected.scoreDocs.length; ++i) {
+        assertEquals(expected.scoreDocs[i].doc, actual.scoreDocs[i].doc);
+      }
+    }
+
+    TestUtil.shutdownExecutorService(service);
+  }
+
+  public void testSearchPartitionsCoversAllSearches() throws Exception {
+    ExecutorService service = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>(),
+                                   new NamedThreadFactory("TestIndexSearcher"));
+    final int maxDocsPerSlice = 1 + random().nextInt(30);
+    final AtomicInteger numSearchedPartitions = new AtomicInteger();
+    IndexSearcher searcher = new IndexSearcher(reader, service) {
+      @Override
+      protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        return slices(leaves, maxDocsPerSlice, 1 + random().nextInt(5), true);
+      }
+
+      @Override
+      protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector) throws IOException {
+        numSearchedPartitions.addAndGet(partitions.length);
+        super.search(partitions, weight, collector);
+      }
+    };
+    searcher.setQueryCache(null);
+
+    // partitions of leaves
+    final IndexSearcher.LeafSlice[] slices = searcher.getSlices();
+    int numPartitions = 0;
+    for (IndexSearcher.LeafSlice slice : slices) {
+      numPartitions += slice.partitions.length;
+    }
+    assertEquals(reader.maxDoc(), searcher.search(new MatchAllDocsQuery(), 10).totalHits.value);
+    if (slices.length > 1) {
+      assertEquals(numPartitions, numSearchedPartitions.get());
+    } else {
+      // a single slice is searched on the caller thread, on entire leaves
+      assertEquals(reader.leaves().size(), numSearchedPartitions.get());
+    }
+
+    // entire leaves
+    numSearchedPartitions.set(0);
+    TotalHitCountCollector collector = new TotalHitCountCollector();
+    searcher.search(new MatchAllDocsQuery(), collector);
+    assertEquals(reader.maxDoc(), collector.getTotalHits());
+    assertEquals(reader.leaves().size(), numSearchedPartitions.get());
+
+    TestUtil.shutdownExecutorService(service);
+  }
+
   public void testRejectedExecution() throws IOException {
     ExecutorService service = new RejectingMockExecutor();
 
@@ -637,6 +637,94 @@ public class TestLRUQueryCache extends LuceneTestCase {
     dir.close();
   }
 
+  public void testAsyncPopulation() throws IOException {
+    final LRUQueryCache queryCache = new LRUQueryCache(10, 1 << 20, context -> true, Float.POSITIVE_INFINITY, true);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    doc.add(new StringField("color", "blue", Store.NO));
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; ++i) {
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        w.getReader().close();
+      }
+    }
+    final DirectoryReader reader = w.getReader();
+    w.close();
+    final int segmentCount = reader.leaves().size();
+
+    final List<Runnable> tasks = new ArrayList<>();
+    final IndexSearcher searcher = new IndexSearcher(reader, tasks::add) {
+      @Override
+      protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        // search on the current thread, the executor only gets cache population tasks
+        return new LeafSlice[] { new LeafSlice(new ArrayList<>(leaves)) };
+      }
+    };
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+    final Query query = new ConstantScoreQuery(new TermQuery(new Term("color", "blue")));
+
+    // the query runs uncached while entries are computed in the background
+    assertEquals(numDocs, searcher.count(query));
+    assertEquals(segmentCount, tasks.size());
+    assertEquals(0, queryCache.getCacheSize());
+
+    // entries that are being computed are not computed twice
+    assertEquals(numDocs, searcher.count(query));
+    assertEquals(segmentCount, tasks.size());
+    assertEquals(0, queryCache.getCacheSize());
+
+    for (Runnable task : tasks) {
+      task.run();
+    }
+    tasks.clear();
+    assertEquals(segmentCount, queryCache.getCacheSize());
+    assertEquals(0, queryCache.getAsyncFailureCount());
+    queryCache.assertConsistent();
+
+    final long hitCount = queryCache.getHitCount();
+    assertEquals(numDocs, searcher.count(query));
+    assertEquals(hitCount + segmentCount, queryCache.getHitCount());
+    assertEquals(0, tasks.size());
+
+    reader.close();
+    dir.close();
+    assertEquals(0, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+  }
+
+  public void testAsyncPopulationAfterClose() throws IOException {
+    final LRUQueryCache queryCache = new LRUQueryCache(10, 1 << 20, context -> true, Float.POSITIVE_INFINITY, true);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    doc.add(new StringField("color", "blue", Store.NO));
+    w.addDocument(doc);
+    final DirectoryReader reader = w.getReader();
+    w.close();
+
+    final List<Runnable> tasks = new ArrayList<>();
+    final IndexSearcher searcher = new IndexSearcher(reader, tasks::add);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+    assertEquals(1, searcher.count(new ConstantScoreQuery(new TermQuery(new Term("color", "blue")))));
+    assertEquals(1, tasks.size());
+
+    // the reader gets closed before the entry could be computed
+    reader.close();
+    tasks.get(0).run();
+    assertEquals(0, queryCache.getCacheSize());
+    assertEquals(0, queryCache.ramBytesUsed());
+    assertEquals(1, queryCache.getAsyncFailureCount());
+    queryCache.assertConsistent();
+
+    dir.close();
+  }
+
   public void testFineGrainedStats() throws IOException {
     Directory dir1 = newDirectory();
     final RandomIndexWriter w1 = new RandomIndexWriter(random(), dir1);
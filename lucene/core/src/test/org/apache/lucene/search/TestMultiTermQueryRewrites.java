@@ -18,6 +18,9 @@ package org.apache.lucene.search;
 
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
@@ -34,6 +37,8 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.AttributeSource;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.apache.lucene.util.TestUtil;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 
@@ -131,6 +136,58 @@ public class TestMultiTermQueryRewrites extends LuceneTestCase {
     checkBooleanQueryOrder(q3);
   }
   
+  private void checkConcurrentRewrite(MultiTermQuery.RewriteMethod method, ExecutorService executor) throws Exception {
+    final MultiTermQuery mtq = TermRangeQuery.newStringRange("data", "2", "7", true, true);
+    mtq.setRewriteMethod(method);
+    final FuzzyQuery fuzzy = new FuzzyQuery(new Term("data", "3"), 1, 0);
+    fuzzy.setRewriteMethod(method);
+    // wrap in a BooleanQuery to make sure the searcher is propagated to sub queries
+    final Query query = new BooleanQuery.Builder()
+        .add(new BoostQuery(mtq, 2f), BooleanClause.Occur.SHOULD)
+        .add(fuzzy, BooleanClause.Occur.SHOULD)
+        .build();
+    for (IndexReader r : new IndexReader[] {reader, multiReader, multiReaderDupls}) {
+      final Query expected = new IndexSearcher(r).rewrite(query);
+      final Query actual = new IndexSearcher(r, executor).rewrite(query);
+      assertEquals(expected, actual);
+      // rejected tasks run on the caller thread
+      final Query rejected = new IndexSearcher(r, task -> { throw new RejectedExecutionException(); }).rewrite(query);
+      assertEquals(expected, rejected);
+    }
+  }
+
+  public void testConcurrentRewrites() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(2, new NamedThreadFactory("TestMultiTermQueryRewrites"));
+    try {
+      checkConcurrentRewrite(MultiTermQuery.SCORING_BOOLEAN_REWRITE, executor);
+      checkConcurrentRewrite(MultiTermQuery.CONSTANT_SCORE_BOOLEAN_REWRITE, executor);
+      checkConcurrentRewrite(new MultiTermQuery.TopTermsScoringBooleanQueryRewrite(1024), executor);
+      checkConcurrentRewrite(new MultiTermQuery.TopTermsBoostOnlyBooleanQueryRewrite(2), executor);
+    } finally {
+      TestUtil.shutdownExecutorService(executor);
+    }
+  }
+
+  public void testConcurrentRewritesBufferLimit() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(2, new NamedThreadFactory("TestMultiTermQueryRewrites"));
+    int savedMaxClauseCount = IndexSearcher.getMaxClauseCount();
+    // segments have more matching terms than are buffered, the rest is enumerated while collecting
+    IndexSearcher.setMaxClauseCount(3);
+    try {
+      checkConcurrentRewrite(new MultiTermQuery.TopTermsScoringBooleanQueryRewrite(1024), executor);
+      checkConcurrentRewrite(new MultiTermQuery.TopTermsBoostOnlyBooleanQueryRewrite(2), executor);
+
+      final MultiTermQuery mtq = TermRangeQuery.newStringRange("data", "2", "7", true, true);
+      mtq.setRewriteMethod(MultiTermQuery.SCORING_BOOLEAN_REWRITE);
+      expectThrows(IndexSearcher.TooManyClauses.class, () -> {
+        new IndexSearcher(multiReaderDupls, executor).rewrite(mtq);
+      });
+    } finally {
+      IndexSearcher.setMaxClauseCount(savedMaxClauseCount);
+      TestUtil.shutdownExecutorService(executor);
+    }
+  }
+
   public void testRewritesWithDuplicateTerms() throws Exception {
     checkDuplicateTerms(MultiTermQuery.SCORING_BOOLEAN_REWRITE);
     
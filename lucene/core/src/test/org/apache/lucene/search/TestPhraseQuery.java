@@ -931,6 +931,81 @@ public class TestPhraseQuery extends LuceneTestCase {
         mergedImpacts.getImpacts());
   }
 
+  public void testMergeSloppyImpacts() throws IOException {
+    DummyImpactsEnum impacts1 = new DummyImpactsEnum(1000);
+    DummyImpactsEnum impacts2 = new DummyImpactsEnum(2000);
+    ImpactsSource mergedImpacts = SloppyPhraseMatcher.mergeImpacts(new ImpactsEnum[] { impacts1, impacts2 });
+
+    impacts1.reset(
+        new Impact[][] {
+          new Impact[] { new Impact(3, 10), new Impact(5, 12), new Impact(8, 13) },
+          new Impact[] { new Impact(3, 10), new Impact(5, 11), new Impact(8, 13),  new Impact(12, 14) }
+        },
+        new int[] {
+            110,
+            945
+        });
+
+    // Regular case: sum freqs for every norm
+    impacts2.reset(
+        new Impact[][] {
+          new Impact[] { new Impact(2, 9), new Impact(4, 12) },
+          new Impact[] { new Impact(2, 9), new Impact(6, 11), new Impact(7, 15) }
+        },
+        new int[] {
+            200,
+            1000
+        });
+    assertEquals(
+        new Impact[][] {
+          new Impact[] { new Impact(5, 10), new Impact(9, 12), new Impact(12, 13) },
+          new Impact[] { new Impact(5, 10), new Impact(11, 11), new Impact(14, 13), new Impact(18, 14), new Impact(19, 15) }
+        },
+        new int[] {
+            110,
+            945
+        },
+        mergedImpacts.getImpacts());
+
+    // Merge with impacts that don't cover the lead's levels
+    impacts2.reset(
+        new Impact[][] {
+          new Impact[] { new Impact(2, 9), new Impact(4, 12) }
+        },
+        new int[] {
+            500
+        });
+    assertEquals(
+        new Impact[][] {
+          new Impact[] { new Impact(5, 10), new Impact(9, 12), new Impact(12, 13) },
+          new Impact[] { new Impact(Integer.MAX_VALUE, 1) }
+        },
+        new int[] {
+            110,
+            945
+        },
+        mergedImpacts.getImpacts());
+
+    // Merge with dummy impacts
+    impacts2.reset(
+        new Impact[][] {
+          new Impact[] { new Impact(Integer.MAX_VALUE, 1) }
+        },
+        new int[] {
+            5000
+        });
+    assertEquals(
+        new Impact[][] {
+          new Impact[] { new Impact(Integer.MAX_VALUE, 1) },
+          new Impact[] { new Impact(Integer.MAX_VALUE, 1) }
+        },
+        new int[] {
+            110,
+            945
+        },
+        mergedImpacts.getImpacts());
+  }
+
   private static void assertEquals(Impact[][] impacts, int[] docIdUpTo, Impacts actual) {
     assertEquals(impacts.length, actual.numLevels());
     for (int i = 0; i < impacts.length; ++i) {
@@ -1072,6 +1147,41 @@ public class TestPhraseQuery extends LuceneTestCase {
     dir.close();
   }
 
+  public void testRandomSloppyTopDocs() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+    int numDocs = TEST_NIGHTLY ? atLeast(128 * 8 * 8 * 3) : atLeast(100); // at night, make sure some terms have skip data
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      int numTerms = random().nextInt(1 << random().nextInt(5));
+      String text = IntStream.range(0, numTerms)
+          .mapToObj(index -> random().nextBoolean() ? "a" : random().nextBoolean() ? "b" : "c")
+          .collect(Collectors.joining(" "));
+      doc.add(new TextField("foo", text, Store.NO));
+      w.addDocument(doc);
+    }
+    IndexReader reader = DirectoryReader.open(w);
+    w.close();
+    IndexSearcher searcher = newSearcher(reader);
+
+    for (int slop = 1; slop <= 3; ++slop) {
+      for (String firstTerm : new String[] {"a", "b", "c"}) {
+        for (String secondTerm : new String[] {"a", "b", "c"}) {
+          Query query = new PhraseQuery(slop, "foo", new BytesRef(firstTerm), new BytesRef(secondTerm));
+
+          TopScoreDocCollector collector1 = TopScoreDocCollector.create(10, null, Integer.MAX_VALUE); // COMPLETE
+          TopScoreDocCollector collector2 = TopScoreDocCollector.create(10, null, 10); // TOP_SCORES
+
+          searcher.search(query, collector1);
+          searcher.search(query, collector2);
+          CheckHits.checkEqual(query, collector1.topDocs().scoreDocs, collector2.topDocs().scoreDocs);
+        }
+      }
+    }
+    reader.close();
+    dir.close();
+  }
+
   public void testNullTerm() {
     NullPointerException e = expectThrows(NullPointerException.class, () -> new PhraseQuery.Builder().add(null));
     assertEquals("Cannot add a null term to PhraseQuery", e.getMessage());
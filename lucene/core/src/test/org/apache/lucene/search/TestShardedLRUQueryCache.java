@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.carrotsearch.randomizedtesting.generators.RandomPicks;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestShardedLRUQueryCache extends LuceneTestCase {
+
+  private static final List<String> COLORS = Arrays.asList("blue", "red", "green", "yellow");
+
+  private static final QueryCachingPolicy ALWAYS_CACHE = new QueryCachingPolicy() {
+
+    @Override
+    public void onUse(Query query) {}
+
+    @Override
+    public boolean shouldCache(Query query) throws IOException {
+      return true;
+    }
+
+  };
+
+  public void testIllegalNumShards() {
+    IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+        () -> new ShardedLRUQueryCache(0, 10, 10000));
+    assertEquals("numShards must be at least 1, got 0", e.getMessage());
+  }
+
+  public void testStats() throws IOException {
+    final int numShards = TestUtil.nextInt(random(), 1, 8);
+    final ShardedLRUQueryCache queryCache = new ShardedLRUQueryCache(numShards, 100, 10000000, context -> true, 1, false);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    for (int i = 0; i < 20; ++i) {
+      f.setStringValue(RandomPicks.randomFrom(random(), COLORS));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        w.getReader().close();
+      }
+    }
+    final DirectoryReader reader = w.getReader();
+    w.close();
+    final int segmentCount = reader.leaves().size();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    final Query query = new ConstantScoreQuery(new TermQuery(new Term("color", "red")));
+    for (int i = 0; i < 10; ++i) {
+      searcher.search(query, 1);
+    }
+    assertEquals(10 * segmentCount, queryCache.getTotalCount());
+    assertEquals(9 * segmentCount, queryCache.getHitCount());
+    assertEquals(segmentCount, queryCache.getMissCount());
+    assertEquals(segmentCount, queryCache.getCacheCount());
+    assertEquals(segmentCount, queryCache.getCacheSize());
+    assertEquals(0, queryCache.getEvictionCount());
+    queryCache.assertConsistent();
+
+    long ramBytesUsed = 0;
+    for (LRUQueryCache shard : queryCache.shards()) {
+      ramBytesUsed += shard.ramBytesUsed();
+    }
+    assertEquals(ramBytesUsed, queryCache.ramBytesUsed());
+    assertTrue(queryCache.ramBytesUsed() > 0);
+
+    // entries of a segment may be stored in any shard
+    final IndexReader.CacheKey coreKey = reader.leaves().get(0).reader().getCoreCacheHelper().getKey();
+    queryCache.clearCoreCacheKey(coreKey);
+    assertEquals(segmentCount - 1, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+
+    reader.close();
+    assertEquals(0, queryCache.getCacheSize());
+    assertEquals(segmentCount, queryCache.getEvictionCount());
+    queryCache.assertConsistent();
+    dir.close();
+  }
+
+  public void testSegmentEntriesSpreadAcrossShards() throws IOException {
+    final ShardedLRUQueryCache queryCache = new ShardedLRUQueryCache(4, 100, 10000000, context -> true, 1, false);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numTerms = 50;
+    for (int i = 0; i < numTerms; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Store.NO));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    final DirectoryReader reader = w.getReader();
+    w.close();
+    assertEquals(1, reader.leaves().size());
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    for (int i = 0; i < numTerms; ++i) {
+      searcher.search(new ConstantScoreQuery(new TermQuery(new Term("id", Integer.toString(i)))), 1);
+    }
+    assertEquals(numTerms, queryCache.getCacheSize());
+    // a single segment does not end up using a single shard's RAM budget
+    int nonEmptyShards = 0;
+    for (LRUQueryCache shard : queryCache.shards()) {
+      if (shard.getCacheSize() > 0) {
+        nonEmptyShards++;
+      }
+    }
+    assertTrue(nonEmptyShards > 1);
+    queryCache.assertConsistent();
+
+    reader.close();
+    assertEquals(0, queryCache.getCacheSize());
+    queryCache.assertConsistent();
+    dir.close();
+  }
+
+  public void testOnUse() throws IOException {
+    final ShardedLRUQueryCache queryCache = new ShardedLRUQueryCache(TestUtil.nextInt(random(), 1, 8),
+        1 + random().nextInt(5), 1 + random().nextInt(10000), context -> random().nextBoolean(), Float.POSITIVE_INFINITY, false);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; ++i) {
+      f.setStringValue(RandomPicks.randomFrom(random(), COLORS));
+      w.addDocument(doc);
+      if (random().nextBoolean()) {
+        w.getReader().close();
+      }
+    }
+    final DirectoryReader reader = w.getReader();
+    w.close();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+
+    final Map<Query, Integer> actualCounts = new HashMap<>();
+    final Map<Query, Integer> expectedCounts = new HashMap<>();
+
+    final QueryCachingPolicy countingPolicy = new QueryCachingPolicy() {
+
+      @Override
+      public boolean shouldCache(Query query) throws IOException {
+        return random().nextBoolean();
+      }
+
+      @Override
+      public void onUse(Query query) {
+        expectedCounts.put(query, 1 + expectedCounts.getOrDefault(query, 0));
+      }
+    };
+
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(countingPolicy);
+    for (int i = 0; i < 20; ++i) {
+      final Query query = new TermQuery(new Term("color", RandomPicks.randomFrom(random(), COLORS)));
+      searcher.search(new ConstantScoreQuery(query), 1);
+      actualCounts.put(query, 1 + actualCounts.getOrDefault(query, 0));
+    }
+
+    // usage is recorded once per query, not once per shard
+    assertEquals(actualCounts, expectedCounts);
+
+    reader.close();
+    dir.close();
+  }
+
+  public void testRandom() throws IOException {
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    StringField f = new StringField("color", "", Store.NO);
+    doc.add(f);
+
+    final ShardedLRUQueryCache queryCache = new ShardedLRUQueryCache(TestUtil.nextInt(random(), 1, 8),
+        TestUtil.nextInt(random(), 1, 1000), TestUtil.nextLong(random(), 1, 500000),
+        context -> random().nextBoolean(), Float.POSITIVE_INFINITY, false);
+    IndexReader reader = null;
+    IndexSearcher uncachedSearcher = null;
+    IndexSearcher cachedSearcher = null;
+
+    final int iters = atLeast(1000);
+    for (int i = 0; i < iters; ++i) {
+      if (i == 0 || random().nextInt(50) == 1) {
+        if (reader != null) {
+          reader.close();
+        }
+        for (int j = random().nextInt(10); j >= 0; --j) {
+          f.setStringValue(RandomPicks.randomFrom(random(), COLORS));
+          w.addDocument(doc);
+        }
+        reader = w.getReader();
+        uncachedSearcher = newSearcher(reader);
+        uncachedSearcher.setQueryCache(null);
+        cachedSearcher = newSearcher(reader);
+        cachedSearcher.setQueryCache(queryCache);
+        cachedSearcher.setQueryCachingPolicy(ALWAYS_CACHE);
+      }
+      final BooleanQuery.Builder query = new BooleanQuery.Builder();
+      for (int j = TestUtil.nextInt(random(), 1, 3); j > 0; --j) {
+        query.add(new TermQuery(new Term("color", RandomPicks.randomFrom(random(), COLORS))), Occur.SHOULD);
+      }
+      final Query q = query.build();
+      assertEquals(uncachedSearcher.count(q), cachedSearcher.count(q));
+      if (rarely()) {
+        queryCache.assertConsistent();
+      }
+    }
+    queryCache.assertConsistent();
+    w.close();
+    reader.close();
+    dir.close();
+    queryCache.assertConsistent();
+  }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.index.DirectoryReader;
@@ -256,4 +257,81 @@ public class TestTermScorer extends LuceneTestCase {
     dir.close();
   }
 
+
+  public void testBatchScoring() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+    int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      int numValues = random().nextInt(1 << random().nextInt(5));
+      int start = random().nextInt(3);
+      for (int j = 0; j < numValues; ++j) {
+        int freq = TestUtil.nextInt(random(), 1, 1 << random().nextInt(3));
+        for (int k = 0; k < freq; ++k) {
+          doc.add(new TextField("foo", Integer.toString(start + j), Store.NO));
+        }
+      }
+      doc.add(new StringField("id", Integer.toString(i), Store.NO));
+      w.addDocument(doc);
+    }
+    for (int i = 0; i < numDocs; ++i) {
+      if (random().nextInt(10) == 0) {
+        w.deleteDocuments(new Term("id", Integer.toString(i)));
+      }
+    }
+    IndexReader reader = DirectoryReader.open(w);
+    w.close();
+    // don't wrap the reader so that the postings format can bulk-read postings
+    IndexSearcher searcher = new IndexSearcher(reader);
+
+    for (int iter = 0; iter < 5; ++iter) {
+      Query query = new TermQuery(new Term("foo", Integer.toString(iter)));
+      Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE, 1);
+      for (LeafReaderContext ctx : reader.leaves()) {
+        BulkScorer bulkScorer = weight.bulkScorer(ctx);
+        Scorer scorer = weight.scorer(ctx);
+        if (scorer == null) {
+          assertNull(bulkScorer);
+          continue;
+        }
+        assertTrue(bulkScorer instanceof TermBulkScorer);
+        List<Integer> expectedDocs = new ArrayList<>();
+        List<Float> expectedScores = new ArrayList<>();
+        new Weight.DefaultBulkScorer(scorer).score(newRecordingCollector(expectedDocs, expectedScores), ctx.reader().getLiveDocs());
+        List<Integer> actualDocs = new ArrayList<>();
+        List<Float> actualScores = new ArrayList<>();
+        LeafCollector collector = newRecordingCollector(actualDocs, actualScores);
+        // score in random windows
+        int min = 0;
+        while (min < DocIdSetIterator.NO_MORE_DOCS) {
+          int max = random().nextBoolean() ? DocIdSetIterator.NO_MORE_DOCS : min + 1 + random().nextInt(300);
+          min = bulkScorer.score(collector, ctx.reader().getLiveDocs(), min, max);
+        }
+        assertEquals(expectedDocs, actualDocs);
+        assertEquals(expectedScores, actualScores);
+      }
+    }
+    reader.close();
+    dir.close();
+  }
+
+  private static LeafCollector newRecordingCollector(List<Integer> docs, List<Float> scores) {
+    return new LeafCollector() {
+      Scorable scorer;
+
+      @Override
+      public void setScorer(Scorable scorer) throws IOException {
+        this.scorer = scorer;
+      }
+
+      @Override
+      public void collect(int doc) throws IOException {
+        assertEquals(doc, scorer.docID());
+        docs.add(doc);
+        scores.add(scorer.score());
+      }
+    };
+  }
+
 }
@@ -19,8 +19,13 @@ package org.apache.lucene.store;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Ignore;
 
@@ -33,9 +38,117 @@ public class TestMmapDirectory extends BaseDirectoryTestCase {
   @Override
   protected Directory getDirectory(Path path) throws IOException {
     MMapDirectory m = new MMapDirectory(path);
-    m.setPreload(random().nextBoolean());
+    switch (random().nextInt(3)) {
+      case 0:
+        m.setPreload(random().nextBoolean());
+        break;
+      case 1:
+        m.setPreload(MMapDirectory.BASED_ON_LOAD_IO_CONTEXT);
+        break;
+      default:
+        m.setPreload((name, context) -> (name.hashCode() & 1) == 0);
+        break;
+    }
+    if (random().nextBoolean()) {
+      m.setPrefetchExecutor(Runnable::run);
+    }
     return m;
   }
+
+  public void testPrefetchExecutor() throws Exception {
+    // small chunks so that hints span multiple buffers
+    try (MMapDirectory dir = new MMapDirectory(createTempDir("testPrefetchExecutor"), FSLockFactory.getDefault(), 1 << 10)) {
+      assertNull(dir.getPrefetchExecutor());
+      final AtomicInteger hints = new AtomicInteger();
+      dir.setPrefetchExecutor(r -> {
+        hints.incrementAndGet();
+        r.run();
+      });
+      final byte[] bytes = new byte[1 << 12];
+      random().nextBytes(bytes);
+      try (IndexOutput out = dir.createOutput("a", IOContext.DEFAULT)) {
+        out.writeBytes(bytes, bytes.length);
+      }
+      final IndexInput in = dir.openInput("a", IOContext.DEFAULT);
+      in.prefetch(0, 10);
+      assertEquals(1, hints.get());
+      // one hint per buffer
+      in.prefetch(1000, 100);
+      assertEquals(3, hints.get());
+      in.prefetch(0, 0);
+      assertEquals(3, hints.get());
+
+      final IndexInput slice = in.slice("slice", 1000, 2000);
+      slice.prefetch(0, 2000);
+      assertEquals(6, hints.get());
+      slice.seek(24);
+      assertEquals(bytes[1024], slice.readByte());
+
+      // rejected hints are ignored
+      dir.setPrefetchExecutor(r -> {
+        throw new RejectedExecutionException();
+      });
+      try (IndexInput other = dir.openInput("a", IOContext.DEFAULT)) {
+        other.prefetch(0, bytes.length);
+        other.seek(42);
+        assertEquals(bytes[42], other.readByte());
+      }
+
+      in.close();
+      expectThrows(AlreadyClosedException.class, () -> in.prefetch(0, 10));
+    }
+  }
+
+  public void testCloseWithPendingPrefetch() throws Exception {
+    try (MMapDirectory dir = new MMapDirectory(createTempDir("testCloseWithPendingPrefetch"))) {
+      final List<Runnable> pending = new ArrayList<>();
+      dir.setPrefetchExecutor(pending::add);
+      final byte[] bytes = new byte[1 << 16];
+      random().nextBytes(bytes);
+      try (IndexOutput out = dir.createOutput("a", IOContext.DEFAULT)) {
+        out.writeBytes(bytes, bytes.length);
+      }
+      final IndexInput in = dir.openInput("a", IOContext.DEFAULT);
+      in.prefetch(0, bytes.length);
+      in.prefetch(100, 1000);
+      assertEquals(2, pending.size());
+      in.close();
+      // tasks that run after the input is closed must not touch the unmapped buffers
+      for (Runnable task : pending) {
+        task.run();
+      }
+    }
+  }
+
+  public void testPreloadPredicate() throws Exception {
+    try (MMapDirectory dir = new MMapDirectory(createTempDir("testPreloadPredicate"))) {
+      List<String> preloaded = new ArrayList<>();
+      dir.setPreload((name, context) -> {
+        if (MMapDirectory.BASED_ON_LOAD_IO_CONTEXT.test(name, context)) {
+          preloaded.add(name);
+          return true;
+        }
+        return false;
+      });
+      assertFalse(dir.getPreload());
+      for (String name : new String[] {"a", "b"}) {
+        try (IndexOutput out = dir.createOutput(name, IOContext.DEFAULT)) {
+          out.writeString(name);
+        }
+      }
+      try (IndexInput a = dir.openInput("a", IOContext.READ);
+           IndexInput b = dir.openInput("b", IOContext.LOAD)) {
+        assertEquals("a", a.readString());
+        assertEquals("b", b.readString());
+      }
+      assertEquals(Collections.singletonList("b"), preloaded);
+
+      dir.setPreload(true);
+      assertTrue(dir.getPreload());
+      dir.setPreload(false);
+      assertFalse(dir.getPreload());
+    }
+  }
   
   @Override
   public void setUp() throws Exception {
@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.lucene.codecs.MutablePointValues;
 import org.apache.lucene.index.CorruptIndexException;
@@ -1570,4 +1571,192 @@ public class TestBKD extends LuceneTestCase {
     dir.close();
   }
 
+
+  public void testForkJoinPoolBuildIsIdentical() throws Exception {
+    // 1D trees are sorted and have their leaves encoded concurrently rather than being partitioned
+    doTestForkJoinPoolBuildIsIdentical(1, 1);
+    final int numDims = TestUtil.nextInt(random(), 2, 4);
+    doTestForkJoinPoolBuildIsIdentical(numDims, TestUtil.nextInt(random(), 1, numDims));
+  }
+
+  private void doTestForkJoinPoolBuildIsIdentical(int numDims, int numIndexDims) throws Exception {
+    final int numBytesPerDim = TestUtil.nextInt(random(), 1, 4);
+    final int maxPointsInLeafNode = TestUtil.nextInt(random(), 16, 128);
+    final int numValues = atLeast(20000);
+    // sometimes force the offline path
+    final double maxMB = random().nextBoolean() ? 0.1 : BKDWriter.DEFAULT_MAX_MB_SORT_IN_HEAP;
+    final byte[][] values = new byte[numValues][numDims * numBytesPerDim];
+    for (int i = 0; i < numValues; i++) {
+      if (i > 0 && random().nextInt(10) == 0) {
+        values[i] = values[random().nextInt(i)].clone();
+      } else {
+        random().nextBytes(values[i]);
+      }
+    }
+
+    final ForkJoinPool pool = new ForkJoinPool(TestUtil.nextInt(random(), 1, 4));
+    try {
+      for (boolean mutable : new boolean[] {false, true}) {
+        byte[] expected = buildBKD(values, numDims, numIndexDims, numBytesPerDim, maxPointsInLeafNode, maxMB, mutable, null);
+        byte[] actual = buildBKD(values, numDims, numIndexDims, numBytesPerDim, maxPointsInLeafNode, maxMB, mutable, pool);
+        assertArrayEquals("numDims=" + numDims + " mutable=" + mutable, expected, actual);
+      }
+      if (numDims == 1) {
+        final int numSegments = TestUtil.nextInt(random(), 2, 5);
+        byte[] expected = mergeBKD(values, numSegments, numBytesPerDim, maxPointsInLeafNode, maxMB, null);
+        byte[] actual = mergeBKD(values, numSegments, numBytesPerDim, maxPointsInLeafNode, maxMB, pool);
+        assertArrayEquals("merge", expected, actual);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** Writes the values to several 1D trees, and then merges them into a single tree. */
+  private byte[] mergeBKD(byte[][] values, int numSegments, int numBytesPerDim, int maxPointsInLeafNode, double maxMB,
+                          ForkJoinPool pool) throws IOException {
+    final int numValues = values.length;
+    try (Directory dir = newDirectory()) {
+      List<Long> segmentFPs = new ArrayList<>();
+      List<MergeState.DocMap> docMaps = new ArrayList<>();
+      try (IndexOutput out = dir.createOutput("segments", IOContext.DEFAULT)) {
+        for (int seg = 0; seg < numSegments; seg++) {
+          final int docBase = (int) ((long) numValues * seg / numSegments);
+          final int maxDoc = (int) ((long) numValues * (seg + 1) / numSegments) - docBase;
+          try (BKDWriter w = new BKDWriter(maxDoc, dir, "_0", 1, 1, numBytesPerDim, maxPointsInLeafNode, maxMB, maxDoc)) {
+            for (int i = 0; i < maxDoc; i++) {
+              w.add(values[docBase + i], i);
+            }
+            segmentFPs.add(w.finish(out));
+          }
+          docMaps.add(new MergeState.DocMap() {
+            @Override
+            public int get(int docID) {
+              return docBase + docID;
+            }
+          });
+        }
+      }
+      try (IndexInput in = dir.openInput("segments", IOContext.DEFAULT);
+           BKDWriter w = new BKDWriter(numValues, dir, "_1", 1, 1, numBytesPerDim, maxPointsInLeafNode, maxMB, numValues, pool);
+           IndexOutput out = dir.createOutput("bkd", IOContext.DEFAULT)) {
+        List<BKDReader> readers = new ArrayList<>();
+        for (long fp : segmentFPs) {
+          in.seek(fp);
+          readers.add(new BKDReader(in));
+        }
+        w.merge(out, docMaps, readers);
+      }
+      try (IndexInput in = dir.openInput("bkd", IOContext.DEFAULT)) {
+        byte[] bytes = new byte[Math.toIntExact(in.length())];
+        in.readBytes(bytes, 0, bytes.length);
+        return bytes;
+      }
+    }
+  }
+
+  private byte[] buildBKD(byte[][] values, int numDims, int numIndexDims, int numBytesPerDim, int maxPointsInLeafNode,
+                          double maxMB, boolean mutable, ForkJoinPool pool) throws IOException {
+    final int numValues = values.length;
+    final int[] ords = new int[numValues];
+    for (int i = 0; i < numValues; i++) {
+      ords[i] = i;
+    }
+    try (Directory dir = newDirectory()) {
+      try (BKDWriter w = new BKDWriter(numValues, dir, "_0", numDims, numIndexDims, numBytesPerDim, maxPointsInLeafNode,
+          maxMB, numValues, pool);
+           IndexOutput out = dir.createOutput("bkd", IOContext.DEFAULT)) {
+        if (mutable) {
+          w.writeField(out, "field", new MutablePointValues() {
+            @Override
+            public void getValue(int i, BytesRef packedValue) {
+              packedValue.bytes = values[ords[i]];
+              packedValue.offset = 0;
+              packedValue.length = values[ords[i]].length;
+            }
+
+            @Override
+            public byte getByteAt(int i, int k) {
+              return values[ords[i]][k];
+            }
+
+            @Override
+            public int getDocID(int i) {
+              return ords[i];
+            }
+
+            @Override
+            public void swap(int i, int j) {
+              int tmp = ords[i];
+              ords[i] = ords[j];
+              ords[j] = tmp;
+            }
+
+            @Override
+            public void intersect(IntersectVisitor visitor) throws IOException {
+              // 1D trees read the points back in order once sorted
+              for (int i = 0; i < numValues; i++) {
+                visitor.visit(ords[i], values[ords[i]]);
+              }
+            }
+
+            @Override
+            public long estimatePointCount(IntersectVisitor visitor) {
+              throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public byte[] getMinPackedValue() {
+              throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public byte[] getMaxPackedValue() {
+              throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int getNumDimensions() {
+              return numDims;
+            }
+
+            @Override
+            public int getNumIndexDimensions() {
+              return numIndexDims;
+            }
+
+            @Override
+            public int getBytesPerDimension() {
+              return numBytesPerDim;
+            }
+
+            @Override
+            public long size() {
+              return numValues;
+            }
+
+            @Override
+            public int getDocCount() {
+              return numValues;
+            }
+          });
+        } else {
+          for (int i = 0; i < numValues; i++) {
+            w.add(values[i], i);
+          }
+          w.finish(out);
+        }
+      }
+      // forked subtrees must not leave temporary files behind
+      String[] files = Arrays.stream(dir.listAll())
+          .filter(file -> !ExtrasFS.isExtra(file))
+          .toArray(String[]::new);
+      assertArrayEquals(new String[] {"bkd"}, files);
+      try (IndexInput in = dir.openInput("bkd", IOContext.DEFAULT)) {
+        byte[] bytes = new byte[Math.toIntExact(in.length())];
+        in.readBytes(bytes, 0, bytes.length);
+        return bytes;
+      }
+    }
+  }
 }
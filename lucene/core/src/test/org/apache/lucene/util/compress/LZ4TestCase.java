@@ -46,6 +46,11 @@ public abstract class LZ4TestCase extends LuceneTestCase {
       assertTrue(in.assertReset());
     }
 
+    @Override
+    void initDictionary(int dictLen) {
+      in.initDictionary(dictLen);
+    }
+
     @Override
     int get(int off) {
       return in.get(off);
@@ -139,6 +144,58 @@ public abstract class LZ4TestCase extends LuceneTestCase {
     assertArrayEquals(ArrayUtil.copyOfSubArray(data, offset, offset+length), ArrayUtil.copyOfSubArray(restored, 0, length));
   }
 
+  private void doTestWithDictionary(byte[] data, int dictLen, LZ4.HashTable hashTable) throws IOException {
+    final int offset = random().nextInt(10);
+    byte[] copy = new byte[data.length + offset + random().nextInt(10)];
+    System.arraycopy(data, 0, copy, offset, data.length);
+    final int length = data.length - dictLen;
+
+    ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+    LZ4.compressWithDictionary(copy, offset, dictLen, length, out, hashTable);
+    byte[] compressed = out.toArrayCopy();
+
+    // Compress once again with the same hash table to test reuse
+    ByteBuffersDataOutput out2 = new ByteBuffersDataOutput();
+    LZ4.compressWithDictionary(copy, offset, dictLen, length, out2, hashTable);
+    assertArrayEquals(compressed, out2.toArrayCopy());
+
+    // Now restore after the dictionary and compare bytes
+    byte[] restored = new byte[data.length + random().nextInt(10)];
+    System.arraycopy(data, 0, restored, 0, dictLen);
+    final int end = LZ4.decompress(new ByteArrayDataInput(compressed), length, restored, dictLen);
+    assertEquals(data.length, end);
+    assertArrayEquals(data, ArrayUtil.copyOfSubArray(restored, 0, data.length));
+  }
+
+  public void testDictionary() throws IOException {
+    final int dictLen = TestUtil.nextInt(random(), 1, 1 << 12);
+    final byte[] data = new byte[dictLen + TestUtil.nextInt(random(), 0, 1 << 14)];
+    random().nextBytes(data);
+    // the compressed content repeats parts of the dictionary
+    for (int i = dictLen; i < data.length; ) {
+      final int len = TestUtil.nextInt(random(), 1, Math.min(dictLen, data.length - i));
+      final int from = random().nextInt(dictLen - len + 1);
+      System.arraycopy(data, from, data, i, len);
+      i += len + random().nextInt(5);
+    }
+    doTestWithDictionary(data, dictLen, newHashTable());
+  }
+
+  public void testDictionaryCompressesBetter() throws IOException {
+    final byte[] data = new byte[TestUtil.nextInt(random(), 100, 1 << 12) * 2];
+    random().nextBytes(data);
+    final int dictLen = data.length / 2;
+    System.arraycopy(data, 0, data, dictLen, dictLen);
+
+    ByteBuffersDataOutput withoutDict = new ByteBuffersDataOutput();
+    LZ4.compress(data, dictLen, data.length - dictLen, withoutDict, newHashTable());
+    ByteBuffersDataOutput withDict = new ByteBuffersDataOutput();
+    LZ4.compressWithDictionary(data, 0, dictLen, data.length - dictLen, withDict, newHashTable());
+    // random bytes don't compress on their own, but are a single match against the dictionary
+    assertTrue(withDict.size() + " vs. " + withoutDict.size(), withDict.size() < withoutDict.size() / 10);
+    doTestWithDictionary(data, dictLen, newHashTable());
+  }
+
   public void testEmpty() throws IOException {
     // literals and matchs lengths <= 15
     final byte[] data = "".getBytes(StandardCharsets.UTF_8);
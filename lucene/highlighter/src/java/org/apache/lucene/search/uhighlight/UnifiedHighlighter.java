@@ -598,6 +598,11 @@ public class UnifiedHighlighter {
     IndexReader indexReaderWithTermVecCache =
         (numTermVectors >= 2) ? TermVectorReusingLeafReader.wrap(searcher.getIndexReader()) : null;
 
+    // Hint the stored fields of all docs up front so they can be fetched concurrently
+    for (int docId : docIds) {
+      searcher.getIndexReader().prefetchDocument(docId);
+    }
+
     // [fieldIdx][docIdInIndex] of highlightDoc result
     Object[][] highlightDocsInByField = new Object[fields.length][docIds.length];
     // Highlight in doc batches determined by loadFieldValues (consumes from docIdIter)
@@ -303,8 +303,10 @@ public final class IndexUtils {
               format = "Lucene 7.2 or later";
             } else if (actualVersion == SegmentInfos.VERSION_74) {
               format = "Lucene 7.4 or later";
-            } else if (actualVersion > SegmentInfos.VERSION_74) {
-              format = "Lucene 7.4 or later (UNSUPPORTED)";
+            } else if (actualVersion == SegmentInfos.VERSION_90) {
+              format = "Lucene 9.0 or later";
+            } else if (actualVersion > SegmentInfos.VERSION_90) {
+              format = "Lucene 9.0 or later (UNSUPPORTED)";
             }
           } else {
             format = "Lucene 6.x or prior (UNSUPPORTED)";
@@ -141,9 +141,11 @@ public class IndexSplitter {
       // Same info just changing the dir:
       SegmentInfo newInfo = new SegmentInfo(destFSDir, info.getVersion(), info.getMinVersion(), info.name, info.maxDoc(),
                                             info.getUseCompoundFile(), info.getCodec(), info.getDiagnostics(), info.getId(), Collections.emptyMap(), null);
-      destInfos.add(new SegmentCommitInfo(newInfo, infoPerCommit.getDelCount(), infoPerCommit.getSoftDelCount(),
+      SegmentCommitInfo newInfoPerCommit = new SegmentCommitInfo(newInfo, infoPerCommit.getDelCount(), infoPerCommit.getSoftDelCount(),
           infoPerCommit.getDelGen(), infoPerCommit.getFieldInfosGen(),
-          infoPerCommit.getDocValuesGen()));
+          infoPerCommit.getDocValuesGen());
+      newInfoPerCommit.setHasStackedDocValuesUpdates(infoPerCommit.hasStackedDocValuesUpdates());
+      destInfos.add(newInfoPerCommit);
       // now copy files over
       Collection<String> files = infoPerCommit.files();
       for (final String srcName : files) {
@@ -0,0 +1,442 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import org.apache.lucene.store.IOContext.Context;
+
+/**
+ * A {@link Directory} wrapper that uses direct I/O to bypass the OS page cache for the
+ * {@link IndexInput}s and {@link IndexOutput}s that are used to merge segments larger than a
+ * specified size (default 10 MB). This avoids evicting hot pages that are still in use for
+ * searching, keeping search more responsive while large merges run. All other operations are
+ * delegated to the wrapped {@link FSDirectory}.
+ *
+ * <p>Unlike {@link NativeUnixDirectory}, this directory doesn't need a native library: files are
+ * opened with the JDK's {@code com.sun.nio.file.ExtendedOpenOption.DIRECT} option and read and written through buffers that are
+ * aligned on the block size of the underlying file store. Support for direct I/O is checked when
+ * the directory is created; if the JVM, the operating system or the file system doesn't support
+ * it, as is the case on some file systems, all I/O is delegated to the wrapped directory.
+ * {@link #isDirectIOSupported()} tells whether direct I/O is actually used.
+ *
+ * @lucene.experimental
+ */
+public class DirectIODirectory extends FilterDirectory {
+
+  /** Default buffer size before writing to disk (256 KB);
+   *  larger means less IO load but more RAM and direct
+   *  buffer storage space consumed during merging. */
+  public final static int DEFAULT_MERGE_BUFFER_SIZE = 256 * 1024;
+
+  /** Default min expected merge size before direct IO is
+   *  used (10 MB): */
+  public final static long DEFAULT_MIN_BYTES_DIRECT = 10 * 1024 * 1024;
+
+  /** The JDK's open option for direct I/O, or null if this JVM doesn't provide it. */
+  private static final OpenOption DIRECT_OPEN_OPTION = lookupDirectOpenOption();
+
+  private final FSDirectory delegate;
+  private final int blockSize;
+  private final int mergeBufferSize;
+  private final long minBytesDirect;
+  private final boolean directIOSupported;
+
+  /**
+   * Create a new DirectIODirectory for the named location.
+   *
+   * @param delegate Directory for non-merges, also used as reference to file system path
+   * @param mergeBufferSize Size of buffer to use for merging, rounded up to a multiple of the
+   *   block size of the file store. See {@link #DEFAULT_MERGE_BUFFER_SIZE}.
+   * @param minBytesDirect Merges, or files to be opened for reading, smaller than this will
+   *   not use direct IO. See {@link #DEFAULT_MIN_BYTES_DIRECT}
+   * @throws IOException If there is a low-level I/O error
+   */
+  public DirectIODirectory(FSDirectory delegate, int mergeBufferSize, long minBytesDirect) throws IOException {
+    super(delegate);
+    if (mergeBufferSize <= 0) {
+      throw new IllegalArgumentException("mergeBufferSize must be > 0 (got: " + mergeBufferSize + ")");
+    }
+    if (minBytesDirect < 0) {
+      throw new IllegalArgumentException("minBytesDirect must be >= 0 (got: " + minBytesDirect + ")");
+    }
+    this.delegate = delegate;
+    this.blockSize = getBlockSize(delegate.getDirectory());
+    this.directIOSupported = DIRECT_OPEN_OPTION != null && blockSize > 0 && probeDirectIO(delegate.getDirectory());
+    this.mergeBufferSize = blockSize > 0 ? roundUp(mergeBufferSize, blockSize) : mergeBufferSize;
+    this.minBytesDirect = minBytesDirect;
+  }
+
+  /**
+   * Create a new DirectIODirectory for the named location with {@link #DEFAULT_MERGE_BUFFER_SIZE}
+   * and {@link #DEFAULT_MIN_BYTES_DIRECT}.
+   *
+   * @param delegate Directory for non-merges, also used as reference to file system path
+   * @throws IOException If there is a low-level I/O error
+   */
+  public DirectIODirectory(FSDirectory delegate) throws IOException {
+    this(delegate, DEFAULT_MERGE_BUFFER_SIZE, DEFAULT_MIN_BYTES_DIRECT);
+  }
+
+  /** Returns true if files may be opened with direct I/O, false if all I/O is delegated. */
+  public boolean isDirectIOSupported() {
+    return directIOSupported;
+  }
+
+  /** Returns the size of the buffers that are used for direct I/O. */
+  public int getMergeBufferSize() {
+    return mergeBufferSize;
+  }
+
+  /**
+   * Determines if direct IO should be used for a file. By default this tests if it is a merge
+   * context and if the merge or file length exceeds the minimum size (see
+   * {@link #DEFAULT_MIN_BYTES_DIRECT}). Subclasses may override method to enforce direct IO for
+   * specific file types.
+   *
+   * @param name file name (unused by default implementation)
+   * @param context information about merge size
+   * @param fileLength if available, gives the file length. Will be empty when requesting an
+   *   {@link IndexOutput}.
+   * @return {@code true} if direct IO should be used; {@code false} if input/output should be
+   *   requested from delegate directory.
+   */
+  protected boolean useDirectIO(String name, IOContext context, OptionalLong fileLength) {
+    return context.context == Context.MERGE
+        && context.mergeInfo.estimatedMergeBytes >= minBytesDirect
+        && fileLength.orElse(minBytesDirect) >= minBytesDirect;
+  }
+
+  @Override
+  public IndexInput openInput(String name, IOContext context) throws IOException {
+    ensureOpen();
+    if (directIOSupported && useDirectIO(name, context, OptionalLong.of(fileLength(name)))) {
+      delegate.ensureCanRead(name);
+      return new DirectIOIndexInput(delegate.getDirectory().resolve(name), blockSize, mergeBufferSize);
+    } else {
+      return in.openInput(name, context);
+    }
+  }
+
+  @Override
+  public IndexOutput createOutput(String name, IOContext context) throws IOException {
+    ensureOpen();
+    if (directIOSupported && useDirectIO(name, context, OptionalLong.empty())) {
+      return new DirectIOIndexOutput(delegate.getDirectory().resolve(name), name, blockSize, mergeBufferSize);
+    } else {
+      return in.createOutput(name, context);
+    }
+  }
+
+  private static int roundUp(long value, int blockSize) {
+    return Math.toIntExact((value + blockSize - 1) / blockSize * blockSize);
+  }
+
+  private static ByteBuffer allocateAligned(int size, int blockSize) {
+    return ByteBuffer.allocateDirect(size + blockSize - 1).alignedSlice(blockSize);
+  }
+
+  /** Returns the block size of the file store of the given path, or -1 if it is unknown. */
+  private static int getBlockSize(Path path) {
+    try {
+      final long blockSize = Files.getFileStore(path).getBlockSize();
+      if (blockSize <= 0 || blockSize > (1 << 20) || Long.bitCount(blockSize) != 1) {
+        return -1;
+      }
+      return (int) blockSize;
+    } catch (IOException | UnsupportedOperationException e) {
+      return -1;
+    }
+  }
+
+  /** Checks that a file of the given directory can be opened with direct I/O. */
+  private static boolean probeDirectIO(Path dir) {
+    Path probe = null;
+    try {
+      probe = Files.createTempFile(dir, "directio", ".probe");
+      FileChannel.open(probe, StandardOpenOption.READ, DIRECT_OPEN_OPTION).close();
+      return true;
+    } catch (IOException | UnsupportedOperationException e) {
+      return false;
+    } finally {
+      if (probe != null) {
+        try {
+          Files.deleteIfExists(probe);
+        } catch (IOException ignored) {
+          // best effort
+        }
+      }
+    }
+  }
+
+  // looked up reflectively since com.sun.nio.file is not part of the Java SE API
+  private static OpenOption lookupDirectOpenOption() {
+    try {
+      final Class<? extends OpenOption> clazz = Class.forName("com.sun.nio.file.ExtendedOpenOption").asSubclass(OpenOption.class);
+      return Arrays.stream(clazz.getEnumConstants())
+          .filter(option -> option.toString().equalsIgnoreCase("DIRECT"))
+          .findFirst()
+          .orElse(null);
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      return null;
+    }
+  }
+
+  private final static class DirectIOIndexOutput extends IndexOutput {
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+    private final Checksum digest;
+    private final int blockSize;
+
+    private long filePos;
+    private boolean isOpen;
+
+    /**
+     * Creates a new instance of DirectIOIndexOutput for writing index output with direct IO bypassing OS buffer
+     *
+     * @throws IOException if the operating system or filesystem does not support Direct I/O or a sufficient equivalent.
+     */
+    public DirectIOIndexOutput(Path path, String name, int blockSize, int bufferSize) throws IOException {
+      super("DirectIOIndexOutput(path=\"" + path.toString() + "\")", name);
+      channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW, DIRECT_OPEN_OPTION);
+      buffer = allocateAligned(bufferSize, blockSize);
+      digest = new BufferedChecksum(new CRC32());
+      this.blockSize = blockSize;
+      isOpen = true;
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+      buffer.put(b);
+      digest.update(b);
+      if (buffer.hasRemaining() == false) {
+        dump();
+      }
+    }
+
+    @Override
+    public void writeBytes(byte[] src, int offset, int len) throws IOException {
+      digest.update(src, offset, len);
+      int toWrite = len;
+      while (true) {
+        final int left = buffer.remaining();
+        if (left <= toWrite) {
+          buffer.put(src, offset, left);
+          toWrite -= left;
+          offset += left;
+          dump();
+        } else {
+          buffer.put(src, offset, toWrite);
+          break;
+        }
+      }
+    }
+
+    private void dump() throws IOException {
+      final int size = buffer.position();
+
+      // we need to rewind, as we have to write full blocks (we truncate file later):
+      buffer.rewind();
+      buffer.limit(roundUp(size, blockSize));
+
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, filePos + buffer.position());
+      }
+      filePos += size;
+
+      buffer.clear();
+    }
+
+    @Override
+    public long getFilePointer() {
+      return filePos + buffer.position();
+    }
+
+    @Override
+    public long getChecksum() {
+      return digest.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (isOpen) {
+        isOpen = false;
+        try {
+          dump();
+        } finally {
+          try (FileChannel ch = channel) {
+            ch.truncate(getFilePointer());
+          }
+        }
+      }
+    }
+  }
+
+  private final static class DirectIOIndexInput extends IndexInput {
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+    private final int blockSize;
+    private final long length;
+
+    private boolean isOpen;
+    private boolean isClone;
+    private long filePos;
+
+    /**
+     * Creates a new instance of DirectIOIndexInput for reading index input with direct IO bypassing OS buffer
+     *
+     * @throws IOException if the operating system or filesystem does not support Direct I/O or a sufficient equivalent.
+     */
+    public DirectIOIndexInput(Path path, int blockSize, int bufferSize) throws IOException {
+      super("DirectIOIndexInput(path=\"" + path + "\")");
+      this.channel = FileChannel.open(path, StandardOpenOption.READ, DIRECT_OPEN_OPTION);
+      this.blockSize = blockSize;
+      this.buffer = allocateAligned(bufferSize, blockSize);
+      this.length = channel.size();
+      isOpen = true;
+      isClone = false;
+      filePos = 0;
+      buffer.limit(0);
+    }
+
+    // for clone/slice
+    private DirectIOIndexInput(String description, DirectIOIndexInput other) throws IOException {
+      super(description);
+      this.channel = other.channel;
+      this.blockSize = other.blockSize;
+      this.buffer = allocateAligned(other.buffer.capacity(), blockSize);
+      this.length = other.length;
+      isOpen = true;
+      isClone = true;
+      filePos = 0;
+      buffer.limit(0);
+      seek(other.getFilePointer());
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (isOpen && isClone == false) {
+        isOpen = false;
+        channel.close();
+      }
+    }
+
+    @Override
+    public long getFilePointer() {
+      return filePos + buffer.position();
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+      if (pos != getFilePointer()) {
+        if (pos < 0 || pos > length) {
+          throw new EOFException("seek past EOF: pos=" + pos + " vs length=" + length + ": " + this);
+        }
+        final long alignedPos = pos - (pos % blockSize);
+        filePos = alignedPos;
+        buffer.limit(0);
+        final int delta = (int) (pos - alignedPos);
+        if (delta != 0) {
+          refill();
+          buffer.position(delta);
+        }
+      }
+    }
+
+    @Override
+    public long length() {
+      return length;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+      if (buffer.hasRemaining() == false) {
+        refill();
+      }
+      return buffer.get();
+    }
+
+    private void refill() throws IOException {
+      final long nextFilePos = filePos + buffer.limit();
+      if (nextFilePos >= length) {
+        // throw before touching the buffer so that the file pointer is preserved
+        throw new EOFException("read past EOF: " + this);
+      }
+      filePos = nextFilePos;
+      assert filePos % blockSize == 0 : "filePos=" + filePos + " blockSize=" + blockSize;
+
+      buffer.clear();
+      try {
+        // reads are aligned, only the last block of the file may be partially read
+        while (buffer.hasRemaining() && filePos + buffer.position() < length) {
+          if (channel.read(buffer, filePos + buffer.position()) < 0) {
+            break;
+          }
+        }
+      } catch (IOException ioe) {
+        throw new IOException(ioe.getMessage() + ": " + this, ioe);
+      }
+      buffer.flip();
+    }
+
+    @Override
+    public void readBytes(byte[] dst, int offset, int len) throws IOException {
+      int toRead = len;
+      while (true) {
+        final int left = buffer.remaining();
+        if (left < toRead) {
+          buffer.get(dst, offset, left);
+          toRead -= left;
+          offset += left;
+          refill();
+        } else {
+          buffer.get(dst, offset, toRead);
+          break;
+        }
+      }
+    }
+
+    @Override
+    public DirectIOIndexInput clone() {
+      try {
+        return new DirectIOIndexInput(toString(), this);
+      } catch (IOException ioe) {
+        throw new RuntimeException("IOException during clone: " + this, ioe);
+      }
+    }
+
+    @Override
+    public IndexInput slice(String sliceDescription, long offset, long length) throws IOException {
+      if (offset < 0 || length < 0 || offset + length > this.length) {
+        throw new IllegalArgumentException("slice() " + sliceDescription + " out of bounds: offset=" + offset
+            + ",length=" + length + ",fileLength=" + this.length + ": " + this);
+      }
+      return BufferedIndexInput.wrap(sliceDescription, this, offset, length);
+    }
+  }
+}
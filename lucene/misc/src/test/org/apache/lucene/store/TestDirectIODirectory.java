@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.OptionalLong;
+
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.util.TestUtil;
+
+public class TestDirectIODirectory extends BaseDirectoryTestCase {
+
+  @Override
+  protected DirectIODirectory getDirectory(Path path) throws IOException {
+    return new DirectIODirectory(FSDirectory.open(path), TestUtil.nextInt(random(), 1, 1 << 16), 0L) {
+      @Override
+      protected boolean useDirectIO(String name, IOContext context, OptionalLong fileLength) {
+        return true;
+      }
+    };
+  }
+
+  public void testMergeBufferSizeIsAligned() throws IOException {
+    try (DirectIODirectory dir = new DirectIODirectory(FSDirectory.open(createTempDir()), 1, 0L)) {
+      assumeTrue("direct IO is not supported", dir.isDirectIOSupported());
+      assertTrue(dir.getMergeBufferSize() > 1);
+      assertEquals(1, Integer.bitCount(dir.getMergeBufferSize()));
+    }
+  }
+
+  public void testIllegalArguments() throws IOException {
+    try (FSDirectory fsDir = FSDirectory.open(createTempDir())) {
+      expectThrows(IllegalArgumentException.class, () -> new DirectIODirectory(fsDir, 0, 0L));
+      expectThrows(IllegalArgumentException.class, () -> new DirectIODirectory(fsDir, 1024, -1L));
+    }
+  }
+
+  public void testUseDirectIO() throws IOException {
+    try (DirectIODirectory dir = new DirectIODirectory(FSDirectory.open(createTempDir()))) {
+      final long minBytesDirect = DirectIODirectory.DEFAULT_MIN_BYTES_DIRECT;
+      assertFalse(dir.useDirectIO("foo", IOContext.DEFAULT, OptionalLong.empty()));
+      assertFalse(dir.useDirectIO("foo", newMergeContext(minBytesDirect - 1), OptionalLong.empty()));
+      assertTrue(dir.useDirectIO("foo", newMergeContext(minBytesDirect), OptionalLong.empty()));
+      assertFalse(dir.useDirectIO("foo", newMergeContext(minBytesDirect), OptionalLong.of(minBytesDirect - 1)));
+      assertTrue(dir.useDirectIO("foo", newMergeContext(minBytesDirect), OptionalLong.of(minBytesDirect)));
+    }
+  }
+
+  public void testMergeOutputAndInput() throws IOException {
+    try (DirectIODirectory dir = new DirectIODirectory(FSDirectory.open(createTempDir()), 4096, 0L)) {
+      assumeTrue("direct IO is not supported", dir.isDirectIOSupported());
+      final IOContext context = newMergeContext(1024);
+      final int numBytes = TestUtil.nextInt(random(), 1, 3 * 4096 + 17);
+      final byte[] bytes = new byte[numBytes];
+      random().nextBytes(bytes);
+      try (IndexOutput out = dir.createOutput("foo", context)) {
+        assertTrue(out.toString(), out.toString().startsWith("DirectIOIndexOutput"));
+        out.writeBytes(bytes, bytes.length);
+      }
+      assertEquals(numBytes, dir.fileLength("foo"));
+      try (IndexInput in = dir.openInput("foo", context)) {
+        assertTrue(in.toString(), in.toString().startsWith("DirectIOIndexInput"));
+        final byte[] read = new byte[numBytes];
+        in.readBytes(read, 0, numBytes);
+        assertArrayEquals(bytes, read);
+        final int pos = random().nextInt(numBytes);
+        in.seek(pos);
+        assertEquals(bytes[pos], in.readByte());
+      }
+      try (IndexInput in = dir.openInput("foo", IOContext.DEFAULT)) {
+        assertFalse(in.toString(), in.toString().startsWith("DirectIOIndexInput"));
+      }
+    }
+  }
+
+  public void testIndexWriter() throws IOException {
+    try (Directory dir = new DirectIODirectory(FSDirectory.open(createTempDir()), DirectIODirectory.DEFAULT_MERGE_BUFFER_SIZE, 0L)) {
+      final int numDocs = atLeast(1000);
+      IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+      try (IndexWriter w = new IndexWriter(dir, iwc)) {
+        for (int i = 0; i < numDocs; i++) {
+          Document doc = new Document();
+          doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+          doc.add(new TextField("body", TestUtil.randomUnicodeString(random()), Field.Store.YES));
+          doc.add(new NumericDocValuesField("dv", i));
+          w.addDocument(doc);
+          if (rarely()) {
+            w.commit();
+          }
+        }
+        w.forceMerge(1);
+      }
+      try (DirectoryReader reader = DirectoryReader.open(dir)) {
+        assertEquals(numDocs, reader.numDocs());
+        assertEquals(1, reader.leaves().size());
+      }
+      TestUtil.checkIndex(dir);
+    }
+  }
+
+  private static IOContext newMergeContext(long estimatedMergeBytes) {
+    return new IOContext(new MergeInfo(1000, estimatedMergeBytes, false, 1));
+  }
+}
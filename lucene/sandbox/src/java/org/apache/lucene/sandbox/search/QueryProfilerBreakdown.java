@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.sandbox.search;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.lucene.index.LeafReaderContext;
+
+/**
+ * Timers of a single node of the query tree. Per-segment operations are
+ * measured by dedicated {@link Timings}, so that segments can be searched
+ * concurrently.
+ */
+final class QueryProfilerBreakdown {
+
+  /** One timer per {@link QueryProfilerTimingType}. */
+  static final class Timings {
+
+    private final QueryProfilerTimer[] timers = new QueryProfilerTimer[QueryProfilerTimingType.values().length];
+
+    Timings() {
+      for (int i = 0; i < timers.length; ++i) {
+        timers[i] = new QueryProfilerTimer();
+      }
+    }
+
+    QueryProfilerTimer getTimer(QueryProfilerTimingType type) {
+      return timers[type.ordinal()];
+    }
+  }
+
+  private final Timings timings = new Timings();
+  private final Map<Integer, Queue<Timings>> leafTimings = new ConcurrentHashMap<>();
+
+  /** Return the timer for an operation that doesn't run on a specific segment. */
+  QueryProfilerTimer getTimer(QueryProfilerTimingType type) {
+    return timings.getTimer(type);
+  }
+
+  /** Create new timings for a scorer on the given segment. These timings
+   *  must only be used by one thread at a time. */
+  Timings newLeafTimings(LeafReaderContext context) {
+    final Timings leaf = new Timings();
+    leafTimings.computeIfAbsent(context.ord, ord -> new ConcurrentLinkedQueue<>()).add(leaf);
+    return leaf;
+  }
+
+  /** Total time spent in this node. {@link QueryProfilerTimingType#COLLECT} is
+   *  excluded since it is already included in {@link QueryProfilerTimingType#BULK_SCORE}. */
+  long toTotalTime() {
+    long total = 0;
+    for (QueryProfilerTimingType type : QueryProfilerTimingType.values()) {
+      if (type != QueryProfilerTimingType.COLLECT) {
+        total += timings.getTimer(type).getTimeNanos();
+        for (Queue<Timings> leaves : leafTimings.values()) {
+          for (Timings leaf : leaves) {
+            total += leaf.getTimer(type).getTimeNanos();
+          }
+        }
+      }
+    }
+    return total;
+  }
+
+  /** Breakdown across all segments. */
+  Map<String, Long> toBreakdownMap() {
+    final Map<String, Long> map = new TreeMap<>();
+    addToBreakdownMap(timings, map);
+    for (Queue<Timings> leaves : leafTimings.values()) {
+      for (Timings leaf : leaves) {
+        addToBreakdownMap(leaf, map);
+      }
+    }
+    return Collections.unmodifiableMap(map);
+  }
+
+  /** Breakdowns of per-segment operations, keyed by segment ord. */
+  Map<Integer, Map<String, Long>> toSegmentBreakdownMaps() {
+    final Map<Integer, Map<String, Long>> maps = new TreeMap<>();
+    for (Map.Entry<Integer, Queue<Timings>> entry : leafTimings.entrySet()) {
+      final Map<String, Long> map = new TreeMap<>();
+      for (Timings leaf : entry.getValue()) {
+        addToBreakdownMap(leaf, map);
+      }
+      maps.put(entry.getKey(), Collections.unmodifiableMap(map));
+    }
+    return Collections.unmodifiableMap(maps);
+  }
+
+  private static void addToBreakdownMap(Timings timings, Map<String, Long> map) {
+    for (QueryProfilerTimingType type : QueryProfilerTimingType.values()) {
+      final QueryProfilerTimer timer = timings.getTimer(type);
+      map.merge(type.toString(), timer.getTimeNanos(), Long::sum);
+      map.merge(type + "_count", timer.getCount(), Long::sum);
+      if (QueryProfilerTimer.isAllocationTrackingSupported()) {
+        map.merge(type + "_allocated_bytes", timer.getAllocatedBytes(), Long::sum);
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.sandbox.search;
+
+import java.io.IOException;
+
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.util.Bits;
+
+/**
+ * {@link BulkScorer} wrapper that measures bulk scoring, and the time that
+ * the collector spends collecting hits.
+ */
+final class QueryProfilerBulkScorer extends BulkScorer {
+
+  private final BulkScorer in;
+  private final QueryProfilerTimer bulkScoreTimer, collectTimer;
+
+  QueryProfilerBulkScorer(BulkScorer in, QueryProfilerBreakdown.Timings timings) {
+    this.in = in;
+    bulkScoreTimer = timings.getTimer(QueryProfilerTimingType.BULK_SCORE);
+    collectTimer = timings.getTimer(QueryProfilerTimingType.COLLECT);
+  }
+
+  @Override
+  public int score(LeafCollector collector, Bits acceptDocs, int min, int max) throws IOException {
+    final LeafCollector profiledCollector = new LeafCollector() {
+
+      @Override
+      public void setScorer(Scorable scorer) throws IOException {
+        collector.setScorer(scorer);
+      }
+
+      @Override
+      public void collect(int doc) throws IOException {
+        collectTimer.start();
+        try {
+          collector.collect(doc);
+        } finally {
+          collectTimer.stop();
+        }
+      }
+
+      @Override
+      public DocIdSetIterator competitiveIterator() throws IOException {
+        return collector.competitiveIterator();
+      }
+    };
+    bulkScoreTimer.start();
+    try {
+      return in.score(profiledCollector, acceptDocs, min, max);
+    } finally {
+      bulkScoreTimer.stop();
+    }
+  }
+
+  @Override
+  public long cost() {
+    return in.cost();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.sandbox.search;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Weight;
+
+/**
+ * An {@link IndexSearcher} that profiles the queries that it runs. Every
+ * {@link Weight} of the query tree is wrapped, as well as the scorers and
+ * bulk scorers that it creates, in order to measure the time spent and the
+ * bytes allocated by each operation, per query node and per segment.
+ * <p>
+ * Profiling adds overhead to every call, so absolute timings are inflated,
+ * but they are useful to find out which parts of a query are costly. This
+ * searcher is meant to run a single search, after which profiling results
+ * can be retrieved with {@link #getProfileResult()}.
+ *
+ * @lucene.experimental
+ */
+public class QueryProfilerIndexSearcher extends IndexSearcher {
+
+  private final QueryProfilerTree profiler = new QueryProfilerTree();
+  private final QueryProfilerTimer rewriteTimer = new QueryProfilerTimer();
+
+  /** Creates a searcher that profiles queries that run against {@code reader}. */
+  public QueryProfilerIndexSearcher(IndexReader reader) {
+    super(reader);
+  }
+
+  /** Creates a searcher that profiles queries that run against {@code reader},
+   *  searching segments concurrently with {@code executor}. */
+  public QueryProfilerIndexSearcher(IndexReader reader, Executor executor) {
+    super(reader, executor);
+  }
+
+  @Override
+  public Query rewrite(Query original) throws IOException {
+    rewriteTimer.start();
+    try {
+      return super.rewrite(original);
+    } finally {
+      rewriteTimer.stop();
+    }
+  }
+
+  @Override
+  public Weight createWeight(Query query, ScoreMode scoreMode, float boost) throws IOException {
+    // createWeight() is called for each query in the tree, so we let the
+    // profiler know we are starting a new query, and the children it creates
+    // become its children in the profile tree
+    final QueryProfilerBreakdown profile = profiler.getProfileBreakdown(query);
+    final QueryProfilerTimer timer = profile.getTimer(QueryProfilerTimingType.CREATE_WEIGHT);
+    final Weight weight;
+    timer.start();
+    try {
+      weight = super.createWeight(query, scoreMode, boost);
+    } finally {
+      timer.stop();
+      profiler.pollLast();
+    }
+    return new QueryProfilerWeight(weight, profile);
+  }
+
+  /** Returns the total time spent rewriting queries, in nanoseconds. */
+  public long getRewriteTimeNanos() {
+    return rewriteTimer.getTimeNanos();
+  }
+
+  /** Returns the profiling results of the queries that were run by this searcher,
+   *  one root per call to {@link #createWeight} for a top-level query. */
+  public List<QueryProfilerResult> getProfileResult() {
+    return profiler.getTree();
+  }
+}
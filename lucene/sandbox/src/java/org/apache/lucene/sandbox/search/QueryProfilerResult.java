@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.sandbox.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Profiling information of a node of the query tree, and of its children.
+ * Timings are in nanoseconds and include the time spent in children, and
+ * allocations are in bytes.
+ *
+ * @lucene.experimental
+ */
+public class QueryProfilerResult {
+
+  private final String type;
+  private final String description;
+  private final Map<String, Long> breakdown;
+  private final Map<Integer, Map<String, Long>> segmentBreakdowns;
+  private final long totalTime;
+  private final List<QueryProfilerResult> children;
+
+  public QueryProfilerResult(String type, String description, Map<String, Long> breakdown,
+      Map<Integer, Map<String, Long>> segmentBreakdowns, long totalTime, List<QueryProfilerResult> children) {
+    this.type = Objects.requireNonNull(type);
+    this.description = Objects.requireNonNull(description);
+    this.breakdown = Objects.requireNonNull(breakdown);
+    this.segmentBreakdowns = Objects.requireNonNull(segmentBreakdowns);
+    this.totalTime = totalTime;
+    this.children = Objects.requireNonNull(children);
+  }
+
+  /** Retrieve the type of the query, e.g. {@code TermQuery}. */
+  public String getQueryType() {
+    return type;
+  }
+
+  /** Retrieve the {@code toString()} of the query. */
+  public String getLuceneDescription() {
+    return description;
+  }
+
+  /**
+   * Retrieve the timings of each {@link QueryProfilerTimingType} across all
+   * segments. For every type, the map has the total time under
+   * {@code type.toString()}, the number of calls under {@code type + "_count"}
+   * and, if {@link QueryProfilerTimer#isAllocationTrackingSupported() supported},
+   * the number of allocated bytes under {@code type + "_allocated_bytes"}.
+   */
+  public Map<String, Long> getTimeBreakdown() {
+    return breakdown;
+  }
+
+  /** Same as {@link #getTimeBreakdown()}, for per-segment operations only
+   *  and keyed by the ord of the segment. */
+  public Map<Integer, Map<String, Long>> getSegmentTimeBreakdowns() {
+    return segmentBreakdowns;
+  }
+
+  /** Returns the total time spent in this query, in nanoseconds. */
+  public long getTimeNanos() {
+    return totalTime;
+  }
+
+  /** Returns the profiling results of the sub queries. */
+  public List<QueryProfilerResult> getProfiledChildren() {
+    return children;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    toString(builder, 0);
+    return builder.toString();
+  }
+
+  private void toString(StringBuilder builder, int depth) {
+    for (int i = 0; i < depth; ++i) {
+      builder.append("  ");
+    }
+    builder.append(type).append(" [").append(description).append("] time=").append(totalTime).append("ns ")
+        .append(breakdown).append('\n');
+    for (QueryProfilerResult child : children) {
+      child.toString(builder, depth + 1);
+    }
+  }
+}
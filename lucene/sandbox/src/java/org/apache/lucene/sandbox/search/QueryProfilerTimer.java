@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.sandbox.search;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Measures the time spent and the bytes allocated by an operation, as well as
+ * the number of times it was called. A timer must only be used by a single
+ * thread at a time. Nested calls are only measured once, by the outermost
+ * {@link #start()}/{@link #stop()} pair.
+ *
+ * @lucene.experimental
+ */
+public final class QueryProfilerTimer {
+
+  /** Returns the number of bytes allocated by the current thread so far, or null if this JVM can't tell. */
+  private static final MethodHandle THREAD_ALLOCATED_BYTES;
+
+  static {
+    MethodHandle threadAllocatedBytes = null;
+    try {
+      // com.sun.management.ThreadMXBean is not available on all JVMs, so we look it up reflectively
+      final Class<?> beanClazz = Class.forName("com.sun.management.ThreadMXBean");
+      final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (beanClazz.isInstance(bean)
+          && (Boolean) beanClazz.getMethod("isThreadAllocatedMemorySupported").invoke(bean)
+          && (Boolean) beanClazz.getMethod("isThreadAllocatedMemoryEnabled").invoke(bean)) {
+        final Method method = beanClazz.getMethod("getThreadAllocatedBytes", long.class);
+        threadAllocatedBytes = MethodHandles.publicLookup().unreflect(method).bindTo(bean);
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // allocations are not tracked
+    }
+    THREAD_ALLOCATED_BYTES = threadAllocatedBytes;
+  }
+
+  /** Whether this JVM makes it possible to track allocated bytes. */
+  public static boolean isAllocationTrackingSupported() {
+    return THREAD_ALLOCATED_BYTES != null;
+  }
+
+  private static long threadAllocatedBytes() {
+    if (THREAD_ALLOCATED_BYTES == null) {
+      return 0;
+    }
+    try {
+      return (long) THREAD_ALLOCATED_BYTES.invokeExact(Thread.currentThread().getId());
+    } catch (Throwable t) {
+      throw new AssertionError(t);
+    }
+  }
+
+  private int depth;
+  private long start, startAllocatedBytes;
+  private long timeNanos, allocatedBytes, count;
+
+  /** Start measuring an operation. */
+  public void start() {
+    if (depth++ == 0) {
+      startAllocatedBytes = threadAllocatedBytes();
+      start = System.nanoTime();
+    }
+  }
+
+  /** Stop measuring the current operation. */
+  public void stop() {
+    assert depth > 0 : "stop() called without start()";
+    if (--depth == 0) {
+      // make sure that every call is visible in the total time, even on coarse clocks
+      timeNanos += Math.max(System.nanoTime() - start, 1L);
+      allocatedBytes += threadAllocatedBytes() - startAllocatedBytes;
+      count++;
+    }
+  }
+
+  /** Return the total time spent in this operation, in nanoseconds. */
+  public long getTimeNanos() {
+    return timeNanos;
+  }
+
+  /** Return the total number of bytes allocated by this operation, always 0 if
+   *  {@link #isAllocationTrackingSupported() allocation tracking is not supported}. */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /** Return the number of times this operation was measured. */
+  public long getCount() {
+    return count;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.sandbox.search;
+
+import java.util.Locale;
+
+/**
+ * Operations that {@link QueryProfilerIndexSearcher} measures.
+ *
+ * @lucene.experimental
+ */
+public enum QueryProfilerTimingType {
+  /** {@link org.apache.lucene.search.IndexSearcher#createWeight}. */
+  CREATE_WEIGHT,
+  /** Creation of scorers, scorer suppliers and bulk scorers. */
+  BUILD_SCORER,
+  /** {@link org.apache.lucene.search.DocIdSetIterator#nextDoc()}. */
+  NEXT_DOC,
+  /** {@link org.apache.lucene.search.DocIdSetIterator#advance(int)}. */
+  ADVANCE,
+  /** {@link org.apache.lucene.search.TwoPhaseIterator#matches()}. */
+  MATCH,
+  /** {@link org.apache.lucene.search.Scorer#score()}. */
+  SCORE,
+  /** {@link org.apache.lucene.search.Scorer#advanceShallow(int)}. */
+  SHALLOW_ADVANCE,
+  /** {@link org.apache.lucene.search.Scorer#getMaxScore(int)}. */
+  COMPUTE_MAX_SCORE,
+  /** {@link org.apache.lucene.search.Scorer#setMinCompetitiveScore(float)}. */
+  SET_MIN_COMPETITIVE_SCORE,
+  /** {@link org.apache.lucene.search.BulkScorer#score}, which includes collection. */
+  BULK_SCORE,
+  /** Collection of the hits of a bulk scorer, by the top-level collector or a parent query. */
+  COLLECT;
+
+  @Override
+  public String toString() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
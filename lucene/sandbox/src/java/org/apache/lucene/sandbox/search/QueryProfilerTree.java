@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.sandbox.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.lucene.search.Query;
+
+/**
+ * Builds the tree of profiled queries, using the nesting of calls to
+ * {@link org.apache.lucene.search.IndexSearcher#createWeight} to find out
+ * parent/child relationships.
+ */
+final class QueryProfilerTree {
+
+  private static final class Node {
+    final Query query;
+    final QueryProfilerBreakdown breakdown = new QueryProfilerBreakdown();
+    final List<Node> children = new ArrayList<>();
+
+    Node(Query query) {
+      this.query = query;
+    }
+  }
+
+  private final List<Node> roots = new ArrayList<>();
+  private final Deque<Node> stack = new ArrayDeque<>();
+
+  /** Return a new breakdown for {@code query}, which is a child of the last
+   *  query whose breakdown was returned and that hasn't been {@link #pollLast() polled} yet. */
+  QueryProfilerBreakdown getProfileBreakdown(Query query) {
+    final Node node = new Node(query);
+    final Node parent = stack.peekLast();
+    if (parent == null) {
+      roots.add(node);
+    } else {
+      parent.children.add(node);
+    }
+    stack.addLast(node);
+    return node.breakdown;
+  }
+
+  /** Signal that the weight of the last query has been created. */
+  void pollLast() {
+    stack.pollLast();
+  }
+
+  /** Return the profiling results of all root queries. */
+  List<QueryProfilerResult> getTree() {
+    final List<QueryProfilerResult> results = new ArrayList<>(roots.size());
+    for (Node root : roots) {
+      results.add(toResult(root));
+    }
+    return Collections.unmodifiableList(results);
+  }
+
+  private static QueryProfilerResult toResult(Node node) {
+    final List<QueryProfilerResult> children = new ArrayList<>(node.children.size());
+    for (Node child : node.children) {
+      children.add(toResult(child));
+    }
+    return new QueryProfilerResult(
+        node.query.getClass().getSimpleName(),
+        node.query.toString(),
+        node.breakdown.toBreakdownMap(),
+        node.breakdown.toSegmentBreakdownMaps(),
+        node.breakdown.toTotalTime(),
+        Collections.unmodifiableList(children));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.sandbox.search;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.Matches;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Weight;
+
+/**
+ * {@link Weight} wrapper that measures the creation of scorers, and returns
+ * profiled {@link Scorer}s and {@link BulkScorer}s.
+ */
+final class QueryProfilerWeight extends Weight {
+
+  private final Weight subQueryWeight;
+  private final QueryProfilerBreakdown profile;
+
+  QueryProfilerWeight(Weight subQueryWeight, QueryProfilerBreakdown profile) {
+    super(subQueryWeight.getQuery());
+    this.subQueryWeight = subQueryWeight;
+    this.profile = profile;
+  }
+
+  @Override
+  public Scorer scorer(LeafReaderContext context) throws IOException {
+    ScorerSupplier supplier = scorerSupplier(context);
+    if (supplier == null) {
+      return null;
+    }
+    return supplier.get(Long.MAX_VALUE);
+  }
+
+  @Override
+  public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+    final QueryProfilerBreakdown.Timings timings = profile.newLeafTimings(context);
+    final QueryProfilerTimer timer = timings.getTimer(QueryProfilerTimingType.BUILD_SCORER);
+    final ScorerSupplier subQueryScorerSupplier;
+    timer.start();
+    try {
+      subQueryScorerSupplier = subQueryWeight.scorerSupplier(context);
+    } finally {
+      timer.stop();
+    }
+    if (subQueryScorerSupplier == null) {
+      return null;
+    }
+
+    final QueryProfilerWeight weight = this;
+    return new ScorerSupplier() {
+
+      @Override
+      public Scorer get(long leadCost) throws IOException {
+        timer.start();
+        try {
+          return new QueryProfilerScorer(weight, subQueryScorerSupplier.get(leadCost), timings);
+        } finally {
+          timer.stop();
+        }
+      }
+
+      @Override
+      public long cost() {
+        timer.start();
+        try {
+          return subQueryScorerSupplier.cost();
+        } finally {
+          timer.stop();
+        }
+      }
+    };
+  }
+
+  @Override
+  public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
+    // use the bulk scorer of the wrapped weight, which may be specialized, e.g. for disjunctions
+    final QueryProfilerBreakdown.Timings timings = profile.newLeafTimings(context);
+    final QueryProfilerTimer timer = timings.getTimer(QueryProfilerTimingType.BUILD_SCORER);
+    final BulkScorer bulkScorer;
+    timer.start();
+    try {
+      bulkScorer = subQueryWeight.bulkScorer(context);
+    } finally {
+      timer.stop();
+    }
+    if (bulkScorer == null) {
+      return null;
+    }
+    return new QueryProfilerBulkScorer(bulkScorer, timings);
+  }
+
+  @Override
+  public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+    return subQueryWeight.explain(context, doc);
+  }
+
+  @Override
+  public Matches matches(LeafReaderContext context, int doc) throws IOException {
+    return subQueryWeight.matches(context, doc);
+  }
+
+  @Override
+  public boolean isCacheable(LeafReaderContext ctx) {
+    return subQueryWeight.isCacheable(ctx);
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.sandbox.search;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CheckHits;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestQueryProfilerIndexSearcher extends LuceneTestCase {
+
+  private Directory dir;
+  private IndexReader reader;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("foo", random().nextBoolean() ? "bar" : "baz", Store.NO));
+      doc.add(new StringField("quux", random().nextBoolean() ? "a" : "b", Store.NO));
+      w.addDocument(doc);
+    }
+    reader = w.getReader();
+    w.close();
+  }
+
+  @Override
+  public void tearDown() throws Exception {
+    reader.close();
+    dir.close();
+    super.tearDown();
+  }
+
+  public void testBasics() throws IOException {
+    QueryProfilerIndexSearcher searcher = new QueryProfilerIndexSearcher(reader);
+    searcher.setQueryCache(null);
+    Query query = new TermQuery(new Term("foo", "bar"));
+    TopDocs topDocs = searcher.search(query, 10);
+    CheckHits.checkEqual(query, new IndexSearcher(reader).search(query, 10).scoreDocs, topDocs.scoreDocs);
+
+    List<QueryProfilerResult> results = searcher.getProfileResult();
+    assertEquals(1, results.size());
+    QueryProfilerResult result = results.get(0);
+    assertEquals("TermQuery", result.getQueryType());
+    assertEquals("foo:bar", result.getLuceneDescription());
+    assertTrue(result.getProfiledChildren().isEmpty());
+    assertTrue(result.getTimeNanos() > 0);
+
+    Map<String, Long> breakdown = result.getTimeBreakdown();
+    assertEquals(1L, (long) breakdown.get("create_weight_count"));
+    assertTrue(breakdown.get("create_weight") > 0);
+    assertTrue(breakdown.get("build_scorer_count") > 0);
+    assertTrue(breakdown.get("next_doc_count") + breakdown.get("advance_count") + breakdown.get("bulk_score_count") > 0);
+    if (QueryProfilerTimer.isAllocationTrackingSupported()) {
+      assertNotNull(breakdown.get("create_weight_allocated_bytes"));
+    } else {
+      assertNull(breakdown.get("create_weight_allocated_bytes"));
+    }
+
+    // create_weight doesn't run on a specific segment
+    for (Map.Entry<Integer, Map<String, Long>> entry : result.getSegmentTimeBreakdowns().entrySet()) {
+      assertTrue(entry.getKey() < reader.leaves().size());
+      assertEquals(0L, (long) entry.getValue().get("create_weight_count"));
+    }
+  }
+
+  public void testTree() throws IOException {
+    QueryProfilerIndexSearcher searcher = new QueryProfilerIndexSearcher(reader);
+    searcher.setQueryCache(null);
+    Query query = new BooleanQuery.Builder()
+        .add(new TermQuery(new Term("foo", "bar")), Occur.SHOULD)
+        .add(new TermQuery(new Term("foo", "baz")), Occur.SHOULD)
+        .add(new TermQuery(new Term("quux", "a")), Occur.FILTER)
+        .build();
+    TopDocs topDocs = searcher.search(query, 10);
+    CheckHits.checkEqual(query, new IndexSearcher(reader).search(query, 10).scoreDocs, topDocs.scoreDocs);
+    assertEquals(searcher.count(query), new IndexSearcher(reader).count(query));
+
+    List<QueryProfilerResult> results = searcher.getProfileResult();
+    assertEquals(2, results.size()); // search + count
+    for (QueryProfilerResult result : results) {
+      assertEquals("BooleanQuery", result.getQueryType());
+      List<QueryProfilerResult> children = result.getProfiledChildren();
+      assertEquals(3, children.size());
+      assertEquals("foo:bar", children.get(0).getLuceneDescription());
+      assertEquals("foo:baz", children.get(1).getLuceneDescription());
+      assertEquals("quux:a", children.get(2).getLuceneDescription());
+      for (QueryProfilerResult child : children) {
+        assertEquals(1L, (long) child.getTimeBreakdown().get("create_weight_count"));
+        // children are created while the parent weight is being created
+        assertTrue(child.getTimeBreakdown().get("create_weight") <= result.getTimeBreakdown().get("create_weight"));
+      }
+    }
+    assertTrue(searcher.getRewriteTimeNanos() > 0);
+  }
+}
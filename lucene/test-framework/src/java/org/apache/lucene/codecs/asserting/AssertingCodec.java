@@ -41,6 +41,22 @@ public class AssertingCodec extends FilterCodec {
     }
   }
 
+  /**
+   * Merge instances are acquired by the thread that runs the merge but may be handed over to a thread
+   * of the intra-merge executor, so they are bound to the first thread that consumes them instead.
+   * Returns the thread that the merge instance is bound to.
+   */
+  static Thread assertMergeThread(String object, Thread consumerThread) {
+    if (consumerThread == null) {
+      return Thread.currentThread();
+    }
+    if (consumerThread != Thread.currentThread()) {
+      throw new AssertionError(object + " merge instances are only supposed to be consumed by a single "
+          + "thread. But were consumed in " + consumerThread + " and " + Thread.currentThread() + ".");
+    }
+    return consumerThread;
+  }
+
   private final PostingsFormat postings = new PerFieldPostingsFormat() {
     @Override
     public PostingsFormat getPostingsFormatForField(String field) {
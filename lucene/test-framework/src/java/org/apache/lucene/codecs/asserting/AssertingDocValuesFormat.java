@@ -24,6 +24,7 @@ import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.index.AssertingLeafReader;
 import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValuesSkipper;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.NumericDocValues;
@@ -220,13 +221,12 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     private final DocValuesProducer in;
     private final int maxDoc;
     private final boolean merging;
-    private final Thread creationThread;
+    private Thread consumerThread;
     
     AssertingDocValuesProducer(DocValuesProducer in, int maxDoc, boolean merging) {
       this.in = in;
       this.maxDoc = maxDoc;
       this.merging = merging;
-      this.creationThread = Thread.currentThread();
       // do a few simple checks on init
       assert toString() != null;
       assert ramBytesUsed() >= 0;
@@ -236,7 +236,7 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public NumericDocValues getNumeric(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        consumerThread = AssertingCodec.assertMergeThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.NUMERIC;
       NumericDocValues values = in.getNumeric(field);
@@ -247,7 +247,7 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public BinaryDocValues getBinary(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        consumerThread = AssertingCodec.assertMergeThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.BINARY;
       BinaryDocValues values = in.getBinary(field);
@@ -258,7 +258,7 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public SortedDocValues getSorted(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        consumerThread = AssertingCodec.assertMergeThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.SORTED;
       SortedDocValues values = in.getSorted(field);
@@ -269,7 +269,7 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public SortedNumericDocValues getSortedNumeric(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        consumerThread = AssertingCodec.assertMergeThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.SORTED_NUMERIC;
       SortedNumericDocValues values = in.getSortedNumeric(field);
@@ -280,13 +280,22 @@ public class AssertingDocValuesFormat extends DocValuesFormat {
     @Override
     public SortedSetDocValues getSortedSet(FieldInfo field) throws IOException {
       if (merging) {
-        AssertingCodec.assertThread("DocValuesProducer", creationThread);
+        consumerThread = AssertingCodec.assertMergeThread("DocValuesProducer", consumerThread);
       }
       assert field.getDocValuesType() == DocValuesType.SORTED_SET;
       SortedSetDocValues values = in.getSortedSet(field);
       assert values != null;
       return new AssertingLeafReader.AssertingSortedSetDocValues(values, maxDoc);
     }
+
+    @Override
+    public DocValuesSkipper getSkipper(FieldInfo field) throws IOException {
+      if (merging) {
+        consumerThread = AssertingCodec.assertMergeThread("DocValuesProducer", consumerThread);
+      }
+      assert field.getDocValuesType() != DocValuesType.NONE;
+      return in.getSkipper(field);
+    }
     
     @Override
     public void close() throws IOException {
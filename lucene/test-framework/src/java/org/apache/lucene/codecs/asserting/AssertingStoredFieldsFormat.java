@@ -26,6 +26,7 @@ import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
@@ -43,6 +44,11 @@ public class AssertingStoredFieldsFormat extends StoredFieldsFormat {
     return new AssertingStoredFieldsReader(in.fieldsReader(directory, si, fn, context), si.maxDoc(), false);
   }
 
+  @Override
+  public StoredFieldsReader fieldsReader(SegmentReadState state) throws IOException {
+    return new AssertingStoredFieldsReader(in.fieldsReader(state), state.segmentInfo.maxDoc(), false);
+  }
+
   @Override
   public StoredFieldsWriter fieldsWriter(Directory directory, SegmentInfo si, IOContext context) throws IOException {
     return new AssertingStoredFieldsWriter(in.fieldsWriter(directory, si, context));
@@ -52,13 +58,13 @@ public class AssertingStoredFieldsFormat extends StoredFieldsFormat {
     private final StoredFieldsReader in;
     private final int maxDoc;
     private final boolean merging;
-    private final Thread creationThread;
+    private Thread creationThread;
     
     AssertingStoredFieldsReader(StoredFieldsReader in, int maxDoc, boolean merging) {
       this.in = in;
       this.maxDoc = maxDoc;
       this.merging = merging;
-      this.creationThread = Thread.currentThread();
+      this.creationThread = merging ? null : Thread.currentThread();
       // do a few simple checks on init
       assert toString() != null;
       assert ramBytesUsed() >= 0;
@@ -73,11 +79,22 @@ public class AssertingStoredFieldsFormat extends StoredFieldsFormat {
 
     @Override
     public void visitDocument(int n, StoredFieldVisitor visitor) throws IOException {
-      AssertingCodec.assertThread("StoredFieldsReader", creationThread);
+      if (merging) {
+        creationThread = AssertingCodec.assertMergeThread("StoredFieldsReader", creationThread);
+      } else {
+        AssertingCodec.assertThread("StoredFieldsReader", creationThread);
+      }
       assert n >= 0 && n < maxDoc;
       in.visitDocument(n, visitor);
     }
 
+    @Override
+    public void prefetch(int n) throws IOException {
+      AssertingCodec.assertThread("StoredFieldsReader", creationThread);
+      assert n >= 0 && n < maxDoc;
+      in.prefetch(n);
+    }
+
     @Override
     public StoredFieldsReader clone() {
       assert merging == false : "Merge instances do not support cloning";
@@ -219,6 +219,13 @@ public class AssertingLeafReader extends FilterLeafReader {
       return new AssertingImpactsEnum(super.impacts(flags));
     }
 
+    @Override
+    public void prefetchPostings() throws IOException {
+      assertThread("Terms enums", creationThread);
+      assert state == State.POSITIONED: "prefetchPostings() called on unpositioned TermsEnum";
+      super.prefetchPostings();
+    }
+
     // TODO: we should separately track if we are 'at the end' ?
     // someone should not call next() after it returns null!!!!
     @Override
@@ -276,6 +276,43 @@ public abstract class BasePostingsFormatTestCase extends BaseIndexFileFormatTest
   
   // tests that ghost fields still work
   // TODO: can this be improved?
+  public void testPrefetchPostings() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(getCodec());
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir, iwc);
+    final int numDocs = atLeast(300);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      // terms that match a single doc, a few docs and most docs
+      doc.add(newTextField("field", "unique" + i + " few" + (i % 50) + " many" + (i % 2), Field.Store.NO));
+      iw.addDocument(doc);
+    }
+    DirectoryReader ir = iw.getReader();
+    for (LeafReaderContext context : ir.leaves()) {
+      Terms terms = context.reader().terms("field");
+      // hint all terms before consuming any of them
+      TermsEnum termsEnum = terms.iterator();
+      for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+        termsEnum.prefetchPostings();
+      }
+      termsEnum = terms.iterator();
+      PostingsEnum postings = null;
+      for (BytesRef term = termsEnum.next(); term != null; term = termsEnum.next()) {
+        postings = termsEnum.postings(postings, PostingsEnum.FREQS);
+        int count = 0;
+        while (postings.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+          assertEquals(1, postings.freq());
+          count++;
+        }
+        assertEquals(termsEnum.docFreq(), count);
+      }
+    }
+    ir.close();
+    iw.close();
+    dir.close();
+  }
+
   public void testGhosts() throws Exception {
     Directory dir = newDirectory();
     IndexWriterConfig iwc = newIndexWriterConfig(null);
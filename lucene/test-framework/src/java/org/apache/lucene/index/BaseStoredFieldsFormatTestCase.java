@@ -31,6 +31,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.StoredFieldsFormat;
+import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.simpletext.SimpleTextCodec;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
@@ -204,6 +205,64 @@ public abstract class BaseStoredFieldsFormatTestCase extends BaseIndexFileFormat
     d.close();
   }
   
+  public void testPrefetch() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriter w = new IndexWriter(dir, newIndexWriterConfig(new MockAnalyzer(random())));
+    final int numDocs = atLeast(200);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StoredField("id", i));
+      doc.add(new StoredField("text", TestUtil.randomSimpleString(random(), 100)));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    w.close();
+
+    DirectoryReader ir = DirectoryReader.open(dir);
+    CodecReader reader = (CodecReader) getOnlyLeafReader(ir);
+    StoredFieldsReader fieldsReader = reader.getFieldsReader();
+    int[] docs = new int[TestUtil.nextInt(random(), 1, 50)];
+    for (int i = 0; i < docs.length; i++) {
+      docs[i] = random().nextInt(numDocs);
+      fieldsReader.prefetch(docs[i]);
+    }
+    for (int docID : docs) {
+      DocumentStoredFieldVisitor visitor = new DocumentStoredFieldVisitor();
+      fieldsReader.visitDocument(docID, visitor);
+      assertEquals(docID, visitor.getDocument().getField("id").numericValue().intValue());
+    }
+    ir.close();
+    dir.close();
+  }
+
+  public void testPrefetchDocument() throws IOException {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(200);
+    final String[] texts = new String[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      texts[i] = TestUtil.randomSimpleString(random(), 100);
+      doc.add(new StoredField("id", i));
+      doc.add(new StoredField("text", texts[i]));
+      w.addDocument(doc);
+    }
+    DirectoryReader ir = w.getReader();
+    w.close();
+
+    int[] docs = new int[TestUtil.nextInt(random(), 1, 50)];
+    for (int i = 0; i < docs.length; i++) {
+      docs[i] = random().nextInt(numDocs);
+      ir.prefetchDocument(docs[i]);
+    }
+    for (int docID : docs) {
+      Document doc = ir.document(docID);
+      assertEquals(texts[doc.getField("id").numericValue().intValue()], doc.get("text"));
+    }
+    ir.close();
+    dir.close();
+  }
+
   // LUCENE-1219
   public void testBinaryFieldOffsetLength() throws IOException {
     Directory dir = newDirectory();
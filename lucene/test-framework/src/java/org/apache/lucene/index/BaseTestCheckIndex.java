@@ -148,6 +148,53 @@ public class BaseTestCheckIndex extends LuceneTestCase {
     analyzer.close();
   }
   
+  public void testThreadCount(Directory dir) throws IOException {
+    LineFileDocs lf = new LineFileDocs(random());
+    MockAnalyzer analyzer = new MockAnalyzer(random());
+    IndexWriter iw = new IndexWriter(dir, newIndexWriterConfig(analyzer)
+                                            .setMaxBufferedDocs(TestUtil.nextInt(random(), 10, 30))
+                                            .setMergePolicy(NoMergePolicy.INSTANCE));
+    for (int i = 0; i < 200; i++) {
+      iw.addDocument(lf.nextDoc());
+      if (random().nextInt(10) == 0) {
+        iw.deleteDocuments(new Term("docid", Integer.toString(random().nextInt(i + 1))));
+      }
+    }
+    iw.commit();
+    iw.close();
+    lf.close();
+
+    CheckIndex checker = new CheckIndex(dir);
+    ByteArrayOutputStream sequentialBytes = new ByteArrayOutputStream(1024);
+    checker.setInfoStream(new PrintStream(sequentialBytes, true, IOUtils.UTF_8));
+    CheckIndex.Status sequentialStatus = checker.checkIndex();
+    assertTrue(sequentialStatus.clean);
+
+    ByteArrayOutputStream concurrentBytes = new ByteArrayOutputStream(1024);
+    checker.setInfoStream(new PrintStream(concurrentBytes, true, IOUtils.UTF_8));
+    checker.setThreadCount(TestUtil.nextInt(random(), 2, 8));
+    CheckIndex.Status concurrentStatus = checker.checkIndex();
+    assertTrue(concurrentStatus.clean);
+    checker.close();
+    analyzer.close();
+
+    assertEquals(sequentialStatus.segmentInfos.size(), concurrentStatus.segmentInfos.size());
+    for (int i = 0; i < sequentialStatus.segmentInfos.size(); i++) {
+      CheckIndex.Status.SegmentInfoStatus expected = sequentialStatus.segmentInfos.get(i);
+      CheckIndex.Status.SegmentInfoStatus actual = concurrentStatus.segmentInfos.get(i);
+      assertEquals(expected.name, actual.name);
+      assertNull(actual.error);
+      assertEquals(expected.termIndexStatus.termCount, actual.termIndexStatus.termCount);
+      assertEquals(expected.storedFieldStatus.totFields, actual.storedFieldStatus.totFields);
+    }
+    assertEquals(sequentialStatus.newSegments.size(), concurrentStatus.newSegments.size());
+
+    // the output is printed in the same order, only timings differ
+    String timings = "(?i)took [0-9.,]+ sec";
+    assertEquals(sequentialBytes.toString(IOUtils.UTF_8).replaceAll(timings, "took X sec"),
+                 concurrentBytes.toString(IOUtils.UTF_8).replaceAll(timings, "took X sec"));
+  }
+
   public void testObtainsLock(Directory dir) throws IOException {
     IndexWriter iw = new IndexWriter(dir, newIndexWriterConfig(null));
     iw.addDocument(new Document());
@@ -17,13 +17,11 @@
 package org.apache.lucene.search;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexReaderContext;
-import org.apache.lucene.index.LeafReaderContext;
 
 /**
  * Helper class that adds some extra checks to ensure correct
@@ -67,9 +65,9 @@ public class AssertingIndexSearcher extends IndexSearcher {
   }
 
   @Override
-  protected void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
+  protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector) throws IOException {
     assert weight instanceof AssertingWeight;
-    super.search(leaves, weight, AssertingCollector.wrap(collector));
+    super.search(partitions, weight, AssertingCollector.wrap(collector));
   }
 
   @Override
@@ -17,7 +17,6 @@
 package org.apache.lucene.search;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.IndexReader;
@@ -43,8 +42,9 @@ public class ScorerIndexSearcher extends IndexSearcher {
   }
 
   @Override
-  protected void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
-    for (LeafReaderContext ctx : leaves) { // search each subreader
+  protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector) throws IOException {
+    for (LeafReaderContextPartition partition : partitions) { // search each partition
+      final LeafReaderContext ctx = partition.ctx;
       // we force the use of Scorer (not BulkScorer) to make sure
       // that the scorer passed to LeafCollector.setScorer supports
       // Scorer.getChildren
@@ -54,7 +54,7 @@ public class ScorerIndexSearcher extends IndexSearcher {
         final LeafCollector leafCollector = collector.getLeafCollector(ctx);
         leafCollector.setScorer(scorer);
         final Bits liveDocs = ctx.reader().getLiveDocs();
-        for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+        for (int doc = iterator.advance(partition.minDocId); doc < partition.maxDocId; doc = iterator.nextDoc()) {
           if (liveDocs == null || liveDocs.get(doc)) {
             leafCollector.collect(doc);
           }
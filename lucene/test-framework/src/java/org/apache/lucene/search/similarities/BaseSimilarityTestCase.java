@@ -362,6 +362,13 @@ public abstract class BaseSimilarityTestCase extends LuceneTestCase {
       if (rarely()) {
         CheckHits.verifyExplanation("<test query>", 0, score, true, explanation);
       }
+      // check batch scoring matches
+      if (freq == (int) freq) {
+        float[] scores = new float[2];
+        scorer.score(new int[] { (int) freq, (int) freq }, new long[] { norm, norm }, scores, 1);
+        assertEquals(score, scores[0], 0f);
+        assertEquals(0f, scores[1], 0f);
+      }
       
       // check score(freq-1), given the same norm it should be <= score(freq) [scores non-decreasing for more term occurrences]
       final float prevFreq;
@@ -610,6 +610,41 @@ public abstract class BaseDirectoryTestCase extends LuceneTestCase {
     }
   }
 
+  public void testPrefetch() throws Exception {
+    try (Directory dir = getDirectory(createTempDir("testPrefetch"))) {
+      final int len = random().nextInt(1 << 16) + 8;
+      final byte[] bytes = new byte[len];
+      random().nextBytes(bytes);
+      try (IndexOutput o = dir.createOutput("out", newIOContext(random()))) {
+        o.writeBytes(bytes, 0, len);
+      }
+      try (IndexInput i = dir.openInput("out", newIOContext(random()))) {
+        final int pos = random().nextInt(len);
+        i.seek(pos);
+        final int offset = random().nextInt(len);
+        i.prefetch(offset, random().nextInt(len - offset + 1));
+        // hints don't move the file pointer
+        assertEquals(pos, i.getFilePointer());
+        assertEquals(bytes[pos], i.readByte());
+
+        expectThrows(IllegalArgumentException.class, () -> {
+          i.prefetch(0, len + 1);
+        });
+        expectThrows(IllegalArgumentException.class, () -> {
+          i.prefetch(-1, 1);
+        });
+
+        final IndexInput slice = i.slice("slice", 4, len / 2);
+        slice.prefetch(0, len / 2);
+        assertEquals(0, slice.getFilePointer());
+        assertEquals(bytes[4], slice.readByte());
+        expectThrows(IllegalArgumentException.class, () -> {
+          slice.prefetch(1, len / 2);
+        });
+      }
+    }
+  }
+
   // LUCENE-3382 -- make sure we get exception if the directory really does not exist.
   public void testNoDir() throws Throwable {
     Path tempDir = createTempDir("doesnotexist");